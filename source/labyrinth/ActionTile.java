@@ -9,6 +9,8 @@ import java.io.Serializable;
  * @version 1.0
  */
 public class ActionTile extends Tile implements Serializable {
+	// Fixed to the value older versions of the game had, so saves they wrote can still be loaded
+	private static final long serialVersionUID = 1435847399007551443L;
 
 	/**
 	 * Represents the different types of action tiles available in the game.
@@ -1,17 +1,90 @@
 package source.labyrinth;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Random;
 
 /**
  * The Board class will store the layout and state of the current game.
  * @author Fillip Serov
  */
 public class Board implements Serializable {
+	// Fixed to the value older versions of the game had, so saves they wrote can still be loaded
+	private static final long serialVersionUID = 8353628836919255969L;
+
+	public static final int MAX_PLAYERS = 4;
+
 	private FloorTile[][] board;
+	// The start of every players turn will add one to this. Fire and ice last until currentTime + a number of full loops
+	private int currentTime;
+	// The amount of "time" it takes for all players to complete one turn. (i.e. 3 players = 3)
+	private int timeForFullLoop;
+	// Tells the Board when fire and ice run out. Rebuilt from the tiles when a Board is loaded.
+	private transient EffectScheduler effects;
 
+	// How many permanently fixed / currently frozen tiles every column and row holds. A row or column can only be
+	// inserted into while both of its counts are 0. Rebuilt from the tiles when a Board is loaded.
+	private transient int[] fixedInColumn;
+	private transient int[] fixedInRow;
+	private transient int[] frozenInColumn;
+	private transient int[] frozenInRow;
+	// (x, y) of every frozen tile counted above by the tile, so they can be uncounted when they thaw
+	private transient IdentityHashMap<FloorTile, int[]> frozenTiles;
+	// (x, y) of every player on the board, indexed by their id in game. null if the player is not on the board.
+	private transient int[][] playerPositions;
+
+	/**
+	 * Create an empty Board.
+	 * @param width Width of the board
+	 * @param height Height of the board
+	 */
 	public Board(int width, int height) {
 		this.board = new FloorTile[width][height];
+		this.currentTime = 0;
+		this.timeForFullLoop = 1;
+		this.effects = new EffectScheduler(currentTime);
+		this.playerPositions = new int[MAX_PLAYERS][];
+		recountFixedTiles();
+	}
+
+	/**
+	 * Get the current game time as an int. Will always be above 0.
+	 * @return int representing the game time.
+	 */
+	public int getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * Get the amount of time it takes for all players to complete a turn in this specific game, as this will
+	 * change depending on the amount of players.
+	 * @return int showing the time it takes for all players to do a one turn.
+	 */
+	public int getTimeForFullLoop() {
+		return timeForFullLoop;
+	}
+
+	/**
+	 * Set the game clock, i.e. when starting or loading a game. Works out again which tiles are on fire or frozen.
+	 * @param currentTime Current game time
+	 * @param timeForFullLoop Time it takes for all players to do one turn, the amount of players
+	 */
+	public void setClock(int currentTime, int timeForFullLoop) {
+		this.currentTime = currentTime;
+		this.timeForFullLoop = timeForFullLoop;
+		scheduleEffects();
+		recountFixedTiles();
+	}
+
+	/**
+	 * Move the game clock on by one, at the start of every players turn. Any fire and ice running out now
+	 * is removed from its tile.
+	 */
+	public void advanceTime() {
+		currentTime++;
+		effects.advanceTo(currentTime, this::effectExpired);
 	}
 
 	/**
@@ -47,6 +120,8 @@ public class Board implements Serializable {
 				}
 			}
 			board = newBoard;
+			recountFixedTiles();
+			indexPlayers();
 		}
 	}
 
@@ -54,28 +129,41 @@ public class Board implements Serializable {
 	 * Get a Boolean array representing which way a player can move from a certain tile.
 	 * @param x X-position from where to calculate.
 	 * @param y Y-position from where to calculate
-	 * @return Boolean[] showing where movement is possible.
+	 * @return Boolean[] showing where movement is possible. The array is shared and must not be modified.
 	 */
 	public Boolean[] getMovableFrom(int x, int y) {
-		Boolean[] toReturn = {false, false, false, false};
+		return FloorTile.toMoveMask(getMovableBitsFrom(x, y));
+	}
 
-		Boolean[] atLocation = this.board[x][y].getMoveMask();
+	/**
+	 * Get the directions a player can move in from a certain tile as move bits. Does not allocate anything.
+	 * @param x X-position from where to calculate.
+	 * @param y Y-position from where to calculate
+	 * @return Move bits (FloorTile.NORTH, EAST, SOUTH, WEST) showing where movement is possible.
+	 */
+	public int getMovableBitsFrom(int x, int y) {
+		int atLocation = this.board[x][y].getMoveBits();
+		int toReturn = 0;
 
 		// Check north
-		if (y - 1 >= 0) {
-			toReturn[0] = atLocation[0] && this.board[x][y-1].getNeighbourMoveMask()[2];
+		if ((atLocation & FloorTile.NORTH) != 0 && y - 1 >= 0
+				&& (this.board[x][y - 1].getNeighbourMoveBits() & FloorTile.SOUTH) != 0) {
+			toReturn |= FloorTile.NORTH;
 		}
 		// Check east
-		if (x + 1 < getWidth()) {
-			toReturn[1] = atLocation[1] && this.board[x + 1][y].getNeighbourMoveMask()[3];
+		if ((atLocation & FloorTile.EAST) != 0 && x + 1 < getWidth()
+				&& (this.board[x + 1][y].getNeighbourMoveBits() & FloorTile.WEST) != 0) {
+			toReturn |= FloorTile.EAST;
 		}
 		// Check south
-		if (y + 1 < getHeight()) {
-			toReturn[2] = atLocation[2] && this.board[x][y + 1].getNeighbourMoveMask()[0];
+		if ((atLocation & FloorTile.SOUTH) != 0 && y + 1 < getHeight()
+				&& (this.board[x][y + 1].getNeighbourMoveBits() & FloorTile.NORTH) != 0) {
+			toReturn |= FloorTile.SOUTH;
 		}
 		// Check west
-		if (x - 1 >= 0) {
-			toReturn[3] = atLocation[3] && this.board[x - 1][y].getNeighbourMoveMask()[1];
+		if ((atLocation & FloorTile.WEST) != 0 && x - 1 >= 0
+				&& (this.board[x - 1][y].getNeighbourMoveBits() & FloorTile.EAST) != 0) {
+			toReturn |= FloorTile.WEST;
 		}
 
 		return toReturn;
@@ -90,30 +178,44 @@ public class Board implements Serializable {
 		Boolean[][] toReturn = new Boolean[2][];
 		toReturn[0] = new Boolean[getWidth()];
 		toReturn[1] = new Boolean[getHeight()];
-		Arrays.fill(toReturn[0], true);
-		Arrays.fill(toReturn[1], true);
 
-		// TODO: This is inefficient, once we know a row/column is fixed no other tiles there should be checked.
-		for (int x = 0; x < getWidth(); x++) {
-			for (int y = 0; y < getHeight(); y++) {
-				if (this.board[x][y].isCurrentlyFixed()) {
-					// If a tile is fixed, set both the relevant column and row to false
-					toReturn[0][x] = toReturn[1][y] = false;
-				}
-			}
+		// A fixed tile sets both the relevant column and row to false, so only the counts need to be checked
+		for (int x = 0; x < toReturn[0].length; x++) {
+			toReturn[0][x] = fixedInColumn[x] == 0 && frozenInColumn[x] == 0;
+		}
+		for (int y = 0; y < toReturn[1].length; y++) {
+			toReturn[1][y] = fixedInRow[y] == 0 && frozenInRow[y] == 0;
 		}
 
 		return toReturn;
 	}
 
+	/**
+	 * @param x Column to check
+	 * @return true if there are no fixed or frozen tiles in the column
+	 */
+	public boolean isColumnInsertable(int x) {
+		return fixedInColumn[x] == 0 && frozenInColumn[x] == 0;
+	}
+
+	/**
+	 * @param y Row to check
+	 * @return true if there are no fixed or frozen tiles in the row
+	 */
+	public boolean isRowInsertable(int y) {
+		return fixedInRow[y] == 0 && frozenInRow[y] == 0;
+	}
+
 	/**
 	 * Insert a new tile into the board, based on direction and insertion point.
+	 * The new tile should not be fixed or frozen.
 	 * @param newTile The FloorTile to insert
 	 * @param insertionDirection Integer between 0-3 representing the 4 directions
 	 * @param insertionPoint Where in the board to insert tile, starts at 0 up to width/height - 1
+	 * @return The FloorTile that was pushed off the board
 	 * @throws IllegalArgumentException if insertion is impossible
 	 */
-	public void insertFloorTile(FloorTile newTile, int insertionDirection, int insertionPoint)  throws IllegalArgumentException {
+	public FloorTile insertFloorTile(FloorTile newTile, int insertionDirection, int insertionPoint)  throws IllegalArgumentException {
 		// If the insertionDirection is 0 or 2, we are inserting into a column, 1 or 3, into a row
 		boolean columnInsert = insertionDirection % 2 == 0;
 		int inc = insertionDirection % 3 == 0 ? -1: 1;
@@ -127,13 +229,17 @@ public class Board implements Serializable {
 		if (insertionPoint < 0 || (columnInsert && insertionPoint > getWidth()) || (!columnInsert && insertionPoint > getHeight())) {
 			throw new IllegalArgumentException("insertionPoint was out of bounds.");
 		}
+		// Normally nothing in the row/column is fixed, so shifting it leaves every count as it was
+		boolean countsUnchanged = (columnInsert ? isColumnInsertable(insertionPoint) : isRowInsertable(insertionPoint))
+				&& !newTile.isCurrentlyFixed();
 
-
+		shiftPlayers(columnInsert, insertionPoint, start, fin, inc);
+		FloorTile ejected;
 		if (columnInsert) {
 			if (this.board[insertionPoint][start].getPlayer() != null) {
 				this.board[insertionPoint][start].getPlayer().setStandingOn(newTile);
 			}
-			SilkBag.addTile(this.board[insertionPoint][start]);
+			ejected = this.board[insertionPoint][start];
 			for (int i = start; i != fin; i += inc) {
 				this.board[insertionPoint][i] = this.board[insertionPoint][i + inc];
 			}
@@ -142,12 +248,17 @@ public class Board implements Serializable {
 			if (this.board[start][insertionPoint].getPlayer() != null) {
 				this.board[start][insertionPoint].getPlayer().setStandingOn(newTile);
 			}
-			SilkBag.addTile(this.board[start][insertionPoint]);
+			ejected = this.board[start][insertionPoint];
 			for (int i = start; i != fin; i += inc) {
 				this.board[i][insertionPoint] = this.board[i + inc][insertionPoint];
 			}
 			this.board[fin][insertionPoint]=newTile;
 		}
+
+		if (!countsUnchanged) {
+			recountFixedTiles();
+		}
+		return ejected;
 	}
 
 	/**
@@ -166,21 +277,71 @@ public class Board implements Serializable {
 	 * @param y Y-position
 	 */
 	public void setTileAt(FloorTile tile, int x, int y) {
+		countTile(this.board[x][y], x, y, -1);
+		if (this.board[x][y] != null && this.board[x][y].getPlayer() != null) {
+			playerPositions[this.board[x][y].getPlayer().getIdInGame()] = null;
+		}
 		this.board[x][y] = tile;
+		if (tile != null) {
+			scheduleEffects(tile);
+		}
+		countTile(tile, x, y, 1);
+		if (tile != null && tile.getPlayer() != null) {
+			playerPositions[tile.getPlayer().getIdInGame()] = new int[]{x, y};
+		}
+	}
+
+	/**
+	 * Move a player onto the tile at (x, y), keeping track of where they are.
+	 * @param player Player to move
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void placePlayer(Player player, int x, int y) {
+		player.setStandingOn(this.board[x][y]);
+		playerPositions[player.getIdInGame()] = new int[]{x, y};
+	}
+
+	/**
+	 * @param playerID Id in game of the player to find
+	 * @return index 0 is x coordinate 1 is y, null if the player is not on the board
+	 */
+	public int[] getPlayerPosition(int playerID) {
+		int[] position = playerPositions[playerID];
+		return position != null ? new int[]{position[0], position[1]} : null;
 	}
 
+	/**
+	 * Sets the 3 x 3 area around (x, y) on fire for 2 turns.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
 	public void setOnFire(int x, int y) {
+		int onFireUntil = currentTime + 2 * timeForFullLoop;
 		for (int i = x > 0 ? (x - 1) : 0; i < ((x < (getWidth() - 1))? (x + 2): getWidth()); i++) {
 			for (int j = y > 0 ? (y - 1) : 0; j < ((y < (getHeight() - 1))? (y + 2): getHeight()); j++) {
-				this.board[i][j].setOnFire();
+				this.board[i][j].setOnFire(onFireUntil);
+				effects.schedule(this.board[i][j], EffectScheduler.Effect.FIRE, onFireUntil);
 			}
 		}
 	}
 
+	/**
+	 * Freezes the 3 x 3 area around (x, y) for 1 turn.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
 	public void setFreezeOn(int x, int y) {
+		int frozenUntil = currentTime + timeForFullLoop;
 		for (int i = x > 0 ? (x - 1) : 0; i < ((x < (getWidth() - 1))? (x + 2): getWidth()); i++) {
 			for (int j = y > 0 ? (y - 1) : 0; j < ((y < (getHeight() - 1))? (y + 2): getHeight()); j++) {
-				this.board[i][j].freeze();
+				// Tiles that are already frozen are only frozen for longer, they are counted already
+				boolean wasFrozen = this.board[i][j].isFrozen();
+				this.board[i][j].freeze(frozenUntil);
+				effects.schedule(this.board[i][j], EffectScheduler.Effect.ICE, frozenUntil);
+				if (!wasFrozen) {
+					countFrozenTile(this.board[i][j], i, j, 1);
+				}
 			}
 		}
 	}
@@ -197,12 +358,157 @@ public class Board implements Serializable {
 
 	/**
 	 * puts bonus on a random tile
+	 * @param random Random of the game, so games can be replayed
 	 */
-	public void putRandomBonus() {
-		if (Math.random() < 0.25) {
-			int x = (int) (Math.random() * (getWidth()));
-			int y = (int) (Math.random() * (getHeight()));
-			getTileAt(x,y).addBonusAction();
+	public void putRandomBonus(Random random) {
+		if (random.nextDouble() < 0.25) {
+			int x = random.nextInt(getWidth());
+			int y = random.nextInt(getHeight());
+			getTileAt(x,y).addBonusAction(random);
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Add or remove a tile from the fixed / frozen counts of its row and column.
+	 * @param tile Tile at (x, y), can be null
+	 * @param x X-position
+	 * @param y Y-position
+	 * @param change 1 to count the tile, -1 to uncount it
+	 */
+	private void countTile(FloorTile tile, int x, int y, int change) {
+		if (tile != null) {
+			if (tile.getFixed()) {
+				fixedInColumn[x] += change;
+				fixedInRow[y] += change;
+			}
+			if (tile.isFrozen()) {
+				countFrozenTile(tile, x, y, change);
+			}
+		}
+	}
+
+	/**
+	 * @param tile A frozen tile
+	 * @param x X-position of the tile
+	 * @param y Y-position of the tile
+	 * @param change 1 when it becomes frozen, -1 when it thaws or is removed
+	 */
+	private void countFrozenTile(FloorTile tile, int x, int y, int change) {
+		frozenInColumn[x] += change;
+		frozenInRow[y] += change;
+		if (change > 0) {
+			frozenTiles.put(tile, new int[]{x, y});
+		} else {
+			frozenTiles.remove(tile);
+		}
+	}
+
+	/**
+	 * Called by the EffectScheduler when fire or ice runs out. If the tile has been set on fire / frozen again
+	 * since, or taken off the board (which clears its effects), the expiry time will not match and nothing happens.
+	 * @param tile FloorTile the effect was on
+	 * @param effect Effect that ran out
+	 * @param time Time the effect was scheduled to run out at
+	 */
+	private void effectExpired(FloorTile tile, EffectScheduler.Effect effect, int time) {
+		if (effect == EffectScheduler.Effect.FIRE && tile.getIsOnFireUntil() == time) {
+			tile.putOutFire();
+		} else if (effect == EffectScheduler.Effect.ICE && tile.getIsFrozenUntil() == time && tile.isFrozen()) {
+			tile.thaw();
+			int[] position = frozenTiles.get(tile);
+			if (position != null) {
+				countFrozenTile(tile, position[0], position[1], -1);
+			}
+		}
+	}
+
+	/**
+	 * Update whether a tile put on the board is on fire or frozen, and schedule those effects to run out.
+	 * @param tile FloorTile put on the board
+	 */
+	private void scheduleEffects(FloorTile tile) {
+		tile.updateEffects(currentTime);
+		if (tile.isOnFire()) {
+			effects.schedule(tile, EffectScheduler.Effect.FIRE, tile.getIsOnFireUntil());
+		}
+		if (tile.isFrozen()) {
+			effects.schedule(tile, EffectScheduler.Effect.ICE, tile.getIsFrozenUntil());
+		}
+	}
+
+	/**
+	 * Schedule the fire and ice of every tile from scratch.
+	 */
+	private void scheduleEffects() {
+		effects = new EffectScheduler(currentTime);
+		for (int x = 0; x < getWidth(); x++) {
+			for (int y = 0; y < getHeight(); y++) {
+				if (this.board[x][y] != null) {
+					scheduleEffects(this.board[x][y]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move the players standing in the row/column that is being inserted into along with their tiles.
+	 * The player on the tile that gets pushed off the board ends up on the newly inserted tile.
+	 * @param columnInsert true if inserting into a column, false if into a row
+	 * @param insertionPoint Index of the row/column
+	 * @param start Index of the tile that is pushed off the board
+	 * @param fin Index the new tile is inserted at
+	 * @param inc Direction the tiles are shifted in, tile i + inc moves to i
+	 */
+	private void shiftPlayers(boolean columnInsert, int insertionPoint, int start, int fin, int inc) {
+		for (int[] position : playerPositions) {
+			if (position != null && position[columnInsert ? 0 : 1] == insertionPoint) {
+				int along = columnInsert ? 1 : 0;
+				position[along] = position[along] == start ? fin : position[along] - inc;
+			}
+		}
+	}
+
+	/**
+	 * Find every player on the board from scratch.
+	 */
+	private void indexPlayers() {
+		playerPositions = new int[MAX_PLAYERS][];
+		for (int x = 0; x < getWidth(); x++) {
+			for (int y = 0; y < getHeight(); y++) {
+				if (this.board[x][y] != null && this.board[x][y].getPlayer() != null) {
+					playerPositions[this.board[x][y].getPlayer().getIdInGame()] = new int[]{x, y};
+				}
+			}
+		}
+	}
+
+	/**
+	 * Count the fixed and frozen tiles of every row and column from scratch.
+	 */
+	private void recountFixedTiles() {
+		fixedInColumn = new int[getWidth()];
+		fixedInRow = new int[getHeight()];
+		frozenInColumn = new int[getWidth()];
+		frozenInRow = new int[getHeight()];
+		frozenTiles = new IdentityHashMap<>();
+		for (int x = 0; x < getWidth(); x++) {
+			for (int y = 0; y < getHeight(); y++) {
+				countTile(this.board[x][y], x, y, 1);
+			}
+		}
+	}
+
+	/**
+	 * The scheduled effects, counts and player positions are not saved with the Board, so rebuild them when it is
+	 * loaded.
+	 * @param in Stream the Board is read from
+	 * @throws IOException If the stream could not be read
+	 * @throws ClassNotFoundException If a class in the stream could not be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		scheduleEffects();
+		recountFixedTiles();
+		indexPlayers();
+	}
+}
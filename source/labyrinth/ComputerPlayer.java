@@ -0,0 +1,667 @@
+package source.labyrinth;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ComputerPlayer plays the turns of computer-controlled players in a GameSession.
+ * Every way of inserting the drawn FloorTile (direction, insertion point and rotation) is tried on its own copy of
+ * the Board, in parallel on a ForkJoinPool. On each copy the actions the player can use and the moves they can make
+ * afterwards are played out, and the resulting position is scored with a ReachabilityService: the closer the player
+ * is to a goal and the further away the other players are, the better. Fire is only tried for the most promising
+ * insertions, as every fire needs a Board copy of its own.
+ * chooseTurnAsync runs the search on the pool instead of the calling thread, so a window stays responsive while the
+ * computer thinks; the turn it finds is then played with playTurn(GameSession, PlannedTurn).
+ * @author Fillip Serov
+ */
+public class ComputerPlayer {
+	/**
+	 * Name shown for computer-controlled players, and chosen in place of a profile in the level menu.
+	 */
+	public static final String DISPLAY_NAME = "Computer";
+
+	private static final int WIN_SCORE = Integer.MAX_VALUE / 2;
+	private static final int OWN_DISTANCE_WEIGHT = 30;
+	private static final int OTHER_DISTANCE_WEIGHT = 20;
+	// Freezing the area around the player stops the others shifting them away when they are about to win
+	private static final int ICE_BONUS = 5;
+	private static final int ICE_DISTANCE = 3;
+	// Amount of insertions fire is tried for, and how many insertions a single task evaluates
+	private static final int FIRE_CANDIDATES = 3;
+	private static final int TASK_SIZE = 4;
+	// Offsets of the neighbours in the directions 0 to 3 (north, east, south, west)
+	private static final int[] DX = {0, 1, 0, -1};
+	private static final int[] DY = {-1, 0, 1, 0};
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Create a ComputerPlayer searching on the common ForkJoinPool.
+	 */
+	public ComputerPlayer() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pool ForkJoinPool to evaluate the candidate turns on
+	 */
+	public ComputerPlayer(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Play the rest of the current player's turn, from whatever phase the game is in. Once this returns it is either
+	 * the next player's drawing phase or the game has ended.
+	 * @param session Game to play a turn in
+	 */
+	public void playTurn(GameSession session) {
+		if (session.getTurnPhase() == GameSession.TurnPhases.DRAWING) {
+			session.draw();
+		}
+		playTurn(session, chooseTurn(session));
+	}
+
+	/**
+	 * Play the rest of the current player's turn as planned by chooseTurn or chooseTurnAsync. The game has to be
+	 * in the same state as when the turn was planned. Once this returns it is either the next player's drawing phase
+	 * or the game has ended.
+	 * @param session Game to play the turn in
+	 * @param turn The planned turn
+	 */
+	public void playTurn(GameSession session, PlannedTurn turn) {
+		if (session.getTurnPhase() == GameSession.TurnPhases.PLACEMENT) {
+			for (int i = 0; i < turn.getRotation(); i++) {
+				session.rotateTileToInsert(1);
+			}
+			session.insert(turn.getInsertionDirection(), turn.getInsertionPoint());
+		}
+		if (session.getTurnPhase() == GameSession.TurnPhases.PLAYACTION) {
+			if (turn.getAction() == null || !session.playAction(turn.getAction(), turn.getActionX(), turn.getActionY())) {
+				session.skipAction();
+			}
+		}
+		if (session.getTurnPhase() == GameSession.TurnPhases.MOVEMENT) {
+			if (turn.getMoveX() != -1 && session.canCurrentPlayerMoveTo(turn.getMoveX(), turn.getMoveY())) {
+				session.move(turn.getMoveX(), turn.getMoveY());
+			} else if (session.canCurrentPlayerMove()) {
+				// Should not happen, but never get stuck: take the first available move
+				int[] pos = session.getPlayerXYPosition(session.getCurrentPlayer());
+				int moveBits = session.getBoard().getMovableBitsFrom(pos[0], pos[1]);
+				int direction = Integer.numberOfTrailingZeros(moveBits);
+				session.move(pos[0] + DX[direction], pos[1] + DY[direction]);
+			} else {
+				session.passMovement();
+			}
+		}
+	}
+
+	/**
+	 * Search for the best turn of the current player. The game has to be in the placement phase (a FloorTile has
+	 * been drawn) or in the play action phase.
+	 * @param session Game to search in, it is not changed
+	 * @return The best turn found
+	 * @throws IllegalStateException If the game is not in the placement or play action phase
+	 */
+	public PlannedTurn chooseTurn(GameSession session) throws IllegalStateException {
+		return search(new SearchState(session), listInsertions(session));
+	}
+
+	/**
+	 * Search for the best turn of the current player on the pool, see chooseTurn. What the search needs is taken
+	 * from the session before this returns, so the session can be read (but not changed) while the search runs.
+	 * @param session Game to search in, it is not changed
+	 * @return Future completed with the best turn found
+	 * @throws IllegalStateException If the game is not in the placement or play action phase
+	 */
+	public CompletableFuture<PlannedTurn> chooseTurnAsync(GameSession session) throws IllegalStateException {
+		ArrayList<PlannedTurn> insertions = listInsertions(session);
+		SearchState state = new SearchState(session);
+		return CompletableFuture.supplyAsync(() -> search(state, insertions), pool);
+	}
+
+	/**
+	 * @param session Game to search in
+	 * @return Every distinct way of inserting the FloorTile to insert, or none at all if there is nothing to insert
+	 * @throws IllegalStateException If the game is not in the placement or play action phase
+	 */
+	private static ArrayList<PlannedTurn> listInsertions(GameSession session) throws IllegalStateException {
+		GameSession.TurnPhases phase = session.getTurnPhase();
+		if (phase != GameSession.TurnPhases.PLACEMENT && phase != GameSession.TurnPhases.PLAYACTION) {
+			throw new IllegalStateException("A computer player can only plan a turn after drawing, not in " + phase);
+		}
+
+		ArrayList<PlannedTurn> insertions = new ArrayList<>();
+		FloorTile toInsert = session.getFloorTileToInsert();
+		if (phase == GameSession.TurnPhases.PLACEMENT) {
+			Board board = session.getBoard();
+			int[] rotationsByMoveBits = new int[FloorTile.WEST << 1];
+			Arrays.fill(rotationsByMoveBits, -1);
+			FloorTile rotated = new FloorTile(toInsert.getOrientation(), toInsert.getFloorType());
+			for (int rotation = 0; rotation < 4; rotation++) {
+				// Rotations that give the same move bits (i.e. straight tiles turned upside down) are the same move
+				if (rotationsByMoveBits[rotated.getMoveBits()] == -1) {
+					rotationsByMoveBits[rotated.getMoveBits()] = rotation;
+					for (int direction = 0; direction < 4; direction++) {
+						int lines = direction % 2 == 0 ? board.getWidth() : board.getHeight();
+						for (int point = 0; point < lines; point++) {
+							if (session.canInsertAt(direction, point)) {
+								insertions.add(new PlannedTurn(rotation, rotated.getOrientation(), direction, point));
+							}
+						}
+					}
+				}
+				rotated.rotateBy(1);
+			}
+		} else {
+			insertions.add(new PlannedTurn(0, 0, -1, -1));
+		}
+		return insertions;
+	}
+
+	/**
+	 * @param state State of the game
+	 * @param insertions Insertions to try, see listInsertions
+	 * @return The best turn found
+	 */
+	private PlannedTurn search(SearchState state, ArrayList<PlannedTurn> insertions) {
+		// First pass: every insertion with every action except fire
+		ArrayList<PlannedTurn> results = search(new InsertionSearch(state, insertions, 0, insertions.size(), false));
+		results.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+
+		// Second pass: fire, for the best few insertions only
+		PlannedTurn best = results.get(0);
+		if (state.hasAction(ActionTile.ActionType.FIRE) && best.getScore() < WIN_SCORE) {
+			ArrayList<PlannedTurn> fireInsertions = new ArrayList<>();
+			for (int i = 0; i < Math.min(FIRE_CANDIDATES, results.size()); i++) {
+				PlannedTurn insertion = results.get(i);
+				fireInsertions.add(new PlannedTurn(insertion.getRotation(), insertion.orientation,
+						insertion.getInsertionDirection(), insertion.getInsertionPoint()));
+			}
+			for (PlannedTurn fire : search(new InsertionSearch(state, fireInsertions, 0, fireInsertions.size(), true))) {
+				if (fire.getScore() > best.getScore()) {
+					best = fire;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Run a search on the pool. When already running inside a ForkJoinPool (i.e. a game of a TournamentSimulator)
+	 * the search forks into that pool instead, so it does not wait on another pool.
+	 * @param search Search to run
+	 * @return Result of the search
+	 */
+	private ArrayList<PlannedTurn> search(InsertionSearch search) {
+		return ForkJoinTask.inForkJoinPool() ? search.invoke() : pool.invoke(search);
+	}
+
+	/**
+	 * Everything about the game that the search needs, taken once so the parallel tasks do not touch the session.
+	 */
+	private static class SearchState {
+		private final PackedBoard packedBoard;
+		private final FloorTile.FloorType floorType;
+		private final int me;
+		private final int playerCount;
+		private final float[] actionAmounts;
+		private final int[][][] pastPositions;
+		private final boolean[] hasBeenBacktracked;
+
+		/**
+		 * @param session Game to take the state from
+		 */
+		private SearchState(GameSession session) {
+			this.packedBoard = new PackedBoard(session.getBoard());
+			this.floorType = session.getFloorTileToInsert() != null ? session.getFloorTileToInsert().getFloorType() : null;
+			this.me = session.getCurrentPlayer();
+			Player[] players = session.getPlayers();
+			this.playerCount = players.length;
+			this.pastPositions = new int[playerCount][][];
+			this.hasBeenBacktracked = new boolean[playerCount];
+			for (int i = 0; i < playerCount; i++) {
+				this.pastPositions[i] = players[i].getPastPositions().clone();
+				this.hasBeenBacktracked[i] = players[i].getHasBeenBacktracked();
+			}
+			this.actionAmounts = new float[ActionTile.ActionType.values().length];
+			for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
+				this.actionAmounts[at.ordinal()] = players[me].getActionAmount(at);
+			}
+		}
+
+		/**
+		 * @param action ActionType
+		 * @return true if the current player can use the action this turn
+		 */
+		private boolean hasAction(ActionTile.ActionType action) {
+			return actionAmounts[action.ordinal()] >= 1;
+		}
+
+		/**
+		 * Build a private copy of the Board, with the planned FloorTile inserted.
+		 * @param insertion Planned insertion, direction -1 for none
+		 * @return The copy, with its own Players
+		 */
+		private Board copyWithInsertion(PlannedTurn insertion) {
+			Player[] players = new Player[playerCount];
+			for (int i = 0; i < playerCount; i++) {
+				players[i] = new Player(i, -1);
+			}
+			Board board = packedBoard.toBoard(players);
+			if (insertion.getInsertionDirection() != -1) {
+				board.insertFloorTile(new FloorTile(insertion.orientation, floorType),
+						insertion.getInsertionDirection(), insertion.getInsertionPoint());
+			}
+			return board;
+		}
+	}
+
+	/**
+	 * Evaluates a range of insertions, splitting it in half until it is small enough.
+	 */
+	private static class InsertionSearch extends RecursiveTask<ArrayList<PlannedTurn>> {
+		private static final long serialVersionUID = 1L;
+
+		private final SearchState state;
+		private final ArrayList<PlannedTurn> insertions;
+		private final int from;
+		private final int to;
+		private final boolean withFire;
+
+		/**
+		 * @param state State of the game
+		 * @param insertions Insertions to evaluate
+		 * @param from First index of the range
+		 * @param to Index after the last one of the range
+		 * @param withFire true to only try fire, false to try everything else
+		 */
+		private InsertionSearch(SearchState state, ArrayList<PlannedTurn> insertions, int from, int to,
+								boolean withFire) {
+			this.state = state;
+			this.insertions = insertions;
+			this.from = from;
+			this.to = to;
+			this.withFire = withFire;
+		}
+
+		@Override
+		protected ArrayList<PlannedTurn> compute() {
+			ArrayList<PlannedTurn> results = new ArrayList<>();
+			if (to - from <= TASK_SIZE) {
+				for (int i = from; i < to; i++) {
+					results.add(new TurnEvaluator(state, insertions.get(i)).evaluate(withFire));
+				}
+			} else {
+				int middle = (from + to) / 2;
+				InsertionSearch left = new InsertionSearch(state, insertions, from, middle, withFire);
+				left.fork();
+				results.addAll(new InsertionSearch(state, insertions, middle, to, withFire).compute());
+				results.addAll(left.join());
+			}
+			return results;
+		}
+	}
+
+	/**
+	 * Plays out the actions and moves after one insertion on a copy of the Board, keeping the best turn.
+	 */
+	private static class TurnEvaluator {
+		private final SearchState state;
+		private final PlannedTurn insertion;
+		private Board board;
+		private ReachabilityService reachability;
+		private PlannedTurn best;
+
+		/**
+		 * @param state State of the game
+		 * @param insertion Insertion to evaluate
+		 */
+		private TurnEvaluator(SearchState state, PlannedTurn insertion) {
+			this.state = state;
+			this.insertion = insertion;
+		}
+
+		/**
+		 * @param withFire true to only try fire, false to try everything else
+		 * @return Best turn with this insertion
+		 */
+		private PlannedTurn evaluate(boolean withFire) {
+			board = state.copyWithInsertion(insertion);
+			reachability = new ReachabilityService(board);
+			if (withFire) {
+				evaluateFire();
+			} else {
+				evaluateMoves(null, -1, -1, 0);
+				evaluateDoubleMoves();
+				evaluateBacktracks();
+				evaluateIce();
+			}
+			return best != null ? best : insertion.withAction(null, -1, -1, -1, -1, Integer.MIN_VALUE);
+		}
+
+		/**
+		 * Try every move (or staying put if there are none) after an action.
+		 * @param action Action played before moving, null for none
+		 * @param actionX X-position the action was used on
+		 * @param actionY Y-position the action was used on
+		 * @param bonus Extra score for this action
+		 */
+		private void evaluateMoves(ActionTile.ActionType action, int actionX, int actionY, int bonus) {
+			int[] pos = board.getPlayerPosition(state.me);
+			int moveBits = board.getMovableBitsFrom(pos[0], pos[1]);
+			if (moveBits == 0) {
+				consider(insertion.withAction(action, actionX, actionY, -1, -1, score() + bonus));
+			}
+			for (int direction = 0; direction < 4; direction++) {
+				if ((moveBits & (1 << direction)) != 0) {
+					int x = pos[0] + DX[direction];
+					int y = pos[1] + DY[direction];
+					moveMe(x, y);
+					consider(insertion.withAction(action, actionX, actionY, x, y, score() + bonus));
+					moveMe(pos[0], pos[1]);
+				}
+			}
+		}
+
+		/**
+		 * Try a double move onto every neighbour, followed by every move from there.
+		 */
+		private void evaluateDoubleMoves() {
+			if (state.hasAction(ActionTile.ActionType.DOUBLEMOVE)) {
+				int[] pos = board.getPlayerPosition(state.me);
+				int moveBits = board.getMovableBitsFrom(pos[0], pos[1]);
+				for (int direction = 0; direction < 4; direction++) {
+					if ((moveBits & (1 << direction)) != 0) {
+						int x = pos[0] + DX[direction];
+						int y = pos[1] + DY[direction];
+						moveMe(x, y);
+						if (board.getTileAt(x, y).isItGoal()) {
+							consider(insertion.withAction(ActionTile.ActionType.DOUBLEMOVE, x, y, -1, -1, WIN_SCORE));
+						} else {
+							evaluateMoves(ActionTile.ActionType.DOUBLEMOVE, x, y, 0);
+						}
+						moveMe(pos[0], pos[1]);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Try backtracking every other player that can be backtracked.
+		 */
+		private void evaluateBacktracks() {
+			if (state.hasAction(ActionTile.ActionType.BACKTRACK)) {
+				for (int other = 0; other < state.playerCount; other++) {
+					int howFar = other != state.me ? backtrackDistance(other) : 0;
+					if (howFar > 0) {
+						int[] pos = board.getPlayerPosition(other);
+						int[] back = state.pastPositions[other][howFar];
+						Player otherPlayer = board.getTileAt(pos[0], pos[1]).getPlayer();
+						board.placePlayer(otherPlayer, back[0], back[1]);
+						reachability.tileChanged(pos[0], pos[1]);
+						reachability.tileChanged(back[0], back[1]);
+						evaluateMoves(ActionTile.ActionType.BACKTRACK, pos[0], pos[1], 0);
+						board.placePlayer(otherPlayer, pos[0], pos[1]);
+						reachability.tileChanged(back[0], back[1]);
+						reachability.tileChanged(pos[0], pos[1]);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Try freezing the area around the player, which is only worth it when they are about to reach a goal.
+		 */
+		private void evaluateIce() {
+			int[] pos = board.getPlayerPosition(state.me);
+			int distance = reachability.getDistanceToGoal(pos[0], pos[1]);
+			if (state.hasAction(ActionTile.ActionType.ICE) && distance > 0 && distance <= ICE_DISTANCE) {
+				evaluateMoves(ActionTile.ActionType.ICE, pos[0], pos[1], ICE_BONUS);
+			}
+		}
+
+		/**
+		 * Try setting fire two tiles away from the player closest to a goal, to block their way.
+		 */
+		private void evaluateFire() {
+			int leader = -1;
+			int leaderDistance = Integer.MAX_VALUE;
+			for (int other = 0; other < state.playerCount; other++) {
+				int distance = other != state.me ? distanceOf(other) : Integer.MAX_VALUE;
+				if (distance < leaderDistance) {
+					leader = other;
+					leaderDistance = distance;
+				}
+			}
+			if (leader != -1) {
+				int[] target = board.getPlayerPosition(leader);
+				for (int dx = -2; dx <= 2; dx++) {
+					for (int dy = -2; dy <= 2; dy++) {
+						int x = target[0] + dx;
+						int y = target[1] + dy;
+						if ((Math.abs(dx) == 2 || Math.abs(dy) == 2) && x >= 0 && y >= 0 && x < board.getWidth()
+								&& y < board.getHeight() && board.canSetOnFire(x, y)) {
+							Board beforeFire = board;
+							ReachabilityService reachabilityBeforeFire = reachability;
+							board = state.copyWithInsertion(insertion);
+							board.setOnFire(x, y);
+							reachability = new ReachabilityService(board);
+							evaluateMoves(ActionTile.ActionType.FIRE, x, y, 0);
+							board = beforeFire;
+							reachability = reachabilityBeforeFire;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * @param other Id of a player
+		 * @return How many turns back the player can be backtracked, see GameSession.getBacktrackDistance
+		 */
+		private int backtrackDistance(int other) {
+			int howFar = 0;
+			if (!state.hasBeenBacktracked[other]) {
+				int[][] pos = state.pastPositions[other];
+				howFar = (board.getTileAt(pos[2][0], pos[2][1]).canMoveTo()) ? 1 : 0;
+				howFar = (board.getTileAt(pos[1][0], pos[1][1]).canMoveTo()) ? howFar + 1 : 0;
+			}
+			return howFar;
+		}
+
+		/**
+		 * Move the searching player on the copy of the Board.
+		 * @param x X-position
+		 * @param y Y-position
+		 */
+		private void moveMe(int x, int y) {
+			int[] pos = board.getPlayerPosition(state.me);
+			board.placePlayer(board.getTileAt(pos[0], pos[1]).getPlayer(), x, y);
+			reachability.tileChanged(pos[0], pos[1]);
+			reachability.tileChanged(x, y);
+		}
+
+		/**
+		 * @param player Id of a player
+		 * @return Moves the player needs to reach a goal. If they cannot, a large number growing with how far away
+		 * the nearest goal is as the crow flies, since insertions may still open up a way.
+		 */
+		private int distanceOf(int player) {
+			int[] pos = board.getPlayerPosition(player);
+			int distance = reachability.getDistanceToGoal(pos[0], pos[1]);
+			if (distance == -1) {
+				int nearest = board.getWidth() + board.getHeight();
+				for (int x = 0; x < board.getWidth(); x++) {
+					for (int y = 0; y < board.getHeight(); y++) {
+						if (board.getTileAt(x, y).isItGoal()) {
+							nearest = Math.min(nearest, Math.abs(x - pos[0]) + Math.abs(y - pos[1]));
+						}
+					}
+				}
+				distance = board.getWidth() * board.getHeight() + nearest;
+			}
+			return distance;
+		}
+
+		/**
+		 * @return Score of the position on the copy of the Board, higher is better
+		 */
+		private int score() {
+			int[] pos = board.getPlayerPosition(state.me);
+			if (board.getTileAt(pos[0], pos[1]).isItGoal()) {
+				return WIN_SCORE;
+			}
+			int closestOther = Integer.MAX_VALUE;
+			for (int other = 0; other < state.playerCount; other++) {
+				if (other != state.me) {
+					closestOther = Math.min(closestOther, distanceOf(other));
+				}
+			}
+			return OTHER_DISTANCE_WEIGHT * closestOther - OWN_DISTANCE_WEIGHT * distanceOf(state.me);
+		}
+
+		/**
+		 * @param turn Turn that has been scored
+		 */
+		private void consider(PlannedTurn turn) {
+			if (best == null || turn.getScore() > best.getScore()) {
+				best = turn;
+			}
+		}
+	}
+
+	/**
+	 * A whole turn chosen by the search: how to insert the FloorTile, what action to play and where to move.
+	 */
+	public static class PlannedTurn {
+		private final int rotation;
+		private final int orientation;
+		private final int insertionDirection;
+		private final int insertionPoint;
+		private final ActionTile.ActionType action;
+		private final int actionX;
+		private final int actionY;
+		private final int moveX;
+		private final int moveY;
+		private final int score;
+
+		/**
+		 * A turn that has only chosen its insertion so far.
+		 * @param rotation Times to rotate the FloorTile clockwise before inserting
+		 * @param orientation Orientation the FloorTile ends up with
+		 * @param insertionDirection Direction to insert in, -1 for no insertion
+		 * @param insertionPoint Row/column to insert into, -1 for no insertion
+		 */
+		private PlannedTurn(int rotation, int orientation, int insertionDirection, int insertionPoint) {
+			this(rotation, orientation, insertionDirection, insertionPoint, null, -1, -1, -1, -1, 0);
+		}
+
+		/**
+		 * @param rotation Times to rotate the FloorTile clockwise before inserting
+		 * @param orientation Orientation the FloorTile ends up with
+		 * @param insertionDirection Direction to insert in, -1 for no insertion
+		 * @param insertionPoint Row/column to insert into, -1 for no insertion
+		 * @param action Action to play, null for none
+		 * @param actionX X-position to use the action on
+		 * @param actionY Y-position to use the action on
+		 * @param moveX X-position to move to, -1 to stay
+		 * @param moveY Y-position to move to, -1 to stay
+		 * @param score Score of the position after this turn
+		 */
+		private PlannedTurn(int rotation, int orientation, int insertionDirection, int insertionPoint,
+							ActionTile.ActionType action, int actionX, int actionY, int moveX, int moveY, int score) {
+			this.rotation = rotation;
+			this.orientation = orientation;
+			this.insertionDirection = insertionDirection;
+			this.insertionPoint = insertionPoint;
+			this.action = action;
+			this.actionX = actionX;
+			this.actionY = actionY;
+			this.moveX = moveX;
+			this.moveY = moveY;
+			this.score = score;
+		}
+
+		/**
+		 * @param action Action to play, null for none
+		 * @param actionX X-position to use the action on
+		 * @param actionY Y-position to use the action on
+		 * @param moveX X-position to move to, -1 to stay
+		 * @param moveY Y-position to move to, -1 to stay
+		 * @param score Score of the position after this turn
+		 * @return This insertion followed by the action and move
+		 */
+		private PlannedTurn withAction(ActionTile.ActionType action, int actionX, int actionY, int moveX, int moveY,
+									   int score) {
+			return new PlannedTurn(rotation, orientation, insertionDirection, insertionPoint, action, actionX,
+					actionY, moveX, moveY, score);
+		}
+
+		/**
+		 * @return Times to rotate the FloorTile clockwise (rotateTileToInsert(1)) before inserting
+		 */
+		public int getRotation() {
+			return rotation;
+		}
+
+		/**
+		 * @return Direction to insert the FloorTile in, -1 if nothing is inserted
+		 */
+		public int getInsertionDirection() {
+			return insertionDirection;
+		}
+
+		/**
+		 * @return Row/column to insert the FloorTile into, -1 if nothing is inserted
+		 */
+		public int getInsertionPoint() {
+			return insertionPoint;
+		}
+
+		/**
+		 * @return Action to play, null for none
+		 */
+		public ActionTile.ActionType getAction() {
+			return action;
+		}
+
+		/**
+		 * @return X-position to use the action on
+		 */
+		public int getActionX() {
+			return actionX;
+		}
+
+		/**
+		 * @return Y-position to use the action on
+		 */
+		public int getActionY() {
+			return actionY;
+		}
+
+		/**
+		 * @return X-position to move to, -1 if there is no move
+		 */
+		public int getMoveX() {
+			return moveX;
+		}
+
+		/**
+		 * @return Y-position to move to, -1 if there is no move
+		 */
+		public int getMoveY() {
+			return moveY;
+		}
+
+		/**
+		 * @return Score the search gave this turn, higher is better
+		 */
+		public int getScore() {
+			return score;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package source.labyrinth;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * EffectScheduler keeps track of when the fire and ice on FloorTiles run out, so the Board is told exactly when an
+ * effect ends instead of every tile comparing against the game clock whenever it is read.
+ * It is a timer wheel: expiries are put in the bucket of (expiry time % WHEEL_SIZE), and moving the clock on by a
+ * turn only has to look at a single bucket. Expiries further away than WHEEL_SIZE turns simply stay in their
+ * bucket until the clock reaches them.
+ * @author Fillip Serov
+ */
+public class EffectScheduler {
+	/**
+	 * The effects that can run out.
+	 */
+	public enum Effect {
+		FIRE,
+		ICE
+	}
+
+	/**
+	 * Told about every effect that runs out.
+	 */
+	public interface ExpiryListener {
+		/**
+		 * @param tile FloorTile the effect was on
+		 * @param effect Effect that ran out
+		 * @param time Time the effect was scheduled to run out at
+		 */
+		void effectExpired(FloorTile tile, Effect effect, int time);
+	}
+
+	// Must be a power of 2. Effects last at most 2 full loops of 4 players, so they normally fit in one turn of the wheel
+	private static final int WHEEL_SIZE = 16;
+
+	private final ArrayList<ArrayList<Expiry>> wheel;
+	private int currentTime;
+	private int scheduled;
+
+	/**
+	 * Create an empty EffectScheduler.
+	 * @param currentTime Time the game clock is at
+	 */
+	public EffectScheduler(int currentTime) {
+		this.wheel = new ArrayList<>(WHEEL_SIZE);
+		for (int i = 0; i < WHEEL_SIZE; i++) {
+			this.wheel.add(new ArrayList<>());
+		}
+		this.currentTime = currentTime;
+		this.scheduled = 0;
+	}
+
+	/**
+	 * Schedule an effect on a tile to run out.
+	 * @param tile FloorTile the effect is on
+	 * @param effect Effect that will run out
+	 * @param expiryTime Time the effect runs out at
+	 * @throws IllegalArgumentException If expiryTime is not in the future
+	 */
+	public void schedule(FloorTile tile, Effect effect, int expiryTime) throws IllegalArgumentException {
+		if (expiryTime <= currentTime) {
+			throw new IllegalArgumentException("Effects can only expire in the future, " + expiryTime
+					+ " is not after " + currentTime + ".");
+		}
+		wheel.get(expiryTime & (WHEEL_SIZE - 1)).add(new Expiry(tile, effect, expiryTime));
+		scheduled++;
+	}
+
+	/**
+	 * Move the clock forward, telling the listener about every effect that runs out on the way, in time order.
+	 * @param time Time to move the clock to
+	 * @param listener Listener to tell about the expired effects
+	 */
+	public void advanceTo(int time, ExpiryListener listener) {
+		while (currentTime < time) {
+			currentTime++;
+			Iterator<Expiry> bucket = wheel.get(currentTime & (WHEEL_SIZE - 1)).iterator();
+			while (bucket.hasNext()) {
+				Expiry expiry = bucket.next();
+				if (expiry.time == currentTime) {
+					bucket.remove();
+					scheduled--;
+					listener.effectExpired(expiry.tile, expiry.effect, expiry.time);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Time the clock of this scheduler is at
+	 */
+	public int getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * @return Amount of effects still waiting to run out
+	 */
+	public int size() {
+		return scheduled;
+	}
+
+	/**
+	 * A single effect waiting to run out.
+	 */
+	private static class Expiry {
+		private final FloorTile tile;
+		private final Effect effect;
+		private final int time;
+
+		/**
+		 * @param tile FloorTile the effect is on
+		 * @param effect Effect that will run out
+		 * @param time Time the effect runs out at
+		 */
+		private Expiry(FloorTile tile, Effect effect, int time) {
+			this.tile = tile;
+			this.effect = effect;
+			this.time = time;
+		}
+	}
+}
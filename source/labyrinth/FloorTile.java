@@ -1,11 +1,15 @@
 package source.labyrinth;
 
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.StackPane;
-import source.labyrinth.controllers.LevelController;
+import javafx.scene.paint.Color;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Random;
 
 /**
  * FloorTile represents a physical tile on the game board on which players can walk on. FloorTiles can be set on
@@ -13,6 +17,26 @@ import java.io.Serializable;
  * @author Fillip Serov
  */
 public class FloorTile extends Tile implements Serializable {
+	// Fixed to the value older versions of the game had, so saves they wrote can still be loaded
+	private static final long serialVersionUID = -6639851146180264669L;
+
+	/**
+	 * Move bit for north (direction 0). A move mask packed in an int has bit i set if direction i is open.
+	 */
+	public static final int NORTH = 1;
+	/**
+	 * Move bit for east (direction 1).
+	 */
+	public static final int EAST = 1 << 1;
+	/**
+	 * Move bit for south (direction 2).
+	 */
+	public static final int SOUTH = 1 << 2;
+	/**
+	 * Move bit for west (direction 3).
+	 */
+	public static final int WEST = 1 << 3;
+
 	/**
 	 * The different types of floor tile that an instance of FloorTile can be. Changes the default move mask and
 	 * the image used for the tile.
@@ -21,39 +45,71 @@ public class FloorTile extends Tile implements Serializable {
 		/**
 		 * By default can move north (0), south (2).
 		 */
-		STRAIGHT(new Boolean[]{true, false, true, false}, "source/resources/img/tile_straight.png"),
+		STRAIGHT(NORTH | SOUTH, "source/resources/img/tile_straight.png"),
 		/**
 		 * By default can move north (0), east (1).
 		 */
-		CORNER(new Boolean[]{true, true, false, false}, "source/resources/img/tile_corner.png"),
+		CORNER(NORTH | EAST, "source/resources/img/tile_corner.png"),
 		/**
 		 * By default can move east (1), south (2), west (3)
 		 */
-		TSHAPE(new Boolean[]{false, true, true, true},"source/resources/img/tile_tshape.png"),
+		TSHAPE(EAST | SOUTH | WEST, "source/resources/img/tile_tshape.png"),
 		/**
 		 * By default can move north (0), east (1), south (2), west (3)
 		 */
-		GOAL(new Boolean[]{true, true, true, true}, "source/resources/img/tile_goal.png");
+		GOAL(NORTH | EAST | SOUTH | WEST, "source/resources/img/tile_goal.png");
 
 		public final String imageURL;
+		public final String fixedImageURL;
 
-		// Each tile type has their default move mask, and a string to their image.
-		private final Boolean[] defaultMoveMask;
+		// Each tile type has their default move mask (as move bits), and a string to their image.
+		private final int defaultMoveBits;
 
-		FloorType(Boolean[] defaultMoveMask, String imageURL) {
-			this.defaultMoveMask = defaultMoveMask;
+		FloorType(int defaultMoveBits, String imageURL) {
+			this.defaultMoveBits = defaultMoveBits;
 			this.imageURL = imageURL;
+			// The fixed variant of "tile_x.png" is "tile_x_fixed.png"
+			this.fixedImageURL = imageURL.substring(0, imageURL.length() - ".png".length()) + "_fixed.png";
+		}
+	}
+
+	private static final int DIRECTIONS = 4;
+	private static final int ALL_DIRECTIONS = NORTH | EAST | SOUTH | WEST;
+
+	// Move bits of every FloorType in every orientation, indexed by [FloorType ordinal][orientation]
+	private static final int[][] MOVE_BITS = new int[FloorType.values().length][DIRECTIONS];
+
+	// One shared Boolean[] move mask for each of the 16 possible move bit combinations. Never modified.
+	private static final Boolean[][] MOVE_MASKS = new Boolean[ALL_DIRECTIONS + 1][DIRECTIONS];
+
+	static {
+		for (FloorType type : FloorType.values()) {
+			for (int orientation = 0; orientation < DIRECTIONS; orientation++) {
+				// Each step of orientation shifts the mask one direction clockwise
+				int bits = type.defaultMoveBits;
+				MOVE_BITS[type.ordinal()][orientation] =
+						((bits << orientation) | (bits >> (DIRECTIONS - orientation))) & ALL_DIRECTIONS;
+			}
+		}
+		for (int bits = 0; bits <= ALL_DIRECTIONS; bits++) {
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				MOVE_MASKS[bits][direction] = (bits & (1 << direction)) != 0;
+			}
 		}
 	}
 
 	private final double playerToTileScaling = 0.6f;
 	private final FloorType floorType;
 
-	private Boolean[] moveMask; // Specifically THIS tiles move mask, which has been changed by orientation
+	private int moveBits; // Specifically THIS tiles move mask, which has been changed by orientation
 	private int orientation;
 	private Boolean isFixed;
 	private int isOnFireUntil;
 	private int isFrozenUntil;
+	// Whether the fire / ice is still going. Set when the effect starts and cleared by the Board when it runs out,
+	// so reading them does not need the game clock.
+	private boolean onFire;
+	private boolean frozen;
 	private Player player;
 	private ActionTile.ActionType bonusAction = null;
 
@@ -79,7 +135,26 @@ public class FloorTile extends Tile implements Serializable {
 		this.isOnFireUntil=-1;
 		this.isFixed = isFixed;
 
-		this.moveMask = calculateMoveMask();
+		this.moveBits = getMoveBits(floorType, orientation);
+	}
+
+	/**
+	 * Look up the move mask of a FloorType in some orientation.
+	 * @param floorType FloorType of the tile
+	 * @param orientation Orientation of the tile, 0 to 3
+	 * @return Move bits (NORTH, EAST, SOUTH, WEST) for that FloorType and orientation
+	 */
+	public static int getMoveBits(FloorType floorType, int orientation) {
+		return MOVE_BITS[floorType.ordinal()][orientation];
+	}
+
+	/**
+	 * Convert move bits into a Boolean array move mask. The returned array is shared and must not be modified.
+	 * @param moveBits Move bits (NORTH, EAST, SOUTH, WEST)
+	 * @return Boolean array with index i true if direction i is in moveBits
+	 */
+	public static Boolean[] toMoveMask(int moveBits) {
+		return MOVE_MASKS[moveBits];
 	}
 
 	/**
@@ -96,24 +171,76 @@ public class FloorTile extends Tile implements Serializable {
 		} else {
 			this.orientation += rotation;
 		}
-		this.moveMask = calculateMoveMask();
+		this.moveBits = getMoveBits(this.floorType, this.orientation);
 	}
 
 	public Boolean isItGoal() {
 		return (this.floorType == FloorType.GOAL);
 	}
 	/**
-	 * Freezes this for 1 turn
+	 * Freezes this until the Board says the ice has melted
+	 * @param frozenUntil Game time the ice will melt at
 	 */
-	public void freeze() {
-		isFrozenUntil = LevelController.getCurrentTime() + LevelController.getTimeForFullLoop();
+	public void freeze(int frozenUntil) {
+		isFrozenUntil = frozenUntil;
+		frozen = true;
 	}
 
 	/**
-	 * Sets tile on fire for 2 turns
+	 * Sets tile on fire until the Board says the fire is out
+	 * @param onFireUntil Game time the fire will go out at
 	 */
-	public void setOnFire() {
-		isOnFireUntil = LevelController.getCurrentTime() + 2 * LevelController.getTimeForFullLoop();
+	public void setOnFire(int onFireUntil) {
+		isOnFireUntil = onFireUntil;
+		onFire = true;
+	}
+
+	/**
+	 * The ice on this tile has melted.
+	 */
+	public void thaw() {
+		frozen = false;
+	}
+
+	/**
+	 * The fire on this tile has gone out.
+	 */
+	public void putOutFire() {
+		onFire = false;
+	}
+
+	/**
+	 * Work out from the fire and ice expiry times whether they are still going. Used when the tile is put on a
+	 * Board, since the expiry times may have been set directly.
+	 * @param currentTime Game time of the Board
+	 */
+	public void updateEffects(int currentTime) {
+		onFire = currentTime < isOnFireUntil;
+		frozen = currentTime < isFrozenUntil;
+	}
+
+	/**
+	 * Remove any fire or ice from this tile.
+	 */
+	public void clearEffects() {
+		isOnFireUntil = -1;
+		isFrozenUntil = -1;
+		onFire = false;
+		frozen = false;
+	}
+
+	/**
+	 * @return true if this tile is on fire
+	 */
+	public boolean isOnFire() {
+		return onFire;
+	}
+
+	/**
+	 * @return true if this tile is frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
 	}
 
 	/**
@@ -140,17 +267,31 @@ public class FloorTile extends Tile implements Serializable {
 	}
 
 	/**
-	 * @return Boolean array representing this tile's move mask
+	 * @return Boolean array representing this tile's move mask. The array is shared and must not be modified.
 	 */
 	public Boolean[] getMoveMask() {
-		return (LevelController.getCurrentTime() >= isOnFireUntil)? this.moveMask : new Boolean[] {false, false, false, false};
+		return toMoveMask(getMoveBits());
 	}
 
 	/**
-	 * @return Get move mask as if it is a FloorTile next to a player
+	 * @return Get move mask as if it is a FloorTile next to a player. The array is shared and must not be modified.
 	 */
 	public Boolean[] getNeighbourMoveMask() {
-		return (player == null) ? this.getMoveMask() : new Boolean[] {false, false, false, false};
+		return toMoveMask(getNeighbourMoveBits());
+	}
+
+	/**
+	 * @return This tile's move mask as move bits (NORTH, EAST, SOUTH, WEST), 0 while it is on fire
+	 */
+	public int getMoveBits() {
+		return !onFire ? this.moveBits : 0;
+	}
+
+	/**
+	 * @return Move bits as if it is a FloorTile next to a player, 0 if someone stands on it
+	 */
+	public int getNeighbourMoveBits() {
+		return (player == null) ? this.getMoveBits() : 0;
 	}
 
 	/**
@@ -165,7 +306,7 @@ public class FloorTile extends Tile implements Serializable {
 	 * @return Boolean showing if a player could stand on this tile.
 	 */
 	public Boolean canMoveTo(){
-		return (LevelController.getCurrentTime() >= isOnFireUntil) && (player == null);
+		return !onFire && (player == null);
 	}
 
 	/**
@@ -180,10 +321,25 @@ public class FloorTile extends Tile implements Serializable {
 	 * @return Boolean show if tile is currently fixed
 	 */
 	public Boolean isCurrentlyFixed() {
-		return isFixed || LevelController.getCurrentTime() < isFrozenUntil;
+		return isFixed || frozen;
+	}
+
+	/**
+	 * @return Game time at which this tile stops burning, -1 if it has never been on fire
+	 */
+	public int getIsOnFireUntil() {
+		return this.isOnFireUntil;
 	}
 
 	/**
+	 * @return Game time at which this tile thaws, -1 if it has never been frozen
+	 */
+	public int getIsFrozenUntil() {
+		return this.isFrozenUntil;
+	}
+
+	/**
+	 * Only sets the expiry time, see updateEffects.
 	 * @param isOnFireUntil How many individual player turns should this be on fire for
 	 */
 	public void setIsOnFireUntil(int isOnFireUntil) {
@@ -191,6 +347,7 @@ public class FloorTile extends Tile implements Serializable {
 	}
 
 	/**
+	 * Only sets the expiry time, see updateEffects.
 	 * @param isFrozenUntil How many individual player turns should this be frozen for
 	 */
 	public void setIsFrozenUntil(int isFrozenUntil) {
@@ -204,35 +361,61 @@ public class FloorTile extends Tile implements Serializable {
 		this.isFixed = fixed;
 	}
 
+	/**
+	 * @return The bonus action lying on this tile, null if there is none
+	 */
+	public ActionTile.ActionType getBonusAction() {
+		return this.bonusAction;
+	}
+
+	/**
+	 * @param bonusAction The bonus action lying on this tile, null for none
+	 */
+	public void setBonusAction(ActionTile.ActionType bonusAction) {
+		this.bonusAction = bonusAction;
+	}
+
 	/**
 	 * @param renderSize Size that the StackPane should return as.
 	 * @return StackPane representing the FloorTile.
 	 */
 	public StackPane renderTile(int renderSize) {
+		StackPane stack = new StackPane();
+		stack.setStyle("-fx-border-width: 1px; -fx-border-color: darkgrey");
+		renderTileOnto(stack, renderSize);
+		return stack;
+	}
+
+	/**
+	 * Draw this FloorTile onto a StackPane that is already on screen, replacing whatever it showed before.
+	 * This lets a board keep one StackPane per cell and only redraw the cells that changed.
+	 * @param stack StackPane to draw onto
+	 * @param renderSize Size to draw the tile at
+	 */
+	public void renderTileOnto(StackPane stack, int renderSize) {
 		String url;
 		if (isFixed) {
-			url = this.floorType.imageURL.substring(0, this.floorType.imageURL.length() - 4) + "_fixed.png";
+			url = this.floorType.fixedImageURL;
 		} else {
 			url = this.floorType.imageURL;
 		}
 
-		Image img = new Image(url, renderSize, renderSize, false, false);
+		Image img = ImageCache.getImage(url, renderSize, renderSize);
 
 		ImageView iv = new ImageView(img);
 		iv.setRotate(90 * this.getOrientation());
 
-		StackPane stack = new StackPane(iv);
-		stack.setStyle("-fx-border-width: 1px; -fx-border-color: darkgrey");
+		stack.getChildren().setAll(iv);
 
-		if (isFrozenUntil > LevelController.getCurrentTime()) {
-			Image fixedImage = new Image("source/resources/img/frozen_tile.png", renderSize, renderSize, false, false);
+		if (frozen) {
+			Image fixedImage = ImageCache.getImage("source/resources/img/frozen_tile.png", renderSize, renderSize);
 			ImageView fixedImageView = new ImageView(fixedImage);
 			fixedImageView.setOpacity(0.5);
 			stack.getChildren().addAll(fixedImageView);
 		}
 
-		if (isOnFireUntil > LevelController.getCurrentTime()) {
-			Image fixedImage = new Image("source/resources/img/fire_tile.png", renderSize, renderSize, false, false);
+		if (onFire) {
+			Image fixedImage = ImageCache.getImage("source/resources/img/fire_tile.png", renderSize, renderSize);
 			ImageView fixedImageView = new ImageView(fixedImage);
 			fixedImageView.setOpacity(0.5);
 			stack.getChildren().addAll(fixedImageView);
@@ -240,7 +423,7 @@ public class FloorTile extends Tile implements Serializable {
 
 		if (this.getPlayer() != null) {
 			String playerImageURL = "source/resources/img/player_" + this.getPlayer().getIdInGame() + ".png";
-			Image playerImage = new Image(playerImageURL, renderSize * playerToTileScaling, renderSize * playerToTileScaling, false, false);
+			Image playerImage = ImageCache.getImage(playerImageURL, renderSize * playerToTileScaling, renderSize * playerToTileScaling);
 			ImageView playerImageView = new ImageView(playerImage);
 			stack.getChildren().add(playerImageView);
 		}
@@ -252,35 +435,79 @@ public class FloorTile extends Tile implements Serializable {
 				break;
 				case DOUBLEMOVE: playerImageURL = ActionTile.ActionType.DOUBLEMOVE.imageURL;
 			}
-			Image playerImage = new Image(playerImageURL, renderSize * playerToTileScaling * 0.5, renderSize * playerToTileScaling * 0.5, false, false);
+			Image playerImage = ImageCache.getImage(playerImageURL, renderSize * playerToTileScaling * 0.5, renderSize * playerToTileScaling * 0.5);
 			ImageView playerImageView = new ImageView(playerImage);
 			stack.getChildren().add(playerImageView);
 		}
-
-		return stack;
 	}
 
 	/**
-	 * Using the floor tiles orientation and default move mask of it's TileType, get an accurate move mask.
-	 * @return This FloorTiles move mask with orientation accounted for
+	 * Draw this FloorTile onto a canvas the same way renderTile shows it, for boards too big to have a StackPane for
+	 * every tile.
+	 * @param gc GraphicsContext of the canvas
+	 * @param x X-position on the canvas of the tile's top left corner
+	 * @param y Y-position on the canvas of the tile's top left corner
+	 * @param renderSize Size to draw the tile at
 	 */
-	private Boolean[] calculateMoveMask() {
-		// Shift the array to the right depending on orientation
-		Boolean[] toReturn = this.floorType.defaultMoveMask.clone();
-		for (int i = 0; i < orientation; i++) {
-			Boolean tmp = toReturn[3];
-			System.arraycopy(toReturn, 0, toReturn, 1, 3);
-			toReturn[0] = tmp;
+	public void drawTile(GraphicsContext gc, double x, double y, int renderSize) {
+		String url;
+		if (isFixed) {
+			url = this.floorType.fixedImageURL;
+		} else {
+			url = this.floorType.imageURL;
+		}
+
+		// Rotate around the middle of the tile, like ImageView.setRotate does
+		gc.save();
+		gc.translate(x + renderSize / 2.0, y + renderSize / 2.0);
+		gc.rotate(90 * this.getOrientation());
+		gc.drawImage(ImageCache.getImage(url, renderSize, renderSize), -renderSize / 2.0, -renderSize / 2.0);
+		gc.restore();
+
+		gc.save();
+		gc.setGlobalAlpha(0.5);
+		if (frozen) {
+			gc.drawImage(ImageCache.getImage("source/resources/img/frozen_tile.png", renderSize, renderSize), x, y);
+		}
+		if (onFire) {
+			gc.drawImage(ImageCache.getImage("source/resources/img/fire_tile.png", renderSize, renderSize), x, y);
+		}
+		gc.restore();
+
+		if (this.getPlayer() != null) {
+			String playerImageURL = "source/resources/img/player_" + this.getPlayer().getIdInGame() + ".png";
+			drawCentered(gc, ImageCache.getImage(playerImageURL, renderSize * playerToTileScaling, renderSize * playerToTileScaling), x, y, renderSize);
+		}
+
+		if (this.bonusAction != null) {
+			double bonusSize = renderSize * playerToTileScaling * 0.5;
+			drawCentered(gc, ImageCache.getImage(bonusAction.imageURL, bonusSize, bonusSize), x, y, renderSize);
 		}
-		return toReturn;
+
+		gc.setStroke(Color.DARKGREY);
+		gc.setLineWidth(1);
+		gc.strokeRect(x + 0.5, y + 0.5, renderSize - 1, renderSize - 1);
+	}
+
+	/**
+	 * Draw an image in the middle of a tile, like a StackPane centers its children.
+	 * @param gc GraphicsContext of the canvas
+	 * @param image Image to draw
+	 * @param x X-position on the canvas of the tile's top left corner
+	 * @param y Y-position on the canvas of the tile's top left corner
+	 * @param renderSize Size the tile is drawn at
+	 */
+	public static void drawCentered(GraphicsContext gc, Image image, double x, double y, int renderSize) {
+		gc.drawImage(image, x + (renderSize - image.getWidth()) / 2, y + (renderSize - image.getHeight()) / 2);
 	}
 
 	/**
 	 * puts fire or double move action tile on board randomly
+	 * @param random Random of the game, so games can be replayed
 	 */
-	public void addBonusAction() {
+	public void addBonusAction(Random random) {
 		if ((floorType != FloorType.GOAL) && (bonusAction == null) && (player == null)) {
-			if (Math.random()>0.5) {
+			if (random.nextBoolean()) {
 				bonusAction = ActionTile.ActionType.FIRE;
 			} else {
 				bonusAction = ActionTile.ActionType.DOUBLEMOVE;
@@ -297,4 +524,17 @@ public class FloorTile extends Tile implements Serializable {
 			bonusAction = null;
 		}
 	}
+
+	/**
+	 * Older saves stored a Boolean array move mask instead of move bits and could hold tiles in orientation 4
+	 * (the same as 0), so work the move bits out again from the orientation when a tile is loaded.
+	 * @param in Stream the FloorTile is read from
+	 * @throws IOException If the stream could not be read
+	 * @throws ClassNotFoundException If a class in the stream could not be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.orientation %= DIRECTIONS;
+		this.moveBits = getMoveBits(this.floorType, this.orientation);
+	}
 }
@@ -0,0 +1,457 @@
+package source.labyrinth;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GameJournal keeps a game saved as it is played, so it can be carried on after the game crashes or is closed.
+ * Instead of saving the whole game after every command, the journal holds a snapshot of the game followed by a
+ * few bytes for every command played since (the tile drawn, rotating and inserting the tile, the action played and
+ * where, skipping the action, the move and passing the move). Every SNAPSHOT_INTERVAL turns the journal starts over
+ * from a new snapshot, so it never grows long.
+ * A journal holds, all big-endian: the magic number "LJRN" and the format version (short), the seed of the Random
+ * of the game when the snapshot was taken (long), the length of the snapshot (int) and the snapshot, which is a save
+ * as written by SaveIO, then the commands, each a byte saying which command it is followed by its arguments.
+ * With the seed, playing the commands again on the snapshot draws the same tiles and puts the same bonus actions on
+ * the board, so the game ends up exactly as it was.
+ * Snapshots replace the journal file only once they are completely written, and commands are added to the end of
+ * it, both on the IOExecutor. A command cut short by a crash is simply left out when the journal is read.
+ * Journals are read by SaveIO.readSave like any other save.
+ * A journal can also keep a replay of the game in a second file. The replay starts with the same snapshot, gets every
+ * command too, but is never started over. Instead, every time the journal takes a new snapshot, the replay gets the
+ * new seed, so playing the whole replay from its snapshot plays the game exactly as it went, see Replay. A replay is
+ * a valid journal as well.
+ * @author Fillip Serov
+ */
+public final class GameJournal {
+	/**
+	 * Extension of journal files.
+	 */
+	public static final String JOURNAL_EXTENSION = ".jnl";
+
+	private static final int MAGIC = 0x4C4A524E; // "LJRN"
+	private static final short VERSION = 1;
+	// Magic number, version, seed and snapshot length
+	static final int HEADER_BYTES = 4 + 2 + 8 + 4;
+	// Turns played between snapshots
+	private static final int SNAPSHOT_INTERVAL = 10;
+
+	private static final byte DRAW = 1;
+	private static final byte ROTATE = 2;
+	private static final byte INSERT = 3;
+	private static final byte ACTION = 4;
+	private static final byte SKIP = 5;
+	private static final byte MOVE = 6;
+	private static final byte PASS = 7;
+	// Only in replays, the Random was seeded with a new seed when the journal took a snapshot
+	private static final byte SEED = 8;
+
+	private final GameSession session;
+	private final String filename;
+	private final Path path;
+	// null if no replay is kept
+	private final String replayFilename;
+	private final Path replayPath;
+	private boolean replayStarted;
+	private int turnsSinceSnapshot;
+
+	/**
+	 * @param session Game to keep
+	 * @param filename Path of the journal file
+	 * @param replayFilename Path of the replay file, null to keep no replay
+	 */
+	private GameJournal(GameSession session, String filename, String replayFilename) {
+		this.session = session;
+		this.filename = filename;
+		this.path = Paths.get(filename);
+		this.replayFilename = replayFilename;
+		this.replayPath = replayFilename == null ? null : Paths.get(replayFilename);
+	}
+
+	/**
+	 * Start keeping a game in a journal, replacing the file if it exists. A snapshot of the game is taken straight
+	 * away and every command played on it from now on is added to the journal.
+	 * @param session Game to keep
+	 * @param filename Path of the journal file
+	 * @return The journal
+	 */
+	public static GameJournal start(GameSession session, String filename) {
+		return start(session, filename, null);
+	}
+
+	/**
+	 * Start keeping a game in a journal, and a replay of the game from now on, replacing both files if they exist.
+	 * @param session Game to keep
+	 * @param filename Path of the journal file
+	 * @param replayFilename Path of the replay file, null to keep no replay
+	 * @return The journal
+	 */
+	public static GameJournal start(GameSession session, String filename, String replayFilename) {
+		GameJournal journal = new GameJournal(session, filename, replayFilename);
+		session.setJournal(journal);
+		journal.snapshot();
+		return journal;
+	}
+
+	/**
+	 * Stop adding commands to the journal and the replay. Both files are kept.
+	 */
+	public void stop() {
+		session.setJournal(null);
+	}
+
+	/**
+	 * Stop adding commands to the journal and delete the journal file on the IOExecutor, i.e. once the game is over.
+	 * The replay is kept.
+	 * @return Future completed with whether there was a file to delete
+	 */
+	public CompletableFuture<Boolean> delete() {
+		stop();
+		return IOExecutor.file(() -> Files.deleteIfExists(path));
+	}
+
+	/**
+	 * Stop adding commands and delete both the journal and the replay on the IOExecutor, i.e. when the game is left
+	 * on purpose and there is nothing to carry on or look back at.
+	 * @return Future completed with whether there was a journal file to delete
+	 */
+	public CompletableFuture<Boolean> discard() {
+		stop();
+		return IOExecutor.file(() -> {
+			if (replayPath != null) {
+				Files.deleteIfExists(replayPath);
+			}
+			return Files.deleteIfExists(path);
+		});
+	}
+
+	/**
+	 * @return Path of the journal file
+	 */
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * @return Path of the replay file, null if no replay is kept
+	 */
+	public String getReplayFilename() {
+		return replayFilename;
+	}
+
+	/**
+	 * @param tile The tile that was drawn
+	 */
+	void drawn(Tile tile) {
+		append(ByteBuffer.allocate(2).put(DRAW).put((byte) SaveIO.tileCode(tile)));
+	}
+
+	/**
+	 * @param rotation How the tile to insert was rotated
+	 */
+	void rotated(int rotation) {
+		append(ByteBuffer.allocate(2).put(ROTATE).put((byte) rotation));
+	}
+
+	/**
+	 * @param insertionDirection Direction the tile was inserted from
+	 * @param insertionPoint Row or column the tile was inserted into
+	 */
+	void inserted(int insertionDirection, int insertionPoint) {
+		append(ByteBuffer.allocate(6).put(INSERT).put((byte) insertionDirection).putInt(insertionPoint));
+	}
+
+	/**
+	 * @param action The action that was played
+	 * @param x X-position it was played on
+	 * @param y Y-position it was played on
+	 */
+	void actionPlayed(ActionTile.ActionType action, int x, int y) {
+		append(ByteBuffer.allocate(10).put(ACTION).put((byte) action.ordinal()).putInt(x).putInt(y));
+	}
+
+	/**
+	 * The action was skipped.
+	 */
+	void actionSkipped() {
+		append(ByteBuffer.allocate(1).put(SKIP));
+	}
+
+	/**
+	 * @param x X-position the player moved to
+	 * @param y Y-position the player moved to
+	 */
+	void moved(int x, int y) {
+		append(ByteBuffer.allocate(9).put(MOVE).putInt(x).putInt(y));
+		endTurn();
+	}
+
+	/**
+	 * The player could not move.
+	 */
+	void movementPassed() {
+		append(ByteBuffer.allocate(1).put(PASS));
+		endTurn();
+	}
+
+	/**
+	 * @param in Buffer positioned at the start of a file
+	 * @return true if the file is a journal
+	 */
+	static boolean isJournal(ByteBuffer in) {
+		return in.remaining() >= 4 && in.getInt(in.position()) == MAGIC;
+	}
+
+	/**
+	 * Find where the snapshot of a journal starts, so its summary can be read without playing the journal again.
+	 * @param in Buffer positioned at the start of a journal
+	 * @param filename Name of the file, for errors
+	 * @return Position of the snapshot, from the start of the journal
+	 * @throws IOException If the buffer does not start with a valid journal header
+	 */
+	static int snapshotStart(ByteBuffer in, String filename) throws IOException {
+		if (in.remaining() < HEADER_BYTES) {
+			throw new IOException(filename + " ends before the snapshot of the journal does");
+		}
+		short version = in.getShort(in.position() + 4);
+		if (version != VERSION) {
+			throw new IOException(filename + ": Unknown journal version " + version);
+		}
+		return HEADER_BYTES;
+	}
+
+	/**
+	 * Rebuild the game kept in a journal, by reading its snapshot and playing the commands after it again.
+	 * @param in Buffer holding the journal, from its position to its limit
+	 * @param filename Name of the file, for errors
+	 * @return The GameSession, as it was after the last complete command
+	 * @throws IOException If the buffer does not hold a valid journal, or a command cannot be played again
+	 */
+	static GameSession recover(ByteBuffer in, String filename) throws IOException {
+		GameSession session = readSnapshot(in, filename);
+		boolean complete = true;
+		while (complete && in.hasRemaining()) {
+			try {
+				replay(session, in, filename);
+			} catch (BufferUnderflowException e) {
+				// The last command was being written when the game stopped, so it was never saved
+				complete = false;
+			}
+		}
+		return session;
+	}
+
+	/**
+	 * Read the snapshot at the start of a journal.
+	 * @param in Buffer holding the journal, from its position to its limit, left positioned after the snapshot
+	 * @param filename Name of the file, for errors
+	 * @return The GameSession in the snapshot, with its Random seeded as it was when the snapshot was taken
+	 * @throws IOException If the buffer does not start with a valid snapshot
+	 */
+	static GameSession readSnapshot(ByteBuffer in, String filename) throws IOException {
+		long seed;
+		GameSession session;
+		try {
+			in.getInt();
+			short version = in.getShort();
+			if (version != VERSION) {
+				throw new IOException(filename + ": Unknown journal version " + version);
+			}
+			seed = in.getLong();
+			int snapshotLength = in.getInt();
+			if (snapshotLength < 0 || snapshotLength > in.remaining()) {
+				throw new IOException(filename + ": Invalid snapshot length " + snapshotLength);
+			}
+			ByteBuffer snapshot = in.slice();
+			snapshot.limit(snapshotLength);
+			in.position(in.position() + snapshotLength);
+			session = SaveIO.readSave(snapshot, filename);
+		} catch (BufferUnderflowException e) {
+			throw new IOException(filename + " ends before the snapshot of the journal does");
+		}
+		session.setSeed(seed);
+		return session;
+	}
+
+	/**
+	 * Make a journal holding only a snapshot.
+	 * @param seed Seed of the Random of the game when the snapshot was taken
+	 * @param save The snapshot, as made by SaveIO.snapshot
+	 * @return The journal, as it is written to the file
+	 */
+	static byte[] journalOf(long seed, byte[] save) {
+		ByteBuffer journal = ByteBuffer.allocate(HEADER_BYTES + save.length);
+		journal.putInt(MAGIC).putShort(VERSION).putLong(seed).putInt(save.length).put(save);
+		return journal.array();
+	}
+
+	/**
+	 * @param command First byte of a command
+	 * @return Length of the command in bytes, -1 if it is not a valid command
+	 */
+	static int commandLength(byte command) {
+		switch (command) {
+			case DRAW:
+			case ROTATE:
+				return 2;
+			case INSERT:
+				return 6;
+			case ACTION:
+				return 10;
+			case SKIP:
+			case PASS:
+				return 1;
+			case MOVE:
+			case SEED:
+				return 9;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * @param command First byte of a command
+	 * @return true if the command ends the turn of the current player
+	 */
+	static boolean endsTurn(byte command) {
+		return command == MOVE || command == PASS;
+	}
+
+	/**
+	 * @param command First byte of a command
+	 * @return true if the command seeds the Random of the game, which only happens right after a turn ended
+	 */
+	static boolean reseeds(byte command) {
+		return command == SEED;
+	}
+
+	/**
+	 * Take a snapshot of the game, which replaces everything in the journal file.
+	 */
+	private void snapshot() {
+		long seed = session.reseed();
+		byte[] save;
+		try {
+			save = SaveIO.snapshot(session);
+		} catch (IOException e) {
+			System.out.println("Could not take a snapshot of the game for " + filename);
+			e.printStackTrace();
+			return;
+		}
+		byte[] journal = journalOf(seed, save);
+		turnsSinceSnapshot = 0;
+		logFailure(IOExecutor.file(() -> {
+			SaveIO.writeSnapshot(journal, filename);
+			return null;
+		}));
+
+		if (replayPath != null) {
+			if (replayStarted) {
+				logFailure(IOExecutor.file(() -> Files.write(replayPath,
+						ByteBuffer.allocate(9).put(SEED).putLong(seed).array(), StandardOpenOption.APPEND)));
+			} else {
+				logFailure(IOExecutor.file(() -> {
+					SaveIO.writeSnapshot(journal, replayFilename);
+					return null;
+				}));
+				replayStarted = true;
+			}
+		}
+	}
+
+	/**
+	 * Counts a finished turn, taking a snapshot every SNAPSHOT_INTERVAL turns.
+	 */
+	private void endTurn() {
+		turnsSinceSnapshot++;
+		if (turnsSinceSnapshot >= SNAPSHOT_INTERVAL && session.getTurnPhase() != GameSession.TurnPhases.END) {
+			snapshot();
+		}
+	}
+
+	/**
+	 * Add a command to the end of the journal file.
+	 * @param record The command, filled in up to its capacity
+	 */
+	private void append(ByteBuffer record) {
+		logFailure(IOExecutor.file(() -> Files.write(path, record.array(), StandardOpenOption.APPEND)));
+		if (replayPath != null) {
+			logFailure(IOExecutor.file(() -> Files.write(replayPath, record.array(), StandardOpenOption.APPEND)));
+		}
+	}
+
+	/**
+	 * The game carries on if the journal cannot be written, it just will not be kept.
+	 * @param written Future of writing to the journal file
+	 */
+	private void logFailure(CompletableFuture<?> written) {
+		written.whenComplete((result, error) -> {
+			if (error != null) {
+				System.out.println("Could not write to the journal " + filename);
+				error.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * Play a single command of a journal again.
+	 * @param session Game to play it on
+	 * @param in Buffer positioned at the command, left positioned after it
+	 * @param filename Name of the file, for errors
+	 * @throws IOException If the command is not valid or cannot be played
+	 * @throws BufferUnderflowException If the buffer ends before the command does
+	 */
+	static void replay(GameSession session, ByteBuffer in, String filename) throws IOException {
+		int offset = in.position();
+		byte command = in.get();
+		try {
+			switch (command) {
+				case DRAW:
+					int code = in.get() & 0xFF;
+					if (SaveIO.tileCode(session.draw()) != code) {
+						throw new IOException(filename + "@" + offset + ": A different tile was drawn than in the game");
+					}
+					break;
+				case ROTATE:
+					session.rotateTileToInsert(in.get());
+					break;
+				case INSERT:
+					int insertionDirection = in.get();
+					session.insert(insertionDirection, in.getInt());
+					break;
+				case ACTION:
+					int action = in.get();
+					int x = in.getInt();
+					int y = in.getInt();
+					if (action < 0 || action >= ActionTile.ActionType.values().length
+							|| !session.playAction(ActionTile.ActionType.values()[action], x, y)) {
+						throw new IOException(filename + "@" + offset + ": Invalid action " + action);
+					}
+					break;
+				case SKIP:
+					session.skipAction();
+					break;
+				case MOVE:
+					int moveX = in.getInt();
+					session.move(moveX, in.getInt());
+					break;
+				case PASS:
+					session.passMovement();
+					break;
+				case SEED:
+					session.setSeed(in.getLong());
+					break;
+				default:
+					throw new IOException(filename + "@" + offset + ": Unknown command " + command);
+			}
+		} catch (IllegalStateException | IllegalArgumentException e) {
+			throw new IOException(filename + "@" + offset + ": " + e.getMessage(), e);
+		}
+	}
+}
@@ -0,0 +1,635 @@
+package source.labyrinth;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Random;
+
+/**
+ * GameSession is the "Game Manager" for a single game. It owns the Board, the Players, the SilkBag, the
+ * current turn phase and the game clock, and applies the rules of the game through a small command API (draw,
+ * insert, playAction, move). It knows nothing about JavaFX, so whole games can be played without a Stage.
+ * LevelController is only a view on top of a GameSession.
+ * @author Fillip Serov, Erik Miller
+ */
+public class GameSession {
+	/**
+	 * Represent what "phase" of the game we are in. Allow save files to know what stage of the game they
+	 * were at.
+	 */
+	public enum TurnPhases {
+		DRAWING,
+		PLACEMENT,
+		PLAYACTION,
+		MOVEMENT,
+		END
+	}
+
+	// TurnPhases was part of LevelController before the rules moved here, so old saves refer to it by this name
+	private static final String LEGACY_TURN_PHASES_CLASS = "source.labyrinth.controllers.LevelController$TurnPhases";
+
+	private final String levelName; // Name of level we are on, needed to update leaderboards
+	private final Player[] players;
+	private final Board board;
+	private final SilkBag silkBag;
+	// Shared with the SilkBag, so reseeding it decides everything random from then on
+	private final Random random;
+	private int currentPlayer; // 0 to 3, player that is doing their turn
+	private FloorTile floorTileToInsert;
+	private TurnPhases currentTurnPhase;
+	private int winner = -1;
+	// How many times every ActionType has been played since this GameSession was created / loaded, not saved
+	private final int[] actionsPlayed = new int[ActionTile.ActionType.values().length];
+	// Records every command, null if the game is not journaled
+	private GameJournal journal;
+
+	/**
+	 * Build a completely fresh game from a level. Players will be put on their starting locations and they will
+	 * have no action tiles. The game begins in the drawing phase of the first player.
+	 * @param levelData Level to build the game from. Its Board is used directly, not copied.
+	 * @param levelName The name of the level, i.e. "levels/2Goal"
+	 * @param profileIDs Profile id for every player in this game, -1 if a player has no profile. The length of
+	 *                   this array is the amount of players.
+	 */
+	public GameSession(LevelData levelData, String levelName, int[] profileIDs) {
+		this(levelData, levelName, profileIDs, new Random());
+	}
+
+	/**
+	 * Build a completely fresh game from a level, see GameSession(LevelData, String, int[]). Two games built
+	 * from the same level with equally seeded Randoms start with the same board and SilkBag.
+	 * @param levelData Level to build the game from. Its Board is used directly, not copied.
+	 * @param levelName The name of the level, i.e. "levels/2Goal"
+	 * @param profileIDs Profile id for every player in this game, -1 if a player has no profile
+	 * @param random Random used to set up the board, draw from the SilkBag and place bonus actions
+	 */
+	public GameSession(LevelData levelData, String levelName, int[] profileIDs, Random random) {
+		this.random = random;
+		this.silkBag = new SilkBag(random);
+
+		this.levelName = levelName;
+		this.board = levelData.getBoard();
+		this.board.setClock(0, profileIDs.length);
+		this.currentPlayer = 0;
+
+		// Add all floor tiles to the silk bag
+		for (FloorTile.FloorType floorType : FloorTile.FloorType.values()) {
+			int amount = levelData.getFloorTileAmount(floorType);
+			for (int i = 0; i < amount; i++) {
+				silkBag.addTile(new FloorTile(random.nextInt(4), floorType));
+			}
+		}
+
+		// IMPORTANT: Before we create and add action tiles to the bag, we use the silk bag to fill up
+		// the board with random tiles (since we know only floor tiles are stored in the bag right now).
+		int emptyTiles = 0;
+		for (int x = 0; x < this.board.getWidth(); x++) {
+			for (int y = 0; y < this.board.getHeight(); y++) {
+				emptyTiles += this.board.getTileAt(x, y) == null ? 1 : 0;
+			}
+		}
+		ArrayList<Tile> drawnTiles = silkBag.drawMany(emptyTiles);
+		for (int x = 0; x < this.board.getWidth(); x++) {
+			for (int y = 0; y < this.board.getHeight(); y++) {
+				if (this.board.getTileAt(x, y) == null) {
+					emptyTiles--;
+					this.board.setTileAt((FloorTile) drawnTiles.get(emptyTiles), x, y);
+				}
+			}
+		}
+
+		for (ActionTile.ActionType tileType : ActionTile.ActionType.values()) {
+			int amount = levelData.getActionTileAmount(tileType);
+			for (int i = 0; i < amount; i++) {
+				silkBag.addTile(new ActionTile(tileType));
+			}
+		}
+
+		this.players = new Player[profileIDs.length];
+		for (int i = 0; i < players.length; i++) {
+			Player newPlayer = new Player(i, profileIDs[i]);
+
+			int[] startingPosition = levelData.getPlayerStartingPositions()[i];
+			this.board.placePlayer(newPlayer, startingPosition[0], startingPosition[1]);
+
+			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
+			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
+			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
+
+			players[i] = newPlayer;
+		}
+
+		startDrawingPhase();
+	}
+
+	/**
+	 * Used when rebuilding a game from a save file, see readFromSave and SaveIO. The SilkBag has to draw with the
+	 * given Random.
+	 */
+	GameSession(String levelName, Player[] players, int currentPlayer, Board board,
+						FloorTile floorTileToInsert, TurnPhases currentTurnPhase, SilkBag silkBag, Random random) {
+		this.random = random;
+		this.levelName = levelName;
+		this.players = players;
+		this.currentPlayer = currentPlayer;
+		this.board = board;
+		this.floorTileToInsert = floorTileToInsert;
+		this.currentTurnPhase = currentTurnPhase;
+		this.silkBag = silkBag;
+	}
+
+	/**
+	 * Get the current game time as an int. Will always be above 0.
+	 * @return int representing the game time.
+	 */
+	public int getCurrentTime() {
+		return board.getCurrentTime();
+	}
+
+	/**
+	 * Get the amount of time it takes for all players to complete a turn in this specific game, as this will
+	 * change depending on the amount of players.
+	 * @return int showing the time it takes for all players to do a one turn.
+	 */
+	public int getTimeForFullLoop() {
+		return board.getTimeForFullLoop();
+	}
+
+	/**
+	 * Rebuild a previous game from a save file serialized by an older version of the game. Saves are now written
+	 * and read by SaveIO, which uses this for the old ones.
+	 * @param save Stream to read the game from, positioned at the serialization stream header
+	 * @return The GameSession, in the phase it was saved in
+	 * @throws IOException If the stream could not be read
+	 * @throws ClassNotFoundException If the stream does not contain a save
+	 */
+	public static GameSession readFromSave(InputStream save) throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new SaveInputStream(save);
+		int savedTime = (int) in.readObject();
+		String savedLevelName = (String) in.readObject();
+		Player[] savedPlayers = (Player[]) in.readObject();
+		int savedCurrentPlayer = (int) in.readObject();
+		Board savedBoard = (Board) in.readObject();
+		FloorTile savedFloorTileToInsert = (FloorTile) in.readObject();
+		TurnPhases savedTurnPhase = (TurnPhases) in.readObject();
+		LinkedList<Tile> savedBag = (LinkedList<Tile>) in.readObject();
+
+		savedBoard.setClock(savedTime, savedPlayers.length);
+
+		Random random = new Random();
+		return new GameSession(savedLevelName, savedPlayers, savedCurrentPlayer, savedBoard,
+				savedFloorTileToInsert, savedTurnPhase, SilkBag.importFromSave(savedBag, random), random);
+	}
+
+	/**
+	 * Record every command from now on in a journal, see GameJournal.
+	 * @param journal Journal to record in, null to stop recording
+	 */
+	void setJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Seed the Random of the game with a new seed drawn from it. Given the state of the game at this point and
+	 * the seed, the rest of the game plays out the same from the same commands.
+	 * @return The new seed
+	 */
+	long reseed() {
+		long seed = random.nextLong();
+		random.setSeed(seed);
+		return seed;
+	}
+
+	/**
+	 * Seed the Random of the game, i.e. with a seed given by reseed before the game was saved.
+	 * @param seed The seed
+	 */
+	void setSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	/**
+	 * @return Name of the level this game is played on
+	 */
+	public String getLevelName() {
+		return levelName;
+	}
+
+	/**
+	 * @return The Board of this game
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * @param action ActionType
+	 * @return How many times the action has been played since this game was created or loaded
+	 */
+	public int getTimesPlayed(ActionTile.ActionType action) {
+		return actionsPlayed[action.ordinal()];
+	}
+
+	/**
+	 * @return The SilkBag of this game
+	 */
+	public SilkBag getSilkBag() {
+		return silkBag;
+	}
+
+	/**
+	 * @return All players in this game, indexed by their id in game
+	 */
+	public Player[] getPlayers() {
+		return players;
+	}
+
+	/**
+	 * @return 0 to 3, the player that is doing their turn
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * @return The phase of the current turn
+	 */
+	public TurnPhases getTurnPhase() {
+		return currentTurnPhase;
+	}
+
+	/**
+	 * @return The FloorTile waiting to be inserted during the placement phase, null otherwise
+	 */
+	public FloorTile getFloorTileToInsert() {
+		return floorTileToInsert;
+	}
+
+	/**
+	 * @return Id in game of the player that won, -1 if the game has not ended
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Draw a tile from the silk bag to start the turn. A FloorTile moves the game to the placement phase, unless
+	 * every row and column is fixed, in which case it goes straight back into the bag. An ActionTile is given to
+	 * the current player and the game moves to the play action phase.
+	 * @return The Tile that was drawn
+	 * @throws IllegalStateException If we are not in the drawing phase
+	 */
+	public Tile draw() throws IllegalStateException {
+		checkPhase(TurnPhases.DRAWING);
+		Tile received = silkBag.getRandomTile();
+
+		if (received instanceof FloorTile) {
+			FloorTile drawnFloorTile = (FloorTile) received;
+			// With some clever use of the ice actions, we could potentially freeze all columns and rows, therefore
+			// check that there is at least one insertable column / row before continuing.
+			if (hasInsertablePosition()) {
+				this.floorTileToInsert = drawnFloorTile;
+				currentTurnPhase = TurnPhases.PLACEMENT;
+			} else {
+				silkBag.addTile(new FloorTile(drawnFloorTile.getOrientation(), drawnFloorTile.getFloorType()));
+				currentTurnPhase = TurnPhases.PLAYACTION;
+			}
+		} else {
+			ActionTile thisAction = (ActionTile) received;
+			Player player = players[currentPlayer];
+
+			// Add 0.5f to the amount the player has (of this action). When we check how many we have in the
+			// PlayAction phase, we will round down. At the end of the turn, any actions that have a hanging
+			// 0.5f will get rounded up. Because of this we don't have to store instances of ActionTiles.
+			player.setActionAmount(thisAction.getType(), player.getActionAmount(thisAction.getType()) + 0.5f);
+			currentTurnPhase = TurnPhases.PLAYACTION;
+		}
+		if (journal != null) {
+			journal.drawn(received);
+		}
+		return received;
+	}
+
+	/**
+	 * Rotate the FloorTile that is waiting to be inserted.
+	 * @param rotation Either 1 or (-1)
+	 * @throws IllegalStateException If we are not in the placement phase
+	 */
+	public void rotateTileToInsert(int rotation) throws IllegalStateException {
+		checkPhase(TurnPhases.PLACEMENT);
+		floorTileToInsert.rotateBy(rotation);
+		if (journal != null) {
+			journal.rotated(rotation);
+		}
+	}
+
+	/**
+	 * Insert the drawn FloorTile into the board and move on to the play action phase.
+	 * @param insertionDirection int from 0 to 3 representing the cardinal directions
+	 * @param insertionPoint int from 0 to max width/height, represents in which row/column to insert into.
+	 * @throws IllegalStateException If we are not in the placement phase
+	 * @throws IllegalArgumentException If that row/column cannot be inserted into
+	 */
+	public void insert(int insertionDirection, int insertionPoint)
+			throws IllegalStateException, IllegalArgumentException {
+		checkPhase(TurnPhases.PLACEMENT);
+		if (!canInsertAt(insertionDirection, insertionPoint)) {
+			throw new IllegalArgumentException("Cannot insert into a fixed row/column.");
+		}
+
+		silkBag.addTile(this.board.insertFloorTile(this.floorTileToInsert, insertionDirection, insertionPoint));
+		this.floorTileToInsert = null;
+		currentTurnPhase = TurnPhases.PLAYACTION;
+		if (journal != null) {
+			journal.inserted(insertionDirection, insertionPoint);
+		}
+	}
+
+	/**
+	 * Play an action tile of the current player.
+	 * FIRE and ICE are applied in the 3 x 3 area around (x, y), DOUBLEMOVE moves the current player onto (x, y) and
+	 * BACKTRACK sends the player standing on (x, y) back in time.
+	 * @param action The action to play
+	 * @param x X-position the action is used on
+	 * @param y Y-position the action is used on
+	 * @return true if the action was applied, false if it cannot be used there (nothing changes in that case)
+	 * @throws IllegalStateException If we are not in the play action phase or the player has no such action
+	 */
+	public boolean playAction(ActionTile.ActionType action, int x, int y) throws IllegalStateException {
+		checkPhase(TurnPhases.PLAYACTION);
+		Player player = players[currentPlayer];
+		// Actions drawn this turn are worth 0.5f, so they cannot be used until the next turn
+		if (player.getActionAmount(action) < 1) {
+			throw new IllegalStateException("Player " + currentPlayer + " has no usable " + action + " action.");
+		}
+
+		switch (action) {
+			case FIRE:
+				// Fire will only apply if there are no players in the 3 x 3 area
+				if (!board.canSetOnFire(x, y)) {
+					return false;
+				}
+				board.setOnFire(x, y);
+				break;
+			case ICE:
+				board.setFreezeOn(x, y);
+				break;
+			case DOUBLEMOVE:
+				if (!canCurrentPlayerMoveTo(x, y)) {
+					return false;
+				}
+				movePlayer(player, x, y);
+				break;
+			case BACKTRACK:
+				Player toBacktrack = board.getTileAt(x, y).getPlayer();
+				int howFar = (toBacktrack == null) ? 0 : getBacktrackDistance(toBacktrack);
+				if (howFar == 0) {
+					return false;
+				}
+				int[] backPosition = toBacktrack.getPastPositions()[howFar];
+				board.placePlayer(toBacktrack, backPosition[0], backPosition[1]);
+				toBacktrack.setHasBeenBacktracked(true);
+				break;
+		}
+
+		player.removeAction(action);
+		actionsPlayed[action.ordinal()]++;
+		// A double move can land on a goal, which ends the game
+		if (currentTurnPhase != TurnPhases.END) {
+			currentTurnPhase = TurnPhases.MOVEMENT;
+		}
+		if (journal != null) {
+			journal.actionPlayed(action, x, y);
+		}
+		return true;
+	}
+
+	/**
+	 * Do not play any action this turn and go to the movement phase.
+	 * @throws IllegalStateException If we are not in the play action phase
+	 */
+	public void skipAction() throws IllegalStateException {
+		checkPhase(TurnPhases.PLAYACTION);
+		currentTurnPhase = TurnPhases.MOVEMENT;
+		if (journal != null) {
+			journal.actionSkipped();
+		}
+	}
+
+	/**
+	 * Move the current player to a neighbouring tile, which ends their turn (or the game, if it is a goal).
+	 * @param x X-position of new tile to move on
+	 * @param y Y-position of new tile to move on
+	 * @return true if the player won by moving onto a goal, see getWinner
+	 * @throws IllegalStateException If we are not in the movement phase
+	 * @throws IllegalArgumentException If the current player cannot move to (x, y)
+	 */
+	public boolean move(int x, int y) throws IllegalStateException, IllegalArgumentException {
+		checkPhase(TurnPhases.MOVEMENT);
+		if (!canCurrentPlayerMoveTo(x, y)) {
+			throw new IllegalArgumentException("Player " + currentPlayer + " cannot move to " + x + ", " + y);
+		}
+
+		boolean won = movePlayer(players[currentPlayer], x, y);
+		if (!won) {
+			endTurn();
+		}
+		if (journal != null) {
+			journal.moved(x, y);
+		}
+		return won;
+	}
+
+	/**
+	 * When the current player has no available moves they remain where they are, ending their turn.
+	 * @throws IllegalStateException If we are not in the movement phase, or the player could still move
+	 */
+	public void passMovement() throws IllegalStateException {
+		checkPhase(TurnPhases.MOVEMENT);
+		if (canCurrentPlayerMove()) {
+			throw new IllegalStateException("Player " + currentPlayer + " still has available moves.");
+		}
+		endTurn();
+		if (journal != null) {
+			journal.movementPassed();
+		}
+	}
+
+	/**
+	 * @return Boolean array showing in which directions (0 to 3) the current player can move.
+	 */
+	public Boolean[] getCurrentPlayerMoves() {
+		int[] pos = getPlayerXYPosition(currentPlayer);
+		return board.getMovableFrom(pos[0], pos[1]);
+	}
+
+	/**
+	 * @return true if the current player can move in at least one direction
+	 */
+	public boolean canCurrentPlayerMove() {
+		int[] pos = getPlayerXYPosition(currentPlayer);
+		return board.getMovableBitsFrom(pos[0], pos[1]) != 0;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return true if (x, y) is a neighbour of the current player that they can move to
+	 */
+	public boolean canCurrentPlayerMoveTo(int x, int y) {
+		int[] pos = getPlayerXYPosition(currentPlayer);
+		int moveBits = board.getMovableBitsFrom(pos[0], pos[1]);
+		int dx = x - pos[0];
+		int dy = y - pos[1];
+		return (dy == -1 && dx == 0 && (moveBits & FloorTile.NORTH) != 0)
+				|| (dx == 1 && dy == 0 && (moveBits & FloorTile.EAST) != 0)
+				|| (dy == 1 && dx == 0 && (moveBits & FloorTile.SOUTH) != 0)
+				|| (dx == -1 && dy == 0 && (moveBits & FloorTile.WEST) != 0);
+	}
+
+	/**
+	 * @param player Player
+	 * @return How many turns back the player can be backtracked, 0 if they cannot be backtracked
+	 */
+	public int getBacktrackDistance(Player player) {
+		int howFar = 0;
+		if (!player.getHasBeenBacktracked()) {
+			int[][] pos = player.getPastPositions();
+			howFar = (board.getTileAt(pos[2][0], pos[2][1]).canMoveTo()) ? 1 : 0;
+			howFar = (board.getTileAt(pos[1][0], pos[1][1]).canMoveTo()) ? howFar + 1 : 0;
+		}
+		return howFar;
+	}
+
+	/**
+	 * Find a Player on the Board.
+	 * @param playerID playerID
+	 * @return index 0 is x coordinate 1 is y, null if the player is not on the board
+	 */
+	public int[] getPlayerXYPosition(int playerID) {
+		return board.getPlayerPosition(playerID);
+	}
+
+	/**
+	 * gets positions of all players on board
+	 * @return first index is players ID, second coordinates 0 for x, 1 for y
+	 */
+	public int[][] getAllPlayersXYPosition() {
+		int[][] result = new int[players.length][];
+		for (int i = 0; i < players.length; i++) {
+			int[] position = board.getPlayerPosition(i);
+			result[i] = position != null ? position : new int[2];
+		}
+		return result;
+	}
+
+	/**
+	 * @param insertionDirection int from 0 to 3 representing the cardinal directions
+	 * @param insertionPoint int from 0 to max width/height
+	 * @return true if the drawn tile could be inserted there
+	 */
+	public boolean canInsertAt(int insertionDirection, int insertionPoint) {
+		// Directions 0 and 2 insert into a column, 1 and 3 into a row
+		boolean columnInsert = insertionDirection % 2 == 0;
+		int lines = columnInsert ? board.getWidth() : board.getHeight();
+		if (insertionDirection < 0 || insertionDirection > 3 || insertionPoint < 0 || insertionPoint >= lines) {
+			return false;
+		}
+		return columnInsert ? board.isColumnInsertable(insertionPoint) : board.isRowInsertable(insertionPoint);
+	}
+
+	/**
+	 * @return true if there is at least one row or column a FloorTile can be inserted into
+	 */
+	private boolean hasInsertablePosition() {
+		boolean insertable = false;
+		for (int x = 0; x < board.getWidth() && !insertable; x++) {
+			insertable = board.isColumnInsertable(x);
+		}
+		for (int y = 0; y < board.getHeight() && !insertable; y++) {
+			insertable = board.isRowInsertable(y);
+		}
+		return insertable;
+	}
+
+	/**
+	 * Moves a player, checking whether they have won by stepping onto a goal.
+	 * @param player Player to move
+	 * @param x X-position of new tile to move on
+	 * @param y Y-position of new tile to move on
+	 * @return true if the player won
+	 */
+	private boolean movePlayer(Player player, int x, int y) {
+		board.placePlayer(player, x, y);
+		player.addToPastPositions(x, y);
+
+		boolean won = board.getTileAt(x, y).isItGoal();
+		if (won) {
+			winner = player.getIdInGame();
+			currentTurnPhase = TurnPhases.END;
+		}
+		return won;
+	}
+
+	/**
+	 * Ends the turn of the current player and starts the drawing phase of the next one.
+	 */
+	private void endTurn() {
+		// If a tile amount has a decimal (*.5), then they received one of those action tiles this turn,
+		// so we bump it up so that it is fully usable next turn.
+		Player endingPlayer = players[currentPlayer];
+		for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
+			if (endingPlayer.getActionAmount(at) % 1.0f != 0) {
+				endingPlayer.setActionAmount(at, (float) Math.ceil(endingPlayer.getActionAmount(at)));
+			}
+		}
+
+		// Go up by one or rotate back to 0
+		currentPlayer = (currentPlayer < players.length - 1) ? currentPlayer + 1 : 0;
+		board.advanceTime();
+
+		startDrawingPhase();
+	}
+
+	/**
+	 * Begins the drawing phase, possibly putting a bonus action on the board.
+	 */
+	private void startDrawingPhase() {
+		currentTurnPhase = TurnPhases.DRAWING;
+		board.putRandomBonus(random);
+	}
+
+	/**
+	 * @param expected The phase a command can be used in
+	 * @throws IllegalStateException If the game is in a different phase
+	 */
+	private void checkPhase(TurnPhases expected) throws IllegalStateException {
+		if (currentTurnPhase != expected) {
+			throw new IllegalStateException("Expected phase " + expected + " but game is in " + currentTurnPhase);
+		}
+	}
+
+	/**
+	 * Reads the classes of old saves that have since been moved under their current name.
+	 */
+	private static final class SaveInputStream extends ObjectInputStream {
+		/**
+		 * @param in Stream to read the save from
+		 * @throws IOException If the stream header cannot be read
+		 */
+		private SaveInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			ObjectStreamClass descriptor = super.readClassDescriptor();
+			// Enums are saved by the names of their constants, so the one here reads the same
+			return descriptor.getName().equals(LEGACY_TURN_PHASES_CLASS) ? ObjectStreamClass.lookup(TurnPhases.class)
+					: descriptor;
+		}
+	}
+}
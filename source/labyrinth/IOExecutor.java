@@ -0,0 +1,131 @@
+package source.labyrinth;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * IOExecutor runs reading and writing files and talking to the network away from the JavaFX application thread, so
+ * a slow disk or a stalled connection never freezes the window. The async variants of the file and network methods
+ * (i.e. SaveIO.writeSaveAsync) hand their work to it and return a CompletableFuture, and onFxThread brings the
+ * result back to the JavaFX application thread.
+ * Files are read and written by a single thread, one task at a time in the order they were given, so a file is
+ * never written by two tasks at once and is always read after the writes given before. The network has its own
+ * thread, so a stalled connection does not hold up the files.
+ * Both threads are daemons, so they never keep the game running once the window is closed. When the game exits, the
+ * file thread is given time to finish the writes it was given first, so a save or the profiles are not cut off half
+ * way (see shutdown).
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class IOExecutor {
+	private static final ExecutorService FILES = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "File I/O"));
+	private static final ExecutorService NETWORK = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "Network I/O"));
+	// Longest the game waits for the file thread when it exits
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+	static {
+		// Runs however the game exits: closing the window, Platform.exit or System.exit
+		Runtime.getRuntime().addShutdownHook(new Thread(IOExecutor::shutdown, "I/O shutdown"));
+	}
+
+	/**
+	 * Work done by the I/O threads.
+	 * @param <T> Type of the result
+	 */
+	public interface IOTask<T> {
+		/**
+		 * @return The result
+		 * @throws Exception If the work fails, which fails the future
+		 */
+		T call() throws Exception;
+	}
+
+	/**
+	 * Read or write files on the file thread, after everything given to it before.
+	 * @param task Work to do
+	 * @param <T> Type of the result
+	 * @return Future completed with the result, or failed with what the task threw
+	 */
+	public static <T> CompletableFuture<T> file(IOTask<T> task) {
+		return submit(task, FILES);
+	}
+
+	/**
+	 * Talk to the network on the network thread.
+	 * @param task Work to do
+	 * @param <T> Type of the result
+	 * @return Future completed with the result, or failed with what the task threw
+	 */
+	public static <T> CompletableFuture<T> network(IOTask<T> task) {
+		return submit(task, NETWORK);
+	}
+
+	/**
+	 * Finish the file tasks already given and take no more. Network tasks are dropped, they only ever read.
+	 * Called when the game exits, it waits at most SHUTDOWN_TIMEOUT_SECONDS for the files.
+	 */
+	public static void shutdown() {
+		NETWORK.shutdownNow();
+		FILES.shutdown();
+		try {
+			if (!FILES.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				System.out.println("Gave up waiting for files to be written.");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Handle the result of a future on the JavaFX application thread once it is done.
+	 * @param future Future to wait for
+	 * @param onSuccess Given the result if the future completes
+	 * @param onFailure Given what went wrong if the future fails, i.e. the IOException thrown by the task
+	 * @param <T> Type of the result
+	 */
+	public static <T> void onFxThread(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+		future.whenComplete((result, error) -> Platform.runLater(() -> {
+			if (error == null) {
+				onSuccess.accept(result);
+			} else {
+				// whenComplete hands over what the task threw wrapped in a CompletionException
+				onFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+			}
+		}));
+	}
+
+	/**
+	 * @param task Work to do
+	 * @param executor Thread to do it on
+	 * @param <T> Type of the result
+	 * @return Future completed with the result, or failed with what the task threw
+	 */
+	private static <T> CompletableFuture<T> submit(IOTask<T> task, ExecutorService executor) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			try {
+				future.complete(task.call());
+			} catch (Exception e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * @param runnable What the thread runs
+	 * @param name Name of the thread
+	 * @return A daemon thread
+	 */
+	private static Thread daemon(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+}
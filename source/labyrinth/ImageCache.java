@@ -0,0 +1,108 @@
+package source.labyrinth;
+
+import javafx.scene.image.Image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * ImageCache holds the images used to draw the game, loaded and scaled to the sizes they are drawn at. Loading an
+ * image means decoding the png every time, so boards are drawn from the cache instead of making new Images for every
+ * tile. Images are kept by URL and size, up to MAX_CACHED_BYTES of pixels, dropping the least recently used first.
+ * Images are never changed once loaded, so the same Image can be shown in any amount of ImageViews.
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class ImageCache {
+	private static final long MAX_CACHED_BYTES = 64L * 1024 * 1024;
+	private static final int BYTES_PER_PIXEL = 4;
+	private static final int STARTING_CAPACITY = 64;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// In access order, so the least recently used image comes first
+	private static final LinkedHashMap<String, Image> IMAGES =
+			new LinkedHashMap<>(STARTING_CAPACITY, LOAD_FACTOR, true);
+	private static long cachedBytes = 0;
+
+	/**
+	 * Get an image scaled to a square, without keeping its ratio or smoothing it.
+	 * @param url URL of the image, i.e. "source/resources/img/tile_none.png"
+	 * @param size Width and height to scale the image to
+	 * @return The scaled image
+	 */
+	public static Image getImage(String url, double size) {
+		return getImage(url, size, size);
+	}
+
+	/**
+	 * Get an image scaled to a size, without keeping its ratio or smoothing it. This is the same as
+	 * new Image(url, width, height, false, false), except that the image is only loaded the first time.
+	 * @param url URL of the image, i.e. "source/resources/img/tile_none.png"
+	 * @param width Width to scale the image to
+	 * @param height Height to scale the image to
+	 * @return The scaled image
+	 */
+	public static Image getImage(String url, double width, double height) {
+		String key = url + "@" + width + "x" + height;
+		Image image;
+		synchronized (IMAGES) {
+			image = IMAGES.get(key);
+		}
+		if (image == null) {
+			image = new Image(url, width, height, false, false);
+			// Images that failed to load are not kept, so they are tried again next time
+			if (!image.isError()) {
+				put(key, image);
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * Forget every image.
+	 */
+	public static void clear() {
+		synchronized (IMAGES) {
+			IMAGES.clear();
+			cachedBytes = 0;
+		}
+	}
+
+	/**
+	 * @return Amount of images cached
+	 */
+	public static int size() {
+		synchronized (IMAGES) {
+			return IMAGES.size();
+		}
+	}
+
+	/**
+	 * Cache an image, dropping the least recently used images if there are too many bytes cached.
+	 * @param key URL and size of the image
+	 * @param image Image to cache
+	 */
+	private static void put(String key, Image image) {
+		synchronized (IMAGES) {
+			Image replaced = IMAGES.put(key, image);
+			if (replaced != null) {
+				cachedBytes -= bytesOf(replaced);
+			}
+			cachedBytes += bytesOf(image);
+
+			Iterator<Image> leastRecentlyUsed = IMAGES.values().iterator();
+			while (cachedBytes > MAX_CACHED_BYTES && IMAGES.size() > 1) {
+				cachedBytes -= bytesOf(leastRecentlyUsed.next());
+				leastRecentlyUsed.remove();
+			}
+		}
+	}
+
+	/**
+	 * @param image A loaded image
+	 * @return Memory taken by the pixels of the image
+	 */
+	private static long bytesOf(Image image) {
+		return (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight()) * BYTES_PER_PIXEL;
+	}
+}
@@ -0,0 +1,410 @@
+package source.labyrinth;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * LeaderboardStore keeps the leaderboards of every level, the amount of wins of every profile that has played a
+ * level. All of them are kept in memory once read, so showing a leaderboard never reads a file.
+ * Finished games are added to the end of a log file, a few bytes each, instead of writing every leaderboard again.
+ * Once the log grows bigger than the leaderboards themselves, the store is compacted on the IOExecutor: every
+ * leaderboard is written to a checkpoint file, which replaces the old one only once it is completely written, and
+ * the log starts over. The checkpoint and the log both hold the generation they belong to, so if the game stops
+ * between replacing the checkpoint and starting over the log, the games in the old log are not counted twice.
+ * Every game in the log has a length and a checksum, so a game cut short by a crash is left out and cut off the log.
+ * The leaderboard files of older versions (a serialized HashMap per level) are read once, the first time there is no
+ * checkpoint, and are left as they are.
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class LeaderboardStore {
+	private static final String CHECKPOINT_FILE_NAME = "leaderboards.dat";
+	private static final String LOG_FILE_NAME = "leaderboards.log";
+	// Files are written here first, then moved over the real file
+	private static final String NEW_EXTENSION = ".new";
+	private static final String LEGACY_SUFFIX = "_leaderboard.ser";
+	private static final int CHECKPOINT_MAGIC = 0x4C4C4244; // "LLBD"
+	private static final int LOG_MAGIC = 0x4C4C424C; // "LLBL"
+	private static final short VERSION = 1;
+	// Magic number, version and generation
+	private static final int HEADER_BYTES = 4 + 2 + 8;
+	// Length and checksum of a game in the log
+	private static final int RECORD_HEADER_BYTES = 4 + 4;
+	private static final int NO_WINNER = -1;
+	// The log is not compacted before it is this big, however small the leaderboards are
+	private static final long MIN_COMPACT_BYTES = 64 * 1024;
+
+	private static File folder = new File("source/resources/leaderboards/");
+	// Wins by profile id, by level name. null until the store has been read
+	private static HashMap<String, HashMap<Integer, Integer>> leaderboards;
+	private static long generation;
+	private static FileChannel log;
+	private static long logBytes;
+	private static long checkpointBytes;
+	private static boolean compactionScheduled;
+
+	/**
+	 * Get the leaderboard of a level.
+	 * @param levelName Level whose leaderboard to get, i.e. "levels/2Goal"
+	 * @return Wins by profile id of every profile that played the level, empty if nobody has. Changing it does not
+	 * change the leaderboard
+	 * @throws IOException If the store cannot be read
+	 */
+	public static synchronized HashMap<Integer, Integer> getLeaderboard(String levelName) throws IOException {
+		open();
+		HashMap<Integer, Integer> leaderboard = leaderboards.get(levelName);
+		return leaderboard == null ? new HashMap<>() : new HashMap<>(leaderboard);
+	}
+
+	/**
+	 * Add a finished game to the leaderboard of its level. Every profile that played is put on the leaderboard, and
+	 * the winner gets another win.
+	 * @param levelName Level the game was played on
+	 * @param profilesThatPlayed Profile ids of the profiles that played
+	 * @param winningProfile Profile id of the winner, null if the winner has no profile
+	 * @throws IOException If the store cannot be read or the game cannot be written to the log
+	 */
+	public static synchronized void recordGame(String levelName, List<Integer> profilesThatPlayed,
+											   Integer winningProfile) throws IOException {
+		open();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream payload = new DataOutputStream(bytes);
+		SaveIO.writeString(payload, levelName);
+		payload.writeInt(winningProfile == null ? NO_WINNER : winningProfile);
+		payload.writeShort(profilesThatPlayed.size());
+		for (int profile : profilesThatPlayed) {
+			payload.writeInt(profile);
+		}
+		byte[] game = bytes.toByteArray();
+		CRC32 checksum = new CRC32();
+		checksum.update(game);
+
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + game.length);
+		record.putInt(game.length).putInt((int) checksum.getValue()).put(game);
+		record.flip();
+		try {
+			while (record.hasRemaining()) {
+				log.write(record);
+			}
+		} catch (IOException e) {
+			// Read the store again next time, which cuts off what was written of this game
+			close();
+			throw e;
+		}
+		logBytes += record.capacity();
+		apply(levelName, profilesThatPlayed, winningProfile);
+
+		// Compacting once the log is bigger than the checkpoint keeps the cost of every game constant
+		if (!compactionScheduled && logBytes > Math.max(MIN_COMPACT_BYTES, checkpointBytes)) {
+			compactionScheduled = true;
+			IOExecutor.file(() -> {
+				compact();
+				return null;
+			}).whenComplete((result, error) -> {
+				if (error != null) {
+					System.out.println("Could not compact the leaderboards.");
+					error.printStackTrace();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Write every leaderboard to a new checkpoint and start the log over.
+	 * @throws IOException If the store cannot be read, or the checkpoint or the log cannot be written
+	 */
+	public static synchronized void compact() throws IOException {
+		open();
+		compactionScheduled = false;
+		long nextGeneration = generation + 1;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream checkpoint = new DataOutputStream(bytes);
+		checkpoint.writeInt(CHECKPOINT_MAGIC);
+		checkpoint.writeShort(VERSION);
+		checkpoint.writeLong(nextGeneration);
+		checkpoint.writeInt(leaderboards.size());
+		for (String levelName : leaderboards.keySet()) {
+			HashMap<Integer, Integer> leaderboard = leaderboards.get(levelName);
+			SaveIO.writeString(checkpoint, levelName);
+			checkpoint.writeInt(leaderboard.size());
+			for (int profile : leaderboard.keySet()) {
+				checkpoint.writeInt(profile);
+				checkpoint.writeInt(leaderboard.get(profile));
+			}
+		}
+		try {
+			replace(new File(folder, CHECKPOINT_FILE_NAME), bytes.toByteArray());
+			checkpointBytes = bytes.size();
+
+			// From here the old log is stale, see the class comment
+			generation = nextGeneration;
+			startLog();
+		} catch (IOException e) {
+			// Read the store again next time, from whichever checkpoint and log made it to the disk
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Keep the leaderboards of another folder than the one the game uses, i.e. for benchmarks. The leaderboards
+	 * already read are forgotten.
+	 * @param leaderboardFolder Folder holding the checkpoint and the log
+	 */
+	public static synchronized void setFolder(File leaderboardFolder) {
+		close();
+		folder = leaderboardFolder;
+	}
+
+	/**
+	 * Read the checkpoint and the log, unless they have been read already.
+	 * @throws IOException If the store cannot be read
+	 */
+	private static void open() throws IOException {
+		if (leaderboards != null) {
+			return;
+		}
+		HashMap<String, HashMap<Integer, Integer>> read = new HashMap<>();
+		File checkpointFile = new File(folder, CHECKPOINT_FILE_NAME);
+		boolean hasCheckpoint = checkpointFile.exists();
+		long checkpointGeneration = 0;
+		if (hasCheckpoint) {
+			ByteBuffer in = SaveIO.readFully(checkpointFile.getPath(), Integer.MAX_VALUE);
+			checkpointBytes = in.remaining();
+			checkpointGeneration = readCheckpoint(in, read, checkpointFile);
+		} else {
+			checkpointBytes = 0;
+			readLegacyLeaderboards(folder, "", read);
+		}
+
+		leaderboards = read;
+		generation = checkpointGeneration;
+		File logFile = new File(folder, LOG_FILE_NAME);
+		try {
+			long validBytes = hasCheckpoint ? readLog(logFile) : 0;
+			if (validBytes == 0) {
+				// There is no checkpoint, or no log that belongs to it
+				compact();
+			} else {
+				log = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE);
+				// Cut off a game that was cut short, so the games after it can be read
+				log.truncate(validBytes);
+				log.position(validBytes);
+				logBytes = validBytes;
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Forget everything read, so the store is read again next time.
+	 */
+	private static void close() {
+		if (log != null) {
+			try {
+				log.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		log = null;
+		leaderboards = null;
+		compactionScheduled = false;
+	}
+
+	/**
+	 * @param in The checkpoint file
+	 * @param read Leaderboards to read into
+	 * @param checkpointFile The file, for errors
+	 * @return Generation of the checkpoint
+	 * @throws IOException If the file is not a valid checkpoint
+	 */
+	private static long readCheckpoint(ByteBuffer in, HashMap<String, HashMap<Integer, Integer>> read,
+									   File checkpointFile) throws IOException {
+		try {
+			if (in.getInt() != CHECKPOINT_MAGIC || in.getShort() != VERSION) {
+				throw new IOException(checkpointFile + " is not a leaderboard checkpoint");
+			}
+			long checkpointGeneration = in.getLong();
+			int levels = in.getInt();
+			for (int i = 0; i < levels; i++) {
+				HashMap<Integer, Integer> leaderboard = new HashMap<>();
+				read.put(SaveIO.readString(in), leaderboard);
+				int entries = in.getInt();
+				for (int j = 0; j < entries; j++) {
+					leaderboard.put(in.getInt(), in.getInt());
+				}
+			}
+			return checkpointGeneration;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(checkpointFile + " ends before the leaderboards do");
+		}
+	}
+
+	/**
+	 * Apply the games in the log to the leaderboards, if the log belongs to the checkpoint that was read.
+	 * @param logFile The log file
+	 * @return Bytes of the log up to the end of the last complete game, 0 if the log does not belong to the
+	 * checkpoint or does not exist
+	 * @throws IOException If the log cannot be read or is from a newer checkpoint than the one that was read
+	 */
+	private static long readLog(File logFile) throws IOException {
+		ByteBuffer in;
+		try {
+			in = SaveIO.readFully(logFile.getPath(), Integer.MAX_VALUE);
+		} catch (FileNotFoundException e) {
+			return 0;
+		}
+		if (in.remaining() < HEADER_BYTES || in.getInt() != LOG_MAGIC || in.getShort() != VERSION) {
+			throw new IOException(logFile + " is not a leaderboard log");
+		}
+		long logGeneration = in.getLong();
+		if (logGeneration > generation) {
+			throw new IOException(logFile + " belongs to a checkpoint that is missing");
+		} else if (logGeneration < generation) {
+			// The checkpoint was replaced but the log was not started over, all its games are in the checkpoint
+			return 0;
+		}
+
+		long validBytes = in.position();
+		boolean complete = true;
+		while (complete && in.remaining() >= RECORD_HEADER_BYTES) {
+			int length = in.getInt();
+			int expected = in.getInt();
+			complete = length >= 0 && length <= in.remaining();
+			if (complete) {
+				byte[] payload = new byte[length];
+				in.get(payload);
+				CRC32 checksum = new CRC32();
+				checksum.update(payload);
+				complete = (int) checksum.getValue() == expected && applyRecord(ByteBuffer.wrap(payload));
+			}
+			if (complete) {
+				validBytes = in.position();
+			}
+		}
+		return validBytes;
+	}
+
+	/**
+	 * @param payload A game from the log, without its length and checksum
+	 * @return false if the game is not valid, in which case nothing is changed
+	 */
+	private static boolean applyRecord(ByteBuffer payload) {
+		try {
+			String levelName = SaveIO.readString(payload);
+			int winner = payload.getInt();
+			int amount = payload.getShort();
+			Integer[] profiles = new Integer[Math.max(amount, 0)];
+			for (int i = 0; i < profiles.length; i++) {
+				profiles[i] = payload.getInt();
+			}
+			apply(levelName, Arrays.asList(profiles), winner == NO_WINNER ? null : winner);
+			return true;
+		} catch (IOException | BufferUnderflowException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param levelName Level the game was played on
+	 * @param profilesThatPlayed Profile ids of the profiles that played
+	 * @param winningProfile Profile id of the winner, null if the winner has no profile
+	 */
+	private static void apply(String levelName, List<Integer> profilesThatPlayed, Integer winningProfile) {
+		HashMap<Integer, Integer> leaderboard = leaderboards.computeIfAbsent(levelName, level -> new HashMap<>());
+		for (int profile : profilesThatPlayed) {
+			leaderboard.putIfAbsent(profile, 0);
+		}
+		if (winningProfile != null) {
+			leaderboard.merge(winningProfile, 1, Integer::sum);
+		}
+	}
+
+	/**
+	 * Start the log over, empty, for the current generation.
+	 * @throws IOException If the log cannot be written
+	 */
+	private static void startLog() throws IOException {
+		if (log != null) {
+			log.close();
+			log = null;
+		}
+		File logFile = new File(folder, LOG_FILE_NAME);
+		replace(logFile, ByteBuffer.allocate(HEADER_BYTES).putInt(LOG_MAGIC).putShort(VERSION).putLong(generation)
+				.array());
+		log = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		logBytes = HEADER_BYTES;
+	}
+
+	/**
+	 * Replace a file, only once the new one is completely written and on the disk.
+	 * @param file File to replace
+	 * @param contents What the file should hold
+	 * @throws IOException If the file cannot be written
+	 */
+	private static void replace(File file, byte[] contents) throws IOException {
+		Files.createDirectories(folder.toPath());
+		File newFile = new File(folder, file.getName() + NEW_EXTENSION);
+		FileChannel channel = FileChannel.open(newFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer out = ByteBuffer.wrap(contents);
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+		Files.move(newFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read the leaderboard files of older versions in a folder and the folders in it.
+	 * @param directory Folder to look in
+	 * @param prefix Level name of the folder, i.e. "levels/"
+	 * @param read Leaderboards to read into
+	 */
+	private static void readLegacyLeaderboards(File directory, String prefix,
+											   HashMap<String, HashMap<Integer, Integer>> read) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					readLegacyLeaderboards(file, prefix + file.getName() + "/", read);
+				} else if (file.getName().endsWith(LEGACY_SUFFIX)) {
+					String levelName = prefix + file.getName().substring(0, file.getName().length() - LEGACY_SUFFIX.length());
+					try {
+						ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(file));
+						try {
+							read.put(levelName, (HashMap<Integer, Integer>) objectInputStream.readObject());
+						} finally {
+							objectInputStream.close();
+						}
+					} catch (IOException | ClassNotFoundException | ClassCastException e) {
+						System.out.println("Could not read the old leaderboard " + file + ", it is left out.");
+					}
+				}
+			}
+		}
+	}
+}
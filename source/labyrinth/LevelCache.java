@@ -0,0 +1,209 @@
+package source.labyrinth;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * LevelCache keeps recently read levels in memory, so selecting a level in the menu or starting a game does not read
+ * the level file again every time. Levels are kept by their path and the last modified time of their file, up to
+ * MAX_CACHED_CELLS board cells worth of levels, dropping the least recently used ones first.
+ * A background thread watches the level folders and drops levels as soon as their files change. Levels elsewhere
+ * are still checked against the last modified time of their file every time they are read.
+ * The cached LevelData itself is never handed out, every caller gets its own copy which it can change freely.
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class LevelCache {
+	private static final String[] WATCHED_FOLDERS = {"source/resources/levels", "source/resources/custom_levels"};
+	private static final long MAX_CACHED_CELLS = 4_000_000;
+	private static final int STARTING_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	// In access order, so the least recently used level comes first
+	private static final LinkedHashMap<String, CachedLevel> LEVELS =
+			new LinkedHashMap<>(STARTING_CAPACITY, LOAD_FACTOR, true);
+	private static long cachedCells = 0;
+	private static boolean watching = false;
+
+	/**
+	 * Get a level, reading it only if it isn't cached or its file has changed since. See LevelIO.readLevel.
+	 * @param path Path of the level without an extension, i.e. "source/resources/levels/2Goal"
+	 * @return A copy of the level
+	 * @throws IOException If the level has to be read and cannot be
+	 */
+	public static LevelData getLevel(String path) throws IOException {
+		startWatching();
+		String key = key(path);
+		File file = LevelIO.findLevelFile(path);
+		long lastModified = file.lastModified();
+
+		CachedLevel cached;
+		synchronized (LEVELS) {
+			cached = LEVELS.get(key);
+		}
+		if (cached == null || cached.lastModified != lastModified || !cached.file.equals(file)) {
+			cached = new CachedLevel(file, lastModified, LevelIO.readLevel(path));
+			put(key, cached);
+		}
+		return cached.level.copy();
+	}
+
+	/**
+	 * Get a level on the IOExecutor, see getLevel.
+	 * @param path Path of the level without an extension, i.e. "source/resources/levels/2Goal"
+	 * @return Future completed with a copy of the level, or failed with the IOException if it could not be read
+	 */
+	public static CompletableFuture<LevelData> getLevelAsync(String path) {
+		return IOExecutor.file(() -> getLevel(path));
+	}
+
+	/**
+	 * Forget a level, so it is read again the next time it is asked for.
+	 * @param path Path of the level without an extension
+	 */
+	public static void invalidate(String path) {
+		synchronized (LEVELS) {
+			CachedLevel removed = LEVELS.remove(key(path));
+			if (removed != null) {
+				cachedCells -= removed.cells;
+			}
+		}
+	}
+
+	/**
+	 * Forget every level.
+	 */
+	public static void clear() {
+		synchronized (LEVELS) {
+			LEVELS.clear();
+			cachedCells = 0;
+		}
+	}
+
+	/**
+	 * @return Amount of levels cached
+	 */
+	public static int size() {
+		synchronized (LEVELS) {
+			return LEVELS.size();
+		}
+	}
+
+	/**
+	 * Cache a level, dropping the least recently used levels if there are too many cells cached. The newest level is
+	 * always kept, even if it is bigger than MAX_CACHED_CELLS by itself.
+	 * @param key Key of the level
+	 * @param level Level to cache
+	 */
+	private static void put(String key, CachedLevel level) {
+		synchronized (LEVELS) {
+			CachedLevel replaced = LEVELS.put(key, level);
+			if (replaced != null) {
+				cachedCells -= replaced.cells;
+			}
+			cachedCells += level.cells;
+
+			Iterator<CachedLevel> leastRecentlyUsed = LEVELS.values().iterator();
+			while (cachedCells > MAX_CACHED_CELLS && LEVELS.size() > 1) {
+				cachedCells -= leastRecentlyUsed.next().cells;
+				leastRecentlyUsed.remove();
+			}
+		}
+	}
+
+	/**
+	 * @param path Path of a level without an extension
+	 * @return The same path made absolute, so the same level always gives the same key
+	 */
+	private static String key(String path) {
+		return Paths.get(path).toAbsolutePath().normalize().toString();
+	}
+
+	/**
+	 * Start watching the level folders the first time the cache is used. If that is not possible, levels are only
+	 * checked against the last modified time of their file.
+	 */
+	private static synchronized void startWatching() {
+		if (!watching) {
+			watching = true;
+			try {
+				WatchService watchService = FileSystems.getDefault().newWatchService();
+				for (String folder : WATCHED_FOLDERS) {
+					Path directory = Paths.get(folder);
+					if (Files.isDirectory(directory)) {
+						directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+					}
+				}
+				Thread watcher = new Thread(() -> watch(watchService), "LevelCache watcher");
+				watcher.setDaemon(true);
+				watcher.start();
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.out.println("Could not watch the level folders, relying on last modified times.");
+			}
+		}
+	}
+
+	/**
+	 * Runs on the watcher thread, dropping every level whose file is created, changed or deleted.
+	 * @param watchService WatchService the level folders are registered with
+	 */
+	private static void watch(WatchService watchService) {
+		boolean running = true;
+		while (running) {
+			try {
+				WatchKey watchKey = watchService.take();
+				Path directory = (Path) watchKey.watchable();
+				for (WatchEvent<?> event : watchKey.pollEvents()) {
+					if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						// Some events were lost, so any level could have changed
+						clear();
+					} else {
+						String name = event.context().toString();
+						int extension = name.lastIndexOf('.');
+						if (extension > 0) {
+							invalidate(directory.resolve(name.substring(0, extension)).toString());
+						}
+					}
+				}
+				watchKey.reset();
+			} catch (InterruptedException e) {
+				running = false;
+			}
+		}
+	}
+
+	/**
+	 * A level as it was read from its file.
+	 */
+	private static class CachedLevel {
+		private final File file;
+		private final long lastModified;
+		private final LevelData level;
+		private final long cells;
+
+		/**
+		 * @param file File the level was read from
+		 * @param lastModified Last modified time of the file before it was read
+		 * @param level The level
+		 */
+		private CachedLevel(File file, long lastModified, LevelData level) {
+			this.file = file;
+			this.lastModified = lastModified;
+			this.level = level;
+			this.cells = (long) level.getBoard().getWidth() * level.getBoard().getHeight();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package source.labyrinth;
+
+import java.io.IOException;
+
+/**
+ * LevelConverter is a command line tool that converts levels between the text (.txt) and binary (.lvb) formats.
+ * The format is decided by the extension, a .txt file is converted to .lvb and the other way around.
+ * Usage: LevelConverter level.txt [level.lvb]   or   LevelConverter -all level1.lvb level2.txt ...
+ * Without an output file, the output is written next to the input with the other extension.
+ * @author Fillip Serov
+ */
+public class LevelConverter {
+	/**
+	 * Convert a single level.
+	 * @param input Level file to read
+	 * @param output Level file to write
+	 * @throws IllegalArgumentException If either file does not have a level extension
+	 * @throws IOException If the input cannot be read or the output cannot be written
+	 */
+	public static void convert(String input, String output) throws IllegalArgumentException, IOException {
+		LevelData level;
+		if (input.endsWith(LevelIO.BINARY_EXTENSION)) {
+			level = LevelIO.readBinaryFile(input);
+		} else if (input.endsWith(LevelIO.TEXT_EXTENSION)) {
+			level = LevelIO.readDataFile(input);
+		} else {
+			throw new IllegalArgumentException(input + " is not a level file.");
+		}
+
+		if (output.endsWith(LevelIO.BINARY_EXTENSION)) {
+			LevelIO.writeBinaryFile(level, output);
+		} else if (output.endsWith(LevelIO.TEXT_EXTENSION)) {
+			LevelIO.writeDataFile(level, output);
+		} else {
+			throw new IllegalArgumentException(output + " is not a level file.");
+		}
+	}
+
+	/**
+	 * @param input Level file
+	 * @return The same path with the other level extension
+	 * @throws IllegalArgumentException If the file does not have a level extension
+	 */
+	public static String otherFormat(String input) throws IllegalArgumentException {
+		if (input.endsWith(LevelIO.TEXT_EXTENSION)) {
+			return LevelIO.withoutExtension(input) + LevelIO.BINARY_EXTENSION;
+		} else if (input.endsWith(LevelIO.BINARY_EXTENSION)) {
+			return LevelIO.withoutExtension(input) + LevelIO.TEXT_EXTENSION;
+		}
+		throw new IllegalArgumentException(input + " is not a level file.");
+	}
+
+	/**
+	 * Run the converter from the command line, see the class description for the arguments.
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: LevelConverter level.txt [level.lvb]   or   LevelConverter -all level ...");
+			System.exit(1);
+		}
+
+		boolean failed = false;
+		try {
+			if (args[0].equals("-all")) {
+				for (int i = 1; i < args.length; i++) {
+					convert(args[i], otherFormat(args[i]));
+					System.out.println("Converted " + args[i] + " to " + otherFormat(args[i]));
+				}
+			} else {
+				String output = args.length > 1 ? args[1] : otherFormat(args[0]);
+				convert(args[0], output);
+				System.out.println("Converted " + args[0] + " to " + output);
+			}
+		} catch (IllegalArgumentException | IOException e) {
+			System.out.println("Could not convert: " + e.getMessage());
+			failed = true;
+		}
+		System.exit(failed ? 1 : 0);
+	}
+}
@@ -80,4 +80,21 @@ public class LevelData {
 	public int getActionTileAmount(ActionTile.ActionType typeToGet) {
 		return actionTileAmounts.get(typeToGet);
 	}
+
+	/**
+	 * Copy this LevelData, including a copy of the Board, so a game can be built from it without changing this one.
+	 * @return A copy of this LevelData
+	 */
+	public LevelData copy() {
+		LevelData copy = new LevelData();
+		copy.setBoard(new PackedBoard(board).toBoard(new Player[0]));
+		int[][] startingPositionsCopy = new int[playerStartingPositions.length][];
+		for (int i = 0; i < startingPositionsCopy.length; i++) {
+			startingPositionsCopy[i] = playerStartingPositions[i].clone();
+		}
+		copy.setPlayerStartingPositions(startingPositionsCopy);
+		copy.floorTileAmounts.putAll(floorTileAmounts);
+		copy.actionTileAmounts.putAll(actionTileAmounts);
+		return copy;
+	}
 }
@@ -0,0 +1,73 @@
+package source.labyrinth;
+
+import java.io.IOException;
+
+/**
+ * LevelFormatException is thrown when a level file can be read, but what is in it is not a valid level.
+ * It knows the line and column (or for binary levels, the byte) where the problem was found, so the level can be fixed
+ * by hand.
+ * @author Fillip Serov
+ */
+public class LevelFormatException extends IOException {
+	private static final long serialVersionUID = 1L;
+
+	private final String source;
+	private final int line;
+	private final int column;
+	private final long offset;
+
+	/**
+	 * @param problem What is wrong, i.e. "Expected the width but found 'a'"
+	 * @param source Name of the file being read
+	 * @param line Line of the problem, starting at 1
+	 * @param column Column of the problem, starting at 1
+	 */
+	public LevelFormatException(String problem, String source, int line, int column) {
+		super(source + ":" + line + ":" + column + ": " + problem);
+		this.source = source;
+		this.line = line;
+		this.column = column;
+		this.offset = -1;
+	}
+
+	/**
+	 * @param problem What is wrong, i.e. "The file is not a binary level"
+	 * @param source Name of the file being read
+	 * @param offset Byte of the binary file the problem is at
+	 */
+	public LevelFormatException(String problem, String source, long offset) {
+		super(source + "@" + offset + ": " + problem);
+		this.source = source;
+		this.line = -1;
+		this.column = -1;
+		this.offset = offset;
+	}
+
+	/**
+	 * @return Name of the file being read
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return Line of the problem, starting at 1. -1 for binary files
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * @return Column of the problem, starting at 1
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return Byte of a binary file the problem is at, -1 for text files
+	 */
+	public long getOffset() {
+		return offset;
+	}
+}
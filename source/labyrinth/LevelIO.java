@@ -1,62 +1,154 @@
 package source.labyrinth;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The LevelIO deals with the level files and their leaderboards.
+ * Levels are kept either as text (.txt, written by the level editor) or in a binary format (.lvb) which can be
+ * mapped into memory and read without parsing. The binary format is, big endian:
+ * a header of the magic number, version (short), 0 (short), width, height, the 4 starting positions as x, y,
+ * the amounts of STRAIGHT, TSHAPE, CORNER and GOAL tiles, the amounts of ICE, FIRE, DOUBLEMOVE and BACKTRACK tiles
+ * and the amount of fixed tiles, all ints; then for every fixed tile its cell (y * width + x, an int) followed by
+ * a byte holding the index of its type in that same order times 4, plus its orientation.
  * @author Ian Lavin Rady
  * @author Fillip Serov
  */
 public class LevelIO {
 
 	private static final int TOTAL_NUM_OF_PLAYERS = 4;
+	public static final String TEXT_EXTENSION = ".txt";
+	public static final String BINARY_EXTENSION = ".lvb";
+
+	private static final int BINARY_MAGIC = 0x4C564C42; // "LVLB"
+	private static final short BINARY_VERSION = 1;
+	private static final int BINARY_HEADER_SIZE = 84;
+	private static final int BINARY_FIXED_TILE_SIZE = 5;
+	private static final int ORIENTATIONS = 4;
+	// The order amounts and types are stored in, in both formats
+	private static final FloorTile.FloorType[] FLOOR_TYPE_ORDER = {FloorTile.FloorType.STRAIGHT,
+			FloorTile.FloorType.TSHAPE, FloorTile.FloorType.CORNER, FloorTile.FloorType.GOAL};
+	private static final ActionTile.ActionType[] ACTION_TYPE_ORDER = {ActionTile.ActionType.ICE,
+			ActionTile.ActionType.FIRE, ActionTile.ActionType.DOUBLEMOVE, ActionTile.ActionType.BACKTRACK};
+
+	/**
+	 * Read a level in whichever format it is stored. If it is stored in both, the binary file is used unless the
+	 * text file was changed after it (i.e. by the level editor).
+	 * @param path Path of the level without an extension, i.e. "source/resources/levels/2Goal"
+	 * @return the selected level once read.
+	 * @throws FileNotFoundException If the level is stored in neither format
+	 * @throws LevelFormatException If the file is not a valid level
+	 * @throws IOException If the file cannot be read
+	 */
+	public static LevelData readLevel(String path) throws IOException {
+		File file = findLevelFile(path);
+		if (file.getName().endsWith(BINARY_EXTENSION)) {
+			return readBinaryFile(file.getPath());
+		}
+		return readDataFile(file.getPath());
+	}
+
+	/**
+	 * Find the file readLevel would read a level from.
+	 * @param path Path of the level without an extension, i.e. "source/resources/levels/2Goal"
+	 * @return The binary file if it is used, the text file otherwise (even if it does not exist)
+	 */
+	public static File findLevelFile(String path) {
+		File binary = new File(path + BINARY_EXTENSION);
+		File text = new File(path + TEXT_EXTENSION);
+		if (binary.exists() && (!text.exists() || binary.lastModified() >= text.lastModified())) {
+			return binary;
+		}
+		return text;
+	}
+
+	/**
+	 * @param filename Name or path of a level file
+	 * @return The name without its extension (TEXT_EXTENSION or BINARY_EXTENSION), unchanged if it has neither
+	 */
+	public static String withoutExtension(String filename) {
+		String extension = filename.endsWith(BINARY_EXTENSION) ? BINARY_EXTENSION
+				: filename.endsWith(TEXT_EXTENSION) ? TEXT_EXTENSION : "";
+		return filename.substring(0, filename.length() - extension.length());
+	}
+
+	/**
+	 * List the level files in a folder, giving a single file for levels stored in both formats.
+	 * @param folder Folder to look in
+	 * @return Names of the level files, with their extension
+	 */
+	public static ArrayList<String> listLevelFiles(File folder) {
+		ArrayList<String> levels = new ArrayList<>();
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				String name = f.getName();
+				if (name.endsWith(TEXT_EXTENSION) || (name.endsWith(BINARY_EXTENSION)
+						&& !new File(folder, withoutExtension(name) + TEXT_EXTENSION).exists())) {
+					levels.add(name);
+				}
+			}
+		}
+		return levels;
+	}
 
 	/**
-	 *Reads file and handles exceptions in case file is not found
+	 * Read a level file.
 	 * @param filename the name of the file.
 	 * @return the selected level once read.
+	 * @throws FileNotFoundException If there is no such file
+	 * @throws LevelFormatException If the file is not a valid level, telling the line and column of the problem
+	 * @throws IOException If the file cannot be read
 	 */
-	public static LevelData readDataFile(String filename) {
-		Scanner in = null;
+	public static LevelData readDataFile(String filename) throws IOException {
+		InputStream in = new FileInputStream(filename);
 		try {
-			in = new Scanner(new File(filename));
-		} catch (FileNotFoundException e) {
-			System.out.println("Can't find " + filename);
-			System.exit(0);
+			return level(new LevelTokenizer(in, filename));
+		} finally {
+			in.close();
 		}
-		return level(in);
 	}
 
 	/**
 	 *
-	 * @param in Scanner to use.
+	 * @param in LevelTokenizer to use.
 	 * @return Instance of LevelData containing everything needed to setup a level
+	 * @throws IOException If the level cannot be read or is not valid
 	 */
-	private static LevelData level(Scanner in) {
+	private static LevelData level(LevelTokenizer in) throws IOException {
 		LevelData levelData = new LevelData();
 
-		in.useDelimiter("(\\p{javaWhitespace}|,)+");
-		int width = in.nextInt();
-		int height = in.nextInt();
+		int width = in.nextInt("the width");
+		int height = in.nextInt("the height");
+		if (width < 0 || height < 0) {
+			throw in.error("The size of the board cannot be negative");
+		}
 		in.nextLine();
 
 		Board levelBoard = new Board(width, height);
 		levelData.setBoard(levelBoard);
 
 		while (in.hasNext()) {
-			int numOfFixedTiles = in.nextInt();
+			int numOfFixedTiles = in.nextInt("the amount of fixed tiles");
 			in.nextLine();
 
 			for (int i = 0; i < numOfFixedTiles; i++) {
-				int xPos = in.nextInt();
-				int yPos = in.nextInt();
-				String type = in.next();
-				int orientation = in.nextInt();
+				int xPos = in.nextInt("the x of a fixed tile");
+				int yPos = in.nextInt("the y of a fixed tile");
+				if (xPos < 0 || xPos >= width || yPos < 0 || yPos >= height) {
+					throw in.error("Fixed tile (" + xPos + ", " + yPos + ") is outside the board");
+				}
+				String type = in.next("the type of a fixed tile");
+				int orientation = in.nextInt("the orientation of a fixed tile");
 
-				FloorTile fixedTile = new FloorTile(orientation, FloorTile.FloorType.valueOf(type));
+				FloorTile fixedTile = new FloorTile(orientation, floorType(in, type));
 				fixedTile.setFixed(true);
 				levelBoard.setTileAt(fixedTile, xPos, yPos);
 
@@ -65,34 +157,36 @@ public class LevelIO {
 
 			int[][] playerStartingPositions = new int[4][2];
 			for (int i = 0; i < TOTAL_NUM_OF_PLAYERS; i++) {
-				playerStartingPositions[i][0] = in.nextInt();
-				playerStartingPositions[i][1] = in.nextInt();
+				playerStartingPositions[i][0] = in.nextInt("the x of a starting position");
+				playerStartingPositions[i][1] = in.nextInt("the y of a starting position");
 				in.nextLine();
 			}
 			levelData.setPlayerStartingPositions(playerStartingPositions);
 
-			levelData.setFloorTileAmount(FloorTile.FloorType.STRAIGHT, in.nextInt());
+			levelData.setFloorTileAmount(FloorTile.FloorType.STRAIGHT, in.nextInt("the amount of STRAIGHT tiles"));
 			in.nextLine();
 
-			levelData.setFloorTileAmount(FloorTile.FloorType.TSHAPE, in.nextInt());
+			levelData.setFloorTileAmount(FloorTile.FloorType.TSHAPE, in.nextInt("the amount of TSHAPE tiles"));
 			in.nextLine();
 
-			levelData.setFloorTileAmount(FloorTile.FloorType.CORNER, in.nextInt());
+			levelData.setFloorTileAmount(FloorTile.FloorType.CORNER, in.nextInt("the amount of CORNER tiles"));
 			in.nextLine();
 
-			levelData.setFloorTileAmount(FloorTile.FloorType.GOAL, in.nextInt());
+			levelData.setFloorTileAmount(FloorTile.FloorType.GOAL, in.nextInt("the amount of GOAL tiles"));
 			in.nextLine();
 
-			levelData.setActionTileAmount(ActionTile.ActionType.ICE, in.nextInt());
+			levelData.setActionTileAmount(ActionTile.ActionType.ICE, in.nextInt("the amount of ICE tiles"));
 			in.nextLine();
 
-			levelData.setActionTileAmount(ActionTile.ActionType.FIRE, in.nextInt());
+			levelData.setActionTileAmount(ActionTile.ActionType.FIRE, in.nextInt("the amount of FIRE tiles"));
 			in.nextLine();
 
-			levelData.setActionTileAmount(ActionTile.ActionType.DOUBLEMOVE, in.nextInt());
+			levelData.setActionTileAmount(ActionTile.ActionType.DOUBLEMOVE,
+					in.nextInt("the amount of DOUBLEMOVE tiles"));
 			in.nextLine();
 
-			levelData.setActionTileAmount(ActionTile.ActionType.BACKTRACK, in.nextInt());
+			levelData.setActionTileAmount(ActionTile.ActionType.BACKTRACK,
+					in.nextInt("the amount of BACKTRACK tiles"));
 			in.nextLine();
 		}
 
@@ -100,64 +194,269 @@ public class LevelIO {
 	}
 
 	/**
-	 * Update a level-specific leaderboard with new profiles
-	 * @param levelName Level whose leaderboard will be changed
-	 * @param profilesThatPlayed Integer ArrayList of profile ids that played on that level
-	 * @param winningProfile Profile id of player that won (which should increase their wins by 1). Can be null
+	 * @param in LevelTokenizer the type was read from, to point at it in errors
+	 * @param type Name of a FloorType
+	 * @return The FloorType
+	 * @throws LevelFormatException If there is no FloorType with that name
 	 */
-	public static void updateLeaderboard(String levelName, ArrayList<Integer> profilesThatPlayed, Integer winningProfile) {
-		File leaderboardFile = new File("source/resources/leaderboards/" + levelName + "_leaderboard.ser");
-
-		// If leaderboard file doesnt exist make one
-		if (!leaderboardFile.exists()) {
-			System.out.println("Leaderboard for " + levelName + " didn't exist, making one now...");
-			try {
-				leaderboardFile.createNewFile();
-				// And fill it with an empty HashMap
-				HashMap<Integer, Integer> empty = new HashMap<>();
-
-				ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(leaderboardFile));
-				objectOutputStream.writeObject(empty);
-				objectOutputStream.flush();
-				objectOutputStream.close();
-			} catch (IOException e) {
-				e.printStackTrace();
-				System.out.println("Could not create leaderboard file.");
-			}
+	private static FloorTile.FloorType floorType(LevelTokenizer in, String type) throws LevelFormatException {
+		try {
+			return FloorTile.FloorType.valueOf(type);
+		} catch (IllegalArgumentException e) {
+			throw in.error("'" + type + "' is not a type of floor tile");
 		}
+	}
 
+	/**
+	 * Read a level from a binary (.lvb) file by mapping it into memory.
+	 * @param filename the name of the file.
+	 * @return the selected level once read.
+	 * @throws FileNotFoundException If there is no such file
+	 * @throws LevelFormatException If the file is not a valid binary level, telling the byte of the problem
+	 * @throws IOException If the file cannot be read
+	 */
+	public static LevelData readBinaryFile(String filename) throws IOException {
+		FileChannel channel;
 		try {
-			System.out.println("Attempting to read leaderboard for " + levelName);
-			ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(leaderboardFile));
-
-			HashMap<Integer, Integer> leaderboardInfo = (HashMap<Integer, Integer>) objectInputStream.readObject();
-			objectInputStream.close();
-
-			// Check that every profile that played exists in the leaderboard already.
-			// If they don't, put them in with wins set to 0
-			for (int i = 0; i < profilesThatPlayed.size(); i++) {
-				int playingProfile = profilesThatPlayed.get(i);
-				if (!leaderboardInfo.containsKey(playingProfile)) {
-					leaderboardInfo.put(playingProfile, 0);
+			channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		} catch (java.nio.file.NoSuchFileException e) {
+			throw new FileNotFoundException(filename);
+		}
+		try {
+			if (channel.size() < BINARY_HEADER_SIZE) {
+				throw new LevelFormatException("The file is too short to be a binary level", filename, 0);
+			}
+			MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return binaryLevel(in, filename);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * @param in Buffer holding the whole file
+	 * @param filename Name of the file, for errors
+	 * @return Instance of LevelData containing everything needed to setup a level
+	 * @throws LevelFormatException If the buffer is not a valid binary level
+	 */
+	private static LevelData binaryLevel(ByteBuffer in, String filename) throws LevelFormatException {
+		if (in.getInt() != BINARY_MAGIC) {
+			throw new LevelFormatException("The file is not a binary level", filename, 0);
+		}
+		short version = in.getShort();
+		if (version != BINARY_VERSION) {
+			throw new LevelFormatException("Unknown binary level version " + version, filename, in.position() - 2);
+		}
+		in.getShort();
+
+		int width = in.getInt();
+		int height = in.getInt();
+		if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+			throw new LevelFormatException("Invalid board size " + width + " x " + height, filename, in.position() - 8);
+		}
+		LevelData levelData = new LevelData();
+		Board levelBoard = new Board(width, height);
+		levelData.setBoard(levelBoard);
+
+		int[][] playerStartingPositions = new int[TOTAL_NUM_OF_PLAYERS][2];
+		for (int i = 0; i < TOTAL_NUM_OF_PLAYERS; i++) {
+			playerStartingPositions[i][0] = in.getInt();
+			playerStartingPositions[i][1] = in.getInt();
+		}
+		levelData.setPlayerStartingPositions(playerStartingPositions);
+		for (FloorTile.FloorType type : FLOOR_TYPE_ORDER) {
+			levelData.setFloorTileAmount(type, in.getInt());
+		}
+		for (ActionTile.ActionType type : ACTION_TYPE_ORDER) {
+			levelData.setActionTileAmount(type, in.getInt());
+		}
+
+		int numOfFixedTiles = in.getInt();
+		if (numOfFixedTiles < 0 || (long) numOfFixedTiles * BINARY_FIXED_TILE_SIZE != in.remaining()) {
+			throw new LevelFormatException("The file should hold " + numOfFixedTiles + " fixed tiles but it holds "
+					+ in.remaining() + " bytes of them", filename, in.position() - 4);
+		}
+		for (int i = 0; i < numOfFixedTiles; i++) {
+			int cell = in.getInt();
+			int typeAndOrientation = in.get() & 0xFF;
+			int type = typeAndOrientation / ORIENTATIONS;
+			if (cell < 0 || cell >= width * height || type >= FLOOR_TYPE_ORDER.length) {
+				throw new LevelFormatException("Invalid fixed tile", filename, in.position() - BINARY_FIXED_TILE_SIZE);
+			}
+			FloorTile fixedTile = new FloorTile(typeAndOrientation % ORIENTATIONS, FLOOR_TYPE_ORDER[type], true);
+			levelBoard.setTileAt(fixedTile, cell % width, cell / width);
+		}
+		return levelData;
+	}
+
+	/**
+	 * Write a level to a binary (.lvb) file. Only the fixed tiles on the board are written.
+	 * @param levelData Level to write
+	 * @param filename the name of the file.
+	 * @throws IllegalArgumentException If a fixed tile has an orientation outside 0 to 3
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void writeBinaryFile(LevelData levelData, String filename) throws IOException {
+		Board board = levelData.getBoard();
+		int numOfFixedTiles = 0;
+		for (int x = 0; x < board.getWidth(); x++) {
+			for (int y = 0; y < board.getHeight(); y++) {
+				numOfFixedTiles += isFixedTile(board.getTileAt(x, y)) ? 1 : 0;
+			}
+		}
+
+		ByteBuffer out = ByteBuffer.allocate(BINARY_HEADER_SIZE + numOfFixedTiles * BINARY_FIXED_TILE_SIZE);
+		out.putInt(BINARY_MAGIC);
+		out.putShort(BINARY_VERSION);
+		out.putShort((short) 0);
+		out.putInt(board.getWidth());
+		out.putInt(board.getHeight());
+		for (int[] position : levelData.getPlayerStartingPositions()) {
+			out.putInt(position[0]);
+			out.putInt(position[1]);
+		}
+		for (FloorTile.FloorType type : FLOOR_TYPE_ORDER) {
+			out.putInt(levelData.getFloorTileAmount(type));
+		}
+		for (ActionTile.ActionType type : ACTION_TYPE_ORDER) {
+			out.putInt(levelData.getActionTileAmount(type));
+		}
+		out.putInt(numOfFixedTiles);
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				FloorTile tile = board.getTileAt(x, y);
+				if (isFixedTile(tile)) {
+					if (tile.getOrientation() < 0 || tile.getOrientation() >= ORIENTATIONS) {
+						throw new IllegalArgumentException("Fixed tile (" + x + ", " + y + ") has orientation "
+								+ tile.getOrientation() + ", which cannot be stored.");
+					}
+					out.putInt(y * board.getWidth() + x);
+					out.put((byte) (indexOf(FLOOR_TYPE_ORDER, tile.getFloorType()) * ORIENTATIONS
+							+ tile.getOrientation()));
 				}
 			}
+		}
+		out.flip();
+
+		FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+		} finally {
+			channel.close();
+		}
+	}
 
-			// Update the winner with +1 wins
-			// No need to check if the winner exists since the previous for-loop takes care of that
-			if (winningProfile != null) {
-				leaderboardInfo.put(winningProfile, leaderboardInfo.get(winningProfile) + 1);
+	/**
+	 * Write a level to a text (.txt) file, in the same way as the level editor. Only the fixed tiles on the board
+	 * are written.
+	 * @param levelData Level to write
+	 * @param filename the name of the file.
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void writeDataFile(LevelData levelData, String filename) throws IOException {
+		Board board = levelData.getBoard();
+		StringBuilder fixedTiles = new StringBuilder();
+		int numOfFixedTiles = 0;
+		for (int x = 0; x < board.getWidth(); x++) {
+			for (int y = 0; y < board.getHeight(); y++) {
+				FloorTile tile = board.getTileAt(x, y);
+				if (isFixedTile(tile)) {
+					fixedTiles.append(x).append(',').append(y).append(',').append(tile.getFloorType()).append(',')
+							.append(tile.getOrientation()).append('\n');
+					numOfFixedTiles++;
+				}
 			}
+		}
+
+		BufferedWriter writer = new BufferedWriter(new FileWriter(filename));
+		writer.write(board.getWidth() + "," + board.getHeight() + "\n");
+		writer.write(numOfFixedTiles + "\n");
+		writer.write(fixedTiles.toString());
+		for (int[] location : levelData.getPlayerStartingPositions()) {
+			writer.write(location[0] + "," + location[1] + "\n");
+		}
+		for (FloorTile.FloorType type : FLOOR_TYPE_ORDER) {
+			writer.write(levelData.getFloorTileAmount(type) + "," + type + "\n");
+		}
+		for (ActionTile.ActionType type : ACTION_TYPE_ORDER) {
+			writer.write(levelData.getActionTileAmount(type) + "," + type + "\n");
+		}
+		writer.close();
+	}
+
+	/**
+	 * @param tile Tile on the board of a level, can be null
+	 * @return true if the tile should be written to the level file
+	 */
+	private static boolean isFixedTile(FloorTile tile) {
+		return tile != null && tile.getFixed();
+	}
+
+	/**
+	 * @param types Array to look in
+	 * @param type FloorType to find
+	 * @return Index of type in types
+	 */
+	private static int indexOf(FloorTile.FloorType[] types, FloorTile.FloorType type) {
+		int index = 0;
+		while (types[index] != type) {
+			index++;
+		}
+		return index;
+	}
 
-			// Now save the leaderboard
-			ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(leaderboardFile));
-			objectOutputStream.writeObject(leaderboardInfo);
-			objectOutputStream.flush();
-			objectOutputStream.close();
-			System.out.println("Updated the leaderboard for " + levelName);
-		} catch (IOException | ClassNotFoundException e) {
+	/**
+	 * Update a level-specific leaderboard with new profiles
+	 * @param levelName Level whose leaderboard will be changed
+	 * @param profilesThatPlayed Integer ArrayList of profile ids that played on that level
+	 * @param winningProfile Profile id of player that won (which should increase their wins by 1). Can be null
+	 */
+	public static void updateLeaderboard(String levelName, ArrayList<Integer> profilesThatPlayed, Integer winningProfile) {
+		try {
+			LeaderboardStore.recordGame(levelName, profilesThatPlayed, winningProfile);
+		} catch (IOException e) {
 			e.printStackTrace();
+			System.out.println("Could not update the leaderboard for " + levelName);
 		}
 	}
+
+	/**
+	 * Update a level-specific leaderboard on the IOExecutor, see updateLeaderboard.
+	 * @param levelName Level whose leaderboard will be changed
+	 * @param profilesThatPlayed Integer ArrayList of profile ids that played on that level, copied before this returns
+	 * @param winningProfile Profile id of player that won (which should increase their wins by 1). Can be null
+	 * @return Future completed once the leaderboard is updated
+	 */
+	public static CompletableFuture<Void> updateLeaderboardAsync(String levelName, ArrayList<Integer> profilesThatPlayed,
+			Integer winningProfile) {
+		ArrayList<Integer> profiles = new ArrayList<>(profilesThatPlayed);
+		return IOExecutor.file(() -> {
+			updateLeaderboard(levelName, profiles, winningProfile);
+			return null;
+		});
+	}
+
+	/**
+	 * Read a level-specific leaderboard.
+	 * @param levelName Level whose leaderboard to read
+	 * @return Wins by profile id of every profile that played the level, empty if nobody has
+	 * @throws IOException If the leaderboards cannot be read
+	 */
+	public static HashMap<Integer, Integer> readLeaderboard(String levelName) throws IOException {
+		return LeaderboardStore.getLeaderboard(levelName);
+	}
+
+	/**
+	 * Read a level-specific leaderboard on the IOExecutor, see readLeaderboard.
+	 * @param levelName Level whose leaderboard to read
+	 * @return Future completed with the wins by profile id, or failed with the IOException
+	 */
+	public static CompletableFuture<HashMap<Integer, Integer>> readLeaderboardAsync(String levelName) {
+		return IOExecutor.file(() -> readLeaderboard(levelName));
+	}
 }
 
 
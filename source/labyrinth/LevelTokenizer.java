@@ -0,0 +1,194 @@
+package source.labyrinth;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * LevelTokenizer splits a level file into tokens, which are separated by whitespace and commas.
+ * It reads the bytes of the file through its own buffer and turns numbers into ints as it goes, so reading a level
+ * does not need a regex or a String for every number. It keeps track of the line and column it is at, so anything
+ * unexpected is reported as a LevelFormatException pointing at the exact token.
+ * @author Fillip Serov
+ */
+class LevelTokenizer {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int END = -1;
+
+	private final InputStream in;
+	private final String source;
+	private final byte[] buffer;
+	private int position;
+	private int limit;
+	private int line;
+	private int column;
+	// Where the last token started, for error messages
+	private int tokenLine;
+	private int tokenColumn;
+
+	/**
+	 * @param in Stream to read the level from. It is not closed by the tokenizer
+	 * @param source Name of what is being read, used in error messages
+	 */
+	LevelTokenizer(InputStream in, String source) {
+		this.in = in;
+		this.source = source;
+		this.buffer = new byte[BUFFER_SIZE];
+		this.position = 0;
+		this.limit = 0;
+		this.line = 1;
+		this.column = 1;
+	}
+
+	/**
+	 * @return true if there is another token before the end of the file
+	 * @throws IOException If the stream cannot be read
+	 */
+	boolean hasNext() throws IOException {
+		skipSeparators();
+		return peek() != END;
+	}
+
+	/**
+	 * Read the next token as an int.
+	 * @param what What the number means, used in error messages, i.e. "the width"
+	 * @return The number
+	 * @throws IOException If the stream cannot be read
+	 * @throws LevelFormatException If the next token is missing or not a number that fits in an int
+	 */
+	int nextInt(String what) throws IOException {
+		startToken(what);
+		boolean negative = peek() == '-';
+		if (negative || peek() == '+') {
+			advance();
+		}
+
+		long value = 0;
+		int digits = 0;
+		while (peek() >= '0' && peek() <= '9') {
+			value = value * 10 + (advance() - '0');
+			digits++;
+			if (value > Integer.MAX_VALUE + 1L) {
+				throw error("The number for " + what + " is too big");
+			}
+		}
+		if (digits == 0 || !isSeparator(peek())) {
+			throw error("Expected " + what + " to be a number but found '" + restOfToken() + "'");
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw error("The number for " + what + " is too big");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Read the next token as text.
+	 * @param what What the text means, used in error messages, i.e. "a tile type"
+	 * @return The token
+	 * @throws IOException If the stream cannot be read
+	 * @throws LevelFormatException If there is no next token
+	 */
+	String next(String what) throws IOException {
+		startToken(what);
+		return restOfToken();
+	}
+
+	/**
+	 * Skip whatever is left on the current line, including the line break.
+	 * @throws IOException If the stream cannot be read
+	 */
+	void nextLine() throws IOException {
+		int c = peek();
+		while (c != END && c != '\n') {
+			advance();
+			c = peek();
+		}
+		if (c == '\n') {
+			advance();
+		}
+	}
+
+	/**
+	 * Make an exception pointing at the start of the last token.
+	 * @param problem What is wrong with the token
+	 * @return The exception, to be thrown
+	 */
+	LevelFormatException error(String problem) {
+		return new LevelFormatException(problem, source, tokenLine, tokenColumn);
+	}
+
+	/**
+	 * Skip to the start of the next token and remember where it is.
+	 * @param what What the token means, used in error messages
+	 * @throws IOException If the stream cannot be read
+	 * @throws LevelFormatException If the file ends before the token
+	 */
+	private void startToken(String what) throws IOException {
+		skipSeparators();
+		tokenLine = line;
+		tokenColumn = column;
+		if (peek() == END) {
+			throw error("Expected " + what + " but the file ended");
+		}
+	}
+
+	/**
+	 * @return Everything up to the next separator
+	 * @throws IOException If the stream cannot be read
+	 */
+	private String restOfToken() throws IOException {
+		StringBuilder token = new StringBuilder();
+		while (!isSeparator(peek())) {
+			token.append((char) advance());
+		}
+		return token.toString();
+	}
+
+	/**
+	 * @throws IOException If the stream cannot be read
+	 */
+	private void skipSeparators() throws IOException {
+		int c = peek();
+		while (c != END && isSeparator(c)) {
+			advance();
+			c = peek();
+		}
+	}
+
+	/**
+	 * @param c Byte to check, or END
+	 * @return true if c ends a token
+	 */
+	private static boolean isSeparator(int c) {
+		return c == END || c == ',' || c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+	}
+
+	/**
+	 * @return The next byte without consuming it, END at the end of the file
+	 * @throws IOException If the stream cannot be read
+	 */
+	private int peek() throws IOException {
+		if (position == limit) {
+			limit = Math.max(0, in.read(buffer));
+			position = 0;
+		}
+		return position < limit ? buffer[position] & 0xFF : END;
+	}
+
+	/**
+	 * Consume the next byte, there must be one.
+	 * @return The byte
+	 * @throws IOException If the stream cannot be read
+	 */
+	private int advance() throws IOException {
+		int c = peek();
+		position++;
+		if (c == '\n') {
+			line++;
+			column = 1;
+		} else {
+			column++;
+		}
+		return c;
+	}
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The Message of the Day class gets the encoded message,
@@ -15,31 +16,28 @@ public class MessageOfTheDay {
 
 	private static final String GET_URL = "http://cswebcat.swansea.ac.uk/puzzle";
 	private static final String GET_MSG_OF_THE_DAY = "http://cswebcat.swansea.ac.uk/message?solution=";
+	// How long to wait for the website to connect and to answer, in milliseconds
+	private static final int TIMEOUT = 5000;
 	private static final char[] ALPHABET = {'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z'};
 
 	/**
-	 * Method to call message of the day and place it in main menu.
-	 * @return method to get Message of the Day.
+	 * Get the message of the day on the network thread of the IOExecutor, so the window keeps responding while the
+	 * website is slow.
+	 * @return Future completed with the message of the day, or failed with the IOException
 	 */
-	public static String getMessageOfTheDay() {
-		return MessageOfTheDay.getPuzzleMessage();
+	public static CompletableFuture<String> getMessageOfTheDayAsync() {
+		return IOExecutor.network(MessageOfTheDay::fetchMessage);
 	}
 
 	/**
-	 * Puts the decoded puzzle together and sends a final get request to a website to get mssg of the day.
-	 * @return the message of the day in it's full glory.
+	 * Gets the puzzle, solves it and gets the message of the day with the solution.
+	 * @return the message of the day.
+	 * @throws IOException if the website cannot be reached.
 	 */
-	public static String getPuzzleMessage() {
-		String endResult = "";
-		try {
-			String givenPuzzle = sendGET(GET_URL);
-			String solvedPuzzle = solvePuzzle(givenPuzzle);
-			endResult = sendGET(GET_MSG_OF_THE_DAY + solvedPuzzle);
-		} catch (IOException e) {
-			e.printStackTrace();
-			System.exit(0);
-		}
-		return endResult;
+	private static String fetchMessage() throws IOException {
+		String givenPuzzle = sendGET(GET_URL);
+		String solvedPuzzle = solvePuzzle(givenPuzzle);
+		return sendGET(GET_MSG_OF_THE_DAY + solvedPuzzle);
 	}
 
 	/**
@@ -47,34 +45,31 @@ public class MessageOfTheDay {
 	 * finally it gets the response code(checks if request was processed) and
 	 * message from website.
 	 * @param getURL gets the URL.
-	 * @return final response(answer, response code).
-	 * @throws IOException handles exceptions thrown with buffer reader.
+	 * @return final response(answer).
+	 * @throws IOException if the website cannot be reached or the request was not processed.
 	 */
 	private static String sendGET(String getURL) throws IOException {
 		URL obj = new URL(getURL);
 		HttpURLConnection con = (HttpURLConnection) obj.openConnection();
 		con.setRequestMethod("GET");
-		String finalResponse = "";
+		con.setConnectTimeout(TIMEOUT);
+		con.setReadTimeout(TIMEOUT);
 
 		//This way we know if the request was processed successfully or there was any HTTP error message thrown.
 		int responseCode = con.getResponseCode();
-		System.out.println("GET Response Code : " + responseCode);
-		if (responseCode == HttpURLConnection.HTTP_OK) { // success
-			BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
-			String inputLine;
-			StringBuffer buffer = new StringBuffer();
-
-			while ((inputLine = in.readLine()) != null) {
-				buffer.append(inputLine);
-			}
-			in.close();
+		if (responseCode != HttpURLConnection.HTTP_OK) {
+			throw new IOException("GET request to " + getURL + " failed with response code " + responseCode);
+		}
+		BufferedReader in = new BufferedReader(new InputStreamReader(con.getInputStream()));
+		String inputLine;
+		StringBuffer buffer = new StringBuffer();
 
-			// print result
-			finalResponse = buffer.toString();
-		} else {
-			System.out.println("GET request not worked");
+		while ((inputLine = in.readLine()) != null) {
+			buffer.append(inputLine);
 		}
-		return finalResponse;
+		in.close();
+
+		return buffer.toString();
 	}
 
 	/**
@@ -0,0 +1,553 @@
+package source.labyrinth;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * PackedBoard is a compact alternative to Board. Instead of a FloorTile object per cell, every cell is a single
+ * packed int (floor type, orientation, fixed flag, bonus action and occupying player), with the fire and ice
+ * expiry times kept in two parallel int arrays. The cells are stored row by row in one flat array, so scanning
+ * the whole board only walks through a few contiguous arrays.
+ * getTileAt hands back a lightweight Cell view that reads straight from the packed data.
+ * @author Fillip Serov
+ */
+public class PackedBoard implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Value of a cell that holds no FloorTile.
+	 */
+	public static final int EMPTY_CELL = 0;
+
+	// Bit layout of a cell, from the lowest bit upwards:
+	// 2 bits orientation, 2 bits FloorType, 1 bit fixed, 3 bits bonus action (0 = none, otherwise ordinal + 1),
+	// 4 bits occupying player (0 = none, otherwise id in game + 1), 1 bit telling the cell holds a FloorTile.
+	private static final int ORIENTATION_BITS = 0x3;
+	private static final int FLOOR_TYPE_SHIFT = 2;
+	private static final int FLOOR_TYPE_BITS = 0x3;
+	private static final int FIXED_FLAG = 1 << 4;
+	private static final int BONUS_SHIFT = 5;
+	private static final int BONUS_BITS = 0x7;
+	private static final int OCCUPANT_SHIFT = 8;
+	private static final int OCCUPANT_BITS = 0xF;
+	private static final int PRESENT_FLAG = 1 << 12;
+
+	/**
+	 * Fire or ice expiry time of a cell that was never set on fire or frozen.
+	 */
+	public static final int NO_EFFECT = -1;
+
+	private final int width;
+	private final int height;
+	private final int[] cells;
+	private final int[] fireUntil;
+	private final int[] frozenUntil;
+	private int currentTime;
+	private int timeForFullLoop;
+
+	/**
+	 * Create an empty PackedBoard.
+	 * @param width Width of the board
+	 * @param height Height of the board
+	 */
+	public PackedBoard(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.cells = new int[width * height];
+		this.fireUntil = new int[width * height];
+		this.frozenUntil = new int[width * height];
+		Arrays.fill(fireUntil, NO_EFFECT);
+		Arrays.fill(frozenUntil, NO_EFFECT);
+		this.currentTime = 0;
+		this.timeForFullLoop = 1;
+	}
+
+	/**
+	 * Pack an existing Board, including its fire, ice, bonus actions and players.
+	 * @param board Board to pack
+	 */
+	public PackedBoard(Board board) {
+		this(board.getWidth(), board.getHeight());
+		this.currentTime = board.getCurrentTime();
+		this.timeForFullLoop = board.getTimeForFullLoop();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				FloorTile tile = board.getTileAt(x, y);
+				if (tile != null) {
+					int i = indexOf(x, y);
+					int occupant = tile.getPlayer() != null ? tile.getPlayer().getIdInGame() : -1;
+					cells[i] = packCell(tile.getFloorType(), tile.getOrientation(), tile.getFixed(),
+							tile.getBonusAction(), occupant);
+					fireUntil[i] = tile.getIsOnFireUntil();
+					frozenUntil[i] = tile.getIsFrozenUntil();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Pack the information of a single cell into an int.
+	 * @param floorType FloorType of the cell
+	 * @param orientation Orientation of the cell, 0 to 3
+	 * @param isFixed Whether the cell is permanently fixed
+	 * @param bonusAction Bonus action lying on the cell, null if there is none
+	 * @param occupant Id in game of the player standing on the cell, -1 if there is none
+	 * @return The packed cell
+	 */
+	public static int packCell(FloorTile.FloorType floorType, int orientation, boolean isFixed,
+							   ActionTile.ActionType bonusAction, int occupant) {
+		int cell = PRESENT_FLAG;
+		cell |= orientation & ORIENTATION_BITS;
+		cell |= floorType.ordinal() << FLOOR_TYPE_SHIFT;
+		cell |= isFixed ? FIXED_FLAG : 0;
+		cell |= (bonusAction != null ? bonusAction.ordinal() + 1 : 0) << BONUS_SHIFT;
+		cell |= (occupant + 1) << OCCUPANT_SHIFT;
+		return cell;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return true if the cell holds a FloorTile
+	 */
+	public static boolean isPresent(int cell) {
+		return (cell & PRESENT_FLAG) != 0;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return FloorType of the cell
+	 */
+	public static FloorTile.FloorType getFloorType(int cell) {
+		return FloorTile.FloorType.values()[(cell >> FLOOR_TYPE_SHIFT) & FLOOR_TYPE_BITS];
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return Orientation of the cell, 0 to 3
+	 */
+	public static int getOrientation(int cell) {
+		return cell & ORIENTATION_BITS;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return true if the cell is permanently fixed
+	 */
+	public static boolean isFixed(int cell) {
+		return (cell & FIXED_FLAG) != 0;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return Bonus action lying on the cell, null if there is none
+	 */
+	public static ActionTile.ActionType getBonusAction(int cell) {
+		int bonus = (cell >> BONUS_SHIFT) & BONUS_BITS;
+		return bonus == 0 ? null : ActionTile.ActionType.values()[bonus - 1];
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return Id in game of the player standing on the cell, -1 if there is none
+	 */
+	public static int getOccupant(int cell) {
+		return ((cell >> OCCUPANT_SHIFT) & OCCUPANT_BITS) - 1;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @param occupant Id in game of the player now standing on the cell, -1 for none
+	 * @return The same cell with only the occupant changed
+	 */
+	public static int withOccupant(int cell, int occupant) {
+		return (cell & ~(OCCUPANT_BITS << OCCUPANT_SHIFT)) | ((occupant + 1) << OCCUPANT_SHIFT);
+	}
+
+	/**
+	 * @return Game time this PackedBoard compares fire and ice expiry times against
+	 */
+	public int getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * @return Time it takes for all players to do one turn
+	 */
+	public int getTimeForFullLoop() {
+		return timeForFullLoop;
+	}
+
+	/**
+	 * Set the game clock used for fire and ice.
+	 * @param currentTime Current game time
+	 * @param timeForFullLoop Time it takes for all players to do one turn, the amount of players
+	 */
+	public void setClock(int currentTime, int timeForFullLoop) {
+		this.currentTime = currentTime;
+		this.timeForFullLoop = timeForFullLoop;
+	}
+
+	/**
+	 * @return Width of this PackedBoard.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return Height of this PackedBoard.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return The packed cell at (x, y)
+	 */
+	public int getCell(int x, int y) {
+		return cells[indexOf(x, y)];
+	}
+
+	/**
+	 * Set a packed cell at some position, clearing any fire or ice on it.
+	 * @param cell The packed cell
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void setCell(int cell, int x, int y) {
+		int i = indexOf(x, y);
+		cells[i] = cell;
+		fireUntil[i] = NO_EFFECT;
+		frozenUntil[i] = NO_EFFECT;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Game time at which the cell stops burning
+	 */
+	public int getFireUntil(int x, int y) {
+		return fireUntil[indexOf(x, y)];
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Game time at which the cell thaws
+	 */
+	public int getFrozenUntil(int x, int y) {
+		return frozenUntil[indexOf(x, y)];
+	}
+
+	/**
+	 * Set when the fire and ice on a cell run out, i.e. when loading a saved game.
+	 * @param x X-position
+	 * @param y Y-position
+	 * @param fireUntil Game time at which the cell stops burning, NO_EFFECT if it was never set on fire
+	 * @param frozenUntil Game time at which the cell thaws, NO_EFFECT if it was never frozen
+	 */
+	public void setEffectTimes(int x, int y, int fireUntil, int frozenUntil) {
+		int i = indexOf(x, y);
+		this.fireUntil[i] = fireUntil;
+		this.frozenUntil[i] = frozenUntil;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return A view of the cell at (x, y) if it holds a FloorTile, null otherwise.
+	 */
+	public Cell getTileAt(int x, int y) {
+		return isPresent(getCell(x, y)) ? new Cell(x, y) : null;
+	}
+
+	/**
+	 * Get a Boolean array representing which way a player can move from a certain cell. Same rules as
+	 * Board.getMovableFrom.
+	 * @param x X-position from where to calculate.
+	 * @param y Y-position from where to calculate
+	 * @return Boolean[] showing where movement is possible. The array is shared and must not be modified.
+	 */
+	public Boolean[] getMovableFrom(int x, int y) {
+		return FloorTile.toMoveMask(getMovableBitsFrom(x, y));
+	}
+
+	/**
+	 * Get the directions a player can move in from a certain cell as move bits. Same rules as
+	 * Board.getMovableBitsFrom.
+	 * @param x X-position from where to calculate.
+	 * @param y Y-position from where to calculate
+	 * @return Move bits (FloorTile.NORTH, EAST, SOUTH, WEST) showing where movement is possible.
+	 */
+	public int getMovableBitsFrom(int x, int y) {
+		int from = indexOf(x, y);
+		if (!isPassable(from, false)) {
+			return 0;
+		}
+		int atLocation = moveBitsOf(cells[from]);
+		int toReturn = 0;
+
+		// Check north
+		if ((atLocation & FloorTile.NORTH) != 0 && y - 1 >= 0 && canEnter(from - width, FloorTile.SOUTH)) {
+			toReturn |= FloorTile.NORTH;
+		}
+		// Check east
+		if ((atLocation & FloorTile.EAST) != 0 && x + 1 < width && canEnter(from + 1, FloorTile.WEST)) {
+			toReturn |= FloorTile.EAST;
+		}
+		// Check south
+		if ((atLocation & FloorTile.SOUTH) != 0 && y + 1 < height && canEnter(from + width, FloorTile.NORTH)) {
+			toReturn |= FloorTile.SOUTH;
+		}
+		// Check west
+		if ((atLocation & FloorTile.WEST) != 0 && x - 1 >= 0 && canEnter(from - 1, FloorTile.EAST)) {
+			toReturn |= FloorTile.WEST;
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Get two boolean arrays representing which rows/columns can be inserted into (no tiles in the way).
+	 * The first array represents the columns, the second the rows. A value of true means insertion is allowed.
+	 * @return Two boolean arrays in an array, first one representing columns and the second the rows.
+	 */
+	public Boolean[][] getInsertablePositions() {
+		Boolean[][] toReturn = new Boolean[2][];
+		toReturn[0] = new Boolean[width];
+		toReturn[1] = new Boolean[height];
+		Arrays.fill(toReturn[0], true);
+		Arrays.fill(toReturn[1], true);
+
+		int now = currentTime;
+		for (int y = 0; y < height; y++) {
+			int rowStart = y * width;
+			for (int x = 0; x < width; x++) {
+				int i = rowStart + x;
+				if (isFixed(cells[i]) || now < frozenUntil[i]) {
+					toReturn[0][x] = toReturn[1][y] = false;
+				}
+			}
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Insert a new cell into the board, based on direction and insertion point. Works like
+	 * Board.insertFloorTile: a player pushed off the board ends up on the new cell and picks up its bonus action,
+	 * which is removed from the cell (PackedBoard does not track what actions players have).
+	 * @param newCell The packed cell to insert
+	 * @param insertionDirection Integer between 0-3 representing the 4 directions
+	 * @param insertionPoint Where in the board to insert the cell, starts at 0 up to width/height - 1
+	 * @return The packed cell that was pushed off the board, with no player on it
+	 * @throws IllegalArgumentException if insertion is impossible
+	 */
+	public int insertCell(int newCell, int insertionDirection, int insertionPoint) throws IllegalArgumentException {
+		boolean columnInsert = insertionDirection % 2 == 0;
+		if (insertionDirection < 0 || insertionDirection > 3) {
+			throw new IllegalArgumentException("insertionDirection was out of bounds.");
+		}
+		if (insertionPoint < 0 || (columnInsert && insertionPoint >= width)
+				|| (!columnInsert && insertionPoint >= height)) {
+			throw new IllegalArgumentException("insertionPoint was out of bounds.");
+		}
+
+		// Walk the line from the end that falls off towards the end the new cell is inserted at
+		int length = columnInsert ? height : width;
+		int step = columnInsert ? width : 1;
+		int first = columnInsert ? insertionPoint : insertionPoint * width;
+		int start = insertionDirection % 3 == 0 ? first + (length - 1) * step : first;
+		int inc = insertionDirection % 3 == 0 ? -step : step;
+		int fin = start + (length - 1) * inc;
+
+		int ejected = cells[start];
+		int pushedPlayer = getOccupant(ejected);
+		for (int i = start; i != fin; i += inc) {
+			cells[i] = cells[i + inc];
+			fireUntil[i] = fireUntil[i + inc];
+			frozenUntil[i] = frozenUntil[i + inc];
+		}
+		if (pushedPlayer != -1) {
+			newCell &= ~(BONUS_BITS << BONUS_SHIFT);
+		}
+		cells[fin] = withOccupant(newCell, pushedPlayer);
+		fireUntil[fin] = NO_EFFECT;
+		frozenUntil[fin] = NO_EFFECT;
+
+		return withOccupant(ejected, -1);
+	}
+
+	/**
+	 * Sets the 3 x 3 area around (x, y) on fire for 2 turns.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void setOnFire(int x, int y) {
+		int until = currentTime + 2 * timeForFullLoop;
+		for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+			for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+				fireUntil[indexOf(i, j)] = until;
+			}
+		}
+	}
+
+	/**
+	 * Freezes the 3 x 3 area around (x, y) for 1 turn.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void setFreezeOn(int x, int y) {
+		int until = currentTime + timeForFullLoop;
+		for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+			for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+				frozenUntil[indexOf(i, j)] = until;
+			}
+		}
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return true if there is no player in the 3 x 3 area around (x, y)
+	 */
+	public boolean canSetOnFire(int x, int y) {
+		boolean canSet = true;
+		for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+			for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+				canSet = getOccupant(cells[indexOf(i, j)]) == -1 && canSet;
+			}
+		}
+		return canSet;
+	}
+
+	/**
+	 * Unpack this into a normal Board, putting the given players back on the cells they occupy.
+	 * @param players Players of the game, indexed by their id in game
+	 * @return A Board holding new FloorTiles equal to the packed cells
+	 */
+	public Board toBoard(Player[] players) {
+		Board board = new Board(width, height);
+		board.setClock(currentTime, timeForFullLoop);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int i = indexOf(x, y);
+				int cell = cells[i];
+				if (isPresent(cell)) {
+					FloorTile tile = new FloorTile(getOrientation(cell), getFloorType(cell), isFixed(cell));
+					tile.setIsOnFireUntil(fireUntil[i]);
+					tile.setIsFrozenUntil(frozenUntil[i]);
+					tile.setBonusAction(getBonusAction(cell));
+					board.setTileAt(tile, x, y);
+					if (getOccupant(cell) != -1) {
+						board.placePlayer(players[getOccupant(cell)], x, y);
+					}
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Index of (x, y) in the flat arrays
+	 */
+	private int indexOf(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * @param cell Packed cell
+	 * @return Move bits of the cell with its orientation accounted for
+	 */
+	private static int moveBitsOf(int cell) {
+		return FloorTile.getMoveBits(getFloorType(cell), getOrientation(cell));
+	}
+
+	/**
+	 * @param i Index of the cell
+	 * @param mustBeEmpty true if a player standing there blocks it
+	 * @return true if the cell holds a FloorTile that is not burning (and empty if asked for)
+	 */
+	private boolean isPassable(int i, boolean mustBeEmpty) {
+		int cell = cells[i];
+		return isPresent(cell) && currentTime >= fireUntil[i]
+				&& (!mustBeEmpty || getOccupant(cell) == -1);
+	}
+
+	/**
+	 * @param i Index of the neighbouring cell
+	 * @param fromSide Move bit of the neighbour's side that faces the cell we come from
+	 * @return true if a player can step onto the neighbouring cell from that side
+	 */
+	private boolean canEnter(int i, int fromSide) {
+		return isPassable(i, true) && (moveBitsOf(cells[i]) & fromSide) != 0;
+	}
+
+	/**
+	 * Cell is a lightweight, read-only view of one cell of a PackedBoard, with the same getters as FloorTile.
+	 */
+	public class Cell {
+		private final int x;
+		private final int y;
+
+		/**
+		 * @param x X-position of the cell
+		 * @param y Y-position of the cell
+		 */
+		private Cell(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		/**
+		 * @return FloorType of this cell
+		 */
+		public FloorTile.FloorType getFloorType() {
+			return PackedBoard.getFloorType(getCell(x, y));
+		}
+
+		/**
+		 * @return int 0 to 3 representing this cell's orientation
+		 */
+		public int getOrientation() {
+			return PackedBoard.getOrientation(getCell(x, y));
+		}
+
+		/**
+		 * @return Boolean representing whether this cell is permanently fixed.
+		 */
+		public Boolean getFixed() {
+			return PackedBoard.isFixed(getCell(x, y));
+		}
+
+		/**
+		 * @return Boolean show if cell is currently fixed
+		 */
+		public Boolean isCurrentlyFixed() {
+			return getFixed() || currentTime < getFrozenUntil(x, y);
+		}
+
+		/**
+		 * @return Boolean showing if a player could stand on this cell.
+		 */
+		public Boolean canMoveTo() {
+			return isPassable(indexOf(x, y), true);
+		}
+
+		/**
+		 * @return Bonus action lying on this cell, null if there is none
+		 */
+		public ActionTile.ActionType getBonusAction() {
+			return PackedBoard.getBonusAction(getCell(x, y));
+		}
+
+		/**
+		 * @return Id in game of the player standing on this cell, -1 if there is none
+		 */
+		public int getPlayerId() {
+			return PackedBoard.getOccupant(getCell(x, y));
+		}
+	}
+}
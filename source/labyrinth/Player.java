@@ -11,6 +11,14 @@ import java.util.HashMap;
  * @author Fillip Serov
  */
 public class Player implements Serializable {
+	// Fixed to the value older versions of the game had, so saves they wrote can still be loaded
+	private static final long serialVersionUID = -1785736358883591628L;
+
+	/**
+	 * Profile id given to players controlled by the computer.
+	 */
+	public static final int COMPUTER_PROFILE_ID = -2;
+
 	private final int associatedProfileID;
 	private final int idInGame;
 
@@ -21,7 +29,8 @@ public class Player implements Serializable {
 
 	/**
 	 * @param idInGame The id of the player in game (int 0 to 3).
-	 * @param profileID The id of the profile this player is assigned to. If no profile, give null.
+	 * @param profileID The id of the profile this player is assigned to. If no profile, give -1. If the player is
+	 *                  controlled by the computer, give COMPUTER_PROFILE_ID.
 	 */
 	public Player(int idInGame, int profileID) {
 		this.idInGame = idInGame;
@@ -90,6 +99,7 @@ public class Player implements Serializable {
 	}
 
 	/**
+	 * Players on a Board should be moved with Board.placePlayer, so the Board knows where they are.
 	 * @param standingOn The new FloorTile to hold this player.
 	 */
 	public void setStandingOn(FloorTile standingOn) {
@@ -100,6 +110,20 @@ public class Player implements Serializable {
 		this.standingOn.setPlayer(this);
 	}
 
+	/**
+	 * @return The id of the profile this player is assigned to, -1 if none, COMPUTER_PROFILE_ID for the computer
+	 */
+	public int getAssociatedProfileID() {
+		return this.associatedProfileID;
+	}
+
+	/**
+	 * @return true if this player is controlled by the computer
+	 */
+	public boolean isComputer() {
+		return this.associatedProfileID == COMPUTER_PROFILE_ID;
+	}
+
 	/**
 	 * @return The profile this player is assigned to. Can be null.
 	 */
@@ -1,8 +1,11 @@
 package source.labyrinth;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ProfileManager deals with profiles: retrieving them from file, saving them, adding / deleting them.
@@ -11,6 +14,9 @@ import java.util.Scanner;
  */
 public final class ProfileManager {
 	private static final File PROFILESFILE = new File("source/resources/profiles/profiles.txt");
+	// The profiles are written to this file next to the profiles file first
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	private static File profilesFile = PROFILESFILE;
 	private static int nextID; // A new profile will be given this id, which is then incremented
 	private static ArrayList<Profile> profiles;
 
@@ -25,7 +31,7 @@ public final class ProfileManager {
 
 			Scanner in;
 			try {
-				in = new Scanner(PROFILESFILE);
+				in = new Scanner(profilesFile);
 				buildProfiles(in);
 			} catch (FileNotFoundException e) {
 				System.out.println("Profiles file wasn't found, making one now.");
@@ -36,30 +42,35 @@ public final class ProfileManager {
 		}
 	}
 
+	/**
+	 * Read and write the profiles from another file than the one the game uses, i.e. for benchmarks. The profiles
+	 * already read are forgotten, so the next performSetup reads them from the new file.
+	 * @param file File to keep the profiles in
+	 */
+	public static void setProfilesFile(File file) {
+		profilesFile = file;
+		profiles = null;
+	}
+
 	/**
 	 * Writes the profiles to a file and saves them.
 	 */
 	public static void writeProfilesToFile() {
-		try {
-			BufferedWriter bw = new BufferedWriter(new FileWriter(PROFILESFILE));
-			bw.write(Integer.toString(nextID));
-			bw.newLine();
-
-			for (Profile p : profiles) {
-				bw.write(p.getName());
-				bw.newLine();
-
-				String stats = p.getID() + "," + p.getTotalPlayed() + "," + p.getWins() + "," + p.getLosses();
-				bw.write(stats);
-				bw.newLine();
-			}
-			bw.close();
+		writeProfiles(profilesFile, profilesText());
+	}
 
-			System.out.println("Saved current profiles to file.");
-		} catch (IOException e) {
-			System.out.println("Could not write profiles to file.");
-			e.printStackTrace();
-		}
+	/**
+	 * Writes the profiles to a file on the IOExecutor. The profiles are copied before this returns, so they can be
+	 * changed while the file is written.
+	 * @return Future completed once the file is written (or could not be)
+	 */
+	public static CompletableFuture<Void> writeProfilesToFileAsync() {
+		File file = profilesFile;
+		String text = profilesText();
+		return IOExecutor.file(() -> {
+			writeProfiles(file, text);
+			return null;
+		});
 	}
 
 	/**
@@ -77,7 +88,7 @@ public final class ProfileManager {
 		profiles.add(0, new Profile(newName, nextID));
 		nextID++;
 
-		writeProfilesToFile();
+		writeProfilesToFileAsync();
 		return true;
 	}
 
@@ -88,7 +99,7 @@ public final class ProfileManager {
 	public static void deleteProfile(Profile toDelete) {
 		System.out.println("Deleting profile " + toDelete.getName());
 		profiles.remove(toDelete);
-		writeProfilesToFile();
+		writeProfilesToFileAsync();
 	}
 
 	/**
@@ -127,12 +138,51 @@ public final class ProfileManager {
 		return null;
 	}
 
+	/**
+	 * @return The profiles as they are written to the profiles file
+	 */
+	private static String profilesText() {
+		String newLine = System.lineSeparator();
+		StringBuilder text = new StringBuilder();
+		text.append(nextID).append(newLine);
+		for (Profile p : profiles) {
+			text.append(p.getName()).append(newLine);
+			text.append(p.getID()).append(",").append(p.getTotalPlayed()).append(",").append(p.getWins())
+					.append(",").append(p.getLosses()).append(newLine);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * The profiles are written to a temporary file which then replaces the profiles file, so a write that is cut off
+	 * (i.e. by the game closing) never leaves the profiles file empty or half written.
+	 * @param file File to write the profiles to
+	 * @param text The profiles, as given by profilesText
+	 */
+	private static void writeProfiles(File file, String text) {
+		File temporary = new File(file.getPath() + TEMPORARY_EXTENSION);
+		try {
+			FileOutputStream out = new FileOutputStream(temporary);
+			try {
+				out.write(text.getBytes());
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.out.println("Could not write profiles to file.");
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Will create a profile file to be used for saving profiles.
 	 */
 	private static void makeProfileFile() {
 		try {
-			PROFILESFILE.createNewFile();
+			profilesFile.createNewFile();
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.out.println("Could not create new profiles file, exiting...");
@@ -165,7 +215,5 @@ public final class ProfileManager {
 
 			profiles.add(new Profile(profileName, id, totalPlayed, totalWins, totalLosses));
 		}
-
-		System.out.println("Loaded " + profiles.size() + " profiles. nextID is " + nextID);
 	}
 }
@@ -0,0 +1,394 @@
+package source.labyrinth;
+
+import java.util.Arrays;
+
+/**
+ * ReachabilityService answers "where can a player walk to from here?" and "how far is the nearest goal?" for a Board,
+ * following the same rules as Board.getMovableFrom: a player can only walk onto tiles that are not on fire and that
+ * nobody stands on, through sides that are open on both tiles.
+ * The open tiles are split into connected components, and every tile knows the walking distance to the nearest goal
+ * in its component. When the Board changes only the components around the changed tiles are worked out again, so
+ * the Board has to be reported to this service after every change (floorTileInserted, tileChanged, areaChanged),
+ * or update has to be called.
+ * @author Fillip Serov
+ */
+public class ReachabilityService {
+	private static final int NONE = -1;
+
+	private final Board board;
+	private int width;
+	private int height;
+
+	// Per tile (index y * width + x): component of the tile (NONE if it cannot be walked onto), walking distance to
+	// the nearest goal (NONE if there is none) and the next tile of the same component
+	private int[] componentOf;
+	private int[] goalDistance;
+	private int[] nextInComponent;
+
+	// Per component: first tile of the component and whether it is being worked out again
+	private int[] firstInComponent;
+	private boolean[] clearing;
+
+	// Component ids that are not in use
+	private int[] freeComponents;
+	private int freeCount;
+
+	// Work space for the flood fills and breadth first searches. pending can hold the changed tiles as well as
+	// every tile of the components being worked out again
+	private int[] queue;
+	private int[] pending;
+
+	/**
+	 * Create a ReachabilityService and work out the components of the whole Board.
+	 * @param board Board to answer questions about
+	 */
+	public ReachabilityService(Board board) {
+		this.board = board;
+		update();
+	}
+
+	/**
+	 * Work out every component again from scratch. Has to be used after the Board has changed size.
+	 */
+	public void update() {
+		width = board.getWidth();
+		height = board.getHeight();
+		int size = width * height;
+		componentOf = new int[size];
+		goalDistance = new int[size];
+		nextInComponent = new int[size];
+		firstInComponent = new int[size];
+		clearing = new boolean[size];
+		freeComponents = new int[size];
+		queue = new int[size];
+		pending = new int[2 * size];
+		Arrays.fill(componentOf, NONE);
+		Arrays.fill(goalDistance, NONE);
+
+		// Hand out the lowest ids first
+		freeCount = size;
+		for (int i = 0; i < size; i++) {
+			freeComponents[i] = size - 1 - i;
+		}
+		for (int i = 0; i < size; i++) {
+			if (componentOf[i] == NONE && isOpen(i)) {
+				fillComponent(i);
+			}
+		}
+	}
+
+	/**
+	 * Report that a FloorTile has been inserted, see Board.insertFloorTile.
+	 * @param insertionDirection Integer between 0-3 representing the 4 directions
+	 * @param insertionPoint Index of the row/column that was inserted into
+	 */
+	public void floorTileInserted(int insertionDirection, int insertionPoint) {
+		int changed = 0;
+		if (insertionDirection % 2 == 0) {
+			for (int y = 0; y < height; y++) {
+				pending[changed] = indexOf(insertionPoint, y);
+				changed++;
+			}
+		} else {
+			for (int x = 0; x < width; x++) {
+				pending[changed] = indexOf(x, insertionPoint);
+				changed++;
+			}
+		}
+		relabel(changed);
+	}
+
+	/**
+	 * Report that a single tile has changed, i.e. a player moved on or off it or the tile was replaced.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void tileChanged(int x, int y) {
+		pending[0] = indexOf(x, y);
+		relabel(1);
+	}
+
+	/**
+	 * Report that the 3 x 3 area around (x, y) has changed, i.e. it was set on fire or the fire went out.
+	 * @param x X-position
+	 * @param y Y-position
+	 */
+	public void areaChanged(int x, int y) {
+		int changed = 0;
+		for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, width - 1); i++) {
+			for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, height - 1); j++) {
+				pending[changed] = indexOf(i, j);
+				changed++;
+			}
+		}
+		relabel(changed);
+	}
+
+	/**
+	 * @param fromX X-position to walk from
+	 * @param fromY Y-position to walk from
+	 * @param toX X-position to walk to
+	 * @param toY Y-position to walk to
+	 * @return true if a player standing on (fromX, fromY) could walk to (toX, toY), given enough moves
+	 */
+	public boolean canReach(int fromX, int fromY, int toX, int toY) {
+		int target = componentOf[indexOf(toX, toY)];
+		boolean reachable = fromX == toX && fromY == toY;
+		if (target != NONE && !reachable) {
+			int from = componentOf[indexOf(fromX, fromY)];
+			if (from != NONE) {
+				reachable = from == target;
+			} else {
+				// Someone stands on the starting tile, so it only connects to the tiles it can step onto
+				int moveBits = board.getMovableBitsFrom(fromX, fromY);
+				for (int direction = 0; direction < 4; direction++) {
+					if ((moveBits & (1 << direction)) != 0) {
+						reachable = reachable || componentOf[neighbourOf(indexOf(fromX, fromY), direction)] == target;
+					}
+				}
+			}
+		}
+		return reachable;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Boolean matrix, [x][y], of every tile a player standing on (x, y) could walk to, including (x, y)
+	 */
+	public boolean[][] getReachableFrom(int x, int y) {
+		boolean[][] reachable = new boolean[width][height];
+		reachable[x][y] = true;
+		int start = indexOf(x, y);
+		if (componentOf[start] != NONE) {
+			markComponent(componentOf[start], reachable);
+		} else {
+			int moveBits = board.getMovableBitsFrom(x, y);
+			for (int direction = 0; direction < 4; direction++) {
+				int neighbour = (moveBits & (1 << direction)) != 0 ? neighbourOf(start, direction) : NONE;
+				if (neighbour != NONE && !reachable[neighbour % width][neighbour / width]) {
+					markComponent(componentOf[neighbour], reachable);
+				}
+			}
+		}
+		return reachable;
+	}
+
+	/**
+	 * Get the amount of moves a player standing on (x, y) needs to reach the nearest goal.
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Shortest walking distance to a goal, 0 if (x, y) is a goal, -1 if no goal can be reached
+	 */
+	public int getDistanceToGoal(int x, int y) {
+		int start = indexOf(x, y);
+		int distance;
+		if (board.getTileAt(x, y).isItGoal()) {
+			distance = 0;
+		} else if (componentOf[start] != NONE) {
+			distance = goalDistance[start];
+		} else {
+			distance = NONE;
+			int moveBits = board.getMovableBitsFrom(x, y);
+			for (int direction = 0; direction < 4; direction++) {
+				int neighbour = (moveBits & (1 << direction)) != 0 ? neighbourOf(start, direction) : NONE;
+				if (neighbour != NONE && goalDistance[neighbour] != NONE
+						&& (distance == NONE || goalDistance[neighbour] + 1 < distance)) {
+					distance = goalDistance[neighbour] + 1;
+				}
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return true if a player standing on (x, y) could walk to a goal
+	 */
+	public boolean canReachGoal(int x, int y) {
+		return getDistanceToGoal(x, y) != NONE;
+	}
+
+	/**
+	 * @return true if at least one player on the Board could walk to a goal
+	 */
+	public boolean canAnyPlayerReachGoal() {
+		boolean canReach = false;
+		for (int playerID = 0; playerID < Board.MAX_PLAYERS && !canReach; playerID++) {
+			int[] position = board.getPlayerPosition(playerID);
+			canReach = position != null && canReachGoal(position[0], position[1]);
+		}
+		return canReach;
+	}
+
+	/**
+	 * Work out again every component that holds (or borders) one of the first changed tiles in pending.
+	 * @param changed Amount of changed tiles in pending
+	 */
+	private void relabel(int changed) {
+		// Collect every component touching the changed tiles, the connections along their sides have changed
+		int cleared = 0;
+		for (int p = 0; p < changed; p++) {
+			for (int direction = -1; direction < 4; direction++) {
+				int tile = direction == -1 ? pending[p] : neighbourOf(pending[p], direction);
+				int component = tile != NONE ? componentOf[tile] : NONE;
+				if (component != NONE && !clearing[component]) {
+					clearing[component] = true;
+					queue[cleared] = component;
+					cleared++;
+				}
+			}
+		}
+
+		// Forget those components, keeping their tiles to be filled again after the changed tiles
+		int toFill = changed;
+		for (int c = 0; c < cleared; c++) {
+			int component = queue[c];
+			int tile = firstInComponent[component];
+			while (tile != NONE) {
+				componentOf[tile] = NONE;
+				goalDistance[tile] = NONE;
+				pending[toFill] = tile;
+				toFill++;
+				tile = nextInComponent[tile];
+			}
+			clearing[component] = false;
+			freeComponents[freeCount] = component;
+			freeCount++;
+		}
+
+		for (int p = 0; p < toFill; p++) {
+			if (componentOf[pending[p]] == NONE && isOpen(pending[p])) {
+				fillComponent(pending[p]);
+			} else if (componentOf[pending[p]] == NONE) {
+				goalDistance[pending[p]] = NONE;
+			}
+		}
+	}
+
+	/**
+	 * Give the component containing the open tile start a new id, then work out the goal distances inside it.
+	 * @param start Index of an open tile that is not in a component
+	 */
+	private void fillComponent(int start) {
+		freeCount--;
+		int component = freeComponents[freeCount];
+		componentOf[start] = component;
+		firstInComponent[component] = NONE;
+
+		// Flood fill, chaining every tile into the component's list
+		int head = 0;
+		int tail = 0;
+		queue[tail] = start;
+		tail++;
+		while (head < tail) {
+			int tile = queue[head];
+			head++;
+			nextInComponent[tile] = firstInComponent[component];
+			firstInComponent[component] = tile;
+			goalDistance[tile] = NONE;
+			for (int direction = 0; direction < 4; direction++) {
+				int neighbour = connectedNeighbour(tile, direction);
+				if (neighbour != NONE && componentOf[neighbour] == NONE) {
+					componentOf[neighbour] = component;
+					queue[tail] = neighbour;
+					tail++;
+				}
+			}
+		}
+
+		// Breadth first search from every goal of the component at once
+		head = 0;
+		tail = 0;
+		for (int tile = firstInComponent[component]; tile != NONE; tile = nextInComponent[tile]) {
+			if (board.getTileAt(tile % width, tile / width).isItGoal()) {
+				goalDistance[tile] = 0;
+				queue[tail] = tile;
+				tail++;
+			}
+		}
+		while (head < tail) {
+			int tile = queue[head];
+			head++;
+			for (int direction = 0; direction < 4; direction++) {
+				int neighbour = connectedNeighbour(tile, direction);
+				if (neighbour != NONE && goalDistance[neighbour] == NONE) {
+					goalDistance[neighbour] = goalDistance[tile] + 1;
+					queue[tail] = neighbour;
+					tail++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param component Component to mark
+	 * @param reachable Matrix to mark every tile of the component in
+	 */
+	private void markComponent(int component, boolean[][] reachable) {
+		for (int tile = firstInComponent[component]; tile != NONE; tile = nextInComponent[tile]) {
+			reachable[tile % width][tile / width] = true;
+		}
+	}
+
+	/**
+	 * @param tile Index of an open tile
+	 * @param direction 0 to 3, north, east, south, west
+	 * @return Index of the neighbour in that direction if both tiles are open towards each other, NONE otherwise
+	 */
+	private int connectedNeighbour(int tile, int direction) {
+		int neighbour = neighbourOf(tile, direction);
+		int side = 1 << direction;
+		int oppositeSide = 1 << ((direction + 2) % 4);
+		boolean connected = neighbour != NONE && (moveBitsOf(tile) & side) != 0
+				&& (moveBitsOf(neighbour) & oppositeSide) != 0;
+		return connected ? neighbour : NONE;
+	}
+
+	/**
+	 * @param tile Index of a tile
+	 * @param direction 0 to 3, north, east, south, west
+	 * @return Index of the neighbouring tile in that direction, NONE if it is off the board
+	 */
+	private int neighbourOf(int tile, int direction) {
+		int x = tile % width;
+		int y = tile / width;
+		switch (direction) {
+			case 0:
+				return y > 0 ? tile - width : NONE;
+			case 1:
+				return x < width - 1 ? tile + 1 : NONE;
+			case 2:
+				return y < height - 1 ? tile + width : NONE;
+			default:
+				return x > 0 ? tile - 1 : NONE;
+		}
+	}
+
+	/**
+	 * @param tile Index of a tile
+	 * @return Move bits of the tile as a neighbour, 0 if it is missing, on fire or someone stands on it
+	 */
+	private int moveBitsOf(int tile) {
+		FloorTile floorTile = board.getTileAt(tile % width, tile / width);
+		return floorTile != null ? floorTile.getNeighbourMoveBits() : 0;
+	}
+
+	/**
+	 * @param tile Index of a tile
+	 * @return true if a player could walk onto the tile
+	 */
+	private boolean isOpen(int tile) {
+		return moveBitsOf(tile) != 0;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return Index of (x, y) in the per tile arrays
+	 */
+	private int indexOf(int x, int y) {
+		return y * width + x;
+	}
+}
@@ -0,0 +1,335 @@
+package source.labyrinth;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Replay plays a game recorded by a GameJournal again, command by command, exactly as it went. It can play the whole
+ * game at once as fast as it can (i.e. to find out where a bug shows up, or to time the game code), step through it a
+ * command at a time (as the replay view of the LevelController does) or seek to any turn.
+ * Every time the recorded game was reseeded (every few turns, see GameJournal) the replay takes a checkpoint of the
+ * game in memory. Seeking back starts from the last checkpoint before the turn instead of from the start of the game,
+ * so seeking anywhere plays at most a few turns.
+ * Every tile drawn is checked against the recording, so a game that does not play out the same way again fails with
+ * an IOException instead of going on with a different game.
+ * Usage: Replay [-turn N] replay-file
+ * Plays the replay (up to the given turn) without JavaFX and prints how it ended and how long it took.
+ * @author Fillip Serov
+ */
+public final class Replay {
+	/**
+	 * Extension of replay files.
+	 */
+	public static final String REPLAY_EXTENSION = ".rpl";
+	/**
+	 * Folder the game keeps replays in.
+	 */
+	public static final String REPLAY_FOLDER = "source/resources/replays/";
+	/**
+	 * Most replays kept in the REPLAY_FOLDER, see deleteOldReplays.
+	 */
+	public static final int KEPT_REPLAYS = 20;
+
+	private final String filename;
+	// The commands of the replay file, positioned at the next command to play
+	private final ByteBuffer commands;
+	private final int turnCount;
+	// Checkpoints in the order they come in the replay, the first one is the snapshot the replay starts from
+	private final ArrayList<Checkpoint> checkpoints = new ArrayList<>();
+	private GameSession session;
+	private int turn;
+
+	/**
+	 * @param filename Path of the replay file
+	 * @param file The replay file
+	 * @throws IOException If the file is not a valid replay
+	 */
+	private Replay(String filename, ByteBuffer file) throws IOException {
+		if (!GameJournal.isJournal(file)) {
+			throw new IOException(filename + " is not a replay");
+		}
+		this.filename = filename;
+		this.commands = file.duplicate();
+		this.session = GameJournal.readSnapshot(commands, filename);
+		ByteBuffer snapshot = file.duplicate();
+		snapshot.limit(commands.position());
+		checkpoints.add(new Checkpoint(0, commands.position(), snapshot));
+
+		// Count the turns up front. A command cut short at the end is left out, like when recovering a journal
+		int turns = 0;
+		boolean midTurn = false;
+		int position = commands.position();
+		int end = position;
+		while (position < commands.limit()) {
+			byte command = commands.get(position);
+			int length = GameJournal.commandLength(command);
+			if (length == -1) {
+				throw new IOException(filename + "@" + position + ": Unknown command " + command);
+			}
+			position += length;
+			if (position <= commands.limit()) {
+				end = position;
+				if (GameJournal.endsTurn(command)) {
+					turns++;
+					midTurn = false;
+				} else if (!GameJournal.reseeds(command)) {
+					midTurn = true;
+				}
+			}
+		}
+		commands.limit(end);
+		// A game can end part way through a turn, i.e. won by a double move. That turn counts too, so seeking to the
+		// last turn plays the whole replay
+		this.turnCount = midTurn ? turns + 1 : turns;
+	}
+
+	/**
+	 * Read a replay file, ready to play from its start.
+	 * @param filename Path of the replay file
+	 * @return The replay
+	 * @throws java.io.FileNotFoundException If there is no such file
+	 * @throws IOException If the file cannot be read or is not a valid replay
+	 */
+	public static Replay read(String filename) throws IOException {
+		ByteBuffer file = SaveIO.readFully(filename, Integer.MAX_VALUE);
+		return new Replay(filename, file);
+	}
+
+	/**
+	 * Read a replay file on the IOExecutor, see read.
+	 * @param filename Path of the replay file
+	 * @return Future completed with the replay, or failed with the IOException if it could not be read
+	 */
+	public static CompletableFuture<Replay> readAsync(String filename) {
+		return IOExecutor.file(() -> read(filename));
+	}
+
+	/**
+	 * Make room in the REPLAY_FOLDER for the replay of a game that is starting, by deleting all but the newest
+	 * KEPT_REPLAYS - 1 replays on the IOExecutor. This way keeping a replay of every game does not fill up the disk.
+	 * @return Future completed with the amount of replays deleted
+	 */
+	public static CompletableFuture<Integer> deleteOldReplaysAsync() {
+		return IOExecutor.file(() -> deleteOldReplays(new File(REPLAY_FOLDER), KEPT_REPLAYS - 1));
+	}
+
+	/**
+	 * Delete all but the newest replays in a folder, by when they were last modified.
+	 * @param folder Folder holding the replays
+	 * @param keep Amount of replays to keep
+	 * @return Amount of replays deleted
+	 */
+	static int deleteOldReplays(File folder, int keep) {
+		File[] replays = folder.listFiles((dir, name) -> name.endsWith(REPLAY_EXTENSION));
+		if (replays == null || replays.length <= keep) {
+			return 0;
+		}
+		Arrays.sort(replays, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+		int deleted = 0;
+		for (int i = keep; i < replays.length; i++) {
+			deleted += replays[i].delete() ? 1 : 0;
+		}
+		return deleted;
+	}
+
+	/**
+	 * Play the next command.
+	 * @return false if the replay has ended, in which case nothing was played
+	 * @throws IOException If the command cannot be played, or plays differently than it did in the recorded game
+	 */
+	public boolean step() throws IOException {
+		if (!commands.hasRemaining()) {
+			return false;
+		}
+		byte command = commands.get(commands.position());
+		if (GameJournal.reseeds(command) && commands.position() > lastCheckpoint().position) {
+			// The game is between turns here, so all of it is in a snapshot. The seed does not matter, the command
+			// seeds the game again once it is restored
+			checkpoints.add(new Checkpoint(turn, commands.position(),
+					ByteBuffer.wrap(GameJournal.journalOf(0, SaveIO.snapshot(session)))));
+		}
+		GameJournal.replay(session, commands, filename);
+		// The last command ends the last turn, even if the game ended part way through it (see the constructor)
+		if (GameJournal.endsTurn(command) || (!commands.hasRemaining() && !GameJournal.reseeds(command))) {
+			turn++;
+		}
+		return true;
+	}
+
+	/**
+	 * Play the rest of the current turn, up to the drawing phase of the next player.
+	 * @return false if the replay has ended
+	 * @throws IOException If a command cannot be played, see step
+	 */
+	public boolean stepTurn() throws IOException {
+		int current = turn;
+		boolean playing = step();
+		while (playing && turn == current) {
+			playing = step();
+		}
+		return playing;
+	}
+
+	/**
+	 * Play the rest of the replay as fast as possible.
+	 * @throws IOException If a command cannot be played, see step
+	 */
+	public void playToEnd() throws IOException {
+		boolean playing = true;
+		while (playing) {
+			playing = step();
+		}
+	}
+
+	/**
+	 * Go to the start of a turn, forwards or backwards.
+	 * @param target Turn to go to, from 0 to getTurnCount (the end of the replay)
+	 * @throws IllegalArgumentException If there is no such turn
+	 * @throws IOException If a command cannot be played, see step
+	 */
+	public void seek(int target) throws IllegalArgumentException, IOException {
+		if (target < 0 || target > turnCount) {
+			throw new IllegalArgumentException("The replay has no turn " + target + ", it has " + turnCount + " turns.");
+		}
+		Checkpoint start = checkpoints.get(0);
+		for (Checkpoint checkpoint : checkpoints) {
+			if (checkpoint.turn <= target) {
+				start = checkpoint;
+			}
+		}
+		// Carrying on from here is quicker, unless the turn is behind or there is a checkpoint closer to it
+		if (target < turn || (target == turn && isMidTurn()) || start.turn > turn) {
+			restore(start);
+		}
+		boolean playing = true;
+		while (playing && turn < target) {
+			playing = stepTurn();
+		}
+	}
+
+	/**
+	 * @return The game being replayed. Seeking back replaces it with a game restored from a checkpoint
+	 */
+	public GameSession getSession() {
+		return session;
+	}
+
+	/**
+	 * @return Turns played so far
+	 */
+	public int getTurn() {
+		return turn;
+	}
+
+	/**
+	 * @return Turns in the whole replay, including a last turn the game ended part way through
+	 */
+	public int getTurnCount() {
+		return turnCount;
+	}
+
+	/**
+	 * @return true if every command has been played
+	 */
+	public boolean isFinished() {
+		return !commands.hasRemaining();
+	}
+
+	/**
+	 * @return true if some of the commands of the current turn have been played
+	 */
+	private boolean isMidTurn() {
+		return commands.hasRemaining() && session.getTurnPhase() != GameSession.TurnPhases.DRAWING;
+	}
+
+	/**
+	 * @return The checkpoint furthest into the replay
+	 */
+	private Checkpoint lastCheckpoint() {
+		return checkpoints.get(checkpoints.size() - 1);
+	}
+
+	/**
+	 * Go to a checkpoint.
+	 * @param checkpoint Checkpoint to go to
+	 * @throws IOException If the checkpoint cannot be read
+	 */
+	private void restore(Checkpoint checkpoint) throws IOException {
+		session = GameJournal.readSnapshot(checkpoint.snapshot.duplicate(), filename);
+		commands.position(checkpoint.position);
+		turn = checkpoint.turn;
+	}
+
+	/**
+	 * Play a replay without JavaFX, see the class comment for the arguments.
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		int target = -1;
+		String replayFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-turn")) {
+					target = Integer.parseInt(args[++i]);
+				} else {
+					replayFile = args[i];
+				}
+			}
+			if (replayFile == null) {
+				throw new IllegalArgumentException("No replay file given");
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.out.println("Usage: Replay [-turn N] replay-file");
+			System.exit(1);
+		}
+
+		try {
+			long start = System.nanoTime();
+			Replay replay = read(replayFile);
+			long read = System.nanoTime();
+			if (target == -1) {
+				replay.playToEnd();
+			} else {
+				replay.seek(target);
+			}
+			long played = System.nanoTime();
+
+			GameSession session = replay.getSession();
+			System.out.printf("%s on %s: turn %d of %d, %s, player %d to play%n", replayFile, session.getLevelName(),
+					replay.getTurn(), replay.getTurnCount(), session.getTurnPhase(), session.getCurrentPlayer());
+			if (session.getWinner() != -1) {
+				System.out.println("Player " + session.getWinner() + " won.");
+			}
+			double playedSeconds = (played - read) / 1e9;
+			System.out.printf("Read in %.2f ms, played %d turns in %.2f ms (%.0f turns/s)%n", (read - start) / 1e6,
+					replay.getTurn(), playedSeconds * 1e3, replay.getTurn() / Math.max(playedSeconds, 1e-9));
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("The replay could not be played: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * The game as it was at the start of a turn, kept as a journal without commands.
+	 */
+	private static final class Checkpoint {
+		private final int turn;
+		private final int position;
+		private final ByteBuffer snapshot;
+
+		/**
+		 * @param turn Turn the checkpoint is at the start of
+		 * @param position Position of the next command in the replay file
+		 * @param snapshot The game, as a journal without commands (see GameJournal.journalOf)
+		 */
+		private Checkpoint(int turn, int position, ByteBuffer snapshot) {
+			this.turn = turn;
+			this.position = position;
+			this.snapshot = snapshot;
+		}
+	}
+}
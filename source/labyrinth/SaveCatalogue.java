@@ -0,0 +1,243 @@
+package source.labyrinth;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * SaveCatalogue keeps the SaveSummary of every save in the save folder, so the save menu can list and preview saves
+ * without opening them. The summaries are kept in an index file in the save folder, along with the size and last
+ * modified time of every save. Listing the saves only looks at the folder, and only reads the summary of saves that
+ * are new or changed since the index was written. The index is written again whenever it changes, by writing a new
+ * file and moving it over the old one, so a crash never leaves half an index.
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class SaveCatalogue {
+	private static final String INDEX_FILE_NAME = "saves.idx";
+	private static final int INDEX_MAGIC = 0x4C534958; // "LSIX"
+	private static final short INDEX_VERSION = 1;
+	// Extension of saves made before SaveIO, which are still listed
+	private static final String SERIALIZED_SAVE_EXTENSION = ".ser";
+
+	private static File saveFolder = new File(SaveIO.SAVE_FOLDER);
+	// By save file name, null until the index has been read
+	private static HashMap<String, Entry> entries;
+
+	/**
+	 * List the saves, newest first. Reads the summaries of saves that are new or changed since the last time, and
+	 * forgets saves that are gone.
+	 * @return File names of the saves, in the save folder
+	 */
+	public static synchronized ArrayList<String> getSaveNames() {
+		if (entries == null) {
+			entries = readIndex();
+		}
+
+		boolean changed = false;
+		HashMap<String, Entry> found = new HashMap<>();
+		File[] files = saveFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (isSave(file.getName())) {
+					Entry entry = entries.get(file.getName());
+					if (entry == null || entry.size != file.length() || entry.lastModified != file.lastModified()) {
+						entry = readEntry(file);
+						changed = true;
+					}
+					found.put(file.getName(), entry);
+				}
+			}
+		}
+		if (changed || found.size() != entries.size()) {
+			entries = found;
+			writeIndex();
+		}
+
+		ArrayList<String> names = new ArrayList<>();
+		for (String saveName : entries.keySet()) {
+			if (entries.get(saveName).summary != null) {
+				names.add(saveName);
+			}
+		}
+		names.sort((a, b) -> Long.compare(entries.get(b).summary.getSavedAt(), entries.get(a).summary.getSavedAt()));
+		return names;
+	}
+
+	/**
+	 * List the saves on the IOExecutor, see getSaveNames.
+	 * @return Future completed with the file names of the saves, newest first
+	 */
+	public static CompletableFuture<ArrayList<String>> getSaveNamesAsync() {
+		return IOExecutor.file(SaveCatalogue::getSaveNames);
+	}
+
+	/**
+	 * Get the summary of a save, as it was when the saves were last listed.
+	 * @param saveName File name of the save, as given by getSaveNames
+	 * @return Summary of the save, null if there is no such save
+	 */
+	public static synchronized SaveSummary getSummary(String saveName) {
+		if (entries == null || !entries.containsKey(saveName)) {
+			return null;
+		}
+		// null for saves that could not be read
+		return entries.get(saveName).summary;
+	}
+
+	/**
+	 * Delete a save and forget it.
+	 * @param saveName File name of the save, as given by getSaveNames
+	 * @return true if the save was deleted
+	 */
+	public static synchronized boolean deleteSave(String saveName) {
+		boolean deleted = new File(saveFolder, saveName).delete();
+		if (deleted && entries != null && entries.remove(saveName) != null) {
+			writeIndex();
+		}
+		return deleted;
+	}
+
+	/**
+	 * Delete a save on the IOExecutor, see deleteSave.
+	 * @param saveName File name of the save, as given by getSaveNames
+	 * @return Future completed with whether the save was deleted
+	 */
+	public static CompletableFuture<Boolean> deleteSaveAsync(String saveName) {
+		return IOExecutor.file(() -> deleteSave(saveName));
+	}
+
+	/**
+	 * Keep the catalogue of another folder than the one the game uses, i.e. for benchmarks. The saves already listed
+	 * are forgotten.
+	 * @param folder Folder holding the saves and the index
+	 */
+	public static synchronized void setSaveFolder(File folder) {
+		saveFolder = folder;
+		entries = null;
+	}
+
+	/**
+	 * @param fileName Name of a file in the save folder
+	 * @return true if the file is a save
+	 */
+	private static boolean isSave(String fileName) {
+		return fileName.endsWith(SaveIO.SAVE_EXTENSION) || fileName.endsWith(GameJournal.JOURNAL_EXTENSION)
+				|| fileName.endsWith(SERIALIZED_SAVE_EXTENSION);
+	}
+
+	/**
+	 * @param file A save
+	 * @return Entry for the save, without a summary if it is not a valid save, so it is only read again once it
+	 * changes
+	 */
+	private static Entry readEntry(File file) {
+		// Read the size and time first, so a save written while reading is read again next time
+		long size = file.length();
+		long lastModified = file.lastModified();
+		try {
+			return new Entry(size, lastModified, SaveIO.readSummary(file.getPath()));
+		} catch (IOException e) {
+			System.out.println("Could not read the save " + file.getName() + ": " + e.getMessage());
+			return new Entry(size, lastModified, null);
+		}
+	}
+
+	/**
+	 * Read the index file. A missing or broken index is as good as an empty one, the saves are read again instead.
+	 * @return The entries in the index by save file name
+	 */
+	private static HashMap<String, Entry> readIndex() {
+		HashMap<String, Entry> index = new HashMap<>();
+		File indexFile = new File(saveFolder, INDEX_FILE_NAME);
+		try {
+			ByteBuffer in = SaveIO.readFully(indexFile.getPath(), Integer.MAX_VALUE);
+			if (in.getInt() != INDEX_MAGIC || in.getShort() != INDEX_VERSION) {
+				throw new IOException("Unknown index format");
+			}
+			int amount = in.getInt();
+			for (int i = 0; i < amount; i++) {
+				String saveName = SaveIO.readString(in);
+				long size = in.getLong();
+				long lastModified = in.getLong();
+				index.put(saveName, new Entry(size, lastModified, SaveSummary.read(in)));
+			}
+		} catch (FileNotFoundException e) {
+			System.out.println("Save index wasn't found, reading the saves instead.");
+		} catch (IOException | BufferUnderflowException e) {
+			System.out.println("Could not read the save index, reading the saves instead.");
+			index.clear();
+		}
+		return index;
+	}
+
+	/**
+	 * Write the index file, replacing the old one only once it is completely written.
+	 */
+	private static void writeIndex() {
+		File indexFile = new File(saveFolder, INDEX_FILE_NAME);
+		File newIndexFile = new File(saveFolder, INDEX_FILE_NAME + ".new");
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream index = new DataOutputStream(bytes);
+			index.writeInt(INDEX_MAGIC);
+			index.writeShort(INDEX_VERSION);
+			ArrayList<String> saveNames = new ArrayList<>();
+			for (String saveName : entries.keySet()) {
+				// Saves that could not be read are not indexed, so they are tried again when the game is restarted
+				if (entries.get(saveName).summary != null) {
+					saveNames.add(saveName);
+				}
+			}
+			index.writeInt(saveNames.size());
+			for (String saveName : saveNames) {
+				Entry entry = entries.get(saveName);
+				SaveIO.writeString(index, saveName);
+				index.writeLong(entry.size);
+				index.writeLong(entry.lastModified);
+				entry.summary.write(index);
+			}
+
+			BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(newIndexFile));
+			bytes.writeTo(out);
+			out.close();
+			Files.move(newIndexFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// The saves are simply read again next time
+			System.out.println("Could not write the save index.");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * What the index knows about a single save.
+	 */
+	private static final class Entry {
+		private final long size;
+		private final long lastModified;
+		private final SaveSummary summary;
+
+		/**
+		 * @param size Size of the save file when it was summed up
+		 * @param lastModified Last modified time of the save file when it was summed up
+		 * @param summary Summary of the save, null if it could not be read
+		 */
+		private Entry(long size, long lastModified, SaveSummary summary) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.summary = summary;
+		}
+	}
+}
@@ -0,0 +1,524 @@
+package source.labyrinth;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * SaveIO writes and reads saved games in a compact binary format, instead of serializing the objects of a game.
+ * A save holds, all big-endian:
+ * the magic number "LSAV" and the format version (short), the length of the SaveSummary (int) and the SaveSummary,
+ * which is all the save menu reads, then the level name (int length then UTF-8 bytes), the turn
+ * phase and current player (a byte each), the game time, the board width and height (ints),
+ * the amount of players (byte) and for every player its profile id (int), whether it has been backtracked (byte),
+ * its 3 past positions (6 ints) and its amount of every action tile (4 floats, in ActionType order),
+ * every cell of the board as a PackedBoard cell (short, row by row), the amount of cells with fire or ice (int) and
+ * for each its index, fire and ice expiry times (3 ints), the tile to insert as a PackedBoard cell (short, EMPTY_CELL
+ * for none), and the amount of tiles in the SilkBag (int) followed by a byte per tile.
+ * Saves made before this format (serialized with ObjectOutputStream) can still be read, and so can the journals of
+ * GameJournal, which hold a save followed by the commands played since.
+ * It is entirely static so there is no need to create an instance of it.
+ * @author Fillip Serov
+ */
+public final class SaveIO {
+	/**
+	 * Folder the game keeps its saves in.
+	 */
+	public static final String SAVE_FOLDER = "source/resources/saves/";
+	/**
+	 * Extension of saves in this format.
+	 */
+	public static final String SAVE_EXTENSION = ".sav";
+
+	private static final int MAGIC = 0x4C534156; // "LSAV"
+	private static final short VERSION = 2;
+	// Magic number, version and summary length
+	private static final int PREAMBLE_BYTES = 4 + 2 + 4;
+	// Saves written with ObjectOutputStream start with this
+	private static final short SERIALIZATION_MAGIC = (short) 0xACED;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	// Saves are written to this file next to the save first
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	private static final int ORIENTATIONS = 4;
+	// Floor tiles in the bag are stored as FloorType * ORIENTATIONS + orientation, action tiles from this on
+	private static final int BAG_ACTION_TILE = FloorTile.FloorType.values().length * ORIENTATIONS;
+	private static final int PAST_POSITIONS = 3;
+
+	/**
+	 * Write a game to a save file, replacing the file if it exists.
+	 * @param session Game to save
+	 * @param filename Path of the save file
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void writeSave(GameSession session, String filename) throws IOException {
+		writeSnapshot(snapshot(session), filename);
+	}
+
+	/**
+	 * Write a game to a save file on the IOExecutor, like writeSave. The game is written into memory first, before
+	 * this returns, so it can carry on being played while the save is written to disk.
+	 * @param session Game to save
+	 * @param filename Path of the save file
+	 * @return Future completed once the save is written, or failed with the IOException if it could not be
+	 */
+	public static CompletableFuture<Void> writeSaveAsync(GameSession session, String filename) {
+		byte[] save;
+		try {
+			save = snapshot(session);
+		} catch (IOException e) {
+			CompletableFuture<Void> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+		return IOExecutor.file(() -> {
+			writeSnapshot(save, filename);
+			return null;
+		});
+	}
+
+	/**
+	 * Read a game from a save file on the IOExecutor, see readSave.
+	 * @param filename Path of the save file
+	 * @return Future completed with the GameSession, or failed with the IOException if it could not be read
+	 */
+	public static CompletableFuture<GameSession> readSaveAsync(String filename) {
+		return IOExecutor.file(() -> readSave(filename));
+	}
+
+	/**
+	 * Read a game from a save file, either one written by writeSave, a GameJournal or one serialized by an older
+	 * version.
+	 * @param filename Path of the save file
+	 * @return The GameSession, in the phase it was saved in
+	 * @throws FileNotFoundException If there is no such file
+	 * @throws IOException If the file cannot be read or is not a valid save
+	 */
+	public static GameSession readSave(String filename) throws IOException {
+		return readSave(readFully(filename, Integer.MAX_VALUE), filename);
+	}
+
+	/**
+	 * Read a game from a save held in memory, see readSave.
+	 * @param in Buffer holding the save, from its position to its limit
+	 * @param filename Name of the file, for errors
+	 * @return The GameSession, in the phase it was saved in
+	 * @throws IOException If the buffer does not hold a valid save
+	 */
+	static GameSession readSave(ByteBuffer in, String filename) throws IOException {
+		if (in.remaining() >= 2 && in.getShort(in.position()) == SERIALIZATION_MAGIC) {
+			return readSerializedSave(in, filename);
+		}
+		if (GameJournal.isJournal(in)) {
+			return GameJournal.recover(in, filename);
+		}
+		try {
+			checkVersion(in, filename);
+			int summaryLength = in.getInt();
+			if (summaryLength < 0 || summaryLength > in.remaining()) {
+				throw invalid("Invalid summary length " + summaryLength, filename, in.position() - 4);
+			}
+			in.position(in.position() + summaryLength);
+			return readGame(in, filename);
+		} catch (BufferUnderflowException e) {
+			throw new IOException(filename + " ends before the save does");
+		}
+	}
+
+	/**
+	 * Read only the SaveSummary at the start of a save. A journal is summed up by the summary of its snapshot, so as
+	 * it was at the last snapshot. Saves serialized before this format have no summary of their own, so they are read
+	 * completely and summed up, with the time their file was last modified as the time they were saved.
+	 * @param filename Path of the save file
+	 * @return Summary of the save
+	 * @throws FileNotFoundException If there is no such file
+	 * @throws IOException If the file cannot be read or is not a valid save
+	 */
+	public static SaveSummary readSummary(String filename) throws IOException {
+		ByteBuffer preamble = readFully(filename, GameJournal.HEADER_BYTES + PREAMBLE_BYTES);
+		// The snapshot of a journal is a save with a summary
+		int start = GameJournal.isJournal(preamble) ? GameJournal.snapshotStart(preamble, filename) : 0;
+		preamble.position(start);
+		if (preamble.remaining() >= 2 && preamble.getShort(start) == SERIALIZATION_MAGIC) {
+			return SaveSummary.of(readSave(filename), Files.getLastModifiedTime(Paths.get(filename)).toMillis());
+		}
+		if (preamble.remaining() < PREAMBLE_BYTES) {
+			throw new IOException(filename + " ends before the summary of the save does");
+		}
+		checkVersion(preamble, filename);
+
+		int summaryLength = preamble.getInt();
+		if (summaryLength < 0) {
+			throw invalid("Invalid summary length " + summaryLength, filename, start + PREAMBLE_BYTES - 4);
+		}
+		ByteBuffer in = readFully(filename, start + PREAMBLE_BYTES + summaryLength);
+		in.position(start + PREAMBLE_BYTES);
+		try {
+			return SaveSummary.read(in);
+		} catch (IOException e) {
+			throw invalid(e.getMessage(), filename, in.position());
+		} catch (BufferUnderflowException e) {
+			throw new IOException(filename + " ends before the summary of the save does");
+		}
+	}
+
+	/**
+	 * Write a whole save into memory.
+	 * @param session Game to save
+	 * @return The save, as it is written to the file
+	 * @throws IOException If the save cannot be written
+	 */
+	static byte[] snapshot(GameSession session) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		ByteArrayOutputStream summary = new ByteArrayOutputStream();
+		SaveSummary.of(session, System.currentTimeMillis()).write(new DataOutputStream(summary));
+		out.writeInt(summary.size());
+		summary.writeTo(out);
+		writeGame(session, out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Write a save to a file. It is written to a temporary file which then replaces the save file, so the save file
+	 * is never seen half written, i.e. by the SaveCatalogue.
+	 * @param save The save, as made by snapshot
+	 * @param filename Path of the save file
+	 * @throws IOException If the file cannot be written
+	 */
+	static void writeSnapshot(byte[] save, String filename) throws IOException {
+		Path path = Paths.get(filename);
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		Path temporary = Paths.get(filename + TEMPORARY_EXTENSION);
+		FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer out = ByteBuffer.wrap(save);
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+		} finally {
+			channel.close();
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read the start of a file into a buffer.
+	 * @param filename Path of the file
+	 * @param maxBytes Most bytes to read, fewer if the file is shorter
+	 * @return Buffer holding what was read, ready to be read from
+	 * @throws FileNotFoundException If there is no such file
+	 * @throws IOException If the file cannot be read
+	 */
+	static ByteBuffer readFully(String filename, int maxBytes) throws IOException {
+		FileChannel channel;
+		try {
+			channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(filename);
+		}
+
+		try {
+			if (channel.size() > Integer.MAX_VALUE && maxBytes == Integer.MAX_VALUE) {
+				throw new IOException(filename + " is too big to be read");
+			}
+			ByteBuffer in = ByteBuffer.allocate((int) Math.min(channel.size(), maxBytes));
+			int read = 0;
+			while (in.hasRemaining() && read >= 0) {
+				read = channel.read(in);
+			}
+			in.flip();
+			return in;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write a string as its length (int) followed by its UTF-8 bytes.
+	 * @param out Stream to write to
+	 * @param string String to write
+	 * @throws IOException If the stream cannot be written to
+	 */
+	static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read a string written by writeString.
+	 * @param in Buffer positioned at the string
+	 * @return The string
+	 * @throws IOException If the length of the string is invalid
+	 * @throws BufferUnderflowException If the buffer ends before the string does
+	 */
+	static String readString(ByteBuffer in) throws IOException {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException("Invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Check the magic number and version of a save.
+	 * @param in Buffer positioned at the start of the save, left positioned after the version
+	 * @param filename Name of the file, for errors
+	 * @throws IOException If the buffer does not hold a save this class can read
+	 * @throws BufferUnderflowException If the buffer ends before the version
+	 */
+	private static void checkVersion(ByteBuffer in, String filename) throws IOException {
+		if (in.remaining() < 4 || in.getInt() != MAGIC) {
+			throw invalid("The file is not a save", filename, 0);
+		}
+		short version = in.getShort();
+		if (version != VERSION) {
+			throw invalid("Unknown save version " + version, filename, in.position() - 2);
+		}
+	}
+
+	/**
+	 * @param session Game to write
+	 * @param out Stream to write to
+	 * @throws IOException If the stream cannot be written to
+	 */
+	private static void writeGame(GameSession session, DataOutputStream out) throws IOException {
+		Player[] players = session.getPlayers();
+		PackedBoard board = new PackedBoard(session.getBoard());
+
+		writeString(out, session.getLevelName());
+		out.writeByte(session.getTurnPhase().ordinal());
+		out.writeByte(session.getCurrentPlayer());
+		out.writeInt(session.getCurrentTime());
+		out.writeInt(board.getWidth());
+		out.writeInt(board.getHeight());
+
+		out.writeByte(players.length);
+		for (Player player : players) {
+			out.writeInt(player.getAssociatedProfileID());
+			out.writeBoolean(player.getHasBeenBacktracked());
+			for (int[] position : player.getPastPositions()) {
+				out.writeInt(position[0]);
+				out.writeInt(position[1]);
+			}
+			for (ActionTile.ActionType type : ActionTile.ActionType.values()) {
+				out.writeFloat(player.getActionAmount(type));
+			}
+		}
+
+		int effects = 0;
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				out.writeShort(board.getCell(x, y));
+				if (hasEffects(board, x, y)) {
+					effects++;
+				}
+			}
+		}
+		out.writeInt(effects);
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				if (hasEffects(board, x, y)) {
+					out.writeInt(y * board.getWidth() + x);
+					out.writeInt(board.getFireUntil(x, y));
+					out.writeInt(board.getFrozenUntil(x, y));
+				}
+			}
+		}
+
+		FloorTile toInsert = session.getFloorTileToInsert();
+		out.writeShort(toInsert == null ? PackedBoard.EMPTY_CELL : PackedBoard.packCell(toInsert.getFloorType(),
+				toInsert.getOrientation(), toInsert.getFixed(), toInsert.getBonusAction(), -1));
+
+		LinkedList<Tile> bag = session.getSilkBag().exportToSave();
+		out.writeInt(bag.size());
+		for (Tile tile : bag) {
+			out.writeByte(tileCode(tile));
+		}
+	}
+
+	/**
+	 * @param tile A tile from the SilkBag
+	 * @return The byte the tile is saved as: FloorType * ORIENTATIONS + orientation for floor tiles, and
+	 * BAG_ACTION_TILE + ActionType for action tiles
+	 */
+	static int tileCode(Tile tile) {
+		if (tile instanceof FloorTile) {
+			FloorTile floorTile = (FloorTile) tile;
+			return floorTile.getFloorType().ordinal() * ORIENTATIONS + floorTile.getOrientation();
+		}
+		return BAG_ACTION_TILE + ((ActionTile) tile).getType().ordinal();
+	}
+
+	/**
+	 * @param code A byte made by tileCode
+	 * @return A new tile the byte stands for, null if it is not a valid tile
+	 */
+	static Tile tileFromCode(int code) {
+		if (code >= 0 && code < BAG_ACTION_TILE) {
+			return new FloorTile(code % ORIENTATIONS, FloorTile.FloorType.values()[code / ORIENTATIONS]);
+		} else if (code >= BAG_ACTION_TILE && code - BAG_ACTION_TILE < ActionTile.ActionType.values().length) {
+			return new ActionTile(ActionTile.ActionType.values()[code - BAG_ACTION_TILE]);
+		}
+		return null;
+	}
+
+	/**
+	 * @param in Buffer holding the save, positioned after the summary
+	 * @param filename Name of the file, for errors
+	 * @return The GameSession, in the phase it was saved in
+	 * @throws IOException If the buffer is not a valid save
+	 * @throws BufferUnderflowException If the buffer ends before the save does
+	 */
+	private static GameSession readGame(ByteBuffer in, String filename) throws IOException {
+		String levelName;
+		try {
+			levelName = readString(in);
+		} catch (IOException e) {
+			throw invalid(e.getMessage(), filename, in.position() - 4);
+		}
+		int turnPhase = in.get();
+		if (turnPhase < 0 || turnPhase >= GameSession.TurnPhases.values().length) {
+			throw invalid("Invalid turn phase " + turnPhase, filename, in.position() - 1);
+		}
+		int currentPlayer = in.get();
+		int currentTime = in.getInt();
+		int width = in.getInt();
+		int height = in.getInt();
+		if (width < 0 || height < 0 || (long) width * height > in.remaining() / 2) {
+			throw invalid("Invalid board size " + width + " x " + height, filename, in.position() - 8);
+		}
+
+		int playerCount = in.get();
+		if (playerCount < 1 || playerCount > Board.MAX_PLAYERS || currentPlayer < 0 || currentPlayer >= playerCount) {
+			throw invalid("Invalid players", filename, in.position() - 1);
+		}
+		Player[] players = new Player[playerCount];
+		for (int i = 0; i < playerCount; i++) {
+			players[i] = new Player(i, in.getInt());
+			players[i].setHasBeenBacktracked(in.get() != 0);
+			int[][] pastPositions = new int[PAST_POSITIONS][2];
+			for (int[] position : pastPositions) {
+				position[0] = in.getInt();
+				position[1] = in.getInt();
+			}
+			// The oldest position goes in first, so it ends up last
+			for (int j = PAST_POSITIONS - 1; j >= 0; j--) {
+				players[i].addToPastPositions(pastPositions[j][0], pastPositions[j][1]);
+			}
+			for (ActionTile.ActionType type : ActionTile.ActionType.values()) {
+				players[i].setActionAmount(type, in.getFloat());
+			}
+		}
+
+		PackedBoard board = new PackedBoard(width, height);
+		board.setClock(currentTime, playerCount);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int cell = in.getShort() & 0xFFFF;
+				if (PackedBoard.isPresent(cell) && PackedBoard.getOccupant(cell) >= playerCount) {
+					throw invalid("Cell (" + x + ", " + y + ") holds a player that is not in the game", filename,
+							in.position() - 2);
+				}
+				board.setCell(cell, x, y);
+			}
+		}
+		int effects = in.getInt();
+		if (effects < 0 || (long) effects * 12 > in.remaining()) {
+			throw invalid("Invalid amount of fire and ice " + effects, filename, in.position() - 4);
+		}
+		for (int i = 0; i < effects; i++) {
+			int cell = in.getInt();
+			if (cell < 0 || cell >= width * height) {
+				throw invalid("Fire or ice on cell " + cell + " which is not on the board", filename, in.position() - 4);
+			}
+			board.setEffectTimes(cell % width, cell / width, in.getInt(), in.getInt());
+		}
+
+		int toInsertCell = in.getShort() & 0xFFFF;
+		FloorTile toInsert = null;
+		if (PackedBoard.isPresent(toInsertCell)) {
+			toInsert = new FloorTile(PackedBoard.getOrientation(toInsertCell), PackedBoard.getFloorType(toInsertCell),
+					PackedBoard.isFixed(toInsertCell));
+			toInsert.setBonusAction(PackedBoard.getBonusAction(toInsertCell));
+		}
+
+		int bagSize = in.getInt();
+		if (bagSize < 0 || bagSize != in.remaining()) {
+			throw invalid("The save should hold " + bagSize + " tiles in the silk bag but it holds " + in.remaining(),
+					filename, in.position() - 4);
+		}
+		LinkedList<Tile> bag = new LinkedList<>();
+		for (int i = 0; i < bagSize; i++) {
+			int code = in.get() & 0xFF;
+			Tile tile = tileFromCode(code);
+			if (tile == null) {
+				throw invalid("Invalid tile in the silk bag " + code, filename, in.position() - 1);
+			}
+			bag.add(tile);
+		}
+
+		Random random = new Random();
+		return new GameSession(levelName, players, currentPlayer, board.toBoard(players), toInsert,
+				GameSession.TurnPhases.values()[turnPhase], SilkBag.importFromSave(bag, random), random);
+	}
+
+	/**
+	 * Read a save serialized with ObjectOutputStream, as saves were before this format.
+	 * @param in Buffer holding the save, from its position to its limit
+	 * @param filename Name of the file, for errors
+	 * @return The GameSession, in the phase it was saved in
+	 * @throws IOException If the buffer does not hold a valid save
+	 */
+	private static GameSession readSerializedSave(ByteBuffer in, String filename) throws IOException {
+		try {
+			return GameSession.readFromSave(new ByteArrayInputStream(in.array(), in.arrayOffset() + in.position(),
+					in.remaining()));
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException(filename + " is not a valid save", e);
+		}
+	}
+
+	/**
+	 * @param board A board
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return true if the cell has ever been set on fire or frozen
+	 */
+	private static boolean hasEffects(PackedBoard board, int x, int y) {
+		return board.getFireUntil(x, y) != PackedBoard.NO_EFFECT || board.getFrozenUntil(x, y) != PackedBoard.NO_EFFECT;
+	}
+
+	/**
+	 * @param problem What is wrong with the save
+	 * @param filename Name of the file
+	 * @param offset Byte of the file the problem is at
+	 * @return Exception to throw
+	 */
+	private static IOException invalid(String problem, String filename, long offset) {
+		return new IOException(filename + "@" + offset + ": " + problem);
+	}
+}
@@ -0,0 +1,256 @@
+package source.labyrinth;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * SaveSummary is what the save menu shows about a save without loading the game in it: the level, when it was
+ * saved, whose turn it is, who is playing, the size of the board and a thumbnail of the board.
+ * Every save starts with its summary (see SaveIO), so it can be read without reading the rest of the save, and the
+ * SaveCatalogue keeps the summaries of all saves in its index.
+ * The thumbnail holds at most THUMBNAIL_SIZE x THUMBNAIL_SIZE cells, packed like the cells of a PackedBoard. Boards
+ * that are bigger are scaled down by only keeping every few cells, with the players put back where they stand.
+ * @author Fillip Serov
+ */
+public final class SaveSummary {
+	/**
+	 * Most cells the thumbnail has along each side.
+	 */
+	public static final int THUMBNAIL_SIZE = 24;
+
+	private final String levelName;
+	private final long savedAt;
+	private final GameSession.TurnPhases turnPhase;
+	private final int currentPlayer;
+	private final int currentTime;
+	private final int width;
+	private final int height;
+	private final int[] profileIDs;
+	private final int thumbnailWidth;
+	private final int thumbnailHeight;
+	private final short[] thumbnail;
+
+	/**
+	 * @param levelName Name of the level the game is played on
+	 * @param savedAt When the game was saved, in milliseconds since the epoch
+	 * @param turnPhase Phase of the turn the game was saved in
+	 * @param currentPlayer ID in game of the player whose turn it is
+	 * @param currentTime Game time when it was saved
+	 * @param width Width of the board
+	 * @param height Height of the board
+	 * @param profileIDs Profile id of every player, by ID in game
+	 * @param thumbnailWidth Width of the thumbnail
+	 * @param thumbnailHeight Height of the thumbnail
+	 * @param thumbnail Packed cells of the thumbnail, row by row
+	 */
+	private SaveSummary(String levelName, long savedAt, GameSession.TurnPhases turnPhase, int currentPlayer,
+						int currentTime, int width, int height, int[] profileIDs, int thumbnailWidth,
+						int thumbnailHeight, short[] thumbnail) {
+		this.levelName = levelName;
+		this.savedAt = savedAt;
+		this.turnPhase = turnPhase;
+		this.currentPlayer = currentPlayer;
+		this.currentTime = currentTime;
+		this.width = width;
+		this.height = height;
+		this.profileIDs = profileIDs;
+		this.thumbnailWidth = thumbnailWidth;
+		this.thumbnailHeight = thumbnailHeight;
+		this.thumbnail = thumbnail;
+	}
+
+	/**
+	 * Sum up a game.
+	 * @param session Game to sum up
+	 * @param savedAt When the game was saved, in milliseconds since the epoch
+	 * @return The summary of the game
+	 */
+	public static SaveSummary of(GameSession session, long savedAt) {
+		Player[] players = session.getPlayers();
+		int[] profileIDs = new int[players.length];
+		for (int i = 0; i < players.length; i++) {
+			profileIDs[i] = players[i].getAssociatedProfileID();
+		}
+
+		Board board = session.getBoard();
+		int width = board.getWidth();
+		int height = board.getHeight();
+		int thumbnailWidth = width;
+		int thumbnailHeight = height;
+		int longestSide = Math.max(width, height);
+		if (longestSide > THUMBNAIL_SIZE) {
+			thumbnailWidth = Math.max(1, width * THUMBNAIL_SIZE / longestSide);
+			thumbnailHeight = Math.max(1, height * THUMBNAIL_SIZE / longestSide);
+		}
+
+		short[] thumbnail = new short[thumbnailWidth * thumbnailHeight];
+		for (int y = 0; y < thumbnailHeight; y++) {
+			for (int x = 0; x < thumbnailWidth; x++) {
+				FloorTile tile = board.getTileAt(x * width / thumbnailWidth, y * height / thumbnailHeight);
+				// Players are put back below, so the thumbnail shows them even on cells that were skipped
+				thumbnail[y * thumbnailWidth + x] = tile == null ? PackedBoard.EMPTY_CELL : (short) PackedBoard.packCell(
+						tile.getFloorType(), tile.getOrientation(), tile.getFixed(), tile.getBonusAction(), -1);
+			}
+		}
+		for (int i = 0; i < players.length; i++) {
+			int[] position = session.getPlayerXYPosition(i);
+			if (position != null) {
+				int index = (position[1] * thumbnailHeight / height) * thumbnailWidth + position[0] * thumbnailWidth / width;
+				if (PackedBoard.isPresent(thumbnail[index])) {
+					thumbnail[index] = (short) PackedBoard.withOccupant(thumbnail[index], i);
+				}
+			}
+		}
+
+		return new SaveSummary(session.getLevelName(), savedAt, session.getTurnPhase(), session.getCurrentPlayer(),
+				session.getCurrentTime(), width, height, profileIDs, thumbnailWidth, thumbnailHeight, thumbnail);
+	}
+
+	/**
+	 * Write the summary, as read by read.
+	 * @param out Stream to write to
+	 * @throws IOException If the stream cannot be written to
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		SaveIO.writeString(out, levelName);
+		out.writeLong(savedAt);
+		out.writeByte(turnPhase.ordinal());
+		out.writeByte(currentPlayer);
+		out.writeInt(currentTime);
+		out.writeInt(width);
+		out.writeInt(height);
+		out.writeByte(profileIDs.length);
+		for (int profileID : profileIDs) {
+			out.writeInt(profileID);
+		}
+		out.writeByte(thumbnailWidth);
+		out.writeByte(thumbnailHeight);
+		for (short cell : thumbnail) {
+			out.writeShort(cell);
+		}
+	}
+
+	/**
+	 * Read a summary written by write.
+	 * @param in Buffer positioned at the start of the summary, left positioned after it
+	 * @return The summary
+	 * @throws IOException If the buffer does not hold a valid summary
+	 * @throws java.nio.BufferUnderflowException If the buffer ends before the summary does
+	 */
+	public static SaveSummary read(ByteBuffer in) throws IOException {
+		String levelName = SaveIO.readString(in);
+		long savedAt = in.getLong();
+		int turnPhase = in.get();
+		if (turnPhase < 0 || turnPhase >= GameSession.TurnPhases.values().length) {
+			throw new IOException("Invalid turn phase " + turnPhase);
+		}
+		int currentPlayer = in.get();
+		int currentTime = in.getInt();
+		int width = in.getInt();
+		int height = in.getInt();
+		int playerCount = in.get();
+		if (playerCount < 1 || playerCount > Board.MAX_PLAYERS || currentPlayer < 0 || currentPlayer >= playerCount) {
+			throw new IOException("Invalid players");
+		}
+		int[] profileIDs = new int[playerCount];
+		for (int i = 0; i < playerCount; i++) {
+			profileIDs[i] = in.getInt();
+		}
+
+		int thumbnailWidth = in.get();
+		int thumbnailHeight = in.get();
+		if (thumbnailWidth < 0 || thumbnailWidth > THUMBNAIL_SIZE || thumbnailHeight < 0 || thumbnailHeight > THUMBNAIL_SIZE) {
+			throw new IOException("Invalid thumbnail size " + thumbnailWidth + " x " + thumbnailHeight);
+		}
+		short[] thumbnail = new short[thumbnailWidth * thumbnailHeight];
+		for (int i = 0; i < thumbnail.length; i++) {
+			thumbnail[i] = in.getShort();
+			if (PackedBoard.getOccupant(thumbnail[i]) >= playerCount) {
+				throw new IOException("The thumbnail holds a player that is not in the game");
+			}
+		}
+
+		return new SaveSummary(levelName, savedAt, GameSession.TurnPhases.values()[turnPhase], currentPlayer,
+				currentTime, width, height, profileIDs, thumbnailWidth, thumbnailHeight, thumbnail);
+	}
+
+	/**
+	 * @return Name of the level the game is played on
+	 */
+	public String getLevelName() {
+		return levelName;
+	}
+
+	/**
+	 * @return When the game was saved, in milliseconds since the epoch
+	 */
+	public long getSavedAt() {
+		return savedAt;
+	}
+
+	/**
+	 * @return Phase of the turn the game was saved in
+	 */
+	public GameSession.TurnPhases getTurnPhase() {
+		return turnPhase;
+	}
+
+	/**
+	 * @return ID in game of the player whose turn it is
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * @return Game time when the game was saved, see GameSession.getCurrentTime
+	 */
+	public int getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * @return Width of the board
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return Height of the board
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return Profile id of every player, by ID in game
+	 */
+	public int[] getProfileIDs() {
+		return profileIDs.clone();
+	}
+
+	/**
+	 * @return Width of the thumbnail, in cells
+	 */
+	public int getThumbnailWidth() {
+		return thumbnailWidth;
+	}
+
+	/**
+	 * @return Height of the thumbnail, in cells
+	 */
+	public int getThumbnailHeight() {
+		return thumbnailHeight;
+	}
+
+	/**
+	 * @param x X-position in the thumbnail
+	 * @param y Y-position in the thumbnail
+	 * @return The cell of the thumbnail, packed like a PackedBoard cell
+	 */
+	public int getThumbnailCell(int x, int y) {
+		return thumbnail[y * thumbnailWidth + x] & 0xFFFF;
+	}
+}
@@ -1,52 +1,150 @@
 package source.labyrinth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedList;
+import java.util.Random;
 
 /**
  * SilkBag stores Tiles (FloorTiles and ActionTiles), to be retrieved randomly.
+ * Every game has its own SilkBag. The Tiles are kept in an array, so drawing a random Tile (by swapping the last
+ * Tile into its place) and adding a Tile are both O(1).
  * @author Erik Miller, Fillip Serov
  */
 public class SilkBag {
-	private static LinkedList<Tile> tiles = new LinkedList<>();
+	private static final int STARTING_CAPACITY = 64;
+
+	private final Random random;
+	private Tile[] tiles;
+	private int size;
+
+	/**
+	 * Create an empty SilkBag that draws Tiles in a random order.
+	 */
+	public SilkBag() {
+		this(new Random());
+	}
+
+	/**
+	 * Create an empty SilkBag. Giving two bags equally seeded Randoms and the same Tiles in the same order will
+	 * make them give back the Tiles in the same order.
+	 * @param random Random used to pick which Tile to draw
+	 */
+	public SilkBag(Random random) {
+		this.random = random;
+		this.tiles = new Tile[STARTING_CAPACITY];
+		this.size = 0;
+	}
+
+	/**
+	 * Rebuild a SilkBag from the list given by exportToSave.
+	 * @param savedBag All the Tiles that were in the SilkBag
+	 * @return A SilkBag holding those Tiles
+	 */
+	public static SilkBag importFromSave(LinkedList<Tile> savedBag) {
+		return importFromSave(savedBag, new Random());
+	}
+
+	/**
+	 * Rebuild a SilkBag from the list given by exportToSave, drawing with a given Random.
+	 * @param savedBag All the Tiles that were in the SilkBag
+	 * @param random Random used to pick which Tile to draw
+	 * @return A SilkBag holding those Tiles
+	 */
+	public static SilkBag importFromSave(LinkedList<Tile> savedBag, Random random) {
+		SilkBag silkBag = new SilkBag(random);
+		silkBag.addAll(savedBag);
+		return silkBag;
+	}
 
 	/**
-	 * Empty the SilkBag completely. Use this when starting a new game and you need a fresh bag.
+	 * Empty the SilkBag completely.
 	 */
-	public static void emptyBag() {
-		tiles.clear();
+	public void emptyBag() {
+		Arrays.fill(tiles, 0, size, null);
+		size = 0;
 	}
 
 	/**
 	 * Gives a random Tile
 	 * @return Tile A random Tile
+	 * @throws IllegalStateException If the SilkBag is empty
 	 */
-	public static Tile getRandomTile() {
-		return tiles.remove((int)(Math.random() * (tiles.size())));
+	public Tile getRandomTile() throws IllegalStateException {
+		if (size == 0) {
+			throw new IllegalStateException("The SilkBag is empty.");
+		}
+		int index = random.nextInt(size);
+		Tile drawn = tiles[index];
+		size--;
+		tiles[index] = tiles[size];
+		tiles[size] = null;
+		return drawn;
 	}
 
 	/**
-	 * Give a tile back to the SilkBag. If it's a FloorTile, reset it's fire / ice status as well.
+	 * Take several random Tiles out of the SilkBag at once.
+	 * @param amount How many Tiles to draw
+	 * @return The drawn Tiles, in the order they were drawn
+	 * @throws IllegalStateException If the SilkBag holds less than amount Tiles
+	 */
+	public ArrayList<Tile> drawMany(int amount) throws IllegalStateException {
+		if (amount > size) {
+			throw new IllegalStateException("Cannot draw " + amount + " Tiles from a SilkBag of " + size + ".");
+		}
+		ArrayList<Tile> drawn = new ArrayList<>(amount);
+		for (int i = 0; i < amount; i++) {
+			drawn.add(getRandomTile());
+		}
+		return drawn;
+	}
+
+	/**
+	 * Give a tile back to the SilkBag. If it's a FloorTile, reset it's fire / ice status and bonus action as well,
+	 * as saves do not keep them for tiles in the bag.
 	 * @param tile Tile to return back to the bag
 	 */
-	public static void addTile(Tile tile) {
+	public void addTile(Tile tile) {
 		if (tile instanceof FloorTile) {
-			FloorTile ft = (FloorTile)tile;
-			ft.setIsFrozenUntil(-1);
-			ft.setIsOnFireUntil(-1);
+			((FloorTile) tile).clearEffects();
+			((FloorTile) tile).setBonusAction(null);
 		}
-		tiles.add(tile);
+		if (size == tiles.length) {
+			tiles = Arrays.copyOf(tiles, tiles.length * 2);
+		}
+		tiles[size] = tile;
+		size++;
 	}
 
 	/**
-	 * @return All the Tiles in the SilkBag in a linked list
+	 * Give several tiles to the SilkBag, see addTile.
+	 * @param toAdd Tiles to add to the bag
 	 */
-	public static LinkedList<Tile> getEntireBag() {
-		return tiles;
+	public void addAll(Collection<? extends Tile> toAdd) {
+		if (size + toAdd.size() > tiles.length) {
+			tiles = Arrays.copyOf(tiles, Math.max(tiles.length * 2, size + toAdd.size()));
+		}
+		for (Tile tile : toAdd) {
+			addTile(tile);
+		}
+	}
+
+	/**
+	 * @return Amount of Tiles in the SilkBag
+	 */
+	public int size() {
+		return size;
 	}
 
 	/**
-	 * @param newBag A LinkedList of Tiles to set as the new "bag"
+	 * Copy every Tile in the SilkBag into a linked list, which is how the SilkBag is stored in save files.
+	 * @return All the Tiles in the SilkBag in a linked list
 	 */
-	public static void setEntireBag(LinkedList<Tile> newBag) {
-		tiles = newBag;
+	public LinkedList<Tile> exportToSave() {
+		LinkedList<Tile> savedBag = new LinkedList<>();
+		for (int i = 0; i < size; i++) {
+			savedBag.add(tiles[i]);
+		}
+		return savedBag;
 	}
 }
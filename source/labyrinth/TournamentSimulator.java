@@ -0,0 +1,385 @@
+package source.labyrinth;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * TournamentSimulator is a command line tool for balancing levels. It plays many full games on every level with
+ * computer players only, on all cores and without JavaFX, then reports how often every starting seat wins, how many
+ * turns it takes to win, how often every action is played and how many games never end.
+ * Usage: TournamentSimulator [-games N] [-players N] [-bot search|random] [-threads N] [-seed N] [level ...]
+ * Levels are names of files in source/resources/levels without their extension. If none are given, all levels are
+ * played.
+ * @author Fillip Serov
+ */
+public class TournamentSimulator {
+	private static final String LEVEL_FOLDER = "source/resources/levels/";
+	// A game that has taken this many turns (of single players) is counted as a stalemate
+	private static final int MAX_TURNS = 2000;
+	// Games played by a single task
+	private static final int GAMES_PER_TASK = 250;
+
+	/**
+	 * The ways the computer players can play.
+	 */
+	public enum Bot {
+		SEARCH,
+		RANDOM
+	}
+
+	private final ForkJoinPool pool;
+	private final Bot bot;
+	private final int playerCount;
+	private final long seed;
+
+	/**
+	 * @param threads Amount of games played at the same time
+	 * @param bot How the computer players play
+	 * @param playerCount Players in every game, 2 to 4
+	 * @param seed Seed the Random of every game is derived from, so runs can be repeated
+	 * @throws IllegalArgumentException If the amount of players is not 2 to 4
+	 */
+	public TournamentSimulator(int threads, Bot bot, int playerCount, long seed) throws IllegalArgumentException {
+		if (playerCount < 2 || playerCount > Board.MAX_PLAYERS) {
+			throw new IllegalArgumentException("A game needs 2 to " + Board.MAX_PLAYERS + " players.");
+		}
+		this.pool = new ForkJoinPool(threads);
+		this.bot = bot;
+		this.playerCount = playerCount;
+		this.seed = seed;
+	}
+
+	/**
+	 * Play games on one level.
+	 * @param levelName Name of the level, i.e. "2Goal"
+	 * @param games Amount of games to play
+	 * @return Statistics of all the games
+	 * @throws IOException If the level cannot be read
+	 */
+	public LevelStats playLevel(String levelName, int games) throws IOException {
+		LevelData level = LevelIO.readLevel(LEVEL_FOLDER + levelName);
+		ArrayList<ForkJoinTask<LevelStats>> tasks = new ArrayList<>();
+		for (int first = 0; first < games; first += GAMES_PER_TASK) {
+			int from = first;
+			int to = Math.min(games, first + GAMES_PER_TASK);
+			tasks.add(pool.submit(() -> playGames(level, levelName, from, to)));
+		}
+
+		LevelStats stats = new LevelStats(levelName, playerCount);
+		for (ForkJoinTask<LevelStats> task : tasks) {
+			try {
+				stats.add(task.get());
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+				System.out.println("A batch of games on " + levelName + " failed.");
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Stop the threads of this simulator.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Play a range of games, each with a Random seeded from the game number.
+	 * @param level Level to play on, it is copied for every game
+	 * @param levelName Name of the level
+	 * @param from First game number
+	 * @param to Game number after the last one
+	 * @return Statistics of these games
+	 */
+	private LevelStats playGames(LevelData level, String levelName, int from, int to) {
+		LevelStats stats = new LevelStats(levelName, playerCount);
+		ComputerPlayer computerPlayer = new ComputerPlayer(pool);
+		int[] profileIDs = new int[playerCount];
+		Arrays.fill(profileIDs, Player.COMPUTER_PROFILE_ID);
+
+		for (int game = from; game < to; game++) {
+			Random random = new Random(seed * 31 + levelName.hashCode() * 1_000_003L + game);
+			// The level is shared by every task and only read, every game gets its own copy
+			GameSession session = new GameSession(level.copy(), levelName, profileIDs, random);
+
+			int turns = 0;
+			while (session.getTurnPhase() != GameSession.TurnPhases.END && turns < MAX_TURNS) {
+				if (bot == Bot.SEARCH) {
+					computerPlayer.playTurn(session);
+				} else {
+					playRandomTurn(session, random);
+				}
+				turns++;
+			}
+			stats.addGame(session, turns);
+		}
+		return stats;
+	}
+
+	/**
+	 * Play a turn by picking uniformly from what the current player is allowed to do. Much faster than searching,
+	 * for when a huge amount of games is needed.
+	 * @param session Game to play in, in the drawing phase
+	 * @param random Random to pick with
+	 */
+	private static void playRandomTurn(GameSession session, Random random) {
+		Board board = session.getBoard();
+		session.draw();
+
+		if (session.getTurnPhase() == GameSession.TurnPhases.PLACEMENT) {
+			session.rotateTileToInsert(random.nextInt(2) * 2 - 1);
+			int direction;
+			int point;
+			do {
+				direction = random.nextInt(4);
+				point = random.nextInt(direction % 2 == 0 ? board.getWidth() : board.getHeight());
+			} while (!session.canInsertAt(direction, point));
+			session.insert(direction, point);
+		}
+
+		Player player = session.getPlayers()[session.getCurrentPlayer()];
+		ArrayList<ActionTile.ActionType> usable = new ArrayList<>();
+		for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
+			if (player.getActionAmount(at) >= 1) {
+				usable.add(at);
+			}
+		}
+		// Half of the time an action is available, play it somewhere random
+		boolean played = false;
+		if (!usable.isEmpty() && random.nextBoolean()) {
+			ActionTile.ActionType action = usable.get(random.nextInt(usable.size()));
+			int[] target = randomActionTarget(session, action, random);
+			played = target != null && session.playAction(action, target[0], target[1]);
+		}
+		if (!played) {
+			session.skipAction();
+		}
+
+		if (session.getTurnPhase() == GameSession.TurnPhases.MOVEMENT) {
+			int[] pos = session.getPlayerXYPosition(session.getCurrentPlayer());
+			int[] move = randomNeighbour(board, pos, random);
+			if (move != null) {
+				session.move(move[0], move[1]);
+			} else {
+				session.passMovement();
+			}
+		}
+	}
+
+	/**
+	 * @param session Game
+	 * @param action Action to play
+	 * @param random Random to pick with
+	 * @return (x, y) to play the action on, null if there is nowhere it can be played
+	 */
+	private static int[] randomActionTarget(GameSession session, ActionTile.ActionType action, Random random) {
+		Board board = session.getBoard();
+		switch (action) {
+			case DOUBLEMOVE:
+				return randomNeighbour(board, session.getPlayerXYPosition(session.getCurrentPlayer()), random);
+			case BACKTRACK:
+				int other = random.nextInt(session.getPlayers().length);
+				return other != session.getCurrentPlayer() ? session.getPlayerXYPosition(other) : null;
+			default:
+				return new int[]{random.nextInt(board.getWidth()), random.nextInt(board.getHeight())};
+		}
+	}
+
+	/**
+	 * @param board Board
+	 * @param pos (x, y) of a player
+	 * @param random Random to pick with
+	 * @return (x, y) of a random neighbour the player can move to, null if there is none
+	 */
+	private static int[] randomNeighbour(Board board, int[] pos, Random random) {
+		int moveBits = board.getMovableBitsFrom(pos[0], pos[1]);
+		int[] move = null;
+		if (moveBits != 0) {
+			// Pick the n-th available direction
+			int n = random.nextInt(Integer.bitCount(moveBits));
+			int direction = 0;
+			while ((moveBits & (1 << direction)) == 0 || n > 0) {
+				n -= (moveBits & (1 << direction)) != 0 ? 1 : 0;
+				direction++;
+			}
+			int[][] offsets = {{0, -1}, {1, 0}, {0, 1}, {-1, 0}};
+			move = new int[]{pos[0] + offsets[direction][0], pos[1] + offsets[direction][1]};
+		}
+		return move;
+	}
+
+	/**
+	 * Run the simulator from the command line, see the class description for the arguments.
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		int games = 1000;
+		int players = Board.MAX_PLAYERS;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = 0;
+		Bot bot = Bot.SEARCH;
+		ArrayList<String> levels = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "-games":
+						games = Integer.parseInt(args[++i]);
+						break;
+					case "-players":
+						players = Integer.parseInt(args[++i]);
+						break;
+					case "-threads":
+						threads = Integer.parseInt(args[++i]);
+						break;
+					case "-seed":
+						seed = Long.parseLong(args[++i]);
+						break;
+					case "-bot":
+						bot = Bot.valueOf(args[++i].toUpperCase());
+						break;
+					default:
+						levels.add(args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.out.println("Usage: TournamentSimulator [-games N] [-players N] [-bot search|random] "
+					+ "[-threads N] [-seed N] [level ...]");
+			System.exit(1);
+		}
+
+		if (levels.isEmpty()) {
+			for (String file : LevelIO.listLevelFiles(new File(LEVEL_FOLDER))) {
+				levels.add(LevelIO.withoutExtension(file));
+			}
+			levels.sort(String::compareTo);
+		}
+
+		TournamentSimulator simulator = new TournamentSimulator(threads, bot, players, seed);
+		System.out.println("Playing " + games + " games per level, " + players + " " + bot + " players, "
+				+ threads + " threads.");
+		for (String level : levels) {
+			long start = System.nanoTime();
+			try {
+				LevelStats stats = simulator.playLevel(level, games);
+				System.out.println(stats.report((System.nanoTime() - start) / 1e9));
+			} catch (IOException e) {
+				System.out.println("Could not read level " + level + ": " + e.getMessage());
+			}
+		}
+		simulator.shutdown();
+	}
+
+	/**
+	 * Statistics of the games played on a single level.
+	 */
+	public static class LevelStats {
+		private final String levelName;
+		private final int[] winsBySeat;
+		private final long[] actionsPlayed;
+		private int games;
+		private int stalemates;
+		private long turnsToWin;
+
+		/**
+		 * @param levelName Name of the level
+		 * @param playerCount Players in every game
+		 */
+		public LevelStats(String levelName, int playerCount) {
+			this.levelName = levelName;
+			this.winsBySeat = new int[playerCount];
+			this.actionsPlayed = new long[ActionTile.ActionType.values().length];
+		}
+
+		/**
+		 * @param session A finished (or stopped) game
+		 * @param turns Turns the game took
+		 */
+		public void addGame(GameSession session, int turns) {
+			games++;
+			if (session.getWinner() == -1) {
+				stalemates++;
+			} else {
+				winsBySeat[session.getWinner()]++;
+				turnsToWin += turns;
+			}
+			for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
+				actionsPlayed[at.ordinal()] += session.getTimesPlayed(at);
+			}
+		}
+
+		/**
+		 * @param other Statistics to add to these
+		 */
+		public void add(LevelStats other) {
+			games += other.games;
+			stalemates += other.stalemates;
+			turnsToWin += other.turnsToWin;
+			for (int i = 0; i < winsBySeat.length; i++) {
+				winsBySeat[i] += other.winsBySeat[i];
+			}
+			for (int i = 0; i < actionsPlayed.length; i++) {
+				actionsPlayed[i] += other.actionsPlayed[i];
+			}
+		}
+
+		/**
+		 * @param seat Starting seat, 0 to 3
+		 * @return Share of the games that player won, 0 to 1
+		 */
+		public double getWinRate(int seat) {
+			return games > 0 ? (double) winsBySeat[seat] / games : 0;
+		}
+
+		/**
+		 * @return Share of the games nobody won, 0 to 1
+		 */
+		public double getStalemateRate() {
+			return games > 0 ? (double) stalemates / games : 0;
+		}
+
+		/**
+		 * @return Average amount of turns (of single players) the won games took
+		 */
+		public double getAverageTurnsToWin() {
+			int won = games - stalemates;
+			return won > 0 ? (double) turnsToWin / won : 0;
+		}
+
+		/**
+		 * @param action ActionType
+		 * @return Average times the action was played per game
+		 */
+		public double getActionsPerGame(ActionTile.ActionType action) {
+			return games > 0 ? (double) actionsPlayed[action.ordinal()] / games : 0;
+		}
+
+		/**
+		 * @param seconds Time it took to play the games
+		 * @return Human readable report of these statistics
+		 */
+		public String report(double seconds) {
+			StringBuilder report = new StringBuilder();
+			report.append(String.format("%s: %d games in %.1f s%n", levelName, games, seconds));
+			report.append("  Win rate by seat:");
+			for (int seat = 0; seat < winsBySeat.length; seat++) {
+				report.append(String.format("  %d: %.1f%%", seat + 1, 100 * getWinRate(seat)));
+			}
+			report.append(String.format("%n  Average turns to win: %.1f (%.1f rounds)%n", getAverageTurnsToWin(),
+					getAverageTurnsToWin() / winsBySeat.length));
+			report.append("  Actions played per game:");
+			for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
+				report.append(String.format("  %s %.2f", at, getActionsPerGame(at)));
+			}
+			report.append(String.format("%n  Stalemates: %.2f%%", 100 * getStalemateRate()));
+			return report.toString();
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package source.labyrinth.benchmarks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Benchmark is a small harness for timing parts of the game, without needing anything outside the JDK.
+ * Every measurement first runs the operation for a few warmup iterations so the JIT has compiled it, then runs it for
+ * a number of timed iterations. Calls are timed in batches that take at least MIN_BATCH_NANOS, so cheap operations
+ * are not drowned out by the cost of reading the clock, while slow operations (such as I/O) are timed one call at a
+ * time, which makes the percentiles real per call latencies.
+ * Bytes allocated are read from the JVM's per thread allocation counter, so the operation has to run on the thread
+ * that calls measure. For numbers that can be compared, always run with the same heap settings, i.e. -Xms2g -Xmx2g.
+ * @author Fillip Serov
+ */
+public class Benchmark {
+	/**
+	 * Something to measure.
+	 */
+	public interface Operation {
+		/**
+		 * Run the operation once.
+		 * @param index How many times the operation has been run before, can be used to vary the input
+		 * @return Anything computed by the operation, so the JIT cannot remove the work
+		 * @throws Exception If the operation fails, which stops the measurement
+		 */
+		long run(int index) throws Exception;
+	}
+
+	private static final long MIN_BATCH_NANOS = 20_000;
+	private static final int MAX_SAMPLES = 1_000_000;
+
+	private final int warmupIterations;
+	private final int iterations;
+	private final long iterationNanos;
+	private final com.sun.management.ThreadMXBean threads;
+	// Everything operations return is mixed into here so their results are used
+	private volatile long sink;
+
+	/**
+	 * @param warmupIterations Iterations run before measuring
+	 * @param iterations Iterations measured
+	 * @param iterationMillis How long a single iteration runs for
+	 */
+	public Benchmark(int warmupIterations, int iterations, long iterationMillis) {
+		this.warmupIterations = warmupIterations;
+		this.iterations = iterations;
+		this.iterationNanos = iterationMillis * 1_000_000;
+		this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		this.threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	/**
+	 * Measure an operation.
+	 * @param label Name the result is reported under
+	 * @param setup Run before every iteration (but not timed), i.e. to reset state the operation changes. Can be null
+	 * @param operation Operation to measure
+	 * @return Result of the measurement
+	 * @throws Exception If the setup or the operation fails
+	 */
+	public Result measure(String label, Runnable setup, Operation operation) throws Exception {
+		int batchSize = 1;
+		int index = 0;
+		for (int i = 0; i < warmupIterations; i++) {
+			if (setup != null) {
+				setup.run();
+			}
+			long end = System.nanoTime() + iterationNanos;
+			while (System.nanoTime() < end) {
+				long start = System.nanoTime();
+				index = runBatch(operation, index, batchSize);
+				if (System.nanoTime() - start < MIN_BATCH_NANOS && batchSize < (1 << 20)) {
+					batchSize *= 2;
+				}
+			}
+		}
+
+		double[] samples = new double[1024];
+		int sampleCount = 0;
+		long operations = 0;
+		long totalNanos = 0;
+		long allocated = 0;
+		long gcCount = -gcCount();
+		long gcMillis = -gcMillis();
+		long thread = Thread.currentThread().getId();
+		for (int i = 0; i < iterations; i++) {
+			if (setup != null) {
+				setup.run();
+			}
+			long bytesBefore = threads.getThreadAllocatedBytes(thread);
+			long iterationStart = System.nanoTime();
+			long end = iterationStart + iterationNanos;
+			long now = iterationStart;
+			while (now < end) {
+				long start = now;
+				index = runBatch(operation, index, batchSize);
+				now = System.nanoTime();
+				if (sampleCount < MAX_SAMPLES) {
+					if (sampleCount == samples.length) {
+						samples = Arrays.copyOf(samples, samples.length * 2);
+					}
+					samples[sampleCount] = (double) (now - start) / batchSize;
+					sampleCount++;
+				}
+				operations += batchSize;
+			}
+			totalNanos += now - iterationStart;
+			allocated += threads.getThreadAllocatedBytes(thread) - bytesBefore;
+		}
+		gcCount += gcCount();
+		gcMillis += gcMillis();
+
+		Arrays.sort(samples, 0, sampleCount);
+		return new Result(label, operations, (double) totalNanos / operations,
+				percentile(samples, sampleCount, 0.5), percentile(samples, sampleCount, 0.9),
+				percentile(samples, sampleCount, 0.99), samples[sampleCount - 1],
+				(double) allocated / operations, gcCount, gcMillis);
+	}
+
+	/**
+	 * @param operation Operation to run
+	 * @param index Index of the first call
+	 * @param batchSize Amount of calls
+	 * @return Index of the next call
+	 * @throws Exception If the operation fails
+	 */
+	private int runBatch(Operation operation, int index, int batchSize) throws Exception {
+		long result = 0;
+		for (int i = 0; i < batchSize; i++) {
+			result += operation.run(index);
+			index++;
+		}
+		sink += result;
+		return index;
+	}
+
+	/**
+	 * @param sorted Sorted samples
+	 * @param count Amount of samples
+	 * @param fraction Percentile as a fraction, i.e. 0.99
+	 * @return The sample at that percentile
+	 */
+	private static double percentile(double[] sorted, int count, double fraction) {
+		return sorted[Math.min(count - 1, (int) (fraction * count))];
+	}
+
+	/**
+	 * @return Garbage collections done by the JVM so far
+	 */
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * @return Milliseconds spent on garbage collection by the JVM so far
+	 */
+	private static long gcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+
+	/**
+	 * @return Header matching the lines given by Result.toString
+	 */
+	public static String header() {
+		return String.format("%-48s %12s %12s %12s %12s %12s %12s %8s",
+				"benchmark", "ns/op", "p50", "p90", "p99", "max", "B/op", "gc");
+	}
+
+	/**
+	 * The numbers measured for one operation. Times are in nanoseconds per call.
+	 */
+	public static class Result {
+		private final String label;
+		private final long operations;
+		private final double mean;
+		private final double p50;
+		private final double p90;
+		private final double p99;
+		private final double max;
+		private final double bytesPerOperation;
+		private final long gcCount;
+		private final long gcMillis;
+
+		/**
+		 * @param label Name of the benchmark
+		 * @param operations Calls measured
+		 * @param mean Average time per call
+		 * @param p50 Median time per call
+		 * @param p90 90th percentile time per call
+		 * @param p99 99th percentile time per call
+		 * @param max Slowest time per call
+		 * @param bytesPerOperation Average bytes allocated per call
+		 * @param gcCount Garbage collections while measuring
+		 * @param gcMillis Milliseconds spent on garbage collection while measuring
+		 */
+		private Result(String label, long operations, double mean, double p50, double p90, double p99, double max,
+				double bytesPerOperation, long gcCount, long gcMillis) {
+			this.label = label;
+			this.operations = operations;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.max = max;
+			this.bytesPerOperation = bytesPerOperation;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+
+		/**
+		 * @return Name of the benchmark
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * @return Calls measured
+		 */
+		public long getOperations() {
+			return operations;
+		}
+
+		/**
+		 * @return Average nanoseconds per call
+		 */
+		public double getMean() {
+			return mean;
+		}
+
+		/**
+		 * @return Calls per second
+		 */
+		public double getThroughput() {
+			return 1e9 / mean;
+		}
+
+		/**
+		 * @return 99th percentile nanoseconds per call
+		 */
+		public double getP99() {
+			return p99;
+		}
+
+		/**
+		 * @return Average bytes allocated per call
+		 */
+		public double getBytesPerOperation() {
+			return bytesPerOperation;
+		}
+
+		/**
+		 * @return The result as a line of a table, see Benchmark.header
+		 */
+		@Override
+		public String toString() {
+			return String.format("%-48s %12.1f %12.1f %12.1f %12.1f %12.1f %12.1f %8s",
+					label, mean, p50, p90, p99, max, bytesPerOperation, gcCount + "/" + gcMillis + "ms");
+		}
+	}
+}
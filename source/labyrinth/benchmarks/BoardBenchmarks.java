@@ -0,0 +1,241 @@
+package source.labyrinth.benchmarks;
+
+import source.labyrinth.Board;
+import source.labyrinth.FloorTile;
+import source.labyrinth.Player;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * BoardBenchmarks measures the parts of Board that are used on every turn, on boards from the size of 2Goal up to
+ * 500 x 500, with a varying amount of fixed tiles and of active fire and ice. Boards are generated from a fixed seed,
+ * and rebuilt before every iteration, so every run measures exactly the same boards.
+ * Usage: BoardBenchmarks [-sizes 7,50,150,500] [-densities 0,0.1,0.3] [-effects 0,16,64] [-only name]
+ * [-warmup N] [-iterations N] [-time ms]
+ * @author Fillip Serov
+ */
+public class BoardBenchmarks {
+	private static final long SEED = 1234;
+	private static final int PLAYERS = 4;
+
+	private final Benchmark benchmark;
+	private final String only;
+
+	/**
+	 * @param benchmark Harness to measure with
+	 * @param only Only run benchmarks which contain this in their name, null to run all of them
+	 */
+	public BoardBenchmarks(Benchmark benchmark, String only) {
+		this.benchmark = benchmark;
+		this.only = only;
+	}
+
+	/**
+	 * Build a reproducible board to measure on.
+	 * @param size Width and height of the board
+	 * @param fixedDensity Fraction of tiles that are fixed
+	 * @param effects Amount of fires and of ices (each covering 3 x 3 tiles) active on the board
+	 * @return The board, with 4 players on it
+	 */
+	public static Board createBoard(int size, double fixedDensity, int effects) {
+		Random random = new Random(SEED);
+		Board board = new Board(size, size);
+		board.setClock(0, PLAYERS);
+		FloorTile.FloorType[] types = {FloorTile.FloorType.STRAIGHT, FloorTile.FloorType.CORNER,
+				FloorTile.FloorType.TSHAPE};
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				boolean fixed = random.nextDouble() < fixedDensity;
+				board.setTileAt(new FloorTile(random.nextInt(4), types[random.nextInt(types.length)], fixed), x, y);
+			}
+		}
+		board.setTileAt(new FloorTile(0, FloorTile.FloorType.GOAL, true), size / 2, size / 2);
+
+		int[][] corners = {{0, 0}, {size - 1, 0}, {0, size - 1}, {size - 1, size - 1}};
+		for (int i = 0; i < PLAYERS; i++) {
+			board.placePlayer(new Player(i, -1), corners[i][0], corners[i][1]);
+		}
+
+		for (int i = 0; i < effects; i++) {
+			board.setOnFire(random.nextInt(size), random.nextInt(size));
+			board.setFreezeOn(random.nextInt(size), random.nextInt(size));
+		}
+		return board;
+	}
+
+	/**
+	 * Measure every benchmark on one kind of board, printing the results.
+	 * @param size Width and height of the board
+	 * @param fixedDensity Fraction of tiles that are fixed
+	 * @param effects Amount of fires and of ices active on the board
+	 * @throws Exception If a benchmark fails
+	 */
+	public void run(int size, double fixedDensity, int effects) throws Exception {
+		String name = size + "x" + size + " fixed=" + fixedDensity + " effects=" + effects + " ";
+		Board[] board = new Board[1];
+		Runnable setup = () -> board[0] = createBoard(size, fixedDensity, effects);
+
+		measure(name + "getMovableFrom", setup, i -> {
+			int x = i % size;
+			int y = (i / size) % size;
+			return board[0].getMovableFrom(x, y)[i & 3] ? 1 : 0;
+		});
+		measure(name + "getMovableBitsFrom", setup, i -> board[0].getMovableBitsFrom(i % size, (i / size) % size));
+		measure(name + "getInsertablePositions", setup, i -> board[0].getInsertablePositions()[i & 1].length);
+
+		for (int direction = 0; direction < 4; direction++) {
+			insertFloorTile(name, setup, board, direction);
+		}
+
+		measure(name + "canSetOnFire", setup, i -> board[0].canSetOnFire(i % size, (i / size) % size) ? 1 : 0);
+		// Effects only run out when time moves on, so a turn passes after every action like it would in a game
+		measure(name + "setOnFire+advanceTime", setup, i -> {
+			board[0].setOnFire((i * 7) % size, (i * 13) % size);
+			board[0].advanceTime();
+			return board[0].getCurrentTime();
+		});
+		measure(name + "setFreezeOn+advanceTime", setup, i -> {
+			board[0].setFreezeOn((i * 7) % size, (i * 13) % size);
+			board[0].advanceTime();
+			return board[0].getCurrentTime();
+		});
+		Random bonusRandom = new Random(SEED);
+		measure(name + "putRandomBonus", setup, i -> {
+			board[0].putRandomBonus(bonusRandom);
+			return i;
+		});
+	}
+
+	/**
+	 * Measure inserting tiles from one direction, going through every row / column that can be inserted into.
+	 * @param name Start of the name of the benchmark
+	 * @param setup Builds the board
+	 * @param board Holds the board being measured
+	 * @param direction Direction to insert from, 0 to 3
+	 * @throws Exception If a benchmark fails
+	 */
+	private void insertFloorTile(String name, Runnable setup, Board[] board, int direction) throws Exception {
+		FloorTile[] inHand = new FloorTile[1];
+		int[][] points = new int[1][];
+		Runnable insertSetup = () -> {
+			setup.run();
+			inHand[0] = new FloorTile(0, FloorTile.FloorType.STRAIGHT);
+			// Inserting never moves fixed or frozen tiles, so the rows / columns that can be inserted into stay the same
+			Boolean[] insertable = board[0].getInsertablePositions()[direction % 2];
+			ArrayList<Integer> open = new ArrayList<>();
+			for (int i = 0; i < insertable.length; i++) {
+				if (insertable[i]) {
+					open.add(i);
+				}
+			}
+			points[0] = open.stream().mapToInt(Integer::intValue).toArray();
+		};
+
+		insertSetup.run();
+		if (points[0].length == 0) {
+			System.out.println(name + "insertFloorTile dir=" + direction + ": nothing can be inserted into");
+		} else {
+			measure(name + "insertFloorTile dir=" + direction, insertSetup, i -> {
+				int[] open = points[0];
+				inHand[0] = board[0].insertFloorTile(inHand[0], direction, open[i % open.length]);
+				return inHand[0].getOrientation();
+			});
+		}
+	}
+
+	/**
+	 * Measure a single benchmark and print the result, unless it is filtered out.
+	 * @param label Name of the benchmark
+	 * @param setup Run before every iteration
+	 * @param operation Operation to measure
+	 * @throws Exception If the benchmark fails
+	 */
+	private void measure(String label, Runnable setup, Benchmark.Operation operation) throws Exception {
+		if (only == null || label.contains(only)) {
+			System.out.println(benchmark.measure(label, setup, operation));
+		}
+	}
+
+	/**
+	 * Run the benchmarks from the command line, see the class description for the arguments.
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		int[] sizes = {7, 50, 150, 500};
+		double[] densities = {0, 0.1, 0.3};
+		int[] effects = {0, 16, 64};
+		String only = null;
+		int warmup = 3;
+		int iterations = 5;
+		long time = 200;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "-sizes":
+						sizes = parseInts(args[++i]);
+						break;
+					case "-densities":
+						String[] parts = args[++i].split(",");
+						densities = new double[parts.length];
+						for (int j = 0; j < parts.length; j++) {
+							densities[j] = Double.parseDouble(parts[j]);
+						}
+						break;
+					case "-effects":
+						effects = parseInts(args[++i]);
+						break;
+					case "-only":
+						only = args[++i];
+						break;
+					case "-warmup":
+						warmup = Integer.parseInt(args[++i]);
+						break;
+					case "-iterations":
+						iterations = Integer.parseInt(args[++i]);
+						break;
+					case "-time":
+						time = Long.parseLong(args[++i]);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown argument " + args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.out.println("Usage: BoardBenchmarks [-sizes 7,50,150,500] [-densities 0,0.1,0.3] "
+					+ "[-effects 0,16,64] [-only name] [-warmup N] [-iterations N] [-time ms]");
+			System.exit(1);
+		}
+
+		BoardBenchmarks benchmarks = new BoardBenchmarks(new Benchmark(warmup, iterations, time), only);
+		System.out.println(Benchmark.header());
+		try {
+			for (int size : sizes) {
+				for (double density : densities) {
+					for (int effect : effects) {
+						benchmarks.run(size, density, effect);
+					}
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.out.println("A benchmark failed.");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @param list Comma separated integers, i.e. "7,50"
+	 * @return The integers
+	 * @throws NumberFormatException If one of them is not an integer
+	 */
+	static int[] parseInts(String list) throws NumberFormatException {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i]);
+		}
+		return values;
+	}
+}
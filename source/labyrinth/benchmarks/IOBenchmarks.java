@@ -0,0 +1,326 @@
+package source.labyrinth.benchmarks;
+
+import source.labyrinth.GameSession;
+import source.labyrinth.LeaderboardStore;
+import source.labyrinth.LevelData;
+import source.labyrinth.LevelIO;
+import source.labyrinth.ProfileManager;
+import source.labyrinth.SaveIO;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * IOBenchmarks measures reading levels (as text and binary), updating leaderboards, reading and writing profiles, and saving and loading
+ * games, the same way the game does (on the JavaFX thread, so their latency is what the user waits for).
+ * Everything runs on generated files in a temporary folder, from tiny up to 1000 x 1000 boards, 100k profiles and
+ * leaderboards of 100k entries. The game's own files are never touched.
+ * Players use JavaFX colours, so the JavaFX jars have to be on the class path like when running the game.
+ * Usage: IOBenchmarks [-scales tiny,medium,large] [-only name] [-warmup N] [-iterations N] [-time ms]
+ * @author Fillip Serov
+ */
+public class IOBenchmarks {
+	private static final long SEED = 1234;
+	private static final int PLAYERS = 4;
+	// Every this many tiles of a generated level is fixed
+	private static final int FIXED_EVERY = 20;
+	// Level name the leaderboards are kept under
+	private static final String LEADERBOARD_LEVEL = "generated";
+
+	/**
+	 * How big the generated files are.
+	 */
+	public enum Scale {
+		TINY(7, 10, 10),
+		MEDIUM(100, 1000, 1000),
+		LARGE(1000, 100_000, 100_000);
+
+		private final int boardSize;
+		private final int profiles;
+		private final int leaderboardEntries;
+
+		/**
+		 * @param boardSize Width and height of the level
+		 * @param profiles Amount of profiles
+		 * @param leaderboardEntries Amount of profiles on the leaderboard
+		 */
+		Scale(int boardSize, int profiles, int leaderboardEntries) {
+			this.boardSize = boardSize;
+			this.profiles = profiles;
+			this.leaderboardEntries = leaderboardEntries;
+		}
+	}
+
+	private final Benchmark benchmark;
+	private final String only;
+	private final File folder;
+	private final PrintStream console;
+
+	/**
+	 * @param benchmark Harness to measure with
+	 * @param only Only run benchmarks which contain this in their name, null to run all of them
+	 * @param folder Folder to put the generated files in
+	 * @param console Where to print the results
+	 */
+	public IOBenchmarks(Benchmark benchmark, String only, File folder, PrintStream console) {
+		this.benchmark = benchmark;
+		this.only = only;
+		this.folder = folder;
+		this.console = console;
+	}
+
+	/**
+	 * Generate the files for one scale, then measure every benchmark on them, printing the results.
+	 * @param scale How big the files are
+	 * @throws Exception If making a file or a benchmark fails
+	 */
+	public void run(Scale scale) throws Exception {
+		String name = scale.name().toLowerCase() + " ";
+		File levelFile = new File(folder, "level_" + scale.boardSize + ".txt");
+		File leaderboardFolder = new File(folder, "leaderboards_" + scale.leaderboardEntries);
+		File profilesFile = new File(folder, "profiles_" + scale.profiles + ".txt");
+		File saveFile = new File(folder, "save_" + scale.boardSize + SaveIO.SAVE_EXTENSION);
+
+		writeLevel(levelFile, scale.boardSize);
+		measure(name + "LevelIO.readDataFile", null,
+				i -> LevelIO.readDataFile(levelFile.getPath()).getBoard().getWidth());
+		File binaryLevelFile = new File(folder, "level_" + scale.boardSize + LevelIO.BINARY_EXTENSION);
+		LevelIO.writeBinaryFile(LevelIO.readDataFile(levelFile.getPath()), binaryLevelFile.getPath());
+		measure(name + "LevelIO.readBinaryFile", null,
+				i -> LevelIO.readBinaryFile(binaryLevelFile.getPath()).getBoard().getWidth());
+
+		Random random = new Random(SEED);
+		ArrayList<Integer> played = new ArrayList<>();
+		writeLeaderboards(leaderboardFolder, scale.leaderboardEntries);
+		measure(name + "LevelIO.updateLeaderboard", null, i -> {
+			played.clear();
+			for (int j = 0; j < PLAYERS; j++) {
+				played.add(random.nextInt(scale.leaderboardEntries));
+			}
+			LevelIO.updateLeaderboard(LEADERBOARD_LEVEL, played, played.get(0));
+			return played.get(0);
+		});
+		measure(name + "LevelIO.readLeaderboard", null, i -> LevelIO.readLeaderboard(LEADERBOARD_LEVEL).size());
+
+		writeProfiles(profilesFile, scale.profiles);
+		measure(name + "ProfileManager.performSetup", null, i -> {
+			ProfileManager.setProfilesFile(profilesFile);
+			ProfileManager.performSetup();
+			return ProfileManager.getProfiles().size();
+		});
+		measure(name + "ProfileManager.writeProfilesToFile", () -> {
+			ProfileManager.setProfilesFile(profilesFile);
+			ProfileManager.performSetup();
+		}, i -> {
+			ProfileManager.writeProfilesToFile();
+			return profilesFile.length();
+		});
+
+		LevelData level = LevelIO.readDataFile(levelFile.getPath());
+		GameSession session = new GameSession(level, "levels/generated", new int[PLAYERS], new Random(SEED));
+		measure(name + "save (SaveIO.writeSave)", null, i -> {
+			SaveIO.writeSave(session, saveFile.getPath());
+			return saveFile.length();
+		});
+		measure(name + "load (SaveIO.readSave)", null, i -> {
+			GameSession loaded = SaveIO.readSave(saveFile.getPath());
+			return loaded.getBoard().getWidth();
+		});
+	}
+
+	/**
+	 * Write a level file with every FIXED_EVERY'th tile fixed and enough tiles in the bag to fill the board.
+	 * @param file File to write
+	 * @param size Width and height of the level
+	 * @throws IOException If the file cannot be written
+	 */
+	private static void writeLevel(File file, int size) throws IOException {
+		Random random = new Random(SEED);
+		String[] types = {"STRAIGHT", "CORNER", "TSHAPE"};
+		StringBuilder fixedTiles = new StringBuilder();
+		int fixed = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				boolean corner = (x == 0 || x == size - 1) && (y == 0 || y == size - 1);
+				if (!corner && (x * size + y) % FIXED_EVERY == 0) {
+					String type = x == size / 2 && y == size / 2 ? "GOAL" : types[random.nextInt(types.length)];
+					fixedTiles.append(x).append(',').append(y).append(',').append(type).append(',')
+							.append(random.nextInt(4)).append('\n');
+					fixed++;
+				}
+			}
+		}
+
+		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		bw.write(size + "," + size + "\n");
+		bw.write(fixed + "\n");
+		bw.write(fixedTiles.toString());
+		bw.write("0,0\n" + (size - 1) + ",0\n0," + (size - 1) + "\n" + (size - 1) + "," + (size - 1) + "\n");
+		int perType = size * size / types.length + 1;
+		bw.write(perType + ",STRAIGHT\n" + perType + ",TSHAPE\n" + perType + ",CORNER\n0,GOAL\n");
+		int actions = size + 1;
+		bw.write(actions + ",ICE\n" + actions + ",FIRE\n" + actions + ",DOUBLEMOVE\n" + actions + ",BACKTRACK\n");
+		bw.close();
+	}
+
+	/**
+	 * Write a profiles file the way ProfileManager does.
+	 * @param file File to write
+	 * @param amount Amount of profiles
+	 * @throws IOException If the file cannot be written
+	 */
+	private static void writeProfiles(File file, int amount) throws IOException {
+		Random random = new Random(SEED);
+		BufferedWriter bw = new BufferedWriter(new FileWriter(file));
+		bw.write(Integer.toString(amount));
+		bw.newLine();
+		for (int i = 0; i < amount; i++) {
+			int wins = random.nextInt(100);
+			int losses = random.nextInt(100);
+			bw.write("Profile " + i);
+			bw.newLine();
+			bw.write(i + "," + (wins + losses) + "," + wins + "," + losses);
+			bw.newLine();
+		}
+		bw.close();
+	}
+
+	/**
+	 * Make a LeaderboardStore with a single leaderboard in a new folder and use it from now on. The leaderboard is
+	 * written as an old leaderboard file, which the store reads into its checkpoint.
+	 * @param leaderboardFolder Folder of the store, emptied first
+	 * @param amount Amount of profiles on the leaderboard
+	 * @throws IOException If a file cannot be written
+	 */
+	private static void writeLeaderboards(File leaderboardFolder, int amount) throws IOException {
+		File[] files = leaderboardFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				Files.delete(file.toPath());
+			}
+		}
+		Files.createDirectories(leaderboardFolder.toPath());
+		writeLeaderboard(new File(leaderboardFolder, LEADERBOARD_LEVEL + "_leaderboard.ser"), amount);
+		LeaderboardStore.setFolder(leaderboardFolder);
+		LeaderboardStore.compact();
+	}
+
+	/**
+	 * Write a leaderboard file the way older versions of LevelIO did. Errors are wrapped, since this is used as a setup.
+	 * @param file File to write
+	 * @param amount Amount of profiles on the leaderboard
+	 * @throws IllegalStateException If the file cannot be written
+	 */
+	private static void writeLeaderboard(File file, int amount) throws IllegalStateException {
+		Random random = new Random(SEED);
+		HashMap<Integer, Integer> leaderboard = new HashMap<>();
+		for (int i = 0; i < amount; i++) {
+			leaderboard.put(i, random.nextInt(100));
+		}
+		try {
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(file));
+			objectOutputStream.writeObject(leaderboard);
+			objectOutputStream.flush();
+			objectOutputStream.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write the leaderboard " + file, e);
+		}
+	}
+
+	/**
+	 * Measure a single benchmark and print the result, unless it is filtered out.
+	 * @param label Name of the benchmark
+	 * @param setup Run before every iteration, can be null
+	 * @param operation Operation to measure
+	 * @throws Exception If the benchmark fails
+	 */
+	private void measure(String label, Runnable setup, Benchmark.Operation operation) throws Exception {
+		if (only == null || label.contains(only)) {
+			console.println(benchmark.measure(label, setup, operation));
+		}
+	}
+
+	/**
+	 * Run the benchmarks from the command line, see the class description for the arguments.
+	 * @param args Command line arguments
+	 */
+	public static void main(String[] args) {
+		ArrayList<Scale> scales = new ArrayList<>();
+		String only = null;
+		int warmup = 2;
+		int iterations = 5;
+		long time = 1000;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "-scales":
+						for (String scale : args[++i].split(",")) {
+							scales.add(Scale.valueOf(scale.toUpperCase()));
+						}
+						break;
+					case "-only":
+						only = args[++i];
+						break;
+					case "-warmup":
+						warmup = Integer.parseInt(args[++i]);
+						break;
+					case "-iterations":
+						iterations = Integer.parseInt(args[++i]);
+						break;
+					case "-time":
+						time = Long.parseLong(args[++i]);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown argument " + args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.out.println("Usage: IOBenchmarks [-scales tiny,medium,large] [-only name] [-warmup N] "
+					+ "[-iterations N] [-time ms]");
+			System.exit(1);
+		}
+		if (scales.isEmpty()) {
+			for (Scale scale : Scale.values()) {
+				scales.add(scale);
+			}
+		}
+
+		File folder = null;
+		try {
+			folder = Files.createTempDirectory("labyrinth-benchmarks").toFile();
+			IOBenchmarks benchmarks = new IOBenchmarks(new Benchmark(warmup, iterations, time), only, folder,
+					System.out);
+			System.out.println(Benchmark.header());
+			for (Scale scale : scales) {
+				benchmarks.run(scale);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.out.println("A benchmark failed.");
+		} finally {
+			if (folder != null) {
+				for (File f : folder.listFiles()) {
+					// The leaderboard stores have a folder each
+					File[] inside = f.listFiles();
+					if (inside != null) {
+						for (File g : inside) {
+							g.delete();
+						}
+					}
+					f.delete();
+				}
+				folder.delete();
+			}
+		}
+	}
+}
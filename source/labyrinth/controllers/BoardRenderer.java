@@ -0,0 +1,59 @@
+package source.labyrinth.controllers;
+
+import javafx.scene.Node;
+import javafx.scene.input.MouseEvent;
+import source.labyrinth.Board;
+
+/**
+ * BoardRenderer shows the board of a game. BoardView keeps a node for every tile, which is quickest to update for
+ * boards of normal sizes, while CanvasBoardView only draws the part of the board that is in view, for boards too big
+ * to have a node for every tile.
+ * @author Fillip Serov
+ */
+public interface BoardRenderer {
+	/**
+	 * Handles the mouse on a cell of the board.
+	 */
+	interface CellMouseHandler {
+		/**
+		 * @param event The mouse event, i.e. to tell which button was clicked
+		 * @param x X-position of the cell
+		 * @param y Y-position of the cell
+		 */
+		void handle(MouseEvent event, int x, int y);
+	}
+
+	/**
+	 * Handles a click on one of the insertion arrows.
+	 */
+	interface InsertionHandler {
+		/**
+		 * @param direction Direction to insert from, 0 to 3 as used by Board.insertFloorTile
+		 * @param insertionPoint Column or row to insert into
+		 */
+		void inserted(int direction, int insertionPoint);
+	}
+
+	/**
+	 * @return The node showing the board
+	 */
+	Node getNode();
+
+	/**
+	 * Show the current state of a board. Highlights from the last render are removed.
+	 * @param board Board to show
+	 * @param currentPlayer ID in game of the player whose turn it is, their tile is marked. -1 to mark no one
+	 * @param showInsertionArrows Whether to show the arrows for the rows and columns that can be inserted into
+	 * @param tileRenderSize Size to draw each tile at
+	 */
+	void render(Board board, int currentPlayer, boolean showInsertionArrows, int tileRenderSize);
+
+	/**
+	 * Highlight a cell until the next render. While highlighted, clicking the cell runs the given handler instead
+	 * of the usual click handler.
+	 * @param x X-position of the cell
+	 * @param y Y-position of the cell
+	 * @param onClick What to do when the highlighted cell is clicked
+	 */
+	void highlight(int x, int y, CellMouseHandler onClick);
+}
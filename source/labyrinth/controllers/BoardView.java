@@ -0,0 +1,233 @@
+package source.labyrinth.controllers;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
+import source.labyrinth.Board;
+import source.labyrinth.FloorTile;
+import source.labyrinth.ImageCache;
+
+import java.util.ArrayList;
+
+/**
+ * BoardView shows a Board as a GridPane of one StackPane per cell, surrounded by the arrows used to insert a
+ * FloorTile. The nodes are kept between renders, so rendering the board again only redraws the cells that look
+ * different from the last time they were drawn, i.e. the row or column that was shifted by an insert, the area of a
+ * fire or ice action and the cells a player left and moved onto.
+ * Everything is only built again when the size of the board or the size the tiles are drawn at changes.
+ * Cells are found by their position in an array, and each gets its click handler once when it is built, which looks
+ * up whether the cell is highlighted when it is clicked. So highlighting a cell takes the same time on any board.
+ * @author Fillip Serov
+ */
+public class BoardView implements BoardRenderer {
+	private static final int DIRECTIONS = 4;
+	// Directions of the insertion arrows, as used by Board.insertFloorTile
+	private static final int TOP = 0;
+	private static final int RIGHT = 1;
+	private static final int BOTTOM = 2;
+	private static final int LEFT = 3;
+
+	private final GridPane grid = new GridPane();
+	private final CellMouseHandler cellClickHandler;
+	private final InsertionHandler insertionHandler;
+
+	private StackPane[][] cells = new StackPane[0][0];
+	// What every cell looked like when it was last drawn, see lookOf
+	private int[][] drawnLooks = new int[0][0];
+	// Insertion arrows by direction, then by column (top and bottom) or row (left and right)
+	private ImageView[][] arrows = new ImageView[DIRECTIONS][0];
+	private int renderedWidth = 0;
+	private int renderedHeight = 0;
+	private int renderedSize = -1;
+	// Click handlers of the highlighted cells, null for cells that are not highlighted
+	private CellMouseHandler[][] highlightHandlers = new CellMouseHandler[0][0];
+	private final ArrayList<int[]> highlightedCells = new ArrayList<>();
+
+	/**
+	 * @param cellClickHandler Called when a cell is clicked, unless it is highlighted
+	 * @param insertionHandler Called when an insertion arrow is clicked
+	 */
+	public BoardView(CellMouseHandler cellClickHandler, InsertionHandler insertionHandler) {
+		this.cellClickHandler = cellClickHandler;
+		this.insertionHandler = insertionHandler;
+		grid.setAlignment(Pos.CENTER);
+	}
+
+	@Override
+	public Node getNode() {
+		return grid;
+	}
+
+	@Override
+	public void render(Board board, int currentPlayer, boolean showInsertionArrows, int tileRenderSize) {
+		if (board.getWidth() != renderedWidth || board.getHeight() != renderedHeight || tileRenderSize != renderedSize) {
+			rebuild(board.getWidth(), board.getHeight(), tileRenderSize);
+		}
+		clearHighlights();
+
+		for (int x = 0; x < renderedWidth; x++) {
+			for (int y = 0; y < renderedHeight; y++) {
+				FloorTile tile = board.getTileAt(x, y);
+				int look = lookOf(tile, currentPlayer);
+				if (look != drawnLooks[x][y]) {
+					drawCell(cells[x][y], tile, look);
+					drawnLooks[x][y] = look;
+				}
+			}
+		}
+
+		Boolean[][] insertableMask = board.getInsertablePositions();
+		for (int x = 0; x < renderedWidth; x++) {
+			arrows[TOP][x].setVisible(showInsertionArrows && insertableMask[0][x]);
+			arrows[BOTTOM][x].setVisible(showInsertionArrows && insertableMask[0][x]);
+		}
+		for (int y = 0; y < renderedHeight; y++) {
+			arrows[LEFT][y].setVisible(showInsertionArrows && insertableMask[1][y]);
+			arrows[RIGHT][y].setVisible(showInsertionArrows && insertableMask[1][y]);
+		}
+	}
+
+	@Override
+	public void highlight(int x, int y, CellMouseHandler onClick) {
+		// A cell highlighted twice still only gets one overlay
+		if (highlightHandlers[x][y] == null) {
+			ImageView chosen = new ImageView(ImageCache.getImage("source/resources/img/chosen_one.png", renderedSize, renderedSize));
+			chosen.setOpacity(0.5);
+			cells[x][y].getChildren().add(chosen);
+			highlightedCells.add(new int[]{x, y});
+		}
+		highlightHandlers[x][y] = onClick;
+	}
+
+	/**
+	 * Build every node again, for a board of a different size or a different tile size.
+	 * @param width Width of the board
+	 * @param height Height of the board
+	 * @param tileRenderSize Size to draw each tile at
+	 */
+	private void rebuild(int width, int height, int tileRenderSize) {
+		grid.getChildren().clear();
+		highlightedCells.clear();
+		renderedWidth = width;
+		renderedHeight = height;
+		renderedSize = tileRenderSize;
+		cells = new StackPane[width][height];
+		drawnLooks = new int[width][height];
+		highlightHandlers = new CellMouseHandler[width][height];
+		arrows = new ImageView[][] {new ImageView[width], new ImageView[height], new ImageView[width], new ImageView[height]};
+
+		Image insertionImage = ImageCache.getImage("source/resources/img/insert_arrow.png", tileRenderSize, tileRenderSize);
+		// Row and column 0 are left for the arrows, so the board itself starts at 1,1
+		for (int x = 0; x < width; x++) {
+			grid.add(createArrow(insertionImage, TOP, x, 180), x + 1, 0);
+			grid.add(createArrow(insertionImage, BOTTOM, x, 0), x + 1, height + 1);
+		}
+		for (int y = 0; y < height; y++) {
+			grid.add(createArrow(insertionImage, LEFT, y, 90), 0, y + 1);
+			grid.add(createArrow(insertionImage, RIGHT, y, -90), width + 1, y + 1);
+		}
+
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int cellX = x;
+				int cellY = y;
+				StackPane cell = new StackPane();
+				cell.setStyle("-fx-border-width: 1px; -fx-border-color: darkgrey");
+				cell.setOnMouseClicked(event -> handleClick(event, cellX, cellY));
+				cells[x][y] = cell;
+				// No tile looks like this, so every cell is drawn by the first render
+				drawnLooks[x][y] = -1;
+				grid.add(cell, x + 1, y + 1);
+			}
+		}
+	}
+
+	/**
+	 * @param insertionImage Image of the arrow
+	 * @param direction Direction the arrow inserts from
+	 * @param insertionPoint Column or row the arrow inserts into
+	 * @param rotation Rotation of the image, in degrees
+	 * @return A hidden insertion arrow
+	 */
+	private ImageView createArrow(Image insertionImage, int direction, int insertionPoint, int rotation) {
+		ImageView arrow = new ImageView(insertionImage);
+		arrow.setRotate(rotation);
+		arrow.setVisible(false);
+		arrow.setOnMouseClicked(event -> insertionHandler.inserted(direction, insertionPoint));
+		arrows[direction][insertionPoint] = arrow;
+		return arrow;
+	}
+
+	/**
+	 * Remove every highlight, so the cells pass their clicks to the usual click handler again.
+	 */
+	private void clearHighlights() {
+		for (int[] position : highlightedCells) {
+			StackPane cell = cells[position[0]][position[1]];
+			// The highlight is always the last child, drawn over the tile
+			cell.getChildren().remove(cell.getChildren().size() - 1);
+			highlightHandlers[position[0]][position[1]] = null;
+		}
+		highlightedCells.clear();
+	}
+
+	/**
+	 * Pass a click on a cell to its highlight's handler if it is highlighted, to the usual click handler otherwise.
+	 * @param event The click
+	 * @param x X-position of the cell
+	 * @param y Y-position of the cell
+	 */
+	private void handleClick(MouseEvent event, int x, int y) {
+		if (highlightHandlers[x][y] != null) {
+			highlightHandlers[x][y].handle(event, x, y);
+		} else {
+			cellClickHandler.handle(event, x, y);
+		}
+	}
+
+	/**
+	 * Draw a tile onto its cell, marking it if the player whose turn it is stands on it.
+	 * @param cell StackPane of the cell
+	 * @param tile Tile in the cell
+	 * @param look What the tile looks like, see lookOf
+	 */
+	private void drawCell(StackPane cell, FloorTile tile, int look) {
+		tile.renderTileOnto(cell, renderedSize);
+		if (isSelected(look)) {
+			Image select = ImageCache.getImage("source/resources/img/player_selected.png", renderedSize * 0.6, renderedSize * 0.6);
+			cell.getChildren().add(new ImageView(select));
+		}
+	}
+
+	/**
+	 * Sum up everything that decides what a tile looks like in a single number, so a cell only has to be drawn again
+	 * when its number changes.
+	 * @param tile A tile on the board
+	 * @param currentPlayer ID in game of the player whose turn it is
+	 * @return Number that is the same for two tiles exactly when they are drawn the same
+	 */
+	static int lookOf(FloorTile tile, int currentPlayer) {
+		int look = tile.getFloorType().ordinal();
+		look = look * 4 + tile.getOrientation();
+		look = look * 2 + (tile.getFixed() ? 1 : 0);
+		look = look * 2 + (tile.isFrozen() ? 1 : 0);
+		look = look * 2 + (tile.isOnFire() ? 1 : 0);
+		// Up to 4 players and 4 kinds of bonus, with 0 meaning none
+		look = look * 8 + (tile.getPlayer() == null ? 0 : tile.getPlayer().getIdInGame() + 1);
+		look = look * 8 + (tile.getBonusAction() == null ? 0 : tile.getBonusAction().ordinal() + 1);
+		boolean selected = tile.getPlayer() != null && tile.getPlayer().getIdInGame() == currentPlayer;
+		return look * 2 + (selected ? 1 : 0);
+	}
+
+	/**
+	 * @param look What a tile looks like, see lookOf
+	 * @return true if the tile is marked as the current player's
+	 */
+	private static boolean isSelected(int look) {
+		return look % 2 == 1;
+	}
+}
@@ -0,0 +1,345 @@
+package source.labyrinth.controllers;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import source.labyrinth.Board;
+import source.labyrinth.FloorTile;
+import source.labyrinth.ImageCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * CanvasBoardView shows a Board on a single Canvas inside its own ScrollPane, for boards too big to have a node for
+ * every tile. The canvas is only as big as the part of the board that is in view, and moves along with the scroll
+ * bars, so only the tiles in view are ever drawn. Rendering the board again only draws the tiles in view that look
+ * different from the last time they were drawn, and clicks are turned into board positions from their coordinates.
+ * Cells without a tile (while editing) are drawn empty, and starting positions can be marked for the level editor.
+ * @author Fillip Serov
+ */
+public class CanvasBoardView implements BoardRenderer {
+	// Boards with more cells than this are drawn on a canvas, smaller ones with a node per tile
+	private static final long MAX_NODE_CELLS = 100 * 100;
+	// Directions of the insertion arrows, as used by Board.insertFloorTile
+	private static final int TOP = 0;
+	private static final int RIGHT = 1;
+	private static final int BOTTOM = 2;
+	private static final int LEFT = 3;
+	// What a cell looks like before it is drawn, no cell ever looks like this
+	private static final int NOT_DRAWN = -1;
+	private static final double MARKER_SCALE = 0.6;
+	// Small enough to fit the save menu's preview, the level and editor scenes stretch it to fill their space
+	private static final double PREFERRED_VIEW_SIZE = 360;
+
+	private final ScrollPane scrollPane = new ScrollPane();
+	private final Pane content = new Pane();
+	private final Canvas canvas = new Canvas();
+	private final CellMouseHandler cellClickHandler;
+	private final InsertionHandler insertionHandler;
+	private CellMouseHandler cellHoverHandler;
+
+	private Board board;
+	private int currentPlayer = -1;
+	private boolean showInsertionArrows = false;
+	private Boolean[][] insertableMask;
+	private int tileSize = 0;
+	private ArrayList<int[]> startingPositions = new ArrayList<>();
+	// Click handlers of the highlighted cells, by y * width + x
+	private final HashMap<Integer, CellMouseHandler> highlights = new HashMap<>();
+
+	// The cells that were in view when everything was last drawn, and what they looked like
+	private int firstX = 0;
+	private int firstY = 0;
+	private int visibleWidth = 0;
+	private int visibleHeight = 0;
+	private int[] drawnLooks = new int[0];
+
+	/**
+	 * @param cellClickHandler Called when a cell is clicked, unless it is highlighted
+	 * @param insertionHandler Called when an insertion arrow is clicked, null if there are never any arrows
+	 */
+	public CanvasBoardView(CellMouseHandler cellClickHandler, InsertionHandler insertionHandler) {
+		this.cellClickHandler = cellClickHandler;
+		this.insertionHandler = insertionHandler;
+
+		content.getChildren().add(canvas);
+		scrollPane.setContent(content);
+		scrollPane.setStyle("-fx-background: darkgrey; -fx-background-color: darkgrey");
+		scrollPane.setPrefSize(PREFERRED_VIEW_SIZE, PREFERRED_VIEW_SIZE);
+		scrollPane.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+		VBox.setVgrow(scrollPane, Priority.ALWAYS);
+
+		// Scrolling or resizing changes which part of the board is in view
+		scrollPane.viewportBoundsProperty().addListener((observable, oldValue, newValue) -> paint(true));
+		scrollPane.hvalueProperty().addListener((observable, oldValue, newValue) -> paint(true));
+		scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> paint(true));
+
+		canvas.setOnMouseClicked(this::handleClick);
+		canvas.setOnMouseMoved(event -> {
+			int x = cellAt(event.getX() + canvas.getLayoutX());
+			int y = cellAt(event.getY() + canvas.getLayoutY());
+			if (cellHoverHandler != null && isOnBoard(x, y)) {
+				cellHoverHandler.handle(event, x, y);
+			}
+		});
+	}
+
+	/**
+	 * @param board A board
+	 * @return true if the board is too big to show with a node per tile, and should be shown by a CanvasBoardView
+	 */
+	public static boolean isLargeBoard(Board board) {
+		return (long) board.getWidth() * board.getHeight() > MAX_NODE_CELLS;
+	}
+
+	/**
+	 * @param cellHoverHandler Called when the mouse moves over a cell
+	 */
+	public void setOnCellHovered(CellMouseHandler cellHoverHandler) {
+		this.cellHoverHandler = cellHoverHandler;
+	}
+
+	/**
+	 * Mark starting positions of players, as the level editor shows them. Takes effect on the next render.
+	 * @param startingPositions Positions to mark, i.e. [[0, 1], [2, 2], ...]
+	 */
+	public void setStartingPositions(ArrayList<int[]> startingPositions) {
+		this.startingPositions = startingPositions;
+	}
+
+	@Override
+	public Node getNode() {
+		return scrollPane;
+	}
+
+	@Override
+	public void render(Board board, int currentPlayer, boolean showInsertionArrows, int tileRenderSize) {
+		boolean resized = this.board == null || board.getWidth() != this.board.getWidth()
+				|| board.getHeight() != this.board.getHeight() || tileRenderSize != tileSize;
+		this.board = board;
+		this.currentPlayer = currentPlayer;
+		this.showInsertionArrows = showInsertionArrows && insertionHandler != null;
+		this.insertableMask = board.getInsertablePositions();
+		this.tileSize = tileRenderSize;
+		highlights.clear();
+
+		if (resized) {
+			// One tile of space is left around the board for the arrows
+			double width = (board.getWidth() + 2.0) * tileSize;
+			double height = (board.getHeight() + 2.0) * tileSize;
+			content.setMinSize(width, height);
+			content.setPrefSize(width, height);
+			content.setMaxSize(width, height);
+		}
+		paint(resized);
+	}
+
+	@Override
+	public void highlight(int x, int y, CellMouseHandler onClick) {
+		highlights.put(y * board.getWidth() + x, onClick);
+		paint(false);
+	}
+
+	/**
+	 * Draw the part of the board that is in view.
+	 * @param everything true to draw every tile in view, false to only draw the ones that changed since
+	 */
+	private void paint(boolean everything) {
+		if (board == null || tileSize <= 0) {
+			return;
+		}
+
+		Bounds viewport = scrollPane.getViewportBounds();
+		double contentWidth = (board.getWidth() + 2.0) * tileSize;
+		double contentHeight = (board.getHeight() + 2.0) * tileSize;
+		double viewWidth = Math.min(viewport.getWidth(), contentWidth);
+		double viewHeight = Math.min(viewport.getHeight(), contentHeight);
+		double left = scrollPane.getHvalue() * Math.max(0, contentWidth - viewWidth);
+		double top = scrollPane.getVvalue() * Math.max(0, contentHeight - viewHeight);
+
+		int newFirstX = Math.max(0, cellAt(left));
+		int newFirstY = Math.max(0, cellAt(top));
+		int newVisibleWidth = Math.max(0, Math.min(board.getWidth() - 1, cellAt(left + viewWidth)) - newFirstX + 1);
+		int newVisibleHeight = Math.max(0, Math.min(board.getHeight() - 1, cellAt(top + viewHeight)) - newFirstY + 1);
+
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		if (everything || left != canvas.getLayoutX() || top != canvas.getLayoutY()
+				|| viewWidth != canvas.getWidth() || viewHeight != canvas.getHeight()) {
+			canvas.setLayoutX(left);
+			canvas.setLayoutY(top);
+			canvas.setWidth(viewWidth);
+			canvas.setHeight(viewHeight);
+			gc.clearRect(0, 0, viewWidth, viewHeight);
+
+			firstX = newFirstX;
+			firstY = newFirstY;
+			visibleWidth = newVisibleWidth;
+			visibleHeight = newVisibleHeight;
+			drawnLooks = new int[visibleWidth * visibleHeight];
+			Arrays.fill(drawnLooks, NOT_DRAWN);
+		}
+
+		for (int x = firstX; x < firstX + visibleWidth; x++) {
+			for (int y = firstY; y < firstY + visibleHeight; y++) {
+				int look = lookAt(x, y);
+				int index = (x - firstX) * visibleHeight + (y - firstY);
+				if (look != drawnLooks[index]) {
+					drawCell(gc, x, y);
+					drawnLooks[index] = look;
+				}
+			}
+		}
+		drawArrows(gc);
+	}
+
+	/**
+	 * Draw a single cell, over whatever was drawn there before.
+	 * @param gc GraphicsContext of the canvas
+	 * @param x X-position of the cell
+	 * @param y Y-position of the cell
+	 */
+	private void drawCell(GraphicsContext gc, int x, int y) {
+		double canvasX = (x + 1) * tileSize - canvas.getLayoutX();
+		double canvasY = (y + 1) * tileSize - canvas.getLayoutY();
+		gc.clearRect(canvasX, canvasY, tileSize, tileSize);
+
+		FloorTile tile = board.getTileAt(x, y);
+		if (tile == null) {
+			gc.drawImage(ImageCache.getImage("source/resources/img/tile_none.png", tileSize, tileSize), canvasX, canvasY);
+		} else {
+			tile.drawTile(gc, canvasX, canvasY, tileSize);
+			if (tile.getPlayer() != null && tile.getPlayer().getIdInGame() == currentPlayer) {
+				Image select = ImageCache.getImage("source/resources/img/player_selected.png", tileSize * MARKER_SCALE, tileSize * MARKER_SCALE);
+				FloorTile.drawCentered(gc, select, canvasX, canvasY, tileSize);
+			}
+		}
+
+		if (isStartingPosition(x, y)) {
+			Image player = ImageCache.getImage("source/resources/img/player_default.png", tileSize * MARKER_SCALE, tileSize * MARKER_SCALE);
+			FloorTile.drawCentered(gc, player, canvasX, canvasY, tileSize);
+		}
+
+		if (highlights.containsKey(y * board.getWidth() + x)) {
+			gc.save();
+			gc.setGlobalAlpha(0.5);
+			gc.drawImage(ImageCache.getImage("source/resources/img/chosen_one.png", tileSize, tileSize), canvasX, canvasY);
+			gc.restore();
+		}
+	}
+
+	/**
+	 * Draw the insertion arrows that are in view, or clear their space if they are not shown.
+	 * @param gc GraphicsContext of the canvas
+	 */
+	private void drawArrows(GraphicsContext gc) {
+		for (int x = firstX; x < firstX + visibleWidth; x++) {
+			drawArrow(gc, x, -1, 180, insertableMask[0][x]);
+			drawArrow(gc, x, board.getHeight(), 0, insertableMask[0][x]);
+		}
+		for (int y = firstY; y < firstY + visibleHeight; y++) {
+			drawArrow(gc, -1, y, 90, insertableMask[1][y]);
+			drawArrow(gc, board.getWidth(), y, -90, insertableMask[1][y]);
+		}
+	}
+
+	/**
+	 * @param gc GraphicsContext of the canvas
+	 * @param x X-position of the arrow, -1 or the board's width for rows
+	 * @param y Y-position of the arrow, -1 or the board's height for columns
+	 * @param rotation Rotation of the arrow, in degrees
+	 * @param insertable Whether the row or column of the arrow can be inserted into
+	 */
+	private void drawArrow(GraphicsContext gc, int x, int y, int rotation, boolean insertable) {
+		double canvasX = (x + 1) * tileSize - canvas.getLayoutX();
+		double canvasY = (y + 1) * tileSize - canvas.getLayoutY();
+		gc.clearRect(canvasX, canvasY, tileSize, tileSize);
+		if (showInsertionArrows && insertable) {
+			gc.save();
+			gc.translate(canvasX + tileSize / 2.0, canvasY + tileSize / 2.0);
+			gc.rotate(rotation);
+			Image arrow = ImageCache.getImage("source/resources/img/insert_arrow.png", tileSize, tileSize);
+			gc.drawImage(arrow, -tileSize / 2.0, -tileSize / 2.0);
+			gc.restore();
+		}
+	}
+
+	/**
+	 * Pass a click on to the highlighted cell, the click handler or the insertion handler, depending on where it is.
+	 * @param event The click
+	 */
+	private void handleClick(MouseEvent event) {
+		int x = cellAt(event.getX() + canvas.getLayoutX());
+		int y = cellAt(event.getY() + canvas.getLayoutY());
+		if (isOnBoard(x, y)) {
+			CellMouseHandler highlighted = highlights.get(y * board.getWidth() + x);
+			if (highlighted != null) {
+				highlighted.handle(event, x, y);
+			} else {
+				cellClickHandler.handle(event, x, y);
+			}
+		} else if (showInsertionArrows) {
+			boolean inColumn = x >= 0 && x < board.getWidth();
+			boolean inRow = y >= 0 && y < board.getHeight();
+			if (inColumn && y == -1 && insertableMask[0][x]) {
+				insertionHandler.inserted(TOP, x);
+			} else if (inColumn && y == board.getHeight() && insertableMask[0][x]) {
+				insertionHandler.inserted(BOTTOM, x);
+			} else if (inRow && x == -1 && insertableMask[1][y]) {
+				insertionHandler.inserted(LEFT, y);
+			} else if (inRow && x == board.getWidth() && insertableMask[1][y]) {
+				insertionHandler.inserted(RIGHT, y);
+			}
+		}
+	}
+
+	/**
+	 * @param position X or y position within the whole board, including the space for the arrows
+	 * @return Column or row of the board at that position, -1 for the arrows before the first one
+	 */
+	private int cellAt(double position) {
+		return (int) Math.floor(position / tileSize) - 1;
+	}
+
+	/**
+	 * @param x X-position
+	 * @param y Y-position
+	 * @return true if the position is a cell of the board
+	 */
+	private boolean isOnBoard(int x, int y) {
+		return x >= 0 && y >= 0 && x < board.getWidth() && y < board.getHeight();
+	}
+
+	/**
+	 * @param x X-position of a cell
+	 * @param y Y-position of a cell
+	 * @return true if the cell is one of the marked starting positions
+	 */
+	private boolean isStartingPosition(int x, int y) {
+		boolean found = false;
+		for (int[] position : startingPositions) {
+			found = found || (position[0] == x && position[1] == y);
+		}
+		return found;
+	}
+
+	/**
+	 * @param x X-position of a cell
+	 * @param y Y-position of a cell
+	 * @return Number that only changes when the cell has to be drawn again, see BoardView.lookOf
+	 */
+	private int lookAt(int x, int y) {
+		FloorTile tile = board.getTileAt(x, y);
+		int look = tile == null ? 0 : BoardView.lookOf(tile, currentPlayer) + 1;
+		look = look * 2 + (isStartingPosition(x, y) ? 1 : 0);
+		return look * 2 + (highlights.containsKey(y * board.getWidth() + x) ? 1 : 0);
+	}
+}
@@ -1,5 +1,6 @@
 package source.labyrinth.controllers;
 
+import javafx.animation.PauseTransition;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -11,15 +12,17 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
 import javafx.scene.effect.DropShadow;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import source.labyrinth.*;
 
 import java.io.*;
@@ -28,24 +31,22 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
- * LevelController acts as both a controller for the scene in which the game happens, and as a "Game Manager"
- * type of class for tracking the current game.
+ * LevelController is the controller for the scene in which the game happens. The game itself is tracked and
+ * played by a GameSession, LevelController only shows it and passes the players' clicks on to it.
  *
  * @author Fillip Serov, Erik Miller
  */
 public class LevelController implements Initializable {
 	// Changed by zoom in/zoom out buttons.
 	private static int tileRenderSize = 64;
-
-	// The amount of "time" it takes for all players to complete one turn. (i.e. 3 players = 3)
-	private static int timeForFullLoop;
-
-	// The start of every players turn will add one to this. When we apply fire/ice we can set the
-	// "unfreeze" time to be "currentTime + amount of players". Static so other classes can easily access it.
-	private static int currentTime;
+	// How long to wait before a computer player plays, so their turns can be followed
+	private static final double COMPUTER_TURN_DELAY_MS = 600;
+	// Commands played every second when playing a replay
+	private static final Integer[] REPLAY_SPEEDS = {1, 2, 5, 10, 50};
 
 	private static boolean loadingSaveFile;
-	private static String nextFileToLoad; // Either a save file or level file
+	private static boolean watchingReplay;
+	private static String nextFileToLoad; // Either a save file, level file or replay file
 	private static String[] nextLevelProfiles; // This will be used if we are loading a completely new game
 
 	@FXML
@@ -57,46 +58,31 @@ public class LevelController implements Initializable {
 	@FXML
 	private HBox bottomContainer;
 
-	/**
-	 * Represent what "phase" of the game we are in. Allow save files to know what stage of the game they
-	 * were at.
-	 */
-	private enum TurnPhases {
-		DRAWING,
-		PLACEMENT,
-		PLAYACTION,
-		MOVEMENT,
-		END
-	}
-
-	private String currentLevelName; // Name of level we are on, needed to update leaderboards
+	private GameSession session;
+	private GameJournal journal; // Keeps the game saved as it is played, so it can be carried on after a crash
 	private VBox[] playerSubInfoVBoxes;
-	private Player[] players;
-	private int currentPlayer; // 0 to 3, player that is doing their turn
-	private Board board;
-	private GridPane renderedBoard;
-	private FloorTile floorTileToInsert;
-	private TurnPhases currentTurnPhase;
+	private BoardRenderer boardView; // Created for the board on the first render
 	private ActionTile.ActionType usedAction; // We "used" this action, and are now applying it
-
-	/**
-	 * Get the current game time as an int. Will always be above 0.
-	 *
-	 * @return int representing the game time.
-	 */
-	public static int getCurrentTime() {
-		return currentTime;
-	}
-
-	/**
-	 * Get the amount of time it takes for all players to complete a turn in this specific game, as this will
-	 * change depending on the amount of players.
-	 *
-	 * @return int showing the time it takes for all players to do a one turn.
-	 */
-	public static int getTimeForFullLoop() {
-		return timeForFullLoop;
-	}
+	private final ComputerPlayer computerPlayer = new ComputerPlayer();
+	// The computer is searching for its turn off the JavaFX thread, nothing can be played until it is done
+	private boolean computerThinking;
+	// Set once the player has gone back to the level menu, so a computer still thinking does not carry on
+	private boolean leftGame;
+	// Only when watching a replay, then there is no game to play and the controls play the replay instead
+	private Replay replay;
+	private PauseTransition replayTimer;
+	private boolean replayPlaying;
+	private Button replayPlayButton;
+	private ChoiceBox<Integer> replaySpeedChoice;
+	private Slider replaySeekSlider;
+	private Text replayTurnText;
+	// What clicking a highlighted cell does. Made once, the cell's position is passed in when it is clicked
+	private final BoardRenderer.CellMouseHandler moveOnClick = (event, x, y) -> move(x, y);
+	private final BoardRenderer.CellMouseHandler backtrackOnClick = (event, x, y) -> {
+		session.playAction(usedAction, x, y);
+		renderBoard();
+		movementPhase();
+	};
 
 	/**
 	 * Next time the level scene is loaded, it will build a new game from this level file.
@@ -106,6 +92,7 @@ public class LevelController implements Initializable {
 	 */
 	public static void setNextLevelToLoad(String levelName, String[] profilesToUse) {
 		loadingSaveFile = false;
+		watchingReplay = false;
 		nextFileToLoad = levelName;
 		nextLevelProfiles = profilesToUse;
 	}
@@ -117,18 +104,33 @@ public class LevelController implements Initializable {
 	 */
 	public static void setNextSaveToLoad(String saveName) {
 		loadingSaveFile = true;
+		watchingReplay = false;
 		nextFileToLoad = saveName;
 		nextLevelProfiles = null; // Not necessary but just to be safe
 	}
 
+	/**
+	 * Next time the level scene is loaded, it will play back the given replay instead of a game.
+	 *
+	 * @param replayFile Path of the replay file
+	 */
+	public static void setNextReplayToWatch(String replayFile) {
+		loadingSaveFile = false;
+		watchingReplay = true;
+		nextFileToLoad = replayFile;
+		nextLevelProfiles = null;
+	}
+
 	@Override
 	public void initialize(URL location, ResourceBundle resources) {
 		System.out.println("Created LevelController");
 
-		// No matter whether this is a fresh game or a save, the SilkBag must be emptied
-		SilkBag.emptyBag();
-
-		if (loadingSaveFile) {
+		// The game is read on the IOExecutor, so until it is there is nothing to save
+		saveButton.setDisable(true);
+		bottomContainer.getChildren().add(new Text("Loading..."));
+		if (watchingReplay) {
+			setupFromReplay(nextFileToLoad);
+		} else if (loadingSaveFile) {
 			setupFromSaveFile(nextFileToLoad);
 		} else {
 			setupFromLevelFile(nextFileToLoad, nextLevelProfiles);
@@ -149,6 +151,14 @@ public class LevelController implements Initializable {
 		alert.setContentText("Are you sure to exit? All unsaved progress will be lost!");
 		Optional<ButtonType> leave = alert.showAndWait();
 		if (leave.get() == ButtonType.OK) {
+			// Leaving on purpose, so the game is not kept to be carried on or replayed
+			if (journal != null) {
+				journal.discard();
+			}
+			if (replayTimer != null) {
+				replayTimer.stop();
+			}
+			leftGame = true;
 			try {
 				Parent profileMenuParent = FXMLLoader.load(getClass().getResource("../../resources/scenes/level_menu.fxml"));
 				Scene profileMenuScene = new Scene(profileMenuParent);
@@ -169,9 +179,12 @@ public class LevelController implements Initializable {
 	@FXML
 	public void increaseZoom() {
 		tileRenderSize = Math.min(100, tileRenderSize + 10);
-		renderBoard();
-		if (currentTurnPhase == TurnPhases.MOVEMENT || (currentTurnPhase == TurnPhases.PLAYACTION && usedAction == ActionTile.ActionType.DOUBLEMOVE)) {
-			showWay();
+		// Nothing is shown until the game is loaded
+		if (session != null) {
+			renderBoard();
+			if (isChoosingWay()) {
+				showWay();
+			}
 		}
 	}
 
@@ -181,19 +194,20 @@ public class LevelController implements Initializable {
 	@FXML
 	public void decreaseZoom() {
 		tileRenderSize = Math.max(20, tileRenderSize - 10);
-		renderBoard();
-		if (currentTurnPhase == TurnPhases.MOVEMENT || (currentTurnPhase == TurnPhases.PLAYACTION && usedAction == ActionTile.ActionType.DOUBLEMOVE)) {
-			showWay();
+		// Nothing is shown until the game is loaded
+		if (session != null) {
+			renderBoard();
+			if (isChoosingWay()) {
+				showWay();
+			}
 		}
 	}
 
 	/**
 	 * exportToSave will collect all necessary information about the game and save it to a file. An alert
-	 * will popup to show the save name.
-	 *
-	 * @throws IOException If it cannot save to file
+	 * will popup to show the save name once it is written. The game can carry on while the file is written.
 	 */
-	public void exportToSave() throws IOException {
+	public void exportToSave() {
 
 		Alert saveAlert = new Alert(Alert.AlertType.CONFIRMATION);
 		saveAlert.setTitle("Save");
@@ -202,167 +216,299 @@ public class LevelController implements Initializable {
 
 		Optional<ButtonType> result = saveAlert.showAndWait();
 		if (result.get() == ButtonType.OK) {
-			String timeStamp = new SimpleDateFormat("ss-mm-HH-dd-MM-yyyy").format(new Date());
-			String saveFileName = "save_" + timeStamp + ".ser"; // temp, just take level name
+			String saveFileName = timeStampedFileName("save_", SaveIO.SAVE_EXTENSION); // temp, just take level name
 			System.out.println(saveFileName);
 			System.out.println("Saving game state to file " + saveFileName);
 
-			// Setup output
-			FileOutputStream fos = new FileOutputStream("source/resources/saves/" + saveFileName);
-			ObjectOutputStream objectOutputStream = new ObjectOutputStream(fos);
-
-			// Serialize the objects from which we could later rebuild the entire game state
-			objectOutputStream.writeObject(currentTime);
-			objectOutputStream.writeObject(this.currentLevelName);
-			objectOutputStream.writeObject(this.players);
-			objectOutputStream.writeObject(this.currentPlayer);
-			objectOutputStream.writeObject(this.board);
-			objectOutputStream.writeObject(this.floorTileToInsert);
-			objectOutputStream.writeObject(this.currentTurnPhase);
-			objectOutputStream.writeObject(SilkBag.getEntireBag());
-			objectOutputStream.flush();
-			objectOutputStream.close();
-
-			Alert alert = new Alert(Alert.AlertType.INFORMATION);
-			alert.setContentText("Game saved to save file: " + saveFileName + ". You can load it from the level menu.");
-			alert.setTitle("Game Saved");
-			alert.setHeaderText(null);
-			alert.showAndWait();
+			// Write everything from which we could later rebuild the entire game state
+			IOExecutor.onFxThread(SaveIO.writeSaveAsync(session, SaveIO.SAVE_FOLDER + saveFileName), saved -> {
+				Alert alert = new Alert(Alert.AlertType.INFORMATION);
+				alert.setContentText("Game saved to save file: " + saveFileName + ". You can load it from the level menu.");
+				alert.setTitle("Game Saved");
+				alert.setHeaderText(null);
+				alert.show();
+			}, error -> {
+				error.printStackTrace();
+				Alert alert = new Alert(Alert.AlertType.ERROR);
+				alert.setContentText("The game could not be saved: " + error.getMessage());
+				alert.setTitle("Game Not Saved");
+				alert.setHeaderText(null);
+				alert.show();
+			});
 		}
 
 	}
 
+	/**
+	 * @param prefix    Start of the file name
+	 * @param extension Extension of the file
+	 * @return Name for a file in the save folder, made unique by the time it is now
+	 */
+	private static String timeStampedFileName(String prefix, String extension) {
+		String timeStamp = new SimpleDateFormat("ss-mm-HH-dd-MM-yyyy").format(new Date());
+		return prefix + timeStamp + extension;
+	}
+
+	/**
+	 * Keep the game saved in a journal from now on, see GameJournal. It shows up in the save menu like any other
+	 * save, until the game is over. A replay of the game is kept as well, until the game is left on purpose or it is
+	 * one of more than Replay.KEPT_REPLAYS newer replays.
+	 *
+	 * @param filename File name of the journal, in the save folder
+	 */
+	private void startJournal(String filename) {
+		Replay.deleteOldReplaysAsync();
+		journal = GameJournal.start(session, SaveIO.SAVE_FOLDER + filename,
+				Replay.REPLAY_FOLDER + timeStampedFileName("replay_", Replay.REPLAY_EXTENSION));
+	}
+
 	/**
 	 * setupNewLevel will build a completely fresh level. Players will be put on their starting locations and
 	 * they will have no action tiles. The game will then begin with drawingPhase being called.
 	 *
 	 * @param levelName   The file name of the level to load from scratch
-	 * @param profileInfo String array of profile names to use for this game (they can be null)
+	 * @param profileInfo String array of profile names to use for this game (they can be null, or
+	 *                    ComputerPlayer.DISPLAY_NAME for computer players)
 	 */
 	private void setupFromLevelFile(String levelName, String[] profileInfo) {
 		System.out.println("Creating new game from level file...");
-		LevelData ld = LevelIO.readDataFile("source/resources/" + levelName + ".txt");
-
-		timeForFullLoop = profileInfo.length;
-		currentTime = 0;
-
-		this.currentLevelName = levelName;
-		this.currentPlayer = 0;
-
-		//
-		// Board Setup
-		//
-		System.out.println("Setting up board...");
-
-		this.board = ld.getBoard();
+		IOExecutor.onFxThread(LevelCache.getLevelAsync("source/resources/" + levelName),
+				ld -> startLevel(ld, levelName, profileInfo), error -> {
+					error.printStackTrace();
+					System.out.println("Error reading level file");
+					Alert alert = new Alert(Alert.AlertType.ERROR);
+					alert.setTitle("Level could not be loaded");
+					alert.setHeaderText(null);
+					alert.setContentText(error.getMessage());
+					alert.show();
+				});
+	}
 
-		// Add all floor tiles to the silk bag
-		for (FloorTile.FloorType floorType : FloorTile.FloorType.values()) {
-			int amount = ld.getFloorTileAmount(floorType);
-			for (int i = 0; i < amount; i++) {
-				SilkBag.addTile(new FloorTile(new Random().nextInt(5), floorType));
+	/**
+	 * Start a new game on a level once it has been read.
+	 *
+	 * @param ld          The level
+	 * @param levelName   The file name of the level
+	 * @param profileInfo String array of profile names to use for this game, see setupFromLevelFile
+	 */
+	private void startLevel(LevelData ld, String levelName, String[] profileInfo) {
+		int[] profileIDs = new int[profileInfo.length];
+		for (int i = 0; i < profileIDs.length; i++) {
+			profileIDs[i] = -1;
+			if (ComputerPlayer.DISPLAY_NAME.equals(profileInfo[i])) {
+				profileIDs[i] = Player.COMPUTER_PROFILE_ID;
+			} else if (profileInfo[i] != null) {
+				// This will not hit a null pointer exception since we JUST came from the level menu,
+				// where the profiles were fine.
+				profileIDs[i] = ProfileManager.getProfileByName(profileInfo[i]).getID();
 			}
 		}
 
-		// IMPORTANT: Before we create and add action tiles to the bag, we use the silk bag to fill up
-		// the board with random tiles (since we know only floor tiles are stored in the bag right now).
-		for (int x = 0; x < this.board.getWidth(); x++) {
-			for (int y = 0; y < this.board.getHeight(); y++) {
-				if (this.board.getTileAt(x, y) == null) {
-					this.board.setTileAt((FloorTile) SilkBag.getRandomTile(), x, y);
-				}
-			}
-		}
+		System.out.println("Setting up board and players...");
+		session = new GameSession(ld, levelName, profileIDs);
+		startJournal(timeStampedFileName("autosave_", GameJournal.JOURNAL_EXTENSION));
 
-		// Create all the action tiles and add them to the Board.
-		for (ActionTile.ActionType tileType : ActionTile.ActionType.values()) {
-			int amount = ld.getActionTileAmount(tileType);
-			for (int i = 0; i < amount; i++) {
-				SilkBag.addTile(new ActionTile(tileType));
-			}
-		}
+		// The players are now ready, so we can setup the side info with player profile names etc
+		setupSideInfo();
+		saveButton.setDisable(false);
 
-		//
-		// Player Setup
-		//
-		System.out.println("Setting up players...");
+		// Once everything is setup, begin the first phase
+		drawingPhase();
+	}
 
-		players = new Player[profileInfo.length];
-		for (int i = 0; i < players.length; i++) {
-			int associatedProfileID = -1;
-			if (nextLevelProfiles[i] != null) {
-				// This will not hit a null pointer exception since we JUST came from the level menu,
-				// where the profiles were fine.
-				associatedProfileID = ProfileManager.getProfileByName(nextLevelProfiles[i]).getID();
-			}
+	/**
+	 * setupFromSaveFile will rebuild a previous game from a save file.
+	 *
+	 * @param saveName The file name of the save file
+	 */
+	private void setupFromSaveFile(String saveName) {
+		IOExecutor.onFxThread(SaveIO.readSaveAsync(SaveIO.SAVE_FOLDER + saveName),
+				savedGame -> resumeGame(savedGame, saveName), error -> {
+			error.printStackTrace();
+			System.out.println("Error reading save file");
+			Alert alert = new Alert(Alert.AlertType.ERROR);
+			alert.setTitle("Save could not be loaded");
+			alert.setHeaderText(null);
+			alert.setContentText(error.getMessage());
+			alert.show();
+		});
+	}
 
-			Player newPlayer = new Player(i, associatedProfileID);
+	/**
+	 * setupFromReplay will read a replay and show its first turn, with controls to play it.
+	 *
+	 * @param replayFile Path of the replay file
+	 */
+	private void setupFromReplay(String replayFile) {
+		IOExecutor.onFxThread(Replay.readAsync(replayFile), this::startReplay, error -> {
+			error.printStackTrace();
+			Alert alert = new Alert(Alert.AlertType.ERROR);
+			alert.setTitle("Replay could not be loaded");
+			alert.setHeaderText(null);
+			alert.setContentText(error.getMessage());
+			alert.show();
+		});
+	}
 
-			int[] startingPosition = ld.getPlayerStartingPositions()[i];
-			newPlayer.setStandingOn(this.board.getTileAt(startingPosition[0], startingPosition[1]));
+	/**
+	 * Show a replay once it has been read. Nothing can be played on the board, the controls at the bottom play
+	 * the replay at a chosen speed, a command at a time, or seek to a turn.
+	 *
+	 * @param loadedReplay The replay read from the replay file
+	 */
+	private void startReplay(Replay loadedReplay) {
+		replay = loadedReplay;
+		session = replay.getSession();
+		setupSideInfo();
 
-			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
-			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
-			newPlayer.addToPastPositions(startingPosition[0], startingPosition[1]);
+		replayPlayButton = new Button("Play");
+		replayPlayButton.setOnAction(event -> setReplayPlaying(!replayPlaying));
+		Button stepButton = new Button("Step");
+		stepButton.setOnAction(event -> {
+			setReplayPlaying(false);
+			stepReplay();
+		});
+		replaySpeedChoice = new ChoiceBox<>();
+		replaySpeedChoice.getItems().addAll(REPLAY_SPEEDS);
+		replaySpeedChoice.setValue(REPLAY_SPEEDS[1]);
+		replaySeekSlider = new Slider(0, replay.getTurnCount(), 0);
+		replaySeekSlider.setBlockIncrement(1);
+		replaySeekSlider.setPrefWidth(300);
+		// Seek once the slider is let go of, not on every turn it is dragged over
+		replaySeekSlider.setOnMouseReleased(event -> seekReplay((int) Math.round(replaySeekSlider.getValue())));
+		replayTurnText = new Text();
+
+		bottomContainer.getChildren().setAll(replayPlayButton, stepButton, new Text("Commands per second"),
+				replaySpeedChoice, replaySeekSlider, replayTurnText);
+		bottomContainer.setAlignment(Pos.CENTER);
+		bottomContainer.setSpacing(10);
+		showReplayState();
+	}
 
-			players[i] = newPlayer;
+	/**
+	 * Start or stop playing the replay, a command at a time at the chosen speed.
+	 *
+	 * @param playing true to start playing
+	 */
+	private void setReplayPlaying(boolean playing) {
+		replayPlaying = playing && !replay.isFinished();
+		replayPlayButton.setText(replayPlaying ? "Pause" : "Play");
+		if (replayTimer != null) {
+			replayTimer.stop();
 		}
+		if (replayPlaying) {
+			replayTimer = new PauseTransition(Duration.millis(1000.0 / replaySpeedChoice.getValue()));
+			replayTimer.setOnFinished(event -> {
+				stepReplay();
+				if (replayPlaying && !replay.isFinished()) {
+					// The speed can be changed while playing
+					replayTimer.setDuration(Duration.millis(1000.0 / replaySpeedChoice.getValue()));
+					replayTimer.playFromStart();
+				} else {
+					setReplayPlaying(false);
+				}
+			});
+			replayTimer.play();
+		}
+	}
 
-		// this.players is now ready, so we can setup the side info with player profile names etc
-		setupSideInfo();
-
-		// Once everything is setup, begin the first phase
-		drawingPhase();
+	/**
+	 * Play the next command of the replay.
+	 */
+	private void stepReplay() {
+		try {
+			replay.step();
+		} catch (IOException e) {
+			showReplayError(e);
+		}
+		showReplayState();
 	}
 
 	/**
-	 * setupFromSaveFile will rebuild a previous game from a serialized save file.
+	 * Go to the start of a turn of the replay.
 	 *
-	 * @param saveName The file name of the save file
+	 * @param turn Turn to go to
 	 */
-	private void setupFromSaveFile(String saveName) {
-		FileInputStream fis;
-		ObjectInputStream objectInputStream;
+	private void seekReplay(int turn) {
 		try {
-			fis = new FileInputStream("source/resources/saves/" + saveName);
-			objectInputStream = new ObjectInputStream(fis);
-
-			currentTime = (int) objectInputStream.readObject();
-			this.currentLevelName = (String) objectInputStream.readObject();
-			this.players = (Player[]) objectInputStream.readObject();
-			this.currentPlayer = (int) objectInputStream.readObject();
-			this.board = (Board) objectInputStream.readObject();
-			this.floorTileToInsert = (FloorTile) objectInputStream.readObject();
-			this.currentTurnPhase = (TurnPhases) objectInputStream.readObject();
-			SilkBag.setEntireBag((LinkedList<Tile>) objectInputStream.readObject());
-
-			// To be safe, just re-render everything
-			setupSideInfo();
-			updateSubInfoVBoxes();
-			renderBoard();
+			replay.seek(turn);
+		} catch (IOException e) {
+			showReplayError(e);
+		}
+		showReplayState();
+	}
 
-			objectInputStream.close();
-
-			// Finally check what phase we loaded and go there to "begin" the game again
-			switch (this.currentTurnPhase) {
-				case DRAWING:
-					drawingPhase();
-					break;
-				case PLACEMENT:
-					placementPhase(floorTileToInsert);
-					break;
-				case PLAYACTION:
-					playActionPhase();
-					break;
-				case MOVEMENT:
-					movementPhase();
-					break;
-				default:
-					System.out.println("Loading from save gave no phase. Game is now soft-locked.");
-			}
-		} catch (IOException | ClassNotFoundException e) {
-			e.printStackTrace();
-			System.out.println("Error reading save file");
+	/**
+	 * Stop the replay and show why it cannot go on.
+	 *
+	 * @param error What went wrong
+	 */
+	private void showReplayError(IOException error) {
+		error.printStackTrace();
+		setReplayPlaying(false);
+		Alert alert = new Alert(Alert.AlertType.ERROR);
+		alert.setTitle("Replay could not be played");
+		alert.setHeaderText(null);
+		alert.setContentText(error.getMessage());
+		alert.show();
+	}
+
+	/**
+	 * Show the game of the replay as it is now. Seeking can replace the game, so it is taken from the replay again.
+	 */
+	private void showReplayState() {
+		session = replay.getSession();
+		renderBoard();
+		updateSubInfoVBoxes();
+		replaySeekSlider.setValue(replay.getTurn());
+		String state = "Turn " + replay.getTurn() + " / " + replay.getTurnCount() + ", " + session.getTurnPhase();
+		if (session.getWinner() != -1) {
+			state += ", player " + (session.getWinner() + 1) + " won";
+		}
+		replayTurnText.setText(state);
+	}
+
+	/**
+	 * Carry on with a game once it has been read from a save file.
+	 *
+	 * @param savedGame The game read from the save file
+	 * @param saveName  The file name of the save file
+	 */
+	private void resumeGame(GameSession savedGame, String saveName) {
+		session = savedGame;
+		if (session.getTurnPhase() != GameSession.TurnPhases.END) {
+			// A journal carries on in its own file, so there is only ever one for a game
+			startJournal(saveName.endsWith(GameJournal.JOURNAL_EXTENSION) ? saveName
+					: timeStampedFileName("autosave_", GameJournal.JOURNAL_EXTENSION));
+		}
+
+		// To be safe, just re-render everything
+		bottomContainer.getChildren().clear();
+		setupSideInfo();
+		updateSubInfoVBoxes();
+		renderBoard();
+		saveButton.setDisable(false);
+
+		// Finally check what phase we loaded and go there to "begin" the game again
+		if (session.getTurnPhase() != GameSession.TurnPhases.END && isComputerTurn()) {
+			computerTurn();
+			return;
+		}
+		switch (session.getTurnPhase()) {
+			case DRAWING:
+				drawingPhase();
+				break;
+			case PLACEMENT:
+				placementPhase();
+				break;
+			case PLAYACTION:
+				playActionPhase();
+				break;
+			case MOVEMENT:
+				movementPhase();
+				break;
+			default:
+				System.out.println("Loading from save gave no phase. Game is now soft-locked.");
 		}
 	}
 
@@ -370,11 +516,11 @@ public class LevelController implements Initializable {
 	 * displays data about players
 	 */
 	private void setupSideInfo() {
-		playerSubInfoVBoxes = new VBox[players.length];
+		playerSubInfoVBoxes = new VBox[session.getPlayers().length];
 
 		// Populating leftVBox with player info
 		leftVBox.getChildren().clear();
-		for (int i = 0; i < this.players.length; i++) {
+		for (int i = 0; i < session.getPlayers().length; i++) {
 			leftVBox.getChildren().add(createPlayerInfoVBox(i));
 		}
 	}
@@ -384,25 +530,27 @@ public class LevelController implements Initializable {
 	 * and playAction if ActionTile
 	 */
 	private void drawingPhase() {
-		currentTurnPhase = TurnPhases.DRAWING;
-		board.putRandomBonus();
 		renderBoard();
 		updateSubInfoVBoxes();
 		bottomContainer.getChildren().clear();
+		if (isComputerTurn()) {
+			computerTurn();
+			return;
+		}
 
 		Button drawButton = new Button("Draw a tile from the silk bag to start your turn");
 		drawButton.setOnMouseClicked(event -> {
-			Tile received = SilkBag.getRandomTile();
-			if (received instanceof FloorTile) {
-				placementPhase((FloorTile) received);
+			Tile received = session.draw();
+			if (session.getTurnPhase() == GameSession.TurnPhases.PLACEMENT) {
+				placementPhase();
+			} else if (received instanceof FloorTile) {
+				Alert alert = new Alert(Alert.AlertType.INFORMATION);
+				alert.setContentText("You have drawn a floor tile, but unfortunately there are no rows or columns you can currently insert into. Your floor tile will be returned to the silk bag.");
+				alert.showAndWait();
+				playActionPhase();
 			} else {
 				ActionTile thisAction = (ActionTile) received;
-
-				// Add 0.5f to the amount the player has (of this action). When we check how many we have in the
-				// PlayAction phase, we will round down. At the end of the turn, any actions that have a hanging
-				// 0.5f will get rounded up. Because of this we don't have to store instances of ActionTiles.
-				players[currentPlayer].setActionAmount(thisAction.getType(), players[currentPlayer].getActionAmount(thisAction.getType()) + 0.5f);
-				System.out.println("Player " + currentPlayer + " drew " + thisAction.getType().toString());
+				System.out.println("Player " + session.getCurrentPlayer() + " drew " + thisAction.getType().toString());
 				updateSubInfoVBoxes();
 
 				playActionPhase();
@@ -413,29 +561,67 @@ public class LevelController implements Initializable {
 	}
 
 	/**
-	 * Loads interface for placing and rotating the nextFloorTileToInsert
-	 *
-	 * @param nextFloorTileToInsert FloorTile to insert
+	 * @return true if the player whose turn it is is controlled by the computer
 	 */
-	private void placementPhase(FloorTile nextFloorTileToInsert) {
-		Boolean[][] insertionMask = this.board.getInsertablePositions();
-		// With some clever use of the ice actions, we could potentially freeze all columns and rows, therefore
-		// the placement phase should check that there is at least one insertable column / row before continuing.
-		if (Arrays.asList(insertionMask[0]).contains(true) || Arrays.asList(insertionMask[1]).contains(true)) {
-			currentTurnPhase = TurnPhases.PLACEMENT;
-			this.floorTileToInsert = nextFloorTileToInsert;
-			renderPlacementMenu();
+	private boolean isComputerTurn() {
+		return session.getPlayers()[session.getCurrentPlayer()].isComputer();
+	}
+
+	/**
+	 * Let the computer play the current player's turn after a short pause, then continue with the next turn.
+	 */
+	private void computerTurn() {
+		bottomContainer.getChildren().clear();
+		bottomContainer.getChildren().add(new Text("The computer is thinking..."));
+		saveButton.setDisable(true);
+
+		PauseTransition pause = new PauseTransition(Duration.millis(COMPUTER_TURN_DELAY_MS));
+		pause.setOnFinished(event -> {
+			if (!leftGame) {
+				if (session.getTurnPhase() == GameSession.TurnPhases.DRAWING) {
+					session.draw();
+				}
+				// The search can take a while on large boards, so it runs on the ComputerPlayer's pool
+				computerThinking = true;
+				IOExecutor.onFxThread(computerPlayer.chooseTurnAsync(session), turn -> {
+					computerThinking = false;
+					if (!leftGame) {
+						playComputerTurn(turn);
+					}
+				}, error -> {
+					computerThinking = false;
+					error.printStackTrace();
+					System.out.println("The computer could not choose a turn.");
+				});
+			}
+		});
+		pause.play();
+	}
+
+	/**
+	 * Play the turn the computer chose, then continue with the next turn.
+	 * @param turn Turn chosen by the ComputerPlayer
+	 */
+	private void playComputerTurn(ComputerPlayer.PlannedTurn turn) {
+		computerPlayer.playTurn(session, turn);
+		saveButton.setDisable(false);
+		if (session.getTurnPhase() == GameSession.TurnPhases.END) {
 			renderBoard();
+			updateSubInfoVBoxes();
+			playerHasWon(session.getWinner());
 		} else {
-			Alert alert = new Alert(Alert.AlertType.INFORMATION);
-			alert.setContentText("You have drawn a floor tile, but unfortunately there are no rows or columns you can currently insert into. Your floor tile will be returned to the silk bag.");
-			alert.showAndWait();
-			SilkBag.addTile(new FloorTile(nextFloorTileToInsert.getOrientation(),nextFloorTileToInsert.getFloorType()));
-			floorTileToInsert = null;
-			playActionPhase();
+			drawingPhase();
 		}
 	}
 
+	/**
+	 * Loads interface for placing and rotating the FloorTile to insert
+	 */
+	private void placementPhase() {
+		renderPlacementMenu();
+		renderBoard();
+	}
+
 	/**
 	 * runs when placement menu initialise and updates
 	 */
@@ -445,21 +631,21 @@ public class LevelController implements Initializable {
 		GridPane rotationControls = new GridPane();
 		final int rotationControlSize = 64;
 
-		ImageView clockwise = new ImageView(new Image("source/resources/img/turn_arrow.png", rotationControlSize, rotationControlSize, false, false));
-		ImageView aClockwise = new ImageView(new Image("source/resources/img/turn_arrow.png", rotationControlSize, rotationControlSize, false, false));
+		ImageView clockwise = new ImageView(ImageCache.getImage("source/resources/img/turn_arrow.png", rotationControlSize, rotationControlSize));
+		ImageView aClockwise = new ImageView(ImageCache.getImage("source/resources/img/turn_arrow.png", rotationControlSize, rotationControlSize));
 
 		clockwise.setScaleX(-1);
 		clockwise.setOnMouseClicked(event -> {
-			floorTileToInsert.rotateBy(1);
+			session.rotateTileToInsert(1);
 			renderPlacementMenu();
 		});
 		aClockwise.setOnMouseClicked(event -> {
-			floorTileToInsert.rotateBy(-1);
+			session.rotateTileToInsert(-1);
 			renderPlacementMenu();
 		});
 
 		rotationControls.add(clockwise, 0, 0);
-		rotationControls.add(floorTileToInsert.renderTile(rotationControlSize), 1, 0);
+		rotationControls.add(session.getFloorTileToInsert().renderTile(rotationControlSize), 1, 0);
 		rotationControls.add(aClockwise, 2, 0);
 
 		bottomContainer.getChildren().add(rotationControls);
@@ -472,8 +658,7 @@ public class LevelController implements Initializable {
 	 * @param insertionPoint     int from 0 to max width/height, represents in which row/column to insert into.
 	 */
 	private void endPlacementPhase(int insertionDirection, int insertionPoint) {
-		this.board.insertFloorTile(this.floorTileToInsert, insertionDirection, insertionPoint);
-		this.floorTileToInsert = null;
+		session.insert(insertionDirection, insertionPoint);
 		renderBoard();
 		playActionPhase();
 	}
@@ -482,7 +667,6 @@ public class LevelController implements Initializable {
 	 * starts playAction
 	 */
 	private void playActionPhase() {
-		currentTurnPhase = TurnPhases.PLAYACTION;
 		renderActionMenu();
 	}
 
@@ -497,24 +681,26 @@ public class LevelController implements Initializable {
 		actionsHBox.setAlignment(Pos.TOP_CENTER);
 		actionsHBox.setSpacing(15);
 
+		Player player = session.getPlayers()[session.getCurrentPlayer()];
+
 		// Render some small UI for every action tile
 		for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
 			// Actual image of action
-			ImageView iv = new ImageView(new Image(at.imageURL, actionImageRenderSize, actionImageRenderSize, false, false));
+			ImageView iv = new ImageView(ImageCache.getImage(at.imageURL, actionImageRenderSize, actionImageRenderSize));
 			StackPane stack = new StackPane(iv);
 			stack.setAlignment(Pos.TOP_LEFT);
 			iv.setFitHeight(Region.USE_COMPUTED_SIZE);
 
 			// When we re-render we highlight the currently chosen action
 			if (at == usedAction) {
-				ImageView chosen = new ImageView(new Image("source/resources/img/chosen_one.png", actionImageRenderSize, actionImageRenderSize, false, false));
+				ImageView chosen = new ImageView(ImageCache.getImage("source/resources/img/chosen_one.png", actionImageRenderSize, actionImageRenderSize));
 				chosen.setOpacity(0.5);
 				stack.getChildren().addAll(chosen);
 			}
 
 			// This will always down cast, so no Math.Floor needed (3.99f -> 4)
-			int availableAmount = (int) players[currentPlayer].getActionAmount(at);
-			int fullAmount = (int) Math.ceil(players[currentPlayer].getActionAmount(at));
+			int availableAmount = (int) player.getActionAmount(at);
+			int fullAmount = (int) Math.ceil(player.getActionAmount(at));
 
 			// If we can actually use this action (we have 1 or more), allow us to click it and use it,
 			// otherwise display it "greyed out".
@@ -538,7 +724,7 @@ public class LevelController implements Initializable {
 			numOfTiles.setStyle("-fx-font-weight: bold; -fx-font-size: 26px; -fx-stroke: black; -fx-stroke-width: 1px");
 			DropShadow shadow = new DropShadow(7, 0, 0, Color.BLACK);
 			numOfTiles.setEffect(shadow);
-			numOfTiles.setFill(players[currentPlayer].getActionAmount(at) < 1 ? Color.RED : Color.GREEN);
+			numOfTiles.setFill(player.getActionAmount(at) < 1 ? Color.RED : Color.GREEN);
 			stack.getChildren().add(numOfTiles);
 
 			actionsHBox.getChildren().add(stack);
@@ -547,7 +733,10 @@ public class LevelController implements Initializable {
 		// We don't have to use an Action (even if available), so add a button to just skip to the movement phase
 		Button skipButton = new Button("Skip");
 		skipButton.setPrefSize(actionImageRenderSize, actionImageRenderSize);
-		skipButton.setOnMouseClicked(event -> movementPhase());
+		skipButton.setOnMouseClicked(event -> {
+			session.skipAction();
+			movementPhase();
+		});
 		actionsHBox.getChildren().add(skipButton);
 
 		bottomContainer.getChildren().add(actionsHBox);
@@ -557,7 +746,6 @@ public class LevelController implements Initializable {
 	 * prepare movement phase renders board
 	 */
 	private void movementPhase() {
-		currentTurnPhase = TurnPhases.MOVEMENT;
 		updateSubInfoVBoxes(); // We could have played an action to get here
 		renderBoard();
 		usedAction = null;
@@ -566,26 +754,6 @@ public class LevelController implements Initializable {
 		showWay();
 	}
 
-	/**
-	 * ends turn changes player
-	 */
-	private void endTurn() {
-		// If a tile amount has a decimal (*.5), then they received one of those action tiles this turn,
-		// so we bump it up so that it is fully usable next turn.
-		Player endingPlayer = players[currentPlayer];
-		for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
-			if (endingPlayer.getActionAmount(at) % 1.0f != 0) {
-				endingPlayer.setActionAmount(at, (float) Math.ceil(endingPlayer.getActionAmount(at)));
-			}
-		}
-
-		// Go up by one or rotate back to 0
-		currentPlayer = (currentPlayer < players.length - 1) ? currentPlayer + 1 : 0;
-		currentTime++;
-
-		drawingPhase();
-	}
-
 	/**
 	 * When a player steps onto a Goal, we call this method, which will deal with updating profiles and stopping
 	 * the game from progressing.
@@ -593,6 +761,12 @@ public class LevelController implements Initializable {
 	 * @param winningID The player id of the player that won
 	 */
 	private void playerHasWon(int winningID) {
+		System.out.println("Player " + winningID + " has won.");
+		// The game is over, so there is nothing to carry on
+		if (journal != null) {
+			journal.delete();
+		}
+		Player[] players = session.getPlayers();
 		Profile winningProfile = players[winningID].getAssociatedProfile();
 
 		// Update the winner's stats
@@ -609,7 +783,7 @@ public class LevelController implements Initializable {
 			}
 		}
 
-		ProfileManager.writeProfilesToFile();
+		ProfileManager.writeProfilesToFileAsync();
 
 		// Update the leaderboard
 		// Get profiles that played
@@ -623,15 +797,15 @@ public class LevelController implements Initializable {
 		// If at least one profile as playing update the leaderboard
 		if (profilesThatPlayed.size() > 0) {
 			if (winningProfile != null) {
-				LevelIO.updateLeaderboard(this.currentLevelName, profilesThatPlayed, winningProfile.getID());
+				LevelIO.updateLeaderboardAsync(session.getLevelName(), profilesThatPlayed, winningProfile.getID());
 			} else {
-				LevelIO.updateLeaderboard(this.currentLevelName, profilesThatPlayed, null);
+				LevelIO.updateLeaderboardAsync(session.getLevelName(), profilesThatPlayed, null);
 			}
 		}
 
 		String playerName = winningProfile != null ? winningProfile.getName() : "Player " + winningID;
 		String winningMessage = playerName + " reached the goal tile first! They are the winner!";
-		ImageView playerIcon = new ImageView(new Image("source/resources/img/player_" + winningID + ".png", 50, 50, false, false));
+		ImageView playerIcon = new ImageView(ImageCache.getImage("source/resources/img/player_" + winningID + ".png", 50, 50));
 		Button returnButton = new Button("Return to level menu");
 		returnButton.setOnAction(this::goToLevelMenu);
 		bottomContainer.getChildren().clear();
@@ -641,43 +815,6 @@ public class LevelController implements Initializable {
 		saveButton.setDisable(true);
 	}
 
-	/**
-	 * A dirty hacky method to very slowly find a Player somewhere in a Board. TODO: Replace
-	 *
-	 * @param playerID playerID
-	 * @return index 0 is x coordinate 1 is y
-	 */
-	private int[] getPlayerXYPosition(int playerID) {
-		for (int x = 0; x < this.board.getWidth(); x++) {
-			for (int y = 0; y < this.board.getHeight(); y++) {
-				FloorTile ft = this.board.getTileAt(x, y);
-				if (ft.getPlayer() != null && ft.getPlayer().getIdInGame() == playerID) {
-					return new int[]{x, y};
-				}
-			}
-		}
-		return null;
-	}
-
-	/**
-	 * gets positions of all players on board
-	 *
-	 * @return first index is players ID, second coordinates 0 for x, 1 for y
-	 */
-	private int[][] getAllPlayersXYPosition() {
-		int[][] result = new int[players.length][2];
-		for (int x = 0; x < this.board.getWidth(); x++) {
-			for (int y = 0; y < this.board.getHeight(); y++) {
-				FloorTile ft = this.board.getTileAt(x, y);
-				if (ft.getPlayer() != null) {
-					result[ft.getPlayer().getIdInGame()][0] = x;
-					result[ft.getPlayer().getIdInGame()][1] = y;
-				}
-			}
-		}
-		return result;
-	}
-
 	/**
 	 * handle click to choose available action tile
 	 */
@@ -697,11 +834,10 @@ public class LevelController implements Initializable {
 	 * highlights players that can be backtracked
 	 */
 	private void showPlayersToBacktrack() {
-		int[][] positions = getAllPlayersXYPosition();
+		int[][] positions = session.getAllPlayersXYPosition();
 		for (int i = 0; i < positions.length; i++) {
-			int index = canPlayerBeBacktracked(players[i]);
-			if (index > 0) {
-				setAsBacktrackOption(i, index, positions[i][0], positions[i][1]);
+			if (session.getBacktrackDistance(session.getPlayers()[i]) > 0) {
+				setAsBacktrackOption(positions[i][0], positions[i][1]);
 			}
 		}
 	}
@@ -709,47 +845,19 @@ public class LevelController implements Initializable {
 	/**
 	 * highlights player to be backtracked
 	 *
-	 * @param player player ID
-	 * @param index  how many turns back
 	 * @param x      current position
 	 * @param y      current position
 	 */
-	private void setAsBacktrackOption(int player, int index, int x, int y) {
-		ImageView chosen = new ImageView(new Image("source/resources/img/chosen_one.png", tileRenderSize, tileRenderSize, false, false));
-		chosen.setOpacity(0.5);
-		StackPane optionTile = getStackPaneTileByXY(x, y);
-		optionTile.getChildren().add(chosen);
-
-		FloorTile backTile = board.getTileAt(players[player].getPastPositions()[index][0], players[player].getPastPositions()[index][1]);
-		optionTile.setOnMouseClicked(event -> {
-			players[player].setStandingOn(backTile);
-			players[player].setHasBeenBacktracked(true);
-			players[currentPlayer].removeAction(usedAction);
-			renderBoard();
-			movementPhase();
-		});
-	}
-
-	/**
-	 * @param player Player
-	 * @return turns to backtrack
-	 */
-	private int canPlayerBeBacktracked(Player player) {
-		int howFar = 0;
-		if (!player.getHasBeenBacktracked()) {
-			int[][] pos = player.getPastPositions();
-			howFar = (board.getTileAt(pos[2][0], pos[2][1]).canMoveTo()) ? 1 : 0;
-			howFar = (board.getTileAt(pos[1][0], pos[1][1]).canMoveTo()) ? howFar + 1 : 0;
-		}
-		return howFar;
+	private void setAsBacktrackOption(int x, int y) {
+		boardView.highlight(x, y, backtrackOnClick);
 	}
 
 	/**
 	 * show where can player go
 	 */
 	private void showWay() {
-		int[] pos = getPlayerXYPosition(currentPlayer);
-		Boolean[] moveMask = board.getMovableFrom(pos[0], pos[1]);
+		int[] pos = session.getPlayerXYPosition(session.getCurrentPlayer());
+		Boolean[] moveMask = session.getCurrentPlayerMoves();
 		boolean isThereAWay = false;
 		/*
 		 runs setAsWay on neighbours if they exist and player can move there
@@ -770,57 +878,31 @@ public class LevelController implements Initializable {
 			Alert alert = new Alert(Alert.AlertType.ERROR);
 			alert.setContentText("Unfortunately you have no available moves. You will remain where you are.");
 			alert.showAndWait();
-			if (currentTurnPhase == TurnPhases.MOVEMENT) {
-				endTurn();
+			if (session.getTurnPhase() == GameSession.TurnPhases.MOVEMENT) {
+				session.passMovement();
+				drawingPhase();
 			}
 		}
 	}
 
 	/**
-	 * set tile as way to go
-	 *
-	 * @param x coordinate
-	 * @param y coordinate
+	 * @return true if the current player is choosing a tile to move to
 	 */
-	private void setAsWay(int x, int y) {
-		ImageView chosen = new ImageView(new Image("source/resources/img/chosen_one.png", tileRenderSize, tileRenderSize, false, false));
-		chosen.setOpacity(0.5);
-		StackPane wayTile = getStackPaneTileByXY(x, y);
-		wayTile.getChildren().add(chosen);
-		wayTile.setOnMouseClicked(event -> move(x, y));
+	private boolean isChoosingWay() {
+		// Nobody chooses anything while watching a replay or while the computer thinks
+		return replay == null && !computerThinking && (session.getTurnPhase() == GameSession.TurnPhases.MOVEMENT
+				|| (session.getTurnPhase() == GameSession.TurnPhases.PLAYACTION
+				&& usedAction == ActionTile.ActionType.DOUBLEMOVE));
 	}
 
 	/**
-	 * moves player
+	 * set tile as way to go
 	 *
-	 * @param player Player
-	 * @param x      X-position of new tile to move on
-	 * @param y      X-position of new tile to move on
+	 * @param x coordinate
+	 * @param y coordinate
 	 */
-	private void move(Player player, int x, int y) {
-		player.setStandingOn(board.getTileAt(x, y));
-		player.addToPastPositions(x, y);
-
-		// Check if we moved to a Goal and won. Otherwise continue the phases.
-		if (board.getTileAt(x, y).isItGoal()) {
-			System.out.println("Player " + currentPlayer + " has won.");
-			playerHasWon(currentPlayer);
-			currentTurnPhase = TurnPhases.END;
-			renderBoard();
-		} else {
-			// If we moved in the PLAYACTION phase, that means we just double moved and should just continue
-			// to the normal movement phase.
-			switch (currentTurnPhase) {
-				case PLAYACTION:
-					// If we were moving in the PLAYACTION phase, we just used a DOUBLEMOVE
-					players[currentPlayer].removeAction(usedAction);
-					movementPhase();
-					break;
-				case MOVEMENT:
-					endTurn();
-					break;
-			}
-		}
+	private void setAsWay(int x, int y) {
+		boardView.highlight(x, y, moveOnClick);
 	}
 
 	/**
@@ -830,23 +912,27 @@ public class LevelController implements Initializable {
 	 * @param y X-position of new tile to move on
 	 */
 	private void move(int x, int y) {
-		move(players[currentPlayer], x, y);
-	}
+		// If we moved in the PLAYACTION phase, that means we just double moved and should just continue
+		// to the normal movement phase.
+		if (session.getTurnPhase() == GameSession.TurnPhases.PLAYACTION) {
+			session.playAction(usedAction, x, y);
+		} else {
+			session.move(x, y);
+		}
 
-	/**
-	 * returns tile as stackPane by coordinates
-	 *
-	 * @param col column
-	 * @param row row
-	 * @return StackPane tile
-	 */
-	private StackPane getStackPaneTileByXY(int col, int row) {
-		for (Node node : renderedBoard.getChildren()) {
-			if (GridPane.getColumnIndex(node) == col + 1 && GridPane.getRowIndex(node) == row + 1) {
-				return (StackPane) node;
-			}
+		// Check if we moved to a Goal and won. Otherwise continue the phases.
+		switch (session.getTurnPhase()) {
+			case END:
+				playerHasWon(session.getWinner());
+				renderBoard();
+				break;
+			case MOVEMENT:
+				movementPhase();
+				break;
+			case DRAWING:
+				drawingPhase();
+				break;
 		}
-		return null;
 	}
 
 	/**
@@ -859,9 +945,7 @@ public class LevelController implements Initializable {
 		switch (usedAction) {
 			case FIRE:
 				// Fire will only apply and move the turn phase forward if it is able to be applied.
-				if (board.canSetOnFire(x, y)) {
-					board.setOnFire(x, y);
-					players[currentPlayer].removeAction(usedAction);
+				if (session.playAction(usedAction, x, y)) {
 					movementPhase();
 				} else {
 					Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -870,8 +954,7 @@ public class LevelController implements Initializable {
 				}
 				break;
 			case ICE:
-				board.setFreezeOn(x, y);
-				players[currentPlayer].removeAction(usedAction);
+				session.playAction(usedAction, x, y);
 				movementPhase();
 				break;
 			case BACKTRACK:
@@ -887,110 +970,66 @@ public class LevelController implements Initializable {
 	 * @param y coordinate
 	 */
 	private void handleFloorTileClickAt(int x, int y) {
-		if (currentTurnPhase == TurnPhases.PLAYACTION && usedAction != null) {
+		if (!computerThinking && session.getTurnPhase() == GameSession.TurnPhases.PLAYACTION && usedAction != null) {
 			handleActionClickOn(x, y);
 		}
 
-		System.out.println("This tile's mask is " + Arrays.toString(this.board.getTileAt(x, y).getMoveMask()));
-		System.out.println("From this tile you can move to " + Arrays.toString(this.board.getMovableFrom(x, y)));
+		Board board = session.getBoard();
+		System.out.println("This tile's mask is " + Arrays.toString(board.getTileAt(x, y).getMoveMask()));
+		System.out.println("From this tile you can move to " + Arrays.toString(board.getMovableFrom(x, y)));
 	}
 
 	/**
-	 * renders board
+	 * renders board. Only the cells that changed since the last render are drawn, see BoardView and CanvasBoardView.
 	 */
 	private void renderBoard() {
-		// Clear the old render
-		boardContainer.getChildren().clear();
-
-		renderedBoard = new GridPane();
-		renderedBoard.setAlignment(Pos.CENTER);
-		boardContainer.setMinHeight((board.getHeight() * tileRenderSize) + (2 * tileRenderSize));
-		boardContainer.setMinWidth((board.getWidth() * tileRenderSize) + (2 * tileRenderSize));
-
-		Boolean[][] insertableMask = this.board.getInsertablePositions();
-		Image insertionImage = new Image("source/resources/img/insert_arrow.png", tileRenderSize, tileRenderSize, false, false);
-
-		// If we are in the placement phase (i.e. we have a FloorTile), show some additional buttons
-		if (floorTileToInsert != null) {
-			// Put column buttons (start at 1 since 0,0 is the empty top left spot)
-			for (int x = 1; x <= this.board.getWidth(); x++) {
-				if (insertableMask[0][x - 1]) {
-					int finalX = x - 1;
-
-					ImageView topOfColumn = new ImageView(insertionImage);
-					topOfColumn.setRotate(180);
-					topOfColumn.setOnMouseClicked(event -> {
-						System.out.println("Inserting at direction " + "0" + " at insertion point " + finalX);
-						endPlacementPhase(0, finalX);
-					});
-					renderedBoard.add(topOfColumn, x, 0);
-
-					ImageView bottomOfColumn = new ImageView(insertionImage);
-					bottomOfColumn.setOnMouseClicked(event -> {
-						System.out.println("Inserting at direction " + "2" + " at insertion point " + finalX);
-						endPlacementPhase(2, finalX);
-					});
-					renderedBoard.add(bottomOfColumn, x, this.board.getHeight() + 1);
-				}
-			}
+		Board board = session.getBoard();
+		if (boardView == null) {
+			BoardRenderer.CellMouseHandler onClick = (event, x, y) -> handleFloorTileClickAt(x, y);
+			boardView = CanvasBoardView.isLargeBoard(board) ? new CanvasBoardView(onClick, this::insertAt)
+					: new BoardView(onClick, this::insertAt);
+		}
 
-			// Put row buttons (start at 1)
-			for (int y = 1; y <= this.board.getHeight(); y++) {
-				if (insertableMask[1][y - 1]) {
-					int finalY = y - 1;
-
-					ImageView leftRow = new ImageView(insertionImage);
-					leftRow.setRotate(90);
-					leftRow.setOnMouseClicked(event -> {
-						System.out.println("Inserting at direction " + "3" + " at insertion point " + finalY);
-						endPlacementPhase(3, finalY);
-					});
-					renderedBoard.add(leftRow, 0, y);
-
-					ImageView rightRow = new ImageView(insertionImage);
-					rightRow.setRotate(-90);
-					rightRow.setOnMouseClicked(event -> {
-						System.out.println("Inserting at direction " + "1" + " at insertion point " + finalY);
-						endPlacementPhase(1, finalY);
-					});
-					renderedBoard.add(rightRow, this.board.getWidth() + 1, y);
-				}
-			}
+		if (boardView instanceof CanvasBoardView) {
+			// The canvas scrolls by itself, so it only has to fill the space it is given
+			boardContainer.setMinHeight(Region.USE_COMPUTED_SIZE);
+			boardContainer.setMinWidth(Region.USE_COMPUTED_SIZE);
+		} else {
+			boardContainer.setMinHeight((board.getHeight() * tileRenderSize) + (2 * tileRenderSize));
+			boardContainer.setMinWidth((board.getWidth() * tileRenderSize) + (2 * tileRenderSize));
 		}
 
-		// The actual board render
-		for (int x = 0; x < this.board.getWidth(); x++) {
-			for (int y = 0; y < this.board.getHeight(); y++) {
-				FloorTile current = this.board.getTileAt(x, y);
-				StackPane stack = current.renderTile(tileRenderSize);
-				if ((board.getTileAt(x,y).getPlayer() != null) && (board.getTileAt(x,y).getPlayer().getIdInGame() == currentPlayer)) {
-					Image select = new Image("source/resources/img/player_selected.png", tileRenderSize*0.6, tileRenderSize*0.6, false, false);
-					stack.getChildren().add(new ImageView(select));
-				}
-				int finalX = x;
-				int finalY = y;
-				stack.setOnMouseClicked(event -> {
-					handleFloorTileClickAt(finalX, finalY);
-				});
+		// If we are in the placement phase (i.e. we have a FloorTile), show the insertion arrows
+		// Nothing can be inserted while watching a replay or while the computer thinks
+		boardView.render(board, session.getCurrentPlayer(),
+				session.getFloorTileToInsert() != null && replay == null && !computerThinking, tileRenderSize);
 
-				renderedBoard.add(stack, x + 1, y + 1);
-			}
+		if (!boardContainer.getChildren().contains(boardView.getNode())) {
+			boardContainer.getChildren().setAll(boardView.getNode());
 		}
+	}
 
-		// renderedBoard.setGridLinesVisible(true);
-
-		boardContainer.getChildren().add(renderedBoard);
+	/**
+	 * Called when one of the insertion arrows around the board is clicked.
+	 *
+	 * @param insertionDirection int from 0 to 3 representing the cardinal directions
+	 * @param insertionPoint     int from 0 to max width/height, represents in which row/column to insert into.
+	 */
+	private void insertAt(int insertionDirection, int insertionPoint) {
+		System.out.println("Inserting at direction " + insertionDirection + " at insertion point " + insertionPoint);
+		endPlacementPhase(insertionDirection, insertionPoint);
 	}
 
 	/**
 	 * updates player info
 	 */
 	private void updateSubInfoVBoxes() {
+		Player[] players = session.getPlayers();
 		for (int i = 0; i < playerSubInfoVBoxes.length; i++) {
 			playerSubInfoVBoxes[i].getChildren().clear();
 			String actionAmountText = players[i].getFullActionAmount() == 1 ? " Action Tile" : " Action Tiles";
 			playerSubInfoVBoxes[i].getChildren().add(new Text(players[i].getFullActionAmount() + actionAmountText));
-			if (i == currentPlayer) {
+			if (i == session.getCurrentPlayer()) {
 				Text yourTurn = new Text("Your Turn");
 				yourTurn.setFill(Color.GREEN);
 				yourTurn.setStyle("-fx-font-weight: bold");
@@ -1005,6 +1044,7 @@ public class LevelController implements Initializable {
 	 * tile amount).
 	 */
 	private VBox createPlayerInfoVBox(int playerID) {
+		Player player = session.getPlayers()[playerID];
 		VBox playerVBox = new VBox();
 		HBox playerNameAndIcon = new HBox();
 		VBox playerSubInfoHBox = new VBox();
@@ -1015,8 +1055,10 @@ public class LevelController implements Initializable {
 		playerIcon.setFill(Player.getPlayerColor(playerID));
 
 		Label playerLabel = new Label("Player " + (playerID + 1));
-		if (this.players[playerID].getAssociatedProfile() != null) {
-			playerLabel.setText(this.players[playerID].getAssociatedProfile().getName());
+		if (player.isComputer()) {
+			playerLabel.setText(ComputerPlayer.DISPLAY_NAME + " " + (playerID + 1));
+		} else if (player.getAssociatedProfile() != null) {
+			playerLabel.setText(player.getAssociatedProfile().getName());
 		}
 
 		playerNameAndIcon.getChildren().addAll(playerIcon, playerLabel);
@@ -15,6 +15,7 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
@@ -24,6 +25,7 @@ import source.labyrinth.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -72,6 +74,8 @@ public class LevelEditorController implements Initializable {
 	private EditingState currentState;
 	private FloorTile selectedFloorTile; // A copy of this is placed onto the board
 	private ArrayList<FloorTile> fixedTilesControls = new ArrayList<>();
+	private CanvasBoardView largeBoardView; // Only created once a board is too big for a GridPane
+	private final Tooltip largeBoardTip = new Tooltip();
 
 	// Hashmap for storing silk bag info. The String key is an enum value from FloorTile.FloorType or ActionTile.ActionType
 	private HashMap<String, Integer> silkbagAmounts;
@@ -93,14 +97,48 @@ public class LevelEditorController implements Initializable {
 			fixedTilesControls.add(new FloorTile(2, type, true));
 		}
 
-		LevelData ld = null;
+		// Start with an empty board, the level being edited (if any) is put in once it has been read
+		setLevel(null);
+
+		editingState.selectedToggleProperty().addListener(((observable, oldValue, newValue) -> {
+			RadioButton modeSelected = (RadioButton) editingState.getSelectedToggle();
+			currentState = EditingState.valueOf(modeSelected.getId());
+			System.out.println("Changed currentState to: " + currentState);
+
+			updateBottomContainer();
+			renderBoard();//change ToolTip
+		}));
+
+		currentState = EditingState.BOARD_SIZE;
+		updateBottomContainer();
+		renderBoard();
+
 		if (nextFileToLoad != null) {
-			ld = LevelIO.readDataFile("source/resources/custom_levels/" + nextFileToLoad + ".txt");
-			board = ld.getBoard();
-		} else {
-			board = new Board(0, 0);
+			IOExecutor.onFxThread(LevelCache.getLevelAsync("source/resources/custom_levels/" + nextFileToLoad), ld -> {
+				setLevel(ld);
+				updateBottomContainer();
+				renderBoard();
+			}, error -> {
+				error.printStackTrace();
+				System.out.println("Error reading level file, starting with an empty board");
+				Alert alert = new Alert(Alert.AlertType.ERROR);
+				alert.setTitle("Level could not be loaded");
+				alert.setHeaderText("Starting with an empty board");
+				alert.setContentText(error.getMessage());
+				alert.show();
+			});
 		}
+	}
+
+	/**
+	 * Replace the board, players and silk bag being edited with those of a level.
+	 *
+	 * @param ld Level to edit, null for an empty board
+	 */
+	private void setLevel(LevelData ld) {
+		board = ld != null ? ld.getBoard() : new Board(0, 0);
 
+		playerLocations.clear();
 		if (ld != null) {
 			int[][] previousPlayers = ld.getPlayerStartingPositions();
 			for (int[] playerLocation : previousPlayers) {
@@ -118,19 +156,6 @@ public class LevelEditorController implements Initializable {
 		for (FloorTile.FloorType floorType : FloorTile.FloorType.values()) {
 			silkbagAmounts.put(floorType.name(), (ld != null ? ld.getFloorTileAmount(floorType) : 0));
 		}
-
-		editingState.selectedToggleProperty().addListener(((observable, oldValue, newValue) -> {
-			RadioButton modeSelected = (RadioButton) editingState.getSelectedToggle();
-			currentState = EditingState.valueOf(modeSelected.getId());
-			System.out.println("Changed currentState to: " + currentState);
-
-			updateBottomContainer();
-			renderBoard();//change ToolTip
-		}));
-
-		currentState = EditingState.BOARD_SIZE;
-		updateBottomContainer();
-		renderBoard();
 	}
 
 	/**
@@ -278,7 +303,7 @@ public class LevelEditorController implements Initializable {
 
 	}
 
-	public void textDialogOk(TextInputDialog textDialog) throws IOException {
+	public void textDialogOk(TextInputDialog textDialog) {
 		String fileName = textDialog.getEditor().getText();
 		System.out.println("User gave filename: " + fileName);
 		Alert errorDialog = validateFileName(fileName);
@@ -301,8 +326,7 @@ public class LevelEditorController implements Initializable {
 					if (validateDialog != null) {
 						validateDialog.showAndWait();
 					} else {
-						fileWriter(filePath);
-						confirmDialog.showAndWait();
+						fileWriter(filePath, confirmDialog);
 					}
 				} else {
 					overwriteDialog.close();
@@ -312,8 +336,7 @@ public class LevelEditorController implements Initializable {
 				if (validateDialog != null) {
 					validateDialog.showAndWait();
 				} else {
-					fileWriter(filePath);
-					confirmDialog.showAndWait();
+					fileWriter(filePath, confirmDialog);
 				}
 			}
 		}
@@ -322,11 +345,9 @@ public class LevelEditorController implements Initializable {
 	/**
 	 * Begins the process to save a custom level to file, dealing with level validation, filename validation,
 	 * checking for existing files along the way
-	 *
-	 * @throws IOException If a file error occured
 	 */
 	@FXML
-	public void saveChanges() throws IOException {//removed unused Action event parameter, unexpected problem may happen
+	public void saveChanges() {//removed unused Action event parameter, unexpected problem may happen
 		// If nextFileToLoad is null, it will just be empty, otherwise shows the name of the level we loaded
 		TextInputDialog textDialog = new TextInputDialog(nextFileToLoad);
 
@@ -654,7 +675,7 @@ public class LevelEditorController implements Initializable {
 		int fixedTileImageSize = 64;
 
 		// We'll place this overlay on whatever we have selected, which we will figure out below
-		ImageView chosen = new ImageView(new Image("source/resources/img/chosen_one.png", fixedTileImageSize, fixedTileImageSize, false, false));
+		ImageView chosen = new ImageView(ImageCache.getImage("source/resources/img/chosen_one.png", fixedTileImageSize, fixedTileImageSize));
 		chosen.setOpacity(0.5);
 
 		// Create image buttons for the four types of floor tile
@@ -709,7 +730,7 @@ public class LevelEditorController implements Initializable {
 		}
 
 		// Add a fifth option, which will place an "empty" tile (basically deletion)
-		Image img = new Image("source/resources/img/tile_none.png", fixedTileImageSize, fixedTileImageSize, false, false);
+		Image img = ImageCache.getImage("source/resources/img/tile_none.png", fixedTileImageSize, fixedTileImageSize);
 		StackPane stack = new StackPane(new ImageView(img));
 		stack.setOnMouseClicked(event -> {
 			setSelectedFloorTile(null);
@@ -758,7 +779,7 @@ public class LevelEditorController implements Initializable {
 			}
 
 			// Tile image
-			ImageView tileImg = new ImageView(new Image(imageURL, tileRenderSize, tileRenderSize, false, false));
+			ImageView tileImg = new ImageView(ImageCache.getImage(imageURL, tileRenderSize, tileRenderSize));
 			imgAndControls.getChildren().add(tileImg);
 
 			//helper text
@@ -984,6 +1005,11 @@ public class LevelEditorController implements Initializable {
 	 * Displays the board as a GridPane. Similar to LevelControllers renderBoard.
 	 */
 	private void renderBoard() {
+		if (CanvasBoardView.isLargeBoard(board)) {
+			renderLargeBoard();
+			return;
+		}
+
 		GridPane renderedBoard = new GridPane();
 		renderedBoard.setAlignment(Pos.CENTER);
 		boardContainer.setMinHeight((board.getHeight() * tileRenderSize) + (2 * tileRenderSize));
@@ -1007,7 +1033,7 @@ public class LevelEditorController implements Initializable {
 
 
 				} else {
-					Image img = new Image("source/resources/img/tile_none.png", tileRenderSize, tileRenderSize, false, false);
+					Image img = ImageCache.getImage("source/resources/img/tile_none.png", tileRenderSize, tileRenderSize);
 					ImageView iv = new ImageView(img);
 					stack = new StackPane(iv);
 					//helper text
@@ -1047,7 +1073,7 @@ public class LevelEditorController implements Initializable {
 				showToolTip(relevantStackPane, player2Tip);
 			}
 
-			ImageView playerImage = new ImageView(new Image("source/resources/img/player_default.png", tileRenderSize * playerToTileScale, tileRenderSize * playerToTileScale, false, false));
+			ImageView playerImage = new ImageView(ImageCache.getImage("source/resources/img/player_default.png", tileRenderSize * playerToTileScale, tileRenderSize * playerToTileScale));
 			relevantStackPane.getChildren().add(playerImage);
 
 		});
@@ -1057,14 +1083,68 @@ public class LevelEditorController implements Initializable {
 	}
 
 	/**
-	 * Takes the current board that the user has been editing and saves it to file.
+	 * Displays a board too big for a GridPane on a CanvasBoardView, which only draws the part of the board in view.
+	 */
+	private void renderLargeBoard() {
+		if (largeBoardView == null) {
+			largeBoardView = new CanvasBoardView(this::handleFloorTileClickAt, null);
+			largeBoardView.setStartingPositions(playerLocations);
+			largeBoardView.setOnCellHovered(this::showLargeBoardToolTip);
+			largeBoardView.getNode().setOnMouseExited(event -> largeBoardTip.hide());
+			largeBoardTip.setStyle("-fx-font-size: 16");
+		}
+
+		// The canvas scrolls by itself, so it only has to fill the space it is given
+		boardContainer.setMinHeight(Region.USE_COMPUTED_SIZE);
+		boardContainer.setMinWidth(Region.USE_COMPUTED_SIZE);
+		largeBoardView.render(board, -1, false, tileRenderSize);
+		if (!boardContainer.getChildren().contains(largeBoardView.getNode())) {
+			boardContainer.getChildren().setAll(largeBoardView.getNode());
+		}
+	}
+
+	/**
+	 * Show the same helper text over a large board as renderBoard gives each tile of a GridPane.
+	 *
+	 * @param event Mouse event, used for its position on screen
+	 * @param x X-coord the mouse is over
+	 * @param y Y-coord the mouse is over
+	 */
+	private void showLargeBoardToolTip(MouseEvent event, int x, int y) {
+		String text = null;
+		if (currentState.equals(EditingState.FIXED_TILES)) {
+			if (board.getTileAt(x, y) != null) {
+				text = "Left click - replace tile\n" + "Right click - delete tile\n" + "Middle click - rotate";
+			} else {
+				text = "Left click - place tile";
+			}
+		} else if (currentState.equals(EditingState.PLAYERS)) {
+			text = "Left click - place player";
+			for (int[] location : playerLocations) {
+				if (location[0] == x && location[1] == y) {
+					text = "Right click - delete player";
+				}
+			}
+		}
+
+		if (text != null) {
+			largeBoardTip.setText(text);
+			largeBoardTip.show(largeBoardView.getNode(), event.getScreenX() + 10, event.getScreenY() + 10);
+		} else {
+			largeBoardTip.hide();
+		}
+	}
+
+	/**
+	 * Takes the current board that the user has been editing and saves it to file on the IOExecutor.
 	 *
 	 * @param filename Filename to save to
-	 * @throws IOException If a file error occurs
+	 * @param confirmDialog Shown once the level has been saved
 	 */
 	@FXML
-	private void fileWriter(File filename) throws IOException {
-		FileWriter writer = new FileWriter(filename);
+	private void fileWriter(File filename, Alert confirmDialog) {
+		// Write the level into memory now, so the file holds the board as it was when saved even if editing goes on
+		StringWriter writer = new StringWriter();
 		writer.write(board.getWidth() + "," + board.getHeight() + "\n");
 		writer.write(getCurrentFixedTileAmount() + "\n");
 
@@ -1085,7 +1165,21 @@ public class LevelEditorController implements Initializable {
 		for (String tileType : writeOrder) {
 			writer.write(silkbagAmounts.get(tileType) + "," + tileType + "\n");
 		}
-		writer.close();
+
+		String level = writer.toString();
+		IOExecutor.onFxThread(IOExecutor.file(() -> {
+			try (FileWriter out = new FileWriter(filename)) {
+				out.write(level);
+			}
+			return null;
+		}), done -> confirmDialog.show(), error -> {
+			error.printStackTrace();
+			Alert alert = new Alert(Alert.AlertType.ERROR);
+			alert.setTitle("Level could not be saved");
+			alert.setHeaderText(null);
+			alert.setContentText(error.getMessage());
+			alert.show();
+		});
 	}
 
 
@@ -13,6 +13,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import source.labyrinth.LevelIO;
 
 import java.io.File;
 import java.io.IOException;
@@ -63,7 +64,7 @@ public class LevelEditorMenuController implements Initializable {
 	private void renderLevels() {
 		vboxLevels.getChildren().clear();
 		getLevels().forEach((value) -> {
-			HBox levelHBox = new HBox(new Text(value.substring(0, value.length() - 4)));
+			HBox levelHBox = new HBox(new Text(LevelIO.withoutExtension(value)));
 			levelHBox.setPrefHeight(30);
 			levelHBox.setAlignment(Pos.CENTER_LEFT);
 			levelHBox.setStyle("-fx-border-color: black");
@@ -76,7 +77,7 @@ public class LevelEditorMenuController implements Initializable {
 				}
 
 				selectedHBox = levelHBox;
-				selectedLevel = value.substring(0, value.length() - 4);
+				selectedLevel = LevelIO.withoutExtension(value);
 				System.out.println(selectedLevel);
 
 
@@ -102,13 +103,7 @@ public class LevelEditorMenuController implements Initializable {
 	 * @return ArrayList of strings (which are level names)
 	 */
 	private ArrayList<String> getLevels() {
-		File levelsFiles = new File("./source/resources/custom_levels");
-		ArrayList<String> levels = new ArrayList<>();
-
-		for (File f : Objects.requireNonNull(levelsFiles.listFiles())) {
-			levels.add(f.getName());
-		}
-		return levels;
+		return LevelIO.listLevelFiles(new File("./source/resources/custom_levels"));
 	}
 
 	/**
@@ -124,8 +119,11 @@ public class LevelEditorMenuController implements Initializable {
 
 			Optional<ButtonType> result = alert.showAndWait();
 			if (result.get() == ButtonType.OK) {
-				File delFile = new File("./source/resources/custom_levels/" + selectedLevel + ".txt");
+				File delFile = new File("./source/resources/custom_levels/" + selectedLevel + LevelIO.TEXT_EXTENSION);
 				delFile.delete();
+				File delBinaryFile = new File("./source/resources/custom_levels/" + selectedLevel
+						+ LevelIO.BINARY_EXTENSION);
+				delBinaryFile.delete();
 
 				// avoid to load a deleted file
 				selectedLevel = null;
@@ -23,9 +23,7 @@ import javafx.stage.Stage;
 import source.labyrinth.*;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.net.URL;
 import java.util.*;
 
@@ -159,17 +157,35 @@ public class LevelMenuController implements Initializable {
     }
 
     /**
-     * changeLevelToRender loads file by name and refreshes data about level to preview
-     * @param nextFileToLoad name of file
+     * changeLevelToRender loads file by name on the IOExecutor, then refreshes data about level to preview and
+     * renders it
+     * @param nextFileToLoad name of file, null to preview an empty board
      */
     private void changeLevelToRender(String nextFileToLoad) {
-        LevelData ld = null;
-        if (nextFileToLoad != null) {
-            ld = LevelIO.readDataFile("source/resources/" + nextFileToLoad + ".txt");
-            board = ld.getBoard();
-        } else {
-            board = new Board(0, 0);
+        if (nextFileToLoad == null) {
+            showLevel(null);
+            return;
         }
+        IOExecutor.onFxThread(LevelCache.getLevelAsync("source/resources/" + nextFileToLoad), ld -> {
+            // Another level may have been clicked while this one was read
+            if (nextFileToLoad.equals(selectedLevel)) {
+                showLevel(ld);
+            }
+        }, error -> {
+            error.printStackTrace();
+            System.out.println("Error reading level file, nothing to preview");
+            if (nextFileToLoad.equals(selectedLevel)) {
+                showLevel(null);
+            }
+        });
+    }
+
+    /**
+     * showLevel refreshes data about level to preview and renders it
+     * @param ld level to preview, null to preview nothing
+     */
+    private void showLevel(LevelData ld) {
+        board = ld != null ? ld.getBoard() : new Board(0, 0);
 
         playerLocations.clear();
         if (ld != null) {
@@ -186,6 +202,8 @@ public class LevelMenuController implements Initializable {
         for (FloorTile.FloorType floorType : FloorTile.FloorType.values()) {
             silkbagAmounts.put(floorType.name(), (ld != null ? ld.getFloorTileAmount(floorType) : 0));
         }
+        renderBoard();
+        renderTiles();
     }
 
     /**
@@ -206,7 +224,7 @@ public class LevelMenuController implements Initializable {
                 if (current != null) {
                     stack = current.renderTile(tileRenderSize);
                 } else {
-                    Image img = new Image("source/resources/img/tile_none.png", tileRenderSize, tileRenderSize, false, false);
+                    Image img = ImageCache.getImage("source/resources/img/tile_none.png", tileRenderSize, tileRenderSize);
                     ImageView iv = new ImageView(img);
                     stack = new StackPane(iv);
                 }
@@ -219,7 +237,7 @@ public class LevelMenuController implements Initializable {
             int stackpaneLocation = location[0] * board.getHeight() + location[1];
             StackPane relevantStackPane = (StackPane) renderedBoard.getChildren().get(stackpaneLocation);
 
-            ImageView playerImage = new ImageView(new Image("source/resources/img/player_default.png", tileRenderSize * playerToTileScale, tileRenderSize * playerToTileScale, false, false));
+            ImageView playerImage = new ImageView(ImageCache.getImage("source/resources/img/player_default.png", tileRenderSize * playerToTileScale, tileRenderSize * playerToTileScale));
             relevantStackPane.getChildren().add(playerImage);
         });
 
@@ -235,7 +253,7 @@ public class LevelMenuController implements Initializable {
         silkBagContainer.getChildren().clear();
         for (FloorTile.FloorType ft : FloorTile.FloorType.values()) {
             imageURL = ft.imageURL;
-            ImageView tileImg = new ImageView(new Image(imageURL, 64, 64, false, false));
+            ImageView tileImg = new ImageView(ImageCache.getImage(imageURL, 64, 64));
             StackPane stack = new StackPane(tileImg);
             Text numOfTiles = new Text("" + silkbagAmounts.get(ft.name()));
             numOfTiles.setStyle("-fx-font-weight: bold; -fx-font-size: 26px; -fx-stroke: black; -fx-stroke-width: 1px");
@@ -247,7 +265,7 @@ public class LevelMenuController implements Initializable {
         }
         for (ActionTile.ActionType at : ActionTile.ActionType.values()) {
             imageURL = at.imageURL;
-            ImageView tileImg = new ImageView(new Image(imageURL, 64, 64, false, false));
+            ImageView tileImg = new ImageView(ImageCache.getImage(imageURL, 64, 64));
             StackPane stack = new StackPane(tileImg);
             Text numOfTiles = new Text("" + silkbagAmounts.get(at.name()));
             numOfTiles.setStyle("-fx-font-weight: bold; -fx-font-size: 26px; -fx-stroke: black; -fx-stroke-width: 1px");
@@ -264,11 +282,16 @@ public class LevelMenuController implements Initializable {
      */
     private void renderLeaderBoard() {
         tableView.getItems().clear();
-        try {
-            ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream("./source/resources/leaderboards/" + selectedLevel + "_leaderboard.ser"));
-            HashMap<Integer, Integer> leaderboardInfo = (HashMap<Integer, Integer>) objectInputStream.readObject();
-            objectInputStream.close();
-
+        tableView.setPlaceholder(new Label("Leaderboard is empty"));
+        String level = selectedLevel;
+        if (level == null) {
+            return;
+        }
+        IOExecutor.onFxThread(LevelIO.readLeaderboardAsync(level), leaderboardInfo -> {
+            // Another level may have been clicked while this one was read
+            if (!level.equals(selectedLevel)) {
+                return;
+            }
             ArrayList<Profile> profiles = new ArrayList<>();
             leaderboardInfo.forEach((id, wins) -> {
                 Profile p = ProfileManager.getProfileById(id);
@@ -282,10 +305,7 @@ public class LevelMenuController implements Initializable {
             nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
             winCol.setCellValueFactory(new PropertyValueFactory<>("wins"));
             tableView.getItems().setAll(profiles);
-        } catch (IOException | ClassNotFoundException e) {
-            tableView.setPlaceholder(new Label("Leaderboard is empty"));
-        }
-
+        }, error -> System.out.println("Could not read the leaderboard: " + error.getMessage()));
     }
 
     /**
@@ -294,7 +314,7 @@ public class LevelMenuController implements Initializable {
     private void renderLevels() {
         vboxLevels.getChildren().clear();
         getLevels().forEach((value) -> {
-            HBox levelHBox = new HBox(new Text(value.substring(0, value.length() - 4)));
+            HBox levelHBox = new HBox(new Text(LevelIO.withoutExtension(value)));
             levelHBox.setPrefHeight(30);
             levelHBox.setAlignment(Pos.CENTER_LEFT);
             levelHBox.setStyle("-fx-border-color: black");
@@ -304,13 +324,11 @@ public class LevelMenuController implements Initializable {
                 }
                 selectedHBox = levelHBox;
                 selectedLevel = levelSelect.getSelectionModel().getSelectedIndex() == 0 ? "levels/" : "custom_levels/";
-                selectedLevel += value.substring(0, value.length() - 4);
+                selectedLevel += LevelIO.withoutExtension(value);
                 System.out.println(selectedLevel);
                 levelHBox.setStyle("-fx-border-color: black;-fx-background-color: #c4ffd5;");
                 renderLeaderBoard();
                 changeLevelToRender(selectedLevel);
-                renderBoard();
-                renderTiles();
             });
             vboxLevels.getChildren().addAll(levelHBox);
         });
@@ -325,14 +343,20 @@ public class LevelMenuController implements Initializable {
         ArrayList<Profile> profiles = ProfileManager.getProfiles();
         profileNames = new ArrayList<>();
         profiles.forEach(profile -> profileNames.add(profile.getName()));
+        // Any amount of slots can be filled by the computer, so it is never taken out of the other choice boxes
+        profileNames.add(ComputerPlayer.DISPLAY_NAME);
 
         for (int i = 0; i < numberOfPlayers; i++) {
             ChoiceBox<String> pChoiceBox = new ChoiceBox<>();
             pChoiceBox.setPrefWidth(250);
             pChoiceBox.getItems().addAll(profileNames);
 
-            profilesChosen.forEach(prof -> pChoiceBox.getItems().remove(prof));
-            if (profilesChosen.size() > i) {
+            profilesChosen.forEach(prof -> {
+                if (!prof.equals(ComputerPlayer.DISPLAY_NAME)) {
+                    pChoiceBox.getItems().remove(prof);
+                }
+            });
+            if (profilesChosen.size() > i && !profilesChosen.get(i).equals(ComputerPlayer.DISPLAY_NAME)) {
                 pChoiceBox.getItems().addAll(profilesChosen.get(i));
             }
             if (profilesChosen.size() > i) {
@@ -364,10 +388,6 @@ public class LevelMenuController implements Initializable {
         } else {
             levelsFiles = new File("./source/resources/custom_levels");
         }
-        ArrayList<String> levels = new ArrayList<>();
-        for (File f : Objects.requireNonNull(levelsFiles.listFiles())) {
-            levels.add(f.getName());
-        }
-        return levels;
+        return LevelIO.listLevelFiles(levelsFiles);
     }
 }
@@ -10,6 +10,7 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
+import source.labyrinth.IOExecutor;
 import source.labyrinth.MessageOfTheDay;
 import source.labyrinth.ProfileManager;
 
@@ -130,6 +131,11 @@ public class MainMenuController {//extends Application (original)
 
 	@FXML
 	private void initialize() {
-		motd.setText(MessageOfTheDay.getMessageOfTheDay());
+		// The website can be slow, so the menu is shown while waiting for it
+		motd.setText("Loading the message of the day...");
+		IOExecutor.onFxThread(MessageOfTheDay.getMessageOfTheDayAsync(), motd::setText, error -> {
+			System.out.println("Could not get the message of the day: " + error.getMessage());
+			motd.setText("The message of the day could not be loaded.");
+		});
 	}
 }
@@ -8,23 +8,23 @@ import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.TextArea;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import source.labyrinth.*;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.net.URL;
+import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -49,9 +49,9 @@ public class SaveMenuController implements Initializable {
 	@FXML
 	private HBox silkBagContainer;
 
-	private Player[] players;
-	private Board board;
-	private int tileRenderSize;
+	// Size the thumbnail of a save is drawn at, at most
+	private static final int THUMBNAIL_RENDER_SIZE = 360;
+	private static final int MAX_THUMBNAIL_TILE_SIZE = 40;
 
 
 	@Override
@@ -60,63 +60,106 @@ public class SaveMenuController implements Initializable {
 		System.out.println("Created SaveMenuController");
 	}
 	/**
-	 * setupFromSaveFile will refresh data about save for preview
+	 * setupFromSaveFile will refresh data about save for preview. Only the summary of the save is used, so the
+	 * save itself is not read until it is loaded.
 	 *
 	 * @param saveName The file name of the save file
 	 */
 	private void setupFromSaveFile(String saveName) {
-		FileInputStream fis;
-		ObjectInputStream objectInputStream;
-		try {
-			fis = new FileInputStream("source/resources/saves/" + saveName);
-			objectInputStream = new ObjectInputStream(fis);
-
-			int currentTime = (int) objectInputStream.readObject();
-			String currentLevelName = (String) objectInputStream.readObject();
-			this.players = (Player[]) objectInputStream.readObject();
-			int currentPlayer = (int) objectInputStream.readObject();
-			this.board = (Board) objectInputStream.readObject();
-			FloorTile floorTileToInsert = (FloorTile) objectInputStream.readObject();
-			Object currentTurnPhase = objectInputStream.readObject();
-			SilkBag.setEntireBag((LinkedList<Tile>) objectInputStream.readObject());
-
-			renderBoard();
-
-			objectInputStream.close();
-
-		} catch (IOException | ClassNotFoundException e) {
-			e.printStackTrace();
+		SaveSummary summary = SaveCatalogue.getSummary(saveName);
+		if (summary == null) {
 			System.out.println("Error reading save file");
+			return;
 		}
+
+		String details = "Save Name:\n" + saveName
+				+ "\n\nLevel:\n" + summary.getLevelName()
+				+ "\n\nSaved:\n" + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(summary.getSavedAt()))
+				+ "\n\nTime: " + summary.getCurrentTime()
+				+ "\nBoard: " + summary.getWidth() + " x " + summary.getHeight()
+				+ "\n\nPlayers:";
+		int[] profileIDs = summary.getProfileIDs();
+		for (int i = 0; i < profileIDs.length; i++) {
+			// Named the same way as in the game
+			Profile profile = ProfileManager.getProfileById(profileIDs[i]);
+			if (profileIDs[i] == Player.COMPUTER_PROFILE_ID) {
+				details += "\n" + ComputerPlayer.DISPLAY_NAME + " " + (i + 1);
+			} else if (profile != null) {
+				details += "\n" + profile.getName();
+			} else {
+				details += "\nPlayer " + (i + 1);
+			}
+			if (i == summary.getCurrentPlayer()) {
+				details += " (to play)";
+			}
+		}
+		details += "\n\nSave location:\n" + new File(SaveIO.SAVE_FOLDER + saveName).getAbsolutePath();
+		saveDetailTextArea.setText(details);
+
+		renderThumbnail(summary);
 	}
+
 	/**
-	 * renderBoard renders board with players
+	 * Draw the thumbnail of a save, with the players on it.
+	 *
+	 * @param summary Summary of the save
 	 */
-	private void renderBoard() {
+	private void renderThumbnail(SaveSummary summary) {
 		boardContainer.getChildren().clear();
+		int longestSide = Math.max(summary.getThumbnailWidth(), summary.getThumbnailHeight());
+		if (longestSide == 0) {
+			return;
+		}
+		int tileSize = Math.min(MAX_THUMBNAIL_TILE_SIZE, THUMBNAIL_RENDER_SIZE / longestSide);
 
-		GridPane renderedBoard = new GridPane();
-		renderedBoard.setAlignment(Pos.CENTER);
-		boardContainer.setMinHeight((board.getHeight() * tileRenderSize) + (2 * tileRenderSize));
-		boardContainer.setMinWidth((board.getWidth() * tileRenderSize) + (2 * tileRenderSize));
-		// The actual board render
-		for (int x = 0; x < this.board.getWidth(); x++) {
-			for (int y = 0; y < this.board.getHeight(); y++) {
-				FloorTile current = this.board.getTileAt(x, y);
-				StackPane stack = current.renderTile(tileRenderSize);
-				renderedBoard.add(stack, x + 1, y + 1);
+		Player[] players = new Player[summary.getProfileIDs().length];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new Player(i, summary.getProfileIDs()[i]);
+		}
+
+		Canvas thumbnail = new Canvas(summary.getThumbnailWidth() * tileSize, summary.getThumbnailHeight() * tileSize);
+		GraphicsContext gc = thumbnail.getGraphicsContext2D();
+		for (int x = 0; x < summary.getThumbnailWidth(); x++) {
+			for (int y = 0; y < summary.getThumbnailHeight(); y++) {
+				int cell = summary.getThumbnailCell(x, y);
+				if (PackedBoard.isPresent(cell)) {
+					FloorTile tile = new FloorTile(PackedBoard.getOrientation(cell), PackedBoard.getFloorType(cell),
+							PackedBoard.isFixed(cell));
+					tile.setBonusAction(PackedBoard.getBonusAction(cell));
+					if (PackedBoard.getOccupant(cell) != -1) {
+						tile.setPlayer(players[PackedBoard.getOccupant(cell)]);
+					}
+					tile.drawTile(gc, x * tileSize, y * tileSize, tileSize);
+				}
 			}
 		}
-		boardContainer.getChildren().add(renderedBoard);
+		boardContainer.getChildren().add(thumbnail);
 	}
 
 	/**
-	 * Shows every found save file.
+	 * Shows every found save file, newest first. The saves are listed on the IOExecutor, once when the menu is shown
+	 * and again after a save is deleted.
 	 */
 	private void showSaveFile() {
 		vboxSaves.getChildren().clear();
-		getSaves().forEach((savName) -> {
-			HBox saveFile = new HBox(new Text(savName.substring(0, savName.length() - 4)));
+		vboxSaves.getChildren().add(new Text("Loading saves..."));
+		IOExecutor.onFxThread(SaveCatalogue.getSaveNamesAsync(), this::showSaves, error -> {
+			error.printStackTrace();
+			System.out.println("Could not list the saves");
+		});
+	}
+
+	/**
+	 * Shows the given save files.
+	 *
+	 * @param saveNames File names of the saves, in the order to show them in
+	 */
+	private void showSaves(ArrayList<String> saveNames) {
+		vboxSaves.getChildren().clear();
+		saveNames.forEach((savName) -> {
+			SaveSummary summary = SaveCatalogue.getSummary(savName);
+			HBox saveFile = new HBox(new Text(savName.substring(0, savName.lastIndexOf('.')) + " - "
+					+ summary.getLevelName()));
 
 			saveFile.setPrefHeight(30);
 			saveFile.setAlignment(Pos.CENTER_LEFT);
@@ -129,13 +172,6 @@ public class SaveMenuController implements Initializable {
 
 				System.out.println(savName);
 
-				File levelsFiles = new File("./source/resources/saves");
-				for (File f : Objects.requireNonNull(levelsFiles.listFiles())) {
-					if (savName.equals(f.getName()))
-						saveDetailTextArea.setText("Save Name:\n" + f.getName() + "\n\nSave location:\n" + f.getAbsolutePath());
-				}
-
-
 				if (selectedSaveHBox != null) {
 					selectedSaveHBox.setStyle("-fx-border-color: #c4fffd");
 				}
@@ -149,20 +185,6 @@ public class SaveMenuController implements Initializable {
 		});
 	}
 
-	/**
-	 * Get a list of all saves.
-	 *
-	 * @return ArrayList of save files
-	 */
-	private ArrayList<String> getSaves() {
-		File actual = new File("./source/resources/saves");
-		ArrayList<String> saves = new ArrayList<>();
-		for (File save : Objects.requireNonNull(actual.listFiles())) {
-			saves.add(save.getName());
-		}
-		return saves;
-	}
-
 	/**
 	 * Goes to the main menu.
 	 *
@@ -198,14 +220,7 @@ public class SaveMenuController implements Initializable {
 
 			Optional<ButtonType> result = alert.showAndWait();
 			if (result.get() == ButtonType.OK) {
-				File delFile = new File("./source/resources/saves/" + selectedSaveName);
-				delFile.delete();
-
-				Alert deleted = new Alert(Alert.AlertType.INFORMATION);
-				deleted.setTitle("Delete Save");
-				deleted.setHeaderText("File deleted");
-				deleted.setContentText("File " + selectedSaveName + " deleted");
-				deleted.showAndWait();
+				String deletedSaveName = selectedSaveName;
 
 				// avoid to load a deleted file
 				selectedSaveName = null;
@@ -213,7 +228,14 @@ public class SaveMenuController implements Initializable {
 
 				deleteSaveButton.setDisable(true);
 				loadSaveButton.setDisable(true);
-				showSaveFile();//refresh the saveData list
+				IOExecutor.onFxThread(SaveCatalogue.deleteSaveAsync(deletedSaveName), wasDeleted -> {
+					Alert deleted = new Alert(Alert.AlertType.INFORMATION);
+					deleted.setTitle("Delete Save");
+					deleted.setHeaderText(wasDeleted ? "File deleted" : "File not deleted");
+					deleted.setContentText("File " + deletedSaveName + (wasDeleted ? " deleted" : " could not be deleted"));
+					deleted.show();
+					showSaveFile();//refresh the saveData list
+				}, Throwable::printStackTrace);
 			} else {
 				System.out.println("Delete Cancelled");
 			}
@@ -239,19 +261,50 @@ public class SaveMenuController implements Initializable {
 			Optional<ButtonType> result = alert.showAndWait();
 			if (result.get() == ButtonType.OK) {
 				LevelController.setNextSaveToLoad(selectedSaveName);
-				try {
-					Parent profileMenuParent = FXMLLoader.load(getClass().getResource("../../resources/scenes/level.fxml"));
-					Scene profileMenuScene = new Scene(profileMenuParent);
-					Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
-					window.setScene(profileMenuScene);
-					window.setTitle("Game");
-					window.show();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
+				goToLevel(event, "Game");
 			} else {
 				System.out.println("Load Cancelled");
 			}
 		}
 	}
+
+	/**
+	 * Choose a replay of a game and watch it.
+	 *
+	 * @param event Event to find current window.
+	 */
+	@FXML
+	public void watchReplay(ActionEvent event) {
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Watch Replay");
+		chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Replays", "*" + Replay.REPLAY_EXTENSION));
+		File replayFolder = new File(Replay.REPLAY_FOLDER);
+		if (replayFolder.isDirectory()) {
+			chooser.setInitialDirectory(replayFolder);
+		}
+		File replayFile = chooser.showOpenDialog(((Node) event.getSource()).getScene().getWindow());
+		if (replayFile != null) {
+			LevelController.setNextReplayToWatch(replayFile.getPath());
+			goToLevel(event, "Replay");
+		}
+	}
+
+	/**
+	 * Go to the level scene, which plays the save or replay given to LevelController.
+	 *
+	 * @param event Event to find current window.
+	 * @param title Title of the window
+	 */
+	private void goToLevel(ActionEvent event, String title) {
+		try {
+			Parent profileMenuParent = FXMLLoader.load(getClass().getResource("../../resources/scenes/level.fxml"));
+			Scene profileMenuScene = new Scene(profileMenuParent);
+			Stage window = (Stage) ((Node) event.getSource()).getScene().getWindow();
+			window.setScene(profileMenuScene);
+			window.setTitle(title);
+			window.show();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
 }
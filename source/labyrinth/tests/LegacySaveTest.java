@@ -0,0 +1,141 @@
+package source.labyrinth.tests;
+
+import source.labyrinth.ActionTile;
+import source.labyrinth.Board;
+import source.labyrinth.FloorTile;
+import source.labyrinth.GameSession;
+import source.labyrinth.SaveCatalogue;
+import source.labyrinth.SaveIO;
+import source.labyrinth.SaveSummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * LegacySaveTest loads a save serialized by the game before SaveIO existed and checks the game comes back as it was
+ * and is listed in the save menu.
+ * The save is on the 2Goal level, at time 7 with player 1 about to insert a T-shaped tile that was saved in
+ * orientation 4. Player 0 stands on (1, 0) and player 1 on its start (6, 0) with one fire and one double move.
+ * The 3 x 3 area from (4, 2) is on fire until time 11, the area from (0, 3) frozen until time 9, and (2, 5) holds a
+ * straight tile that was saved in orientation 4.
+ * Run it from the project folder with the JavaFX jars on the class path, like the game. Exits with 1 if a check fails.
+ * @author Fillip Serov
+ */
+public class LegacySaveTest {
+	private static final String FIXTURE = "source/resources/tests/legacy_save.ser";
+
+	private static int failures = 0;
+
+	/**
+	 * @param args Not used
+	 * @throws IOException If the save could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		loadsGameState();
+		listsSave();
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed.");
+			System.exit(1);
+		}
+		System.out.println("All checks passed.");
+	}
+
+	/**
+	 * The players, turn, clock, effects and tiles of the save are all restored.
+	 * @throws IOException If the save could not be read
+	 */
+	private static void loadsGameState() throws IOException {
+		GameSession session = SaveIO.readSave(FIXTURE);
+		Board board = session.getBoard();
+
+		check(session.getLevelName().equals("levels/2Goal"), "level name");
+		check(session.getCurrentTime() == 7, "current time");
+		check(session.getCurrentPlayer() == 1, "current player");
+		check(session.getTurnPhase() == GameSession.TurnPhases.PLACEMENT, "turn phase");
+		check(session.getPlayers().length == 2, "amount of players");
+		check(session.getSilkBag().size() == 25, "silk bag");
+
+		check(positionIs(session.getPlayerXYPosition(0), 1, 0), "position of player 0");
+		check(positionIs(session.getPlayerXYPosition(1), 6, 0), "position of player 1");
+		check(board.getTileAt(1, 0).getPlayer() == session.getPlayers()[0], "player 0 is on their tile");
+		check(session.getPlayers()[1].getActionAmount(ActionTile.ActionType.FIRE) == 1, "fire of player 1");
+		check(session.getPlayers()[1].getActionAmount(ActionTile.ActionType.DOUBLEMOVE) == 1, "double move of player 1");
+
+		FloorTile toInsert = session.getFloorTileToInsert();
+		check(toInsert.getFloorType() == FloorTile.FloorType.TSHAPE, "type of tile to insert");
+		check(toInsert.getOrientation() == 0, "orientation 4 of tile to insert becomes 0");
+		check(toInsert.getMoveBits() == FloorTile.getMoveBits(FloorTile.FloorType.TSHAPE, 0), "moves of tile to insert");
+		FloorTile straight = board.getTileAt(2, 5);
+		check(straight.getOrientation() == 0, "orientation 4 of board tile becomes 0");
+		check(straight.getMoveBits() == (FloorTile.NORTH | FloorTile.SOUTH), "moves of board tile");
+
+		check(board.getTileAt(5, 3).isOnFire() && board.getTileAt(5, 3).getMoveBits() == 0, "fire");
+		check(!board.getTileAt(3, 3).isOnFire(), "no fire outside the area");
+		check(board.getTileAt(1, 4).isFrozen() && !board.getTileAt(3, 4).isFrozen(), "ice");
+		check(!session.canInsertAt(0, 1) && !session.canInsertAt(1, 3), "frozen lines cannot be inserted into");
+		check(session.canInsertAt(0, 4) && session.canInsertAt(1, 1), "other lines can be inserted into");
+
+		// Tiles that were in orientation 4 rotate like they were in 0
+		session.rotateTileToInsert(-1);
+		check(toInsert.getOrientation() == 3, "rotating the tile to insert back from 0");
+		session.rotateTileToInsert(1);
+		session.rotateTileToInsert(1);
+		check(toInsert.getOrientation() == 1, "rotating the tile to insert on from 0");
+		session.insert(0, 4);
+		check(session.getTurnPhase() == GameSession.TurnPhases.PLAYACTION, "game goes on after loading");
+	}
+
+	/**
+	 * The save is listed by the SaveCatalogue with a summary.
+	 * @throws IOException If the save could not be copied
+	 */
+	private static void listsSave() throws IOException {
+		File folder = Files.createTempDirectory("labyrinth-saves").toFile();
+		File save = new File(folder, "legacy.ser");
+		Files.copy(new File(FIXTURE).toPath(), save.toPath());
+		try {
+			SaveCatalogue.setSaveFolder(folder);
+			check(SaveCatalogue.getSaveNames().contains(save.getName()), "save is listed");
+			SaveSummary summary = SaveCatalogue.getSummary(save.getName());
+			check(summary != null, "save has a summary");
+			if (summary != null) {
+				check(summary.getLevelName().equals("levels/2Goal"), "level name of summary");
+				check(summary.getTurnPhase() == GameSession.TurnPhases.PLACEMENT, "turn phase of summary");
+				check(summary.getCurrentTime() == 7, "current time of summary");
+			}
+		} finally {
+			SaveCatalogue.setSaveFolder(new File(SaveIO.SAVE_FOLDER));
+			File[] files = folder.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			folder.delete();
+		}
+	}
+
+	/**
+	 * @param position (x, y) position
+	 * @param x Expected x
+	 * @param y Expected y
+	 * @return true if position is (x, y)
+	 */
+	private static boolean positionIs(int[] position, int x, int y) {
+		return position != null && position[0] == x && position[1] == y;
+	}
+
+	/**
+	 * Print a failed check and count it.
+	 * @param passed Whether the check passed
+	 * @param what What was checked
+	 */
+	private static void check(boolean passed, String what) {
+		if (!passed) {
+			System.out.println("FAILED: " + what);
+			failures++;
+		}
+	}
+}
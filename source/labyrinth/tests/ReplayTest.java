@@ -0,0 +1,166 @@
+package source.labyrinth.tests;
+
+import source.labyrinth.ActionTile;
+import source.labyrinth.Board;
+import source.labyrinth.FloorTile;
+import source.labyrinth.GameJournal;
+import source.labyrinth.GameSession;
+import source.labyrinth.IOExecutor;
+import source.labyrinth.LevelData;
+import source.labyrinth.Replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * ReplayTest records short games in a replay and checks the replay counts their turns and seeks through them the
+ * same way, whether the game was won by moving onto the goal or part way through a turn by a double move.
+ * Both games are played on a 3 x 2 board of fixed tiles with only double moves in the silk bag. The top row is two
+ * east - west straight tiles and the goal, the bottom row is closed off. Player 0 starts at (0, 0) and player 1 at
+ * (0, 1), where they can never move.
+ * Player 0 moves to (1, 0), player 1 passes, then player 0 reaches the goal at (2, 0), with the double move drawn in
+ * their first turn or by moving.
+ * Run it from the project folder with the JavaFX jars on the class path, like the game. Exits with 1 if a check fails.
+ * @author Fillip Serov
+ */
+public class ReplayTest {
+	// Turns of both games: player 0 moving to B, player 1 passing and player 0 reaching the goal
+	private static final int TURNS = 3;
+
+	private static int failures = 0;
+
+	/**
+	 * @param args Not used
+	 * @throws IOException If a replay could not be written or played
+	 */
+	public static void main(String[] args) throws IOException {
+		File folder = Files.createTempDirectory("labyrinth-replays").toFile();
+		try {
+			checkReplay(recordGame(folder, "double_move", true), "won by a double move");
+			checkReplay(recordGame(folder, "move", false), "won by a move");
+		} finally {
+			File[] files = folder.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			folder.delete();
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " checks failed.");
+			System.exit(1);
+		}
+		System.out.println("All checks passed.");
+	}
+
+	/**
+	 * Play the game described in the class comment, keeping a replay of it.
+	 * @param folder Folder to put the journal and replay in
+	 * @param name Name of the files
+	 * @param doubleMove true to reach the goal with the double move, false to skip the action and move onto it
+	 * @return Path of the replay
+	 */
+	private static String recordGame(File folder, String name, boolean doubleMove) {
+		GameSession session = new GameSession(level(), "tests/replay", new int[]{-1, -1}, new Random(1));
+		String replayFile = new File(folder, name + Replay.REPLAY_EXTENSION).getPath();
+		GameJournal journal = GameJournal.start(session, new File(folder, name + GameJournal.JOURNAL_EXTENSION).getPath(),
+				replayFile);
+
+		session.draw();
+		session.skipAction();
+		session.move(1, 0);
+
+		session.draw();
+		session.skipAction();
+		session.passMovement();
+
+		session.draw();
+		if (doubleMove) {
+			session.playAction(ActionTile.ActionType.DOUBLEMOVE, 2, 0);
+		} else {
+			session.skipAction();
+			session.move(2, 0);
+		}
+		check(session.getWinner() == 0, name + ": player 0 wins the recorded game");
+
+		journal.stop();
+		// The replay is written on the IOExecutor, so wait for it
+		IOExecutor.file(() -> null).join();
+		return replayFile;
+	}
+
+	/**
+	 * Check the turns of a replay of the game, stepping through it and seeking both ways.
+	 * @param replayFile Path of the replay
+	 * @param game How the game was won, for failed checks
+	 * @throws IOException If the replay could not be read or played
+	 */
+	private static void checkReplay(String replayFile, String game) throws IOException {
+		Replay replay = Replay.read(replayFile);
+		check(replay.getTurnCount() == TURNS, game + ": turn count is " + replay.getTurnCount());
+
+		int turns = 0;
+		while (replay.stepTurn()) {
+			turns++;
+		}
+		check(turns == TURNS && replay.getTurn() == TURNS, game + ": stepping plays " + turns + " turns");
+		check(replay.isFinished() && replay.getSession().getWinner() == 0, game + ": stepping plays the win");
+
+		replay = Replay.read(replayFile);
+		replay.seek(TURNS);
+		check(replay.isFinished() && replay.getSession().getWinner() == 0, game + ": seeking to the end plays the win");
+
+		replay.seek(1);
+		GameSession session = replay.getSession();
+		check(session.getTurnPhase() == GameSession.TurnPhases.DRAWING && session.getCurrentPlayer() == 1,
+				game + ": seeking back to turn 1");
+		replay.seek(TURNS - 1);
+		check(!replay.isFinished() && replay.getSession().getWinner() == -1
+				&& replay.getSession().getCurrentPlayer() == 0, game + ": seeking to the start of the last turn");
+		replay.seek(TURNS);
+		check(replay.isFinished() && replay.getTurn() == TURNS && replay.getSession().getWinner() == 0,
+				game + ": seeking to the end again");
+	}
+
+	/**
+	 * @return The level described in the class comment
+	 */
+	private static LevelData level() {
+		Board board = new Board(3, 2);
+		// Orientation 1 turns a straight tile east - west
+		board.setTileAt(new FloorTile(1, FloorTile.FloorType.STRAIGHT, true), 0, 0);
+		board.setTileAt(new FloorTile(1, FloorTile.FloorType.STRAIGHT, true), 1, 0);
+		board.setTileAt(new FloorTile(0, FloorTile.FloorType.GOAL, true), 2, 0);
+		// (0, 1) only opens to the east, where its neighbour is closed
+		board.setTileAt(new FloorTile(1, FloorTile.FloorType.STRAIGHT, true), 0, 1);
+		board.setTileAt(new FloorTile(0, FloorTile.FloorType.STRAIGHT, true), 1, 1);
+		board.setTileAt(new FloorTile(0, FloorTile.FloorType.STRAIGHT, true), 2, 1);
+
+		LevelData level = new LevelData();
+		level.setBoard(board);
+		level.setPlayerStartingPositions(new int[][]{{0, 0}, {0, 1}});
+		for (FloorTile.FloorType floorType : FloorTile.FloorType.values()) {
+			level.setFloorTileAmount(floorType, 0);
+		}
+		for (ActionTile.ActionType actionType : ActionTile.ActionType.values()) {
+			level.setActionTileAmount(actionType, actionType == ActionTile.ActionType.DOUBLEMOVE ? 4 : 0);
+		}
+		return level;
+	}
+
+	/**
+	 * Print a failed check and count it.
+	 * @param passed Whether the check passed
+	 * @param what What was checked
+	 */
+	private static void check(boolean passed, String what) {
+		if (!passed) {
+			System.out.println("FAILED: " + what);
+			failures++;
+		}
+	}
+}